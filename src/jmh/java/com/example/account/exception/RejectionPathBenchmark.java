@@ -0,0 +1,80 @@
+package com.example.account.exception;
+
+import com.example.account.dto.ErroeResponse;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * 잘못된 요청이 거절되는 경로(예외 생성 -> 핸들러 -> 응답)의 비용을 잰다.
+ * 기존 경로(stack trace 를 채우는 예외, 매번 error 로그, 매번 새 응답)와 지금 경로를 같은 metric 집계까지 넣어 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RejectionPathBenchmark {
+
+  private GlobalExceptionHandler handler;
+  private LegacyExceptionHandler legacyHandler;
+
+  @Setup
+  public void setUp() {
+    handler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+    legacyHandler = new LegacyExceptionHandler(new SimpleMeterRegistry());
+  }
+
+  @Benchmark
+  public ResponseEntity<ErroeResponse> stacklessRejection() {
+    try {
+      throw new AccountException(ErrorCode.BALANCE_NOT_ENOUGH);
+    } catch (AccountException e) {
+      return handler.handleAccountException(e);
+    }
+  }
+
+  @Benchmark
+  public ErroeResponse stackTraceRejection() {
+    try {
+      throw new StackTraceAccountException(ErrorCode.BALANCE_NOT_ENOUGH);
+    } catch (StackTraceAccountException e) {
+      return legacyHandler.handleAccountException(e);
+    }
+  }
+
+  // 기존 방식: stack trace 를 채운다.
+  private static class StackTraceAccountException extends RuntimeException {
+    private final ErrorCode errorCode;
+
+    private StackTraceAccountException(ErrorCode errorCode) {
+      super(errorCode.getDescription());
+      this.errorCode = errorCode;
+    }
+  }
+
+  // 기존 GlobalExceptionHandler: 거절마다 error 로그를 남기고 응답을 새로 만든다.
+  private static class LegacyExceptionHandler {
+    private static final Logger log = LoggerFactory.getLogger(LegacyExceptionHandler.class);
+    private final MeterRegistry meterRegistry;
+
+    private LegacyExceptionHandler(MeterRegistry meterRegistry) {
+      this.meterRegistry = meterRegistry;
+    }
+
+    private ErroeResponse handleAccountException(StackTraceAccountException e) {
+      log.error("AccountException {} is occurred", e.errorCode);
+      meterRegistry.counter("account.errors", "errorCode", e.errorCode.name()).increment();
+      return new ErroeResponse(e.errorCode, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package com.example.account.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 떠 있는 애플리케이션에 같은 수의 동시 요청을 걸어 두고 /transaction/use 와 /async/transaction/use 를 비교한다.
+ * 가상 사용자 concurrency 명이 응답을 받자마자 다음 요청을 보낸다 (closed loop). 두 경로 모두 승인 대기가 3초라서
+ * 동시 요청 수가 Tomcat 스레드 수(기본 200)를 넘으면 동기 경로는 대기열에서 기다리는 시간이 latency 에 더해진다.
+ * 사용자 1~3 에게 한도만큼 계좌를 열어 요청을 나눠 보낸다.
+ *
+ * <pre>
+ * ./gradlew bootRun --args='--spring.profiles.active=local'
+ * ./gradlew loadComparison -Pload.concurrency=2000 -Pload.duration-seconds=60
+ * </pre>
+ *
+ * 가상 스레드 모드는 같은 경로를 앱 설정만 바꿔 비교한다. 요청 스레드가 승인 대기 동안 carrier 를 놓아주므로
+ * 동기 경로도 Tomcat 스레드 수에 묶이지 않는다 (max-connections 기본 8192 와 DB 연결 풀이 묶는다).
+ *
+ * <pre>
+ * ./gradlew bootRun -PjavaVersion=21 --args='--spring.threads.virtual.enabled=true'
+ * ./gradlew loadComparison -Pload.concurrency=5000 -Pload.paths=/transaction/use
+ * ./gradlew bootRun --args='--spring.threads.virtual.enabled=false'
+ * ./gradlew loadComparison -Pload.concurrency=5000 -Pload.paths=/transaction/use
+ * </pre>
+ *
+ * 인자: [--base-url http://localhost:8080] [--concurrency N] [--duration-seconds N]
+ * [--paths /transaction/use,/async/transaction/use]
+ */
+public class UseLoadComparison {
+  private static final long INITIAL_BALANCE = 1_000_000_000L;
+
+  private final HttpClient httpClient = HttpClient.newBuilder()
+      .connectTimeout(Duration.ofSeconds(5))
+      .build();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final String baseUrl;
+
+  private UseLoadComparison(String baseUrl) {
+    this.baseUrl = baseUrl;
+  }
+
+  public static void main(String[] args) throws Exception {
+    String baseUrl = option(args, "--base-url", "http://localhost:8080");
+    int concurrency = Integer.parseInt(option(args, "--concurrency", "1000"));
+    int durationSeconds = Integer.parseInt(option(args, "--duration-seconds", "60"));
+    List<String> paths = List.of(
+        option(args, "--paths", "/transaction/use,/async/transaction/use").split(","));
+
+    UseLoadComparison comparison = new UseLoadComparison(baseUrl);
+    List<String[]> accounts = comparison.openAccounts();
+    if (accounts.isEmpty()) {
+      throw new IllegalStateException("No account could be opened on " + baseUrl);
+    }
+    System.out.printf("%d accounts, %d concurrent users, %d s per path%n",
+        accounts.size(), concurrency, durationSeconds);
+    for (String path : paths) {
+      comparison.run(path, accounts, concurrency, TimeUnit.SECONDS.toNanos(durationSeconds));
+    }
+  }
+
+  // [userId, accountNumber]. 사용자마다 더 열 수 없을 때까지 연다.
+  private List<String[]> openAccounts() throws Exception {
+    List<String[]> accounts = new ArrayList<>();
+    for (long userId = 1; userId <= 3; userId++) {
+      while (true) {
+        HttpResponse<String> response = httpClient.send(post("/account",
+                "{\"userId\":" + userId + ",\"initialBalance\":" + INITIAL_BALANCE + "}"),
+            HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+          break;
+        }
+        JsonNode body = objectMapper.readTree(response.body());
+        accounts.add(new String[]{String.valueOf(userId), body.get("accountNumber").asText()});
+      }
+    }
+    return accounts;
+  }
+
+  private void run(String path, List<String[]> accounts, int concurrency, long durationNanos)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + durationNanos;
+    ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+    Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    CountDownLatch finished = new CountDownLatch(concurrency);
+    AtomicInteger next = new AtomicInteger();
+    long startedAt = System.nanoTime();
+    for (int i = 0; i < concurrency; i++) {
+      send(path, accounts, next, deadline, latencies, outcomes, finished);
+    }
+    finished.await();
+    double elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+
+    List<Long> sorted = new ArrayList<>(latencies);
+    Collections.sort(sorted);
+    System.out.printf("%-24s %8d done, %8.1f req/s, p50 %6d ms, p99 %6d ms, %s%n",
+        path, sorted.size(), sorted.size() / elapsedSeconds,
+        percentile(sorted, 0.50), percentile(sorted, 0.99), new TreeMap<>(outcomes));
+  }
+
+  // 한 가상 사용자의 다음 요청. 응답을 받으면 deadline 전까지 다시 보낸다.
+  private void send(String path, List<String[]> accounts, AtomicInteger next, long deadline,
+      ConcurrentLinkedQueue<Long> latencies, Map<String, LongAdder> outcomes,
+      CountDownLatch finished) {
+    if (System.nanoTime() >= deadline) {
+      finished.countDown();
+      return;
+    }
+    String[] account = accounts.get(Math.floorMod(next.getAndIncrement(), accounts.size()));
+    HttpRequest request = post(path, "{\"userId\":" + account[0]
+        + ",\"accountNumber\":\"" + account[1] + "\",\"amount\":1}");
+    long sentAt = System.nanoTime();
+    httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+        .whenComplete((response, e) -> {
+          latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt));
+          String outcome = e != null ? e.getClass().getSimpleName()
+              : String.valueOf(response.statusCode());
+          outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+          send(path, accounts, next, deadline, latencies, outcomes, finished);
+        });
+  }
+
+  private HttpRequest post(String path, String body) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path))
+        .header("Content-Type", "application/json")
+        .timeout(Duration.ofSeconds(60))
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+  }
+
+  private static long percentile(List<Long> sorted, double percentile) {
+    if (sorted.isEmpty()) {
+      return 0L;
+    }
+    return sorted.get((int) Math.min(sorted.size() - 1, Math.floor(sorted.size() * percentile)));
+  }
+
+  private static String option(String[] args, String name, String defaultValue) {
+    for (int i = 0; i < args.length - 1; i++) {
+      if (args[i].equals(name)) {
+        return args[i + 1];
+      }
+    }
+    return defaultValue;
+  }
+}
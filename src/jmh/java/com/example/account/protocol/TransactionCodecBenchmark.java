@@ -0,0 +1,84 @@
+package com.example.account.protocol;
+
+import com.example.account.dto.UseTransaction;
+import com.example.account.type.TransactionResultType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * 사용 요청 하나의 직렬화 비용(요청 읽기 + 응답 쓰기)을 JSON 과 바이너리 frame 으로 비교한다.
+ * JSON 은 Spring MVC 와 같은 설정의 ObjectMapper 를 쓴다. 처리 로직과 네트워크는 빼고 잰다.
+ *
+ * <pre>
+ * ./gradlew jmh -Pjmh.includes=TransactionCodecBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionCodecBenchmark {
+  private static final int REQUEST_ID = 42;
+
+  private ObjectMapper objectMapper;
+  private byte[] jsonRequest;
+  private byte[] binaryRequest;
+  private UseTransaction.Response response;
+  private ByteBuffer responseBuffer;
+
+  @Setup
+  public void setUp() throws IOException {
+    objectMapper = Jackson2ObjectMapperBuilder.json()
+        .modulesToInstall(new ParameterNamesModule())
+        .build();
+    jsonRequest = "{\"userId\":12,\"accountNumber\":\"1000000012\",\"amount\":1000}"
+        .getBytes(StandardCharsets.UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocate(64);
+    BinaryCodec.encodeRequest(BinaryRequest.builder()
+        .opcode(Opcode.USE)
+        .requestId(REQUEST_ID)
+        .userId(12L)
+        .accountNumber("1000000012")
+        .amount(1000L)
+        .build(), buffer);
+    binaryRequest = new byte[buffer.position() - 4];
+    System.arraycopy(buffer.array(), 4, binaryRequest, 0, binaryRequest.length);
+    response = UseTransaction.Response.builder()
+        .accountNumber("1000000012")
+        .transactionResultType(TransactionResultType.SUCCEED)
+        .transactionId("7f1e3c2a9b8d4e6f8a1b2c3d4e5f6a7b")
+        .amount(1000L)
+        .transactedAt(LocalDateTime.of(2026, 10, 19, 12, 30, 15, 123_456_789))
+        .build();
+    responseBuffer = ByteBuffer.allocate(BinaryCodec.MAX_RESPONSE_LENGTH);
+  }
+
+  @Benchmark
+  public void json(Blackhole blackhole) throws IOException {
+    blackhole.consume(objectMapper.readValue(jsonRequest, UseTransaction.Request.class));
+    blackhole.consume(objectMapper.writeValueAsBytes(response));
+  }
+
+  @Benchmark
+  public void binary(Blackhole blackhole) {
+    BinaryRequest request = BinaryCodec.decodeRequest(ByteBuffer.wrap(binaryRequest));
+    blackhole.consume(request);
+    responseBuffer.clear();
+    BinaryCodec.encodeResponse(BinaryResponse.from(request.getRequestId(), response),
+        responseBuffer);
+    blackhole.consume(responseBuffer);
+  }
+}
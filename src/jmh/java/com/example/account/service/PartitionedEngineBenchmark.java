@@ -0,0 +1,122 @@
+package com.example.account.service;
+
+import com.example.account.datasource.ShardRouter;
+import com.example.account.type.BalanceEngineType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import redis.embedded.RedisServer;
+
+/**
+ * 요청 스레드 여러 개가 계좌 명령을 보낼 때의 처리량을 비교한다.
+ * lockPath 는 @AccountLock 과 같이 계좌 lock 을 잡고 푸는 방식, partitioned 는 PartitionedCommandEngine 이다.
+ * 명령 본문(DB 갱신)은 consumeCPU 로, 트랜잭션은 아무것도 하지 않는 트랜잭션 매니저로 대신한다. accountCount 가 작을수록 한 계좌에 몰린다.
+ * 임베디드 Redis 를 따로 띄우므로 애플리케이션, 다른 벤치마크와 포트가 겹치지 않게 6391 을 쓴다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class PartitionedEngineBenchmark {
+  private static final int REDIS_PORT = 6391;
+
+  @Param({"1", "64"})
+  public int accountCount;
+
+  private RedisServer redisServer;
+  private RedissonClient redissonClient;
+  private LockService lockService;
+  private PartitionedCommandEngine engine;
+  // 애플리케이션의 @Scheduled 대신 lease 를 연장한다.
+  private ScheduledExecutorService leaseRenewer;
+  private String[] accountNumbers;
+
+  @Setup
+  public void setUp() {
+    redisServer = new RedisServer(REDIS_PORT);
+    redisServer.start();
+    Config config = new Config();
+    config.useSingleServer().setAddress("redis://127.0.0.1:" + REDIS_PORT);
+    redissonClient = Redisson.create(config);
+    lockService = new LockService(redissonClient, new SimpleMeterRegistry());
+    engine = new PartitionedCommandEngine(redissonClient, new SimpleMeterRegistry(),
+        new ShardRouter(1), new NoOpTransactionManager(),
+        BalanceEngineType.PARTITIONED, "benchmark", 16, 10_000, 10_000L, 1_000L);
+    engine.start();
+    leaseRenewer = Executors.newSingleThreadScheduledExecutor();
+    leaseRenewer.scheduleWithFixedDelay(engine::renewLeases, 3, 3, TimeUnit.SECONDS);
+    accountNumbers = new String[accountCount];
+    for (int i = 0; i < accountCount; i++) {
+      accountNumbers[i] = Long.toString(1_000_000_000L + i);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    leaseRenewer.shutdownNow();
+    engine.stop();
+    redissonClient.shutdown();
+    redisServer.stop();
+  }
+
+  @Benchmark
+  public void lockPath(Blackhole blackhole) {
+    String accountNumber = nextAccount();
+    lockService.lock(accountNumber);
+    try {
+      blackhole.consumeCPU(1_000);
+    } finally {
+      lockService.unlock(accountNumber);
+    }
+  }
+
+  @Benchmark
+  public void partitioned(Blackhole blackhole) {
+    engine.execute(nextAccount(), () -> {
+      blackhole.consumeCPU(1_000);
+      return null;
+    });
+  }
+
+  private String nextAccount() {
+    return accountNumbers[ThreadLocalRandom.current().nextInt(accountCount)];
+  }
+
+  private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+    @Override
+    protected Object doGetTransaction() {
+      return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package com.example.account.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.redisson.Redisson;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import redis.embedded.RedisServer;
+
+/**
+ * 두 계좌 사이에서 양방향(A -> B, B -> A) 이체가 동시에 몰릴 때 lock 처리량을 잰다.
+ * 계좌번호 순으로 하나씩 잡는 방식(LockAopAspect)과 Redisson MultiLock 을 비교한다.
+ * 임베디드 Redis 를 따로 띄우므로 애플리케이션과 포트가 겹치지 않게 6390 을 쓴다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransferLockBenchmark {
+  private static final int REDIS_PORT = 6390;
+  private static final String ACCOUNT_A = "1000000000";
+  private static final String ACCOUNT_B = "2000000000";
+
+  private RedisServer redisServer;
+  private RedissonClient redissonClient;
+  private LockService lockService;
+
+  @Setup
+  public void setUp() {
+    redisServer = new RedisServer(REDIS_PORT);
+    redisServer.start();
+    Config config = new Config();
+    config.useSingleServer().setAddress("redis://127.0.0.1:" + REDIS_PORT);
+    redissonClient = Redisson.create(config);
+    lockService = new LockService(redissonClient, new SimpleMeterRegistry());
+  }
+
+  @TearDown
+  public void tearDown() {
+    redissonClient.shutdown();
+    redisServer.stop();
+  }
+
+  @Benchmark
+  @Group("canonicalOrder")
+  @GroupThreads(2)
+  public void canonicalOrderAtoB(Blackhole blackhole) {
+    transferWithCanonicalOrder(ACCOUNT_A, ACCOUNT_B, blackhole);
+  }
+
+  @Benchmark
+  @Group("canonicalOrder")
+  @GroupThreads(2)
+  public void canonicalOrderBtoA(Blackhole blackhole) {
+    transferWithCanonicalOrder(ACCOUNT_B, ACCOUNT_A, blackhole);
+  }
+
+  @Benchmark
+  @Group("multiLock")
+  @GroupThreads(2)
+  public void multiLockAtoB(Blackhole blackhole) {
+    transferWithMultiLock(ACCOUNT_A, ACCOUNT_B, blackhole);
+  }
+
+  @Benchmark
+  @Group("multiLock")
+  @GroupThreads(2)
+  public void multiLockBtoA(Blackhole blackhole) {
+    transferWithMultiLock(ACCOUNT_B, ACCOUNT_A, blackhole);
+  }
+
+  private void transferWithCanonicalOrder(String from, String to, Blackhole blackhole) {
+    List<String> ordered = LockService.lockOrder(Arrays.asList(from, to));
+    for (String accountNumber : ordered) {
+      lockService.lock(accountNumber);
+    }
+    try {
+      blackhole.consumeCPU(1_000);
+    } finally {
+      for (int i = ordered.size() - 1; i >= 0; i--) {
+        lockService.unlock(ordered.get(i));
+      }
+    }
+  }
+
+  private void transferWithMultiLock(String from, String to, Blackhole blackhole) {
+    RLock multiLock = redissonClient.getMultiLock(
+        redissonClient.getLock("ACLK:" + from), redissonClient.getLock("ACLK:" + to));
+    multiLock.lock(15, TimeUnit.SECONDS);
+    try {
+      blackhole.consumeCPU(1_000);
+    } finally {
+      multiLock.unlock();
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package com.example.account.startup;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 애플리케이션을 새 JVM 으로 띄우고, 첫 POST /transaction/use 가 성공할 때까지 걸린 시간을 잰다.
+ * 설정마다 runs 번 띄워서 중앙값을 보여준다. data.sql 의 사용자 1 / 계좌 1000000001 로 1원을 쓴다.
+ *
+ * <pre>
+ * ./gradlew startupBenchmark          (appCds 를 먼저 돌리면 CDS 설정도 잰다)
+ * ./gradlew cdsClassList appCds       (AppCDS 아카이브만 만든다)
+ * </pre>
+ *
+ * 인자: --classpath <앱 classpath> [--runs N] [--cds-archive <jsa>] [--dump-class-list <파일>]
+ */
+public class StartupBenchmark {
+  private static final String MAIN_CLASS = "com.example.account.AccountApplication";
+  private static final String USE_URL = "http://localhost:8080/transaction/use";
+  private static final String USE_BODY =
+      "{\"userId\":1,\"accountNumber\":\"1000000001\",\"amount\":1}";
+  private static final long TIMEOUT_MILLIS = 120_000L;
+
+  private final HttpClient httpClient = HttpClient.newBuilder()
+      .connectTimeout(Duration.ofMillis(200))
+      .build();
+
+  public static void main(String[] args) throws Exception {
+    String classpath = option(args, "--classpath", null);
+    int runs = Integer.parseInt(option(args, "--runs", "3"));
+    String cdsArchive = option(args, "--cds-archive", null);
+    String dumpClassList = option(args, "--dump-class-list", null);
+    if (classpath == null) {
+      throw new IllegalArgumentException("--classpath is required");
+    }
+
+    StartupBenchmark benchmark = new StartupBenchmark();
+    if (dumpClassList != null) {
+      // 기동부터 첫 거래까지 읽은 클래스 목록 (AppCDS 아카이브 입력)
+      benchmark.measure(classpath, Arrays.asList(
+          "-Xshare:off", "-XX:DumpLoadedClassList=" + dumpClassList), "local,fast-startup");
+      System.out.println("Class list written to " + dumpClassList);
+      return;
+    }
+
+    benchmark.report("default", runs, classpath, Collections.emptyList(), "local");
+    benchmark.report("fast-startup", runs, classpath, Collections.emptyList(),
+        "local,fast-startup");
+    if (cdsArchive != null && Files.exists(Paths.get(cdsArchive))) {
+      benchmark.report("fast-startup + AppCDS", runs, classpath, Arrays.asList(
+          "-Xshare:auto", "-XX:SharedArchiveFile=" + cdsArchive), "local,fast-startup");
+    }
+  }
+
+  private void report(String label, int runs, String classpath, List<String> jvmArgs,
+      String profiles) throws Exception {
+    List<Long> millis = new ArrayList<>();
+    for (int i = 0; i < runs; i++) {
+      millis.add(measure(classpath, jvmArgs, profiles));
+    }
+    Collections.sort(millis);
+    System.out.printf("%-24s time to first /transaction/use: median %d ms, runs %s%n",
+        label, millis.get(millis.size() / 2), millis);
+  }
+
+  private long measure(String classpath, List<String> jvmArgs, String profiles)
+      throws Exception {
+    List<String> command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    command.addAll(jvmArgs);
+    command.addAll(Arrays.asList("-cp", classpath, MAIN_CLASS,
+        "--spring.profiles.active=" + profiles));
+
+    Path log = Files.createTempFile("startup-benchmark", ".log");
+    long startedAt = System.nanoTime();
+    Process process = new ProcessBuilder(command)
+        .redirectErrorStream(true)
+        .redirectOutput(log.toFile())
+        .start();
+    long elapsedMillis;
+    try {
+      awaitFirstUse(process, startedAt, log.toFile());
+      elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    } finally {
+      process.destroy();
+      if (!process.waitFor(30, TimeUnit.SECONDS)) {
+        process.destroyForcibly();
+      }
+    }
+    // 실패하면 원인을 볼 수 있도록 로그를 남겨 둔다.
+    Files.deleteIfExists(log);
+    return elapsedMillis;
+  }
+
+  private void awaitFirstUse(Process process, long startedAt, File log) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(USE_URL))
+        .header("Content-Type", "application/json")
+        .timeout(Duration.ofSeconds(5))
+        .POST(HttpRequest.BodyPublishers.ofString(USE_BODY))
+        .build();
+    while (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) < TIMEOUT_MILLIS) {
+      if (!process.isAlive()) {
+        throw new IllegalStateException("Application exited early, see " + log);
+      }
+      try {
+        if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()
+            == 200) {
+          return;
+        }
+      } catch (IOException e) {
+        // 아직 포트를 열지 않았다.
+      }
+      Thread.sleep(10);
+    }
+    throw new IllegalStateException("No successful /transaction/use within timeout");
+  }
+
+  private static String option(String[] args, String name, String defaultValue) {
+    for (int i = 0; i < args.length - 1; i++) {
+      if (args[i].equals(name)) {
+        return args[i + 1];
+      }
+    }
+    return defaultValue;
+  }
+}
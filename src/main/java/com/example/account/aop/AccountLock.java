@@ -13,4 +13,8 @@ import java.lang.annotation.Target;
 @Inherited
 public @interface AccountLock {
 
+  /**
+   * true 면 DebitCombiner 가 켜져 있을 때 요청마다 lock 을 잡지 않는다. lock 은 묶음마다 DebitCombiner 가 잡는다.
+   */
+  boolean combinable() default false;
 }
@@ -1,5 +1,15 @@
 package com.example.account.aop;
 
+import java.util.Collections;
+import java.util.List;
+
 public interface AccountLockIdInterface {
   String getAccountNumber();
+
+  /**
+   * 한 요청이 여러 계좌를 다룰 때(이체 등) 잠가야 하는 계좌 전부. 기본은 getAccountNumber() 하나다.
+   */
+  default List<String> getAccountNumbers() {
+    return Collections.singletonList(getAccountNumber());
+  }
 }
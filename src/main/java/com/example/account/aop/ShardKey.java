@@ -0,0 +1,25 @@
+package com.example.account.aop;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 서비스 메서드가 실행될 샤드를 정하는 파라미터에 붙인다.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ShardKey {
+
+  Type value() default Type.ACCOUNT_NUMBER;
+
+  enum Type {
+    ACCOUNT_NUMBER,
+    TRANSACTION_ID,
+    // 신규 계좌를 만들 때: 사용자별 샤드
+    USER_ID
+  }
+}
@@ -0,0 +1,47 @@
+package com.example.account.archive;
+
+import com.example.account.domain.Transaction;
+import com.example.account.dto.TransactionDto;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 아카이브 파일에 들어 있는 거래 한 건.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class ArchivedTransaction {
+  private final String transactionId;
+  private final String accountNumber;
+  private final TransactionType transactionType;
+  private final TransactionResultType transactionResultType;
+  private final Long amount;
+  private final LocalDateTime transactedAt;
+
+  public static ArchivedTransaction from(Transaction transaction) {
+    return ArchivedTransaction.builder()
+        .transactionId(transaction.getTransactionId())
+        .accountNumber(transaction.getAccount().getAccountNumber())
+        .transactionType(transaction.getTransactionType())
+        .transactionResultType(transaction.getTransactionResultType())
+        .amount(transaction.getAmount())
+        .transactedAt(transaction.getTransactedAt())
+        .build();
+  }
+
+  public TransactionDto toDto() {
+    return TransactionDto.builder()
+        .accountNumber(accountNumber)
+        .transactionResultType(transactionResultType)
+        .transactionId(transactionId)
+        .amount(amount)
+        .transactedAt(transactedAt)
+        .transactionType(transactionType)
+        .build();
+  }
+}
@@ -0,0 +1,137 @@
+package com.example.account.archive;
+
+import com.example.account.datasource.ShardContext;
+import com.example.account.domain.ArchivedTransactionIndex;
+import com.example.account.dto.TransactionDto;
+import com.example.account.repository.ArchivedTransactionIndexRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 월별 거래 파티션 파일(로컬 디스크)을 읽고 쓴다.
+ * 파일은 "transactions-{yyyy-MM}-s{샤드}.gz" 이고, 거래 id 로 찾을 때는 ArchivedTransactionIndex 로 파일을 고른다.
+ * 최근에 읽은 파티션 몇 개는 풀어 둔 채로 메모리에 둔다.
+ * 여러 노드가 같이 읽으려면 directory 를 공유 저장소로 둔다.
+ */
+@Component
+public class TransactionArchive {
+  private static final String FILE_PREFIX = "transactions-";
+  private static final String FILE_SUFFIX = ".gz";
+
+  private final ArchivedTransactionIndexRepository archivedTransactionIndexRepository;
+  private final Path directory;
+
+  // 파티션 키 -> 풀어 둔 행 (접근 순서 LRU)
+  private final Map<String, List<ArchivedTransaction>> cache;
+
+  public TransactionArchive(ArchivedTransactionIndexRepository archivedTransactionIndexRepository,
+      @Value("${spring.transaction.archive.directory}") String directory,
+      @Value("${spring.transaction.archive.cache-partitions}") int cachePartitions) {
+    this.archivedTransactionIndexRepository = archivedTransactionIndexRepository;
+    this.directory = Paths.get(directory);
+    this.cache = Collections.synchronizedMap(new LinkedHashMap<String, List<ArchivedTransaction>>(
+        16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, List<ArchivedTransaction>> eldest) {
+        return size() > cachePartitions;
+      }
+    });
+  }
+
+  public static String partitionKey(YearMonth month, int shard) {
+    return month + "-s" + shard;
+  }
+
+  /**
+   * 한 달치 거래를 현재 샤드의 파티션 파일로 쓴다. 같은 달을 다시 쓰면 덮어쓴다.
+   */
+  public String write(YearMonth month, List<ArchivedTransaction> rows) throws IOException {
+    String partitionKey = partitionKey(month, ShardContext.currentOrDefault());
+    Files.createDirectories(directory);
+    TransactionPartitionFile.write(pathOf(partitionKey), rows);
+    cache.remove(partitionKey);
+    return partitionKey;
+  }
+
+  public Optional<TransactionDto> find(String transactionId) {
+    return archivedTransactionIndexRepository.findById(transactionId)
+        .map(ArchivedTransactionIndex::getPartitionKey)
+        .flatMap(partitionKey -> load(partitionKey).stream()
+            .filter(row -> row.getTransactionId().equals(transactionId))
+            .findFirst())
+        .map(ArchivedTransaction::toDto);
+  }
+
+  /**
+   * 현재 샤드 아카이브에서 (from, to] 구간의 계좌 거래를 거래 시각 순으로 돌려준다.
+   */
+  public List<ArchivedTransaction> findInPeriod(String accountNumber, LocalDateTime from,
+      LocalDateTime to) {
+    YearMonth fromMonth = YearMonth.from(from);
+    YearMonth toMonth = YearMonth.from(to);
+    List<ArchivedTransaction> result = new ArrayList<>();
+    for (YearMonth month : archivedMonths()) {
+      if (month.isBefore(fromMonth) || month.isAfter(toMonth)) {
+        continue;
+      }
+      for (ArchivedTransaction row : load(partitionKey(month, ShardContext.currentOrDefault()))) {
+        if (row.getAccountNumber().equals(accountNumber)
+            && row.getTransactedAt().isAfter(from) && !row.getTransactedAt().isAfter(to)) {
+          result.add(row);
+        }
+      }
+    }
+    return result;
+  }
+
+  // 현재 샤드의 아카이브된 달 (오름차순)
+  private List<YearMonth> archivedMonths() {
+    if (!Files.isDirectory(directory)) {
+      return Collections.emptyList();
+    }
+    String suffix = "-s" + ShardContext.currentOrDefault() + FILE_SUFFIX;
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.map(path -> path.getFileName().toString())
+          .filter(name -> name.startsWith(FILE_PREFIX) && name.endsWith(suffix))
+          .map(name -> YearMonth.parse(
+              name.substring(FILE_PREFIX.length(), name.length() - suffix.length())))
+          .sorted()
+          .collect(Collectors.toList());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private List<ArchivedTransaction> load(String partitionKey) {
+    List<ArchivedTransaction> rows = cache.get(partitionKey);
+    if (rows != null) {
+      return rows;
+    }
+    try {
+      rows = Collections.unmodifiableList(TransactionPartitionFile.read(pathOf(partitionKey)));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read transaction archive " + partitionKey, e);
+    }
+    cache.put(partitionKey, rows);
+    return rows;
+  }
+
+  private Path pathOf(String partitionKey) {
+    return directory.resolve(FILE_PREFIX + partitionKey + FILE_SUFFIX);
+  }
+}
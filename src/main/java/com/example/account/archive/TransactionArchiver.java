@@ -0,0 +1,144 @@
+package com.example.account.archive;
+
+import com.example.account.datasource.ShardContext;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.domain.ArchivedTransactionIndex;
+import com.example.account.domain.Transaction;
+import com.example.account.repository.ArchivedTransactionIndexRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.service.BalanceHistoryService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 보존 기간이 지난 달의 거래를 hot 테이블에서 월별 아카이브 파일로 옮긴다.
+ * 한 달을 옮기는 순서는 다음과 같고, 어느 단계에서 죽어도 다음 주기에 같은 달을 처음부터 다시 옮긴다.
+ * <ol>
+ *   <li>그 달에 거래가 있던 계좌마다 월말 잔액 checkpoint 를 남긴다 (이후 시점 잔액은 hot 테이블만 읽는다)</li>
+ *   <li>파티션 파일을 쓴다</li>
+ *   <li>거래 id 인덱스를 넣고 hot 테이블의 행을 지운다 (한 DB 트랜잭션)</li>
+ * </ol>
+ * Redis lock 으로 한 노드에서만 돌고, 샤딩 중이면 샤드마다 따로 옮긴다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.transaction.archive.enabled", havingValue = "true")
+public class TransactionArchiver {
+  private static final String ARCHIVER_LOCK_KEY = "TRANSACTION:ARCHIVER";
+  private static final int DELETE_BATCH_SIZE = 1_000;
+
+  private final TransactionRepository transactionRepository;
+  private final ArchivedTransactionIndexRepository archivedTransactionIndexRepository;
+  private final TransactionArchive transactionArchive;
+  private final BalanceHistoryService balanceHistoryService;
+  private final ShardRouter shardRouter;
+  private final RedissonClient redissonClient;
+  private final TransactionTemplate transactionTemplate;
+  private final int retentionMonths;
+
+  public TransactionArchiver(TransactionRepository transactionRepository,
+      ArchivedTransactionIndexRepository archivedTransactionIndexRepository,
+      TransactionArchive transactionArchive, BalanceHistoryService balanceHistoryService,
+      ShardRouter shardRouter, RedissonClient redissonClient,
+      PlatformTransactionManager transactionManager,
+      @Value("${spring.transaction.archive.retention-months}") int retentionMonths) {
+    this.transactionRepository = transactionRepository;
+    this.archivedTransactionIndexRepository = archivedTransactionIndexRepository;
+    this.transactionArchive = transactionArchive;
+    this.balanceHistoryService = balanceHistoryService;
+    this.shardRouter = shardRouter;
+    this.redissonClient = redissonClient;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.retentionMonths = retentionMonths;
+  }
+
+  @Scheduled(fixedDelayString = "${spring.transaction.archive.interval-ms}")
+  public void archive() {
+    RLock archiverLock = redissonClient.getLock(ARCHIVER_LOCK_KEY);
+    // 한 달을 옮기는 데 걸리는 시간을 알 수 없으므로 lease 없이(watchdog 연장) 잡는다.
+    if (!archiverLock.tryLock()) {
+      return;
+    }
+    try {
+      // 이번 달을 포함해 retentionMonths 개월은 hot 테이블에 둔다.
+      YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths - 1L);
+      for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+        ShardContext.set(shard);
+        try {
+          Optional<YearMonth> month;
+          while ((month = oldestHotMonth()).isPresent() && month.get().isBefore(cutoff)) {
+            archiveMonth(month.get());
+          }
+        } catch (RuntimeException e) {
+          log.warn("Failed to archive transactions on shard {}, will retry", shard, e);
+        } finally {
+          ShardContext.clear();
+        }
+      }
+    } finally {
+      if (archiverLock.isHeldByCurrentThread()) {
+        archiverLock.unlock();
+      }
+    }
+  }
+
+  private Optional<YearMonth> oldestHotMonth() {
+    return transactionTemplate.execute(status ->
+        transactionRepository.findFirstByOrderByTransactedAtAsc()
+            .map(transaction -> YearMonth.from(transaction.getTransactedAt())));
+  }
+
+  void archiveMonth(YearMonth month) {
+    LocalDateTime start = month.atDay(1).atStartOfDay();
+    LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+    List<Transaction> transactions = transactionTemplate.execute(status ->
+        transactionRepository.findAllTransactedBetween(start, end));
+    if (transactions == null || transactions.isEmpty()) {
+      return;
+    }
+
+    LocalDateTime monthEnd = end.minusNanos(1);
+    transactions.stream()
+        .map(transaction -> transaction.getAccount().getAccountNumber())
+        .distinct()
+        .forEach(accountNumber -> balanceHistoryService.checkpoint(accountNumber, monthEnd));
+
+    String partitionKey;
+    try {
+      partitionKey = transactionArchive.write(month, transactions.stream()
+          .map(ArchivedTransaction::from)
+          .collect(Collectors.toList()));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to write transaction archive " + month, e);
+    }
+
+    List<Long> ids = transactions.stream().map(Transaction::getId).collect(Collectors.toList());
+    transactionTemplate.executeWithoutResult(status -> {
+      archivedTransactionIndexRepository.saveAll(transactions.stream()
+          .map(transaction -> ArchivedTransactionIndex.builder()
+              .transactionId(transaction.getTransactionId())
+              .partitionKey(partitionKey)
+              .build())
+          .collect(Collectors.toList()));
+      for (int i = 0; i < ids.size(); i += DELETE_BATCH_SIZE) {
+        transactionRepository.deleteAllByIdInBatch(
+            ids.subList(i, Math.min(i + DELETE_BATCH_SIZE, ids.size())));
+      }
+    });
+    log.info("Archived {} transactions of {} into {}", ids.size(), month, partitionKey);
+  }
+}
@@ -0,0 +1,146 @@
+package com.example.account.archive;
+
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 한 달치 거래를 열(column) 단위로 gzip 파일에 쓰고 읽는다.
+ * <ul>
+ *   <li>계좌번호/거래 종류/결과처럼 값 종류가 적은 열은 사전(dictionary) 번호로 쓴다</li>
+ *   <li>거래 시각은 앞 행과의 차이(nano)로 쓴다. 행은 거래 시각 순이므로 작은 값이 반복된다</li>
+ * </ul>
+ */
+public class TransactionPartitionFile {
+  private static final int MAGIC = 0x54584152; // "TXAR"
+  private static final byte VERSION = 1;
+
+  private TransactionPartitionFile() {
+  }
+
+  /**
+   * 임시 파일에 다 쓴 뒤 옮기므로, 중간에 죽어도 반쯤 쓴 파일이 남지 않는다.
+   */
+  public static void write(Path path, List<ArchivedTransaction> rows) throws IOException {
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+        new GZIPOutputStream(Files.newOutputStream(temp))))) {
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      out.writeInt(rows.size());
+      for (ArchivedTransaction row : rows) {
+        out.writeUTF(row.getTransactionId());
+      }
+      writeDictionaryColumn(out, rows, ArchivedTransaction::getAccountNumber);
+      writeDictionaryColumn(out, rows, row -> row.getTransactionType().name());
+      writeDictionaryColumn(out, rows, row -> row.getTransactionResultType().name());
+      for (ArchivedTransaction row : rows) {
+        out.writeLong(row.getAmount());
+      }
+      long previous = 0;
+      for (ArchivedTransaction row : rows) {
+        long nanos = toEpochNanos(row.getTransactedAt());
+        out.writeLong(nanos - previous);
+        previous = nanos;
+      }
+    }
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  public static List<ArchivedTransaction> read(Path path) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+        new GZIPInputStream(Files.newInputStream(path))))) {
+      if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+        throw new IOException("Not a transaction archive file : " + path);
+      }
+      int rowCount = in.readInt();
+      String[] transactionIds = new String[rowCount];
+      for (int i = 0; i < rowCount; i++) {
+        transactionIds[i] = in.readUTF();
+      }
+      String[] accountNumbers = readDictionaryColumn(in, rowCount);
+      String[] transactionTypes = readDictionaryColumn(in, rowCount);
+      String[] resultTypes = readDictionaryColumn(in, rowCount);
+      long[] amounts = new long[rowCount];
+      for (int i = 0; i < rowCount; i++) {
+        amounts[i] = in.readLong();
+      }
+
+      List<ArchivedTransaction> rows = new ArrayList<>(rowCount);
+      long nanos = 0;
+      for (int i = 0; i < rowCount; i++) {
+        nanos += in.readLong();
+        rows.add(new ArchivedTransaction(
+            transactionIds[i],
+            accountNumbers[i],
+            TransactionType.valueOf(transactionTypes[i]),
+            TransactionResultType.valueOf(resultTypes[i]),
+            amounts[i],
+            fromEpochNanos(nanos)));
+      }
+      return rows;
+    }
+  }
+
+  private static void writeDictionaryColumn(DataOutputStream out, List<ArchivedTransaction> rows,
+      Function<ArchivedTransaction, String> column) throws IOException {
+    Map<String, Integer> codes = new HashMap<>();
+    List<String> dictionary = new ArrayList<>();
+    int[] values = new int[rows.size()];
+    for (int i = 0; i < rows.size(); i++) {
+      String value = column.apply(rows.get(i));
+      Integer code = codes.get(value);
+      if (code == null) {
+        code = dictionary.size();
+        codes.put(value, code);
+        dictionary.add(value);
+      }
+      values[i] = code;
+    }
+    out.writeInt(dictionary.size());
+    for (String value : dictionary) {
+      out.writeUTF(value);
+    }
+    for (int value : values) {
+      out.writeInt(value);
+    }
+  }
+
+  private static String[] readDictionaryColumn(DataInputStream in, int rowCount)
+      throws IOException {
+    String[] dictionary = new String[in.readInt()];
+    for (int i = 0; i < dictionary.length; i++) {
+      dictionary[i] = in.readUTF();
+    }
+    String[] values = new String[rowCount];
+    for (int i = 0; i < rowCount; i++) {
+      values[i] = dictionary[in.readInt()];
+    }
+    return values;
+  }
+
+  private static long toEpochNanos(LocalDateTime dateTime) {
+    return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + dateTime.getNano();
+  }
+
+  private static LocalDateTime fromEpochNanos(long nanos) {
+    return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+        (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+  }
+}
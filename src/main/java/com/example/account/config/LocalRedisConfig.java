@@ -4,9 +4,14 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import redis.embedded.RedisServer;
 
+/**
+ * 로컬 개발용 내장 Redis. local profile 에서만 띄운다.
+ */
 @Configuration
+@Profile("local")
 public class LocalRedisConfig {
 
   @Value("${spring.redis.port}")
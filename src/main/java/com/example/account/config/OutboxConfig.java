@@ -0,0 +1,43 @@
+package com.example.account.config;
+
+import com.example.account.datasource.ShardRouter;
+import com.example.account.outbox.InMemoryOutboxBroker;
+import com.example.account.outbox.OutboxRelay;
+import com.example.account.outbox.OutboxSink;
+import com.example.account.repository.OutboxEventRepository;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * outbox relay 설정. 다른 OutboxSink 빈(브로커 연동)을 등록하지 않으면 프로세스 내 브로커로 보낸다.
+ */
+@Configuration
+public class OutboxConfig {
+
+  @Value("${spring.outbox.relay.batch-size}")
+  private int batchSize;
+
+  @Value("${spring.outbox.relay.retention-ms}")
+  private long retentionMillis;
+
+  @Bean
+  @ConditionalOnMissingBean(OutboxSink.class)
+  public InMemoryOutboxBroker outboxSink() {
+    return new InMemoryOutboxBroker();
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "spring.outbox.relay.enabled", havingValue = "true")
+  public OutboxRelay outboxRelay(OutboxEventRepository outboxEventRepository,
+      OutboxSink outboxSink, ShardRouter shardRouter,
+      PlatformTransactionManager transactionManager, RedissonClient redissonClient) {
+    return new OutboxRelay(outboxEventRepository, outboxSink, shardRouter,
+        new TransactionTemplate(transactionManager), redissonClient, batchSize, retentionMillis);
+  }
+}
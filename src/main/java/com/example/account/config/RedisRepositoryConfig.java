@@ -3,6 +3,7 @@ package com.example.account.config;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.redisson.config.Config;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,8 +16,13 @@ public class RedisRepositoryConfig {
   @Value("${spring.redis.port}")
   private int redisPort;
 
+  /**
+   * Redisson 은 만들 때 바로 접속하므로, local profile 이면 내장 Redis 를 먼저 띄운다.
+   * lazy-initialization(fast-startup profile)에서도 이 빈은 기동 시 만들어지므로 순서가 지켜진다.
+   */
   @Bean
-  public RedissonClient redissonClient() {
+  public RedissonClient redissonClient(ObjectProvider<LocalRedisConfig> localRedisConfig) {
+    localRedisConfig.getIfAvailable();
     Config config = new Config();
     config.useSingleServer().setAddress("redis://" + redisHost + ":" + redisPort);
     return Redisson.create(config);
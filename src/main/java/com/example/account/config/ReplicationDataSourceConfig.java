@@ -0,0 +1,101 @@
+package com.example.account.config;
+
+import com.example.account.datasource.ClientContextFilter;
+import com.example.account.datasource.ReadYourWritesTracker;
+import com.example.account.datasource.ReplicaLagMonitor;
+import com.example.account.datasource.ReplicationDataSources;
+import com.example.account.datasource.ReplicationRoutingDataSource;
+import com.example.account.datasource.StandInReplicator;
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * spring.datasource.replication.enabled=true 일 때 읽기 전용 트랜잭션을 replica 로 보낸다.
+ * primary 접속 정보는 spring.datasource 를 그대로 쓰고, replica 는 같은 계정으로 replica-urls 에 접속한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.datasource.replication.enabled", havingValue = "true")
+public class ReplicationDataSourceConfig {
+
+  @Value("${spring.datasource.replication.replica-urls}")
+  private List<String> replicaUrls;
+
+  @Value("${spring.datasource.replication.max-lag-ms}")
+  private long maxLagMillis;
+
+  @Value("${spring.datasource.replication.sticky-window-ms}")
+  private long stickyWindowMillis;
+
+  @Value("${spring.datasource.sharding.enabled}")
+  private boolean shardingEnabled;
+
+  @Bean
+  public ReplicationDataSources replicationDataSources(DataSourceProperties properties) {
+    // 샤딩과 함께 켜면 @Primary DataSource 가 둘이 되므로 기동을 멈춘다.
+    if (shardingEnabled) {
+      throw new IllegalStateException(ShardingConfig.SHARDING_WITH_REPLICATION);
+    }
+    HikariDataSource primary = properties.initializeDataSourceBuilder()
+        .type(HikariDataSource.class).build();
+    primary.setPoolName(ReplicationDataSources.PRIMARY);
+
+    Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+    for (int i = 0; i < replicaUrls.size(); i++) {
+      HikariDataSource replica = properties.initializeDataSourceBuilder()
+          .type(HikariDataSource.class)
+          .url(replicaUrls.get(i))
+          .build();
+      replica.setPoolName(ReplicationDataSources.REPLICA_PREFIX + i);
+      replica.setReadOnly(true);
+      replicas.put(ReplicationDataSources.REPLICA_PREFIX + i, replica);
+    }
+    return new ReplicationDataSources(primary, replicas);
+  }
+
+  @Bean
+  public ReplicaLagMonitor replicaLagMonitor(ReplicationDataSources replicationDataSources) {
+    return new ReplicaLagMonitor(replicationDataSources, maxLagMillis);
+  }
+
+  @Bean
+  public ReadYourWritesTracker readYourWritesTracker() {
+    return new ReadYourWritesTracker(stickyWindowMillis);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicationDataSources replicationDataSources,
+      ReplicaLagMonitor replicaLagMonitor, ReadYourWritesTracker readYourWritesTracker) {
+    ReplicationRoutingDataSource routingDataSource = new ReplicationRoutingDataSource(
+        new ArrayList<>(replicationDataSources.getReplicas().keySet()),
+        replicaLagMonitor, readYourWritesTracker);
+    routingDataSource.setTargetDataSources(replicationDataSources.toTargetDataSources());
+    routingDataSource.setDefaultTargetDataSource(replicationDataSources.getPrimary());
+    routingDataSource.afterPropertiesSet();
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+
+  @Bean
+  public FilterRegistrationBean<ClientContextFilter> clientContextFilter() {
+    return new FilterRegistrationBean<>(new ClientContextFilter());
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "spring.datasource.replication.stand-in-replicator.enabled",
+      havingValue = "true")
+  public StandInReplicator standInReplicator(ReplicationDataSources replicationDataSources) {
+    return new StandInReplicator(replicationDataSources);
+  }
+}
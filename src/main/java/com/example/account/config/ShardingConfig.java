@@ -0,0 +1,91 @@
+package com.example.account.config;
+
+import com.example.account.datasource.ShardDataSources;
+import com.example.account.datasource.ShardInitializer;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.datasource.ShardRoutingDataSource;
+import com.example.account.datasource.ShardScatter;
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * spring.datasource.sharding.enabled=true 이면 계좌번호 해시로 shard-urls 의 DB 중 하나를 고른다.
+ * 샤딩을 켜지 않아도 ShardRouter/ShardScatter 는 샤드 1개로 동작하므로 서비스 코드는 그대로다.
+ * replica 라우팅(spring.datasource.replication)과는 함께 켤 수 없다.
+ */
+@Configuration
+public class ShardingConfig {
+  static final String SHARDING_WITH_REPLICATION = "spring.datasource.sharding.enabled and "
+      + "spring.datasource.replication.enabled cannot both be true: "
+      + "replica routing is not shard-aware";
+
+  @Value("${spring.datasource.sharding.enabled}")
+  private boolean shardingEnabled;
+
+  @Value("${spring.datasource.sharding.shard-urls}")
+  private List<String> shardUrls;
+
+  @Value("${spring.datasource.replication.enabled}")
+  private boolean replicationEnabled;
+
+  @Bean
+  public ShardRouter shardRouter() {
+    if (shardingEnabled && replicationEnabled) {
+      throw new IllegalStateException(SHARDING_WITH_REPLICATION);
+    }
+    return new ShardRouter(shardingEnabled ? shardUrls.size() : 1);
+  }
+
+  @Bean
+  public ShardScatter shardScatter(ShardRouter shardRouter,
+      PlatformTransactionManager transactionManager) {
+    TransactionTemplate readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    readOnlyTransactionTemplate.setReadOnly(true);
+    return new ShardScatter(shardRouter, readOnlyTransactionTemplate);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "spring.datasource.sharding.enabled", havingValue = "true")
+  public ShardDataSources shardDataSources(DataSourceProperties properties) {
+    List<HikariDataSource> shards = new ArrayList<>();
+    for (int i = 0; i < shardUrls.size(); i++) {
+      HikariDataSource shard = properties.initializeDataSourceBuilder()
+          .type(HikariDataSource.class)
+          .url(shardUrls.get(i))
+          .build();
+      shard.setPoolName("shard-" + i);
+      shards.add(shard);
+    }
+    return new ShardDataSources(shards);
+  }
+
+  @Bean
+  @Primary
+  @ConditionalOnProperty(name = "spring.datasource.sharding.enabled", havingValue = "true")
+  public DataSource dataSource(ShardDataSources shards) {
+    ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+    routingDataSource.setTargetDataSources(shards.toTargetDataSources());
+    routingDataSource.setDefaultTargetDataSource(shards.get(0));
+    routingDataSource.afterPropertiesSet();
+    return routingDataSource;
+  }
+
+  // 0번 샤드의 스키마와 data.sql 이 적용된 뒤에 만든다.
+  @Bean
+  @DependsOnDatabaseInitialization
+  @ConditionalOnProperty(name = "spring.datasource.sharding.enabled", havingValue = "true")
+  public ShardInitializer shardInitializer(ShardRouter shardRouter, ShardDataSources shards) {
+    return new ShardInitializer(shardRouter, shards);
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.account.config;
+
+import com.example.account.datasource.ShardInitializer;
+import java.lang.reflect.Method;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.aspectj.lang.annotation.Aspect;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * spring.main.lazy-initialization 이 켜져 있을 때(fast-startup profile)도 기동 시 만들 빈.
+ * <ul>
+ *   <li>요청 경로: controller, 예외 처리, aspect 와 그 의존성(서비스, repository 등)</li>
+ *   <li>커넥션 풀, EntityManagerFactory, Redis 클라이언트 (첫 요청이 초기화 비용을 치르지 않도록)</li>
+ *   <li>요청을 받기 전에 끝나야 하는 샤드 초기화</li>
+ *   <li>@Scheduled 메서드가 있는 빈 (lazy 로 두면 만들어지지 않아 스케줄이 돌지 않는다)</li>
+ * </ul>
+ */
+@Configuration
+public class StartupConfig {
+
+  @Bean
+  public static LazyInitializationExcludeFilter eagerBeansExcludeFilter() {
+    return (beanName, beanDefinition, beanType) ->
+        AnnotatedElementUtils.hasAnnotation(beanType, RestController.class)
+            || AnnotatedElementUtils.hasAnnotation(beanType, RestControllerAdvice.class)
+            || AnnotatedElementUtils.hasAnnotation(beanType, Aspect.class)
+            || DataSource.class.isAssignableFrom(beanType)
+            || EntityManagerFactory.class.isAssignableFrom(beanType)
+            || RedissonClient.class.isAssignableFrom(beanType)
+            || ShardInitializer.class.isAssignableFrom(beanType)
+            || hasScheduledMethod(beanType);
+  }
+
+  private static boolean hasScheduledMethod(Class<?> beanType) {
+    for (Method method : ReflectionUtils.getUniqueDeclaredMethods(beanType)) {
+      if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
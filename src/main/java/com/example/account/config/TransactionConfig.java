@@ -1,5 +1,6 @@
 package com.example.account.config;
 
+import com.example.account.type.BalanceEngineType;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
@@ -12,4 +13,7 @@ public class TransactionConfig {
 
   @Value("${spring.transaction.amountMinValue}") // 최소 거래액
   private Integer amountMinValue;
+
+  @Value("${spring.transaction.engine:LOCK}") // 잔액 처리 방식
+  private BalanceEngineType engine;
 }
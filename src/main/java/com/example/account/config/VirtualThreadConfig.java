@@ -0,0 +1,46 @@
+package com.example.account.config;
+
+import java.util.concurrent.ExecutorService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+/**
+ * spring.threads.virtual.enabled=true 이면 요청 처리와 비동기 작업을 가상 스레드에서 한다 (JDK 21 이상,
+ * ./gradlew bootRun -PjavaVersion=21).
+ * <ul>
+ *   <li>Tomcat 요청 executor: 요청마다 가상 스레드 하나. 승인 대기(Thread.sleep), 계좌 lock 대기,
+ *       JDBC 대기 동안 carrier 스레드를 놓아주므로 동시 요청 수가 max-threads 에 묶이지 않는다</li>
+ *   <li>applicationTaskExecutor: @Async 와 MVC 비동기 처리가 쓰는 executor</li>
+ * </ul>
+ * 요청 경로의 대기는 ReentrantLock/Condition 으로 한다 (synchronized 안에서 기다리면 carrier 를 붙잡는다).
+ * 붙잡히는 곳은 -Djdk.tracePinnedThreads=short 로 확인한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService virtualThreadExecutor() {
+    return VirtualThreads.newPerTaskExecutor();
+  }
+
+  @Bean
+  public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer(
+      ExecutorService virtualThreadExecutor) {
+    return factory -> factory.addProtocolHandlerCustomizers(
+        protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor));
+  }
+
+  @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+      AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+  public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+    return new TaskExecutorAdapter(virtualThreadExecutor);
+  }
+}
@@ -0,0 +1,28 @@
+package com.example.account.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 가상 스레드 executor. 기본 빌드는 Java 11 이라 API 를 직접 부르지 못하므로 실행 중인 JDK 에서 찾아 쓴다.
+ */
+public final class VirtualThreads {
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * 작업마다 가상 스레드 하나를 만드는 executor. JDK 21 미만이면 기동을 멈춘다.
+   */
+  public static ExecutorService newPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(
+          "Virtual threads need JDK 21 or later, running " + Runtime.version(), e);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Failed to create virtual thread executor", e);
+    }
+  }
+}
@@ -1,25 +1,56 @@
 package com.example.account.controller;
 
+import com.example.account.aop.AccountLock;
+import com.example.account.dto.AccountImport;
 import com.example.account.dto.AccountInfo;
+import com.example.account.dto.AccountStatement;
 import com.example.account.dto.CloseAccount;
+import com.example.account.dto.HistoricalBalance;
 import com.example.account.dto.OpenAccount;
+import com.example.account.dto.StripeAccount;
+import com.example.account.event.BalanceEventHub;
+import com.example.account.exception.AccountException;
+import com.example.account.pipeline.CommandPipeline;
+import com.example.account.service.AccountImportService;
 import com.example.account.service.AccountService;
+import com.example.account.service.BalanceHistoryService;
+import com.example.account.service.PartitionedCommandEngine;
+import com.example.account.type.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequiredArgsConstructor
 public class AccountController {
 
   private final AccountService accountService;
+  private final BalanceEventHub balanceEventHub;
+  private final BalanceHistoryService balanceHistoryService;
+  private final AccountImportService accountImportService;
+  private final PartitionedCommandEngine partitionedCommandEngine;
+  private final CommandPipeline commandPipeline;
+  private final ObjectMapper objectMapper;
 
   @PostMapping("/account")
   public OpenAccount.Response openAccount(
@@ -29,9 +60,46 @@ public class AccountController {
     );
   }
 
+  /**
+   * 계좌 일괄 개설. 본문은 CSV(userId,initialBalance) 또는 NDJSON 이고,
+   * 줄별 결과를 NDJSON 으로 chunk 마다 내보낸다.
+   */
+  @PostMapping(value = "/account/bulk",
+      consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE},
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public void importAccounts(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    AccountImport.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(
+        MediaType.parseMediaType(request.getContentType()))
+        ? AccountImport.Format.NDJSON : AccountImport.Format.CSV;
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    Writer writer = response.getWriter();
+    accountImportService.importAccounts(request.getReader(), format, results -> {
+      try {
+        for (AccountImport.Result result : results) {
+          writer.write(objectMapper.writeValueAsString(result));
+          writer.write('\n');
+        }
+        writer.flush();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
   @DeleteMapping("/account")
   public CloseAccount.Response getAccountsByUserId(
       @RequestBody @Valid CloseAccount.Request request) {
+    if (commandPipeline.isEnabled()) {
+      return CloseAccount.Response.from(
+          commandPipeline.close(request.getUserId(), request.getAccountNumber()));
+    }
+    if (partitionedCommandEngine.isEnabled()) {
+      return CloseAccount.Response.from(partitionedCommandEngine.execute(
+          request.getAccountNumber(),
+          () -> accountService.closeAccount(request.getUserId(), request.getAccountNumber())));
+    }
     return CloseAccount.Response.from(
         accountService.closeAccount(request.getUserId(), request.getAccountNumber())
     );
@@ -44,4 +112,58 @@ public class AccountController {
     return accountService.getAccountsByUserId(userId)
         .stream().map(AccountInfo::fromDto).collect(Collectors.toList());
   }
+
+  /**
+   * at 시점의 잔액 (그 시각의 거래 포함). 예: ?at=2026-09-30T23:59:59
+   */
+  @GetMapping("/account/{accountNumber}/balance")
+  public HistoricalBalance getBalanceAt(
+      @PathVariable String accountNumber,
+      @RequestParam("at") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at
+  ) {
+    return balanceHistoryService.balanceAt(accountNumber, at);
+  }
+
+  /**
+   * 월별 거래 명세서. 예: ?month=2026-09
+   */
+  @GetMapping("/account/{accountNumber}/statement")
+  public AccountStatement getStatement(
+      @PathVariable String accountNumber,
+      @RequestParam("month") @DateTimeFormat(pattern = "yyyy-MM") YearMonth month
+  ) {
+    return balanceHistoryService.statement(accountNumber, month);
+  }
+
+  /**
+   * 거래가 몰리는 계좌의 잔액을 여러 stripe 로 나눈다.
+   */
+  @PostMapping("/account/stripe")
+  @AccountLock
+  public StripeAccount.Response stripeAccount(
+      @RequestBody @Valid StripeAccount.Request request) {
+    // 파이프라인 엔진은 계좌 잔액을 메모리에 들고 있으므로 잔액을 stripe 로 옮기지 않는다.
+    if (commandPipeline.isEnabled()) {
+      throw new AccountException(ErrorCode.INVALID_REQUEST);
+    }
+    if (partitionedCommandEngine.isEnabled()) {
+      return StripeAccount.Response.from(partitionedCommandEngine.execute(
+          request.getAccountNumber(),
+          () -> accountService.stripeAccount(
+              request.getUserId(), request.getAccountNumber(), request.getStripeCount())));
+    }
+    return StripeAccount.Response.from(
+        accountService.stripeAccount(
+            request.getUserId(), request.getAccountNumber(), request.getStripeCount())
+    );
+  }
+
+  /**
+   * 계좌의 잔액/거래 변경을 SSE 로 받는다. 잔액을 주기적으로 조회하는 대신 쓴다.
+   */
+  @GetMapping(value = "/account/{accountNumber}/events",
+      produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter subscribeBalanceEvents(@PathVariable String accountNumber) {
+    return balanceEventHub.subscribe(accountNumber);
+  }
 }
@@ -0,0 +1,38 @@
+package com.example.account.controller;
+
+import com.example.account.dto.CancelTransaction;
+import com.example.account.dto.UseTransaction;
+import com.example.account.service.AsyncTransactionService;
+import java.util.concurrent.CompletableFuture;
+import javax.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * /transaction/use, /transaction/cancel 과 요청/응답이 같지만, 승인 대기와 lock 대기 동안 요청 스레드를 반납한다.
+ * 계좌 lock 은 AsyncTransactionService 가 잡으므로 @AccountLock 을 붙이지 않는다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class AsyncTransactionController {
+
+  private final AsyncTransactionService asyncTransactionService;
+
+  @PostMapping("/async/transaction/use")
+  public CompletableFuture<UseTransaction.Response> useTransaction(
+      @RequestBody @Valid UseTransaction.Request request) {
+    return asyncTransactionService.use(
+            request.getUserId(), request.getAccountNumber(), request.getAmount())
+        .thenApply(UseTransaction.Response::from);
+  }
+
+  @PostMapping("/async/transaction/cancel")
+  public CompletableFuture<CancelTransaction.Response> cancelTransaction(
+      @RequestBody @Valid CancelTransaction.Request request) {
+    return asyncTransactionService.cancel(
+            request.getTransactionId(), request.getAccountNumber(), request.getAmount())
+        .thenApply(CancelTransaction.Response::from);
+  }
+}
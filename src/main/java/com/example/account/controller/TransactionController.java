@@ -4,9 +4,18 @@ import com.example.account.aop.AccountLock;
 import com.example.account.dto.CancelTransaction;
 import com.example.account.dto.InquiryTransactionResponse;
 import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransferDto;
+import com.example.account.dto.TransferTransaction;
 import com.example.account.dto.UseTransaction;
 import com.example.account.exception.AccountException;
+import com.example.account.pipeline.CommandPipeline;
+import com.example.account.service.DebitCombiner;
+import com.example.account.service.PartitionedCommandEngine;
+import com.example.account.service.RedisBalanceEngine;
+import com.example.account.service.StripedAccountRegistry;
+import com.example.account.type.ErrorCode;
 import com.example.account.service.TransactionService;
+import com.example.account.timing.StageTimer;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,21 +31,61 @@ import org.springframework.web.bind.annotation.RestController;
 public class TransactionController {
 
   private final TransactionService transactionService;
+  private final RedisBalanceEngine redisBalanceEngine;
+  private final DebitCombiner debitCombiner;
+  private final PartitionedCommandEngine partitionedCommandEngine;
+  private final CommandPipeline commandPipeline;
+  private final StripedAccountRegistry stripedAccountRegistry;
 
   @PostMapping("/transaction/use")
-  @AccountLock
+  @AccountLock(combinable = true)
   public UseTransaction.Response useTransaction(
       @RequestBody @Valid UseTransaction.Request request) throws InterruptedException {
-    try {
-
+    try (StageTimer ignored = StageTimer.start("sleep")) {
       Thread.sleep(3000L);
-      TransactionDto transactionDto = transactionService.useTransaction(
-          request.getUserId(), request.getAccountNumber(), request.getAmount()
-      );
+    }
+    if (debitCombiner.isEnabled()) {
+      // 실패 거래는 묶음 안에서 남긴다.
+      try (StageTimer ignored = StageTimer.start("service")) {
+        return UseTransaction.Response.from(debitCombiner.use(
+            request.getUserId(), request.getAccountNumber(), request.getAmount()));
+      }
+    }
+    if (isPipelined(request.getAccountNumber())) {
+      // 실패 거래는 파이프라인의 저장 단계에서 남긴다.
+      try (StageTimer ignored = StageTimer.start("service")) {
+        return UseTransaction.Response.from(commandPipeline.use(
+            request.getUserId(), request.getAccountNumber(), request.getAmount()));
+      }
+    }
+    if (partitionedCommandEngine.isEnabled()) {
+      // 실패 거래는 파티션 스레드에서 남긴다. 파티션이 받지 않은 명령은 남기지 않는다.
+      try (StageTimer ignored = StageTimer.start("service")) {
+        return UseTransaction.Response.from(partitionedCommandEngine.execute(
+            request.getAccountNumber(),
+            () -> transactionService.useTransaction(
+                request.getUserId(), request.getAccountNumber(), request.getAmount()),
+            () -> transactionService.saveFailedUseTransaction(
+                request.getAccountNumber(), request.getAmount())));
+      }
+    }
+    try {
+      TransactionDto transactionDto;
+      try (StageTimer ignored = StageTimer.start("service")) {
+        if (redisBalanceEngine.isEnabled()) {
+          transactionDto = redisBalanceEngine.use(
+              request.getUserId(), request.getAccountNumber(), request.getAmount());
+        } else {
+          transactionDto = transactionService.useTransaction(
+              request.getUserId(), request.getAccountNumber(), request.getAmount());
+        }
+      }
       return UseTransaction.Response.from(transactionDto);
     } catch (AccountException e) {
       log.error("잔액 사용 실패");
-      transactionService.saveFailedUseTransaction(request.getAccountNumber(), request.getAmount());
+      try (StageTimer ignored = StageTimer.start("failure")) {
+        transactionService.saveFailedUseTransaction(request.getAccountNumber(), request.getAmount());
+      }
       throw e;
     }
   }
@@ -45,19 +94,78 @@ public class TransactionController {
   @AccountLock
   public CancelTransaction.Response cancelTransaction(
       @RequestBody @Valid CancelTransaction.Request request) {
+    if (isPipelined(request.getAccountNumber())) {
+      try (StageTimer ignored = StageTimer.start("service")) {
+        return CancelTransaction.Response.from(commandPipeline.cancel(
+            request.getTransactionId(), request.getAccountNumber(), request.getAmount()));
+      }
+    }
+    if (partitionedCommandEngine.isEnabled()) {
+      try (StageTimer ignored = StageTimer.start("service")) {
+        return CancelTransaction.Response.from(partitionedCommandEngine.execute(
+            request.getAccountNumber(),
+            () -> transactionService.cancelTransaction(
+                request.getTransactionId(), request.getAccountNumber(), request.getAmount()),
+            () -> transactionService.saveFailedCancelTransaction(
+                request.getAccountNumber(), request.getAmount())));
+      }
+    }
     try {
-      TransactionDto transactionDto = transactionService.cancelTransaction(
-          request.getTransactionId(), request.getAccountNumber(), request.getAmount()
-      );
+      TransactionDto transactionDto;
+      try (StageTimer ignored = StageTimer.start("service")) {
+        if (redisBalanceEngine.isEnabled()) {
+          transactionDto = redisBalanceEngine.cancel(
+              request.getTransactionId(), request.getAccountNumber(), request.getAmount());
+        } else {
+          transactionDto = transactionService.cancelTransaction(
+              request.getTransactionId(), request.getAccountNumber(), request.getAmount());
+        }
+      }
       return CancelTransaction.Response.from(transactionDto);
     } catch (AccountException e) {
       log.error("거래 취소 실패");
-      transactionService.saveFailedCancelTransaction(request.getAccountNumber(),
-          request.getAmount());
+      try (StageTimer ignored = StageTimer.start("failure")) {
+        transactionService.saveFailedCancelTransaction(request.getAccountNumber(),
+            request.getAmount());
+      }
       throw e;
     }
   }
 
+  /**
+   * 같은 사용자의 두 계좌 사이 이체. 두 계좌 모두 lock 을 잡는다.
+   */
+  @PostMapping("/transaction/transfer")
+  @AccountLock
+  public TransferTransaction.Response transferTransaction(
+      @RequestBody @Valid TransferTransaction.Request request) {
+    // Redis 잔액 엔진, 파티션 엔진, 파이프라인 엔진은 계좌 하나의 명령만 지원한다.
+    if (redisBalanceEngine.isEnabled() || partitionedCommandEngine.isEnabled()
+        || commandPipeline.isEnabled()) {
+      throw new AccountException(ErrorCode.INVALID_REQUEST);
+    }
+    try {
+      TransferDto transferDto;
+      try (StageTimer ignored = StageTimer.start("service")) {
+        transferDto = transactionService.transferTransaction(request.getUserId(),
+            request.getFromAccountNumber(), request.getToAccountNumber(), request.getAmount());
+      }
+      return TransferTransaction.Response.from(transferDto);
+    } catch (AccountException e) {
+      log.error("계좌 이체 실패");
+      try (StageTimer ignored = StageTimer.start("failure")) {
+        transactionService.saveFailedTransferTransaction(request.getFromAccountNumber(),
+            request.getAmount());
+      }
+      throw e;
+    }
+  }
+
+  // 분할 계좌는 파이프라인 엔진에서도 stripe 단위로 처리하는 기존 경로로 간다.
+  private boolean isPipelined(String accountNumber) {
+    return commandPipeline.isEnabled() && !stripedAccountRegistry.isStriped(accountNumber);
+  }
+
   @GetMapping("/transaction/{transactionId}")
   public InquiryTransactionResponse getTransactionByTransactionId(
       @PathVariable String transactionId
@@ -0,0 +1,24 @@
+package com.example.account.datasource;
+
+/**
+ * 현재 요청을 보낸 클라이언트 식별자. read-your-writes 판단에 쓰인다.
+ */
+public class ClientContext {
+
+  private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+  private ClientContext() {
+  }
+
+  public static void set(String clientId) {
+    CURRENT.set(clientId);
+  }
+
+  public static String current() {
+    return CURRENT.get();
+  }
+
+  public static void clear() {
+    CURRENT.remove();
+  }
+}
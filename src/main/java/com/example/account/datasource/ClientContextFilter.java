@@ -0,0 +1,29 @@
+package com.example.account.datasource;
+
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * X-Client-Id 헤더(없으면 접속 주소)로 클라이언트를 식별해 {@link ClientContext} 에 담는다.
+ */
+public class ClientContextFilter extends OncePerRequestFilter {
+
+  public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    String clientId = request.getHeader(CLIENT_ID_HEADER);
+    ClientContext.set(StringUtils.hasText(clientId) ? clientId : request.getRemoteAddr());
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      ClientContext.clear();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.example.account.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * H2 인스턴스 사이에 스키마와 행을 복사하는 JDBC 도우미. 로컬 복제기와 샤드 초기화에서 쓴다.
+ */
+public class H2Tables {
+
+  private H2Tables() {
+  }
+
+  public static List<String> findTables(Connection connection) throws SQLException {
+    List<String> tables = new ArrayList<>();
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(
+            "select table_name from information_schema.tables "
+                + "where table_schema = 'PUBLIC' and table_type in ('TABLE', 'BASE TABLE') "
+                + "order by table_name")) {
+      while (resultSet.next()) {
+        tables.add(resultSet.getString(1));
+      }
+    }
+    return tables;
+  }
+
+  /**
+   * target 의 모든 객체를 지우고 source 의 스키마(데이터 제외)를 그대로 만든다.
+   */
+  public static void copySchema(Connection source, Connection target) throws SQLException {
+    List<String> ddl = new ArrayList<>();
+    try (Statement statement = source.createStatement();
+        ResultSet resultSet = statement.executeQuery("script nodata")) {
+      while (resultSet.next()) {
+        ddl.add(resultSet.getString(1));
+      }
+    }
+    try (Statement statement = target.createStatement()) {
+      statement.execute("drop all objects");
+      for (String sql : ddl) {
+        statement.execute(sql);
+      }
+    }
+  }
+
+  /**
+   * source 테이블에서 where 조건에 맞는 행을 target 의 같은 테이블에 넣는다.
+   *
+   * @return 복사한 행 수
+   */
+  public static int copyRows(Connection source, Connection target, String table, String where)
+      throws SQLException {
+    int copied = 0;
+    try (Statement select = source.createStatement();
+        ResultSet rows = select.executeQuery(
+            "select * from \"" + table + "\"" + (where == null ? "" : " where " + where))) {
+      ResultSetMetaData meta = rows.getMetaData();
+      int columnCount = meta.getColumnCount();
+      StringBuilder columns = new StringBuilder();
+      StringBuilder params = new StringBuilder();
+      for (int i = 1; i <= columnCount; i++) {
+        columns.append(i > 1 ? ", " : "").append('"').append(meta.getColumnName(i)).append('"');
+        params.append(i > 1 ? ", ?" : "?");
+      }
+      try (PreparedStatement insert = target.prepareStatement(
+          "insert into \"" + table + "\" (" + columns + ") values (" + params + ")")) {
+        while (rows.next()) {
+          for (int i = 1; i <= columnCount; i++) {
+            insert.setObject(i, rows.getObject(i));
+          }
+          insert.addBatch();
+          copied++;
+        }
+        insert.executeBatch();
+      }
+    }
+    return copied;
+  }
+
+  public static void setReferentialIntegrity(Connection connection, boolean enabled)
+      throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("set referential_integrity " + enabled);
+    }
+  }
+}
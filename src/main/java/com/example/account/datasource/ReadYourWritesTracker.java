@@ -0,0 +1,39 @@
+package com.example.account.datasource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * 클라이언트별 마지막 쓰기 commit 시각을 기억한다.
+ * 쓰기 직후 일정 시간 동안은 해당 클라이언트의 읽기를 primary 로 보내 방금 쓴 값을 보게 한다.
+ */
+public class ReadYourWritesTracker {
+
+  private final long stickyWindowMillis;
+  private final Map<String, Long> lastWriteAt = new ConcurrentHashMap<>();
+
+  public ReadYourWritesTracker(long stickyWindowMillis) {
+    this.stickyWindowMillis = stickyWindowMillis;
+  }
+
+  public void markWrite(String clientId) {
+    if (clientId != null) {
+      lastWriteAt.put(clientId, System.currentTimeMillis());
+    }
+  }
+
+  public boolean isSticky(String clientId) {
+    if (clientId == null) {
+      return false;
+    }
+    Long writtenAt = lastWriteAt.get(clientId);
+    return writtenAt != null && System.currentTimeMillis() - writtenAt < stickyWindowMillis;
+  }
+
+  @Scheduled(fixedDelayString = "${spring.datasource.replication.sticky-window-ms}")
+  public void evictExpired() {
+    long expiredBefore = System.currentTimeMillis() - stickyWindowMillis;
+    lastWriteAt.values().removeIf(writtenAt -> writtenAt < expiredBefore);
+  }
+}
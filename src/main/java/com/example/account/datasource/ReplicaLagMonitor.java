@@ -0,0 +1,94 @@
+package com.example.account.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * primary 에 heartbeat 시각을 기록하고 각 replica 에 복제된 값과 비교해 복제 지연을 잰다.
+ * 지연이 허용치를 넘거나 측정에 실패한 replica 에는 읽기를 보내지 않는다.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+  static final String HEARTBEAT_TABLE = "replication_heartbeat";
+
+  private final ReplicationDataSources dataSources;
+  private final long maxLagMillis;
+  private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+
+  public ReplicaLagMonitor(ReplicationDataSources dataSources, long maxLagMillis) {
+    this.dataSources = dataSources;
+    this.maxLagMillis = maxLagMillis;
+  }
+
+  public boolean isAvailable(String replicaKey) {
+    Long lag = lagMillis.get(replicaKey);
+    return lag != null && lag <= maxLagMillis;
+  }
+
+  public Long getLagMillis(String replicaKey) {
+    return lagMillis.get(replicaKey);
+  }
+
+  void updateLag(String replicaKey, long lag) {
+    lagMillis.put(replicaKey, lag);
+  }
+
+  @Scheduled(fixedDelayString = "${spring.datasource.replication.heartbeat-interval-ms}")
+  public void measure() {
+    long now = System.currentTimeMillis();
+    try {
+      writeHeartbeat(dataSources.getPrimary(), now);
+    } catch (SQLException e) {
+      log.error("Failed to write replication heartbeat", e);
+      return;
+    }
+    dataSources.getReplicas().forEach((key, replica) -> {
+      try {
+        Long beatAt = readHeartbeat(replica);
+        lagMillis.put(key, beatAt == null ? Long.MAX_VALUE : now - beatAt);
+      } catch (SQLException e) {
+        log.warn("Failed to read replication heartbeat from {}", key);
+        lagMillis.put(key, Long.MAX_VALUE);
+      }
+    });
+  }
+
+  private void writeHeartbeat(DataSource primary, long now) throws SQLException {
+    try (Connection connection = primary.getConnection()) {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("create table if not exists " + HEARTBEAT_TABLE
+            + " (id int primary key, beat_at bigint not null)");
+      }
+      try (PreparedStatement update = connection.prepareStatement(
+          "update " + HEARTBEAT_TABLE + " set beat_at = ? where id = 1")) {
+        update.setLong(1, now);
+        if (update.executeUpdate() > 0) {
+          return;
+        }
+      }
+      try (PreparedStatement insert = connection.prepareStatement(
+          "insert into " + HEARTBEAT_TABLE + " (id, beat_at) values (1, ?)")) {
+        insert.setLong(1, now);
+        insert.executeUpdate();
+      }
+    }
+  }
+
+  private Long readHeartbeat(DataSource replica) throws SQLException {
+    try (Connection connection = replica.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(
+            "select beat_at from " + HEARTBEAT_TABLE + " where id = 1")) {
+      return resultSet.next() ? resultSet.getLong(1) : null;
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.example.account.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import lombok.Getter;
+
+/**
+ * primary 와 replica 커넥션 풀을 묶어 관리한다. replica 키는 "replica-0", "replica-1" ... 이다.
+ */
+@Getter
+public class ReplicationDataSources implements AutoCloseable {
+
+  public static final String PRIMARY = "primary";
+  public static final String REPLICA_PREFIX = "replica-";
+
+  private final HikariDataSource primary;
+  private final Map<String, HikariDataSource> replicas;
+
+  public ReplicationDataSources(HikariDataSource primary, Map<String, HikariDataSource> replicas) {
+    this.primary = primary;
+    this.replicas = Collections.unmodifiableMap(new LinkedHashMap<>(replicas));
+  }
+
+  public Map<Object, Object> toTargetDataSources() {
+    Map<Object, Object> targets = new LinkedHashMap<>();
+    targets.put(PRIMARY, primary);
+    targets.putAll(replicas);
+    return targets;
+  }
+
+  public DataSource getReplica(String key) {
+    return replicas.get(key);
+  }
+
+  @Override
+  public void close() {
+    replicas.values().forEach(HikariDataSource::close);
+    primary.close();
+  }
+}
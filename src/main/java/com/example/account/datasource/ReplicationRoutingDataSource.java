@@ -0,0 +1,63 @@
+package com.example.account.datasource;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 읽기 전용 트랜잭션은 replica 로, 그 외는 primary 로 보낸다.
+ * <ul>
+ *   <li>쓰기 트랜잭션이 commit 되면 해당 클라이언트는 잠시 primary 에서 읽는다 (read-your-writes)</li>
+ *   <li>복제 지연이 허용치를 넘은 replica 는 건너뛰고, 쓸 수 있는 replica 가 없으면 primary 로 보낸다</li>
+ * </ul>
+ * 트랜잭션의 readOnly 여부가 정해진 뒤에 커넥션을 얻어야 하므로 LazyConnectionDataSourceProxy 로 감싸서 쓴다.
+ */
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+
+  private final List<String> replicaKeys;
+  private final ReplicaLagMonitor lagMonitor;
+  private final ReadYourWritesTracker readYourWritesTracker;
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  public ReplicationRoutingDataSource(List<String> replicaKeys, ReplicaLagMonitor lagMonitor,
+      ReadYourWritesTracker readYourWritesTracker) {
+    this.replicaKeys = replicaKeys;
+    this.lagMonitor = lagMonitor;
+    this.readYourWritesTracker = readYourWritesTracker;
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      trackWriteCommit();
+      return ReplicationDataSources.PRIMARY;
+    }
+    if (readYourWritesTracker.isSticky(ClientContext.current())) {
+      return ReplicationDataSources.PRIMARY;
+    }
+    int size = replicaKeys.size();
+    int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+    for (int i = 0; i < size; i++) {
+      String replicaKey = replicaKeys.get((start + i) % size);
+      if (lagMonitor.isAvailable(replicaKey)) {
+        return replicaKey;
+      }
+    }
+    return ReplicationDataSources.PRIMARY;
+  }
+
+  private void trackWriteCommit() {
+    String clientId = ClientContext.current();
+    if (clientId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        readYourWritesTracker.markWrite(clientId);
+      }
+    });
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.account.datasource;
+
+/**
+ * 현재 스레드의 작업이 어느 샤드에서 실행되는지 담는다. 값이 없으면 0번 샤드로 간다.
+ */
+public class ShardContext {
+
+  private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+  private ShardContext() {
+  }
+
+  public static Integer current() {
+    return CURRENT.get();
+  }
+
+  public static int currentOrDefault() {
+    Integer shard = CURRENT.get();
+    return shard == null ? 0 : shard;
+  }
+
+  public static void set(Integer shard) {
+    if (shard == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(shard);
+    }
+  }
+
+  public static void clear() {
+    CURRENT.remove();
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.account.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+/**
+ * 샤드별 커넥션 풀. 샤드 번호는 shard-urls 의 순서다.
+ */
+public class ShardDataSources implements AutoCloseable {
+
+  private final List<HikariDataSource> shards;
+
+  public ShardDataSources(List<HikariDataSource> shards) {
+    this.shards = Collections.unmodifiableList(shards);
+  }
+
+  public DataSource get(int shard) {
+    return shards.get(shard);
+  }
+
+  public int size() {
+    return shards.size();
+  }
+
+  public Map<Object, Object> toTargetDataSources() {
+    Map<Object, Object> targets = new LinkedHashMap<>();
+    for (int i = 0; i < shards.size(); i++) {
+      targets.put(i, shards.get(i));
+    }
+    return targets;
+  }
+
+  @Override
+  public void close() {
+    shards.forEach(HikariDataSource::close);
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.account.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 기동 시 0번 샤드(Hibernate DDL, data.sql 이 적용되는 곳)를 기준으로 나머지 샤드를 맞춘다.
+ * <ul>
+ *   <li>스키마를 복사한다</li>
+ *   <li>account_user 는 모든 샤드에 두는 참조 테이블이므로 그대로 복사한다</li>
+ *   <li>0번 샤드에 들어갔지만 계좌번호 해시가 다른 샤드인 계좌는 거래와 함께 옮긴다</li>
+ * </ul>
+ * 빈을 만들 때 실행한다. 빈은 DB 초기화(Hibernate DDL, data.sql)가 끝난 뒤에 만들어지고,
+ * 웹 서버는 빈을 다 만든 뒤에 요청을 받기 시작하므로 옮기는 도중의 계좌로 요청이 가지 않는다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ShardInitializer {
+
+  private static final String ACCOUNT_USER_TABLE = "ACCOUNT_USER";
+  private static final String ACCOUNT_TABLE = "ACCOUNT";
+  private static final String TRANSACTION_TABLE = "TRANSACTION";
+
+  private final ShardRouter shardRouter;
+  private final ShardDataSources shards;
+
+  @PostConstruct
+  public void initializeShards() throws SQLException {
+    try (Connection origin = shards.get(0).getConnection()) {
+      for (int shard = 1; shard < shardRouter.getShardCount(); shard++) {
+        try (Connection target = shards.get(shard).getConnection()) {
+          H2Tables.copySchema(origin, target);
+          H2Tables.copyRows(origin, target, ACCOUNT_USER_TABLE, null);
+        }
+      }
+      relocateMisplacedAccounts(origin);
+    }
+  }
+
+  private void relocateMisplacedAccounts(Connection origin) throws SQLException {
+    List<Object[]> accounts = new ArrayList<>();
+    try (Statement statement = origin.createStatement();
+        ResultSet resultSet = statement.executeQuery(
+            "select id, account_number from account")) {
+      while (resultSet.next()) {
+        accounts.add(new Object[]{resultSet.getLong(1), resultSet.getString(2)});
+      }
+    }
+    for (Object[] account : accounts) {
+      long accountId = (Long) account[0];
+      int shard = shardRouter.shardOf((String) account[1]);
+      if (shard == 0) {
+        continue;
+      }
+      try (Connection target = shards.get(shard).getConnection()) {
+        H2Tables.copyRows(origin, target, ACCOUNT_TABLE, "id = " + accountId);
+        H2Tables.copyRows(origin, target, TRANSACTION_TABLE, "account_id = " + accountId);
+      }
+      try (PreparedStatement deleteTransactions = origin.prepareStatement(
+          "delete from transaction where account_id = ?");
+          PreparedStatement deleteAccount = origin.prepareStatement(
+              "delete from account where id = ?")) {
+        deleteTransactions.setLong(1, accountId);
+        deleteTransactions.executeUpdate();
+        deleteAccount.setLong(1, accountId);
+        deleteAccount.executeUpdate();
+      }
+      log.info("Relocated account {} to shard {}", account[1], shard);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.account.datasource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * 계좌번호 해시로 샤드를 정하고, 거래 ID 에 샤드 번호를 붙인다.
+ * <ul>
+ *   <li>계좌와 그 계좌의 거래는 같은 샤드에 둔다</li>
+ *   <li>거래 ID 는 "샤드번호 2자리 + UUID 32자리" 이므로 ID 만으로 샤드를 찾을 수 있다</li>
+ *   <li>접두어가 없는(샤딩 이전) 거래 ID 는 샤드를 특정할 수 없으므로 모든 샤드에서 찾는다</li>
+ * </ul>
+ * 샤딩을 켜지 않으면 샤드는 1개이고 거래 ID 에 접두어를 붙이지 않는다.
+ */
+public class ShardRouter {
+
+  private static final int PREFIX_LENGTH = 2;
+  private static final int UUID_LENGTH = 32;
+
+  private final int shardCount;
+
+  public ShardRouter(int shardCount) {
+    if (shardCount < 1 || shardCount > 100) {
+      throw new IllegalArgumentException("shardCount must be between 1 and 100");
+    }
+    this.shardCount = shardCount;
+  }
+
+  public int getShardCount() {
+    return shardCount;
+  }
+
+  public boolean isSharded() {
+    return shardCount > 1;
+  }
+
+  public int shardOf(String accountNumber) {
+    if (!isSharded()) {
+      return 0;
+    }
+    CRC32 crc32 = new CRC32();
+    crc32.update(accountNumber.getBytes(StandardCharsets.US_ASCII));
+    return (int) (crc32.getValue() % shardCount);
+  }
+
+  /**
+   * 신규 계좌를 둘 샤드. 사용자별로 고르게 나눈다.
+   */
+  public int shardOfUser(Long userId) {
+    return (int) Math.floorMod(userId, (long) shardCount);
+  }
+
+  public int shardOfTransactionId(String transactionId) {
+    if (!hasShardPrefix(transactionId)) {
+      return 0;
+    }
+    return Integer.parseInt(transactionId.substring(0, PREFIX_LENGTH));
+  }
+
+  public boolean hasShardPrefix(String transactionId) {
+    if (!isSharded() || transactionId == null
+        || transactionId.length() != PREFIX_LENGTH + UUID_LENGTH) {
+      return false;
+    }
+    char high = transactionId.charAt(0);
+    char low = transactionId.charAt(1);
+    return Character.isDigit(high) && Character.isDigit(low)
+        && (high - '0') * 10 + (low - '0') < shardCount;
+  }
+
+  public String newTransactionId(String accountNumber) {
+    String uuid = UUID.randomUUID().toString().replace("-", "");
+    if (!isSharded()) {
+      return uuid;
+    }
+    return String.format("%02d", shardOf(accountNumber)) + uuid;
+  }
+}
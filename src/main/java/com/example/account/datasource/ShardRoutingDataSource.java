@@ -0,0 +1,15 @@
+package com.example.account.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * {@link ShardContext} 에 담긴 샤드의 커넥션 풀로 보낸다.
+ * 샤드는 트랜잭션이 시작되기 전에 정해져 있어야 한다 (ShardAspect 참고).
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return ShardContext.currentOrDefault();
+  }
+}
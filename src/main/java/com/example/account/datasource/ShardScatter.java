@@ -0,0 +1,83 @@
+package com.example.account.datasource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 사용자 단위 조회처럼 샤드를 특정할 수 없는 쿼리를 모든 샤드에 병렬로 보내고 결과를 모은다.
+ * 각 샤드 조회는 별도 스레드의 읽기 전용 트랜잭션에서 실행된다.
+ * 샤딩을 켜지 않았으면 호출한 스레드(트랜잭션)에서 바로 실행한다.
+ */
+public class ShardScatter implements AutoCloseable {
+
+  private final ShardRouter shardRouter;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+  private final ExecutorService executor;
+
+  public ShardScatter(ShardRouter shardRouter,
+      TransactionTemplate readOnlyTransactionTemplate) {
+    this.shardRouter = shardRouter;
+    this.readOnlyTransactionTemplate = readOnlyTransactionTemplate;
+    this.executor = shardRouter.isSharded()
+        ? Executors.newFixedThreadPool(shardRouter.getShardCount() * 2)
+        : null;
+  }
+
+  public <T> List<T> gather(Supplier<T> query) {
+    if (!shardRouter.isSharded()) {
+      return Collections.singletonList(query.get());
+    }
+    List<CompletableFuture<T>> futures = new ArrayList<>();
+    for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+      int target = shard;
+      futures.add(CompletableFuture.supplyAsync(() -> {
+        ShardContext.set(target);
+        try {
+          return readOnlyTransactionTemplate.execute(status -> query.get());
+        } finally {
+          ShardContext.clear();
+        }
+      }, executor));
+    }
+    List<T> results = new ArrayList<>(futures.size());
+    try {
+      for (CompletableFuture<T> future : futures) {
+        results.add(future.join());
+      }
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+    return results;
+  }
+
+  public <T> List<T> gatherAll(Supplier<List<T>> query) {
+    List<T> merged = new ArrayList<>();
+    gather(query).forEach(merged::addAll);
+    return merged;
+  }
+
+  public long sum(Supplier<? extends Number> query) {
+    long total = 0;
+    for (Number count : gather(query)) {
+      total += count.longValue();
+    }
+    return total;
+  }
+
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.example.account.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * 로컬/테스트용 복제기. 운영에서는 DB 자체 복제를 쓰고 이 빈은 켜지 않는다.
+ * 주기적으로 primary(H2) 의 스키마와 전체 데이터를 각 replica(H2) 로 복사한다.
+ * 복사 주기만큼 replica 가 뒤처지므로 복제 지연 상황도 그대로 재현된다.
+ */
+@Slf4j
+public class StandInReplicator {
+
+  private final ReplicationDataSources dataSources;
+  // replica 별로 마지막으로 스키마를 복사했을 때의 테이블 목록
+  private final Map<String, List<String>> copiedTables = new ConcurrentHashMap<>();
+
+  public StandInReplicator(ReplicationDataSources dataSources) {
+    this.dataSources = dataSources;
+  }
+
+  @Scheduled(fixedDelayString = "${spring.datasource.replication.stand-in-replicator.interval-ms}")
+  public void replicate() {
+    dataSources.getReplicas().forEach((key, replica) -> {
+      try {
+        replicateTo(key, replica);
+      } catch (SQLException e) {
+        log.error("Stand-in replication to {} failed", key, e);
+        copiedTables.remove(key);
+      }
+    });
+  }
+
+  void replicateTo(String key, DataSource replica) throws SQLException {
+    try (Connection source = dataSources.getPrimary().getConnection();
+        Connection target = replica.getConnection()) {
+      List<String> tables = H2Tables.findTables(source);
+      if (!tables.equals(copiedTables.get(key))) {
+        H2Tables.copySchema(source, target);
+        copiedTables.put(key, tables);
+      }
+      target.setAutoCommit(false);
+      H2Tables.setReferentialIntegrity(target, false);
+      for (String table : tables) {
+        try (Statement delete = target.createStatement()) {
+          delete.execute("delete from \"" + table + "\"");
+        }
+        H2Tables.copyRows(source, target, table, null);
+      }
+      H2Tables.setReferentialIntegrity(target, true);
+      target.commit();
+    }
+  }
+}
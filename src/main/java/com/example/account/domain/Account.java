@@ -7,7 +7,9 @@ import java.time.LocalDateTime;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -21,6 +23,11 @@ import lombok.experimental.SuperBuilder;
 @AllArgsConstructor
 @SuperBuilder
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_account_account_number", columnList = "account_number", unique = true),
+    // 휴면 계좌 정리의 keyset 스캔용
+    @Index(name = "idx_account_status_id", columnList = "account_status, id")
+})
 public class Account extends BaseEntity {
 
   @ManyToOne
@@ -35,6 +42,13 @@ public class Account extends BaseEntity {
   private LocalDateTime openedAt;
   private LocalDateTime closedAt;
 
+  // 2 이상이면 잔액을 AccountStripe 로 나눠 관리한다. 이때 balance 는 0 이다.
+  private Integer stripeCount;
+
+  public boolean isStriped() {
+    return stripeCount != null && stripeCount > 1;
+  }
+
   public void subBalance(Long amount) {
     if (amount > balance) {
       throw new AccountException(ErrorCode.BALANCE_NOT_ENOUGH);
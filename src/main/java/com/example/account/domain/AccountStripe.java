@@ -0,0 +1,27 @@
+package com.example.account.domain;
+
+import javax.persistence.Entity;
+import javax.persistence.ManyToOne;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * 분할(striped) 계좌의 하위 잔액. 계좌 잔액은 모든 stripe 잔액의 합이다.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class AccountStripe extends BaseEntity {
+
+  @ManyToOne
+  private Account account;
+
+  private Integer stripeIndex;
+  private Long balance;
+}
@@ -0,0 +1,41 @@
+package com.example.account.domain;
+
+import com.example.account.type.AccountStatus;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 사용자별 계좌 목록 조회용 요약(읽기 모델). 계좌 변경과 같은 DB 트랜잭션에서 갱신한다.
+ * 계좌번호가 곧 키이므로 BaseEntity 를 쓰지 않는다.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_account_summary_user_id", columnList = "user_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountSummary {
+
+  @Id
+  private String accountNumber;
+
+  @Column(name = "user_id")
+  private Long userId;
+
+  // 분할 계좌는 stripe 잔액의 합
+  private Long balance;
+
+  @Enumerated(EnumType.STRING)
+  private AccountStatus accountStatus;
+}
@@ -1,7 +1,9 @@
 package com.example.account.domain;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -15,4 +17,9 @@ import lombok.experimental.SuperBuilder;
 @SuperBuilder
 public class AccountUser extends BaseEntity {
   private String name;
+
+  // 사용 중(IN_USE)인 계좌 수. 계좌 개설/해지 시 조건부 UPDATE 로만 바꾼다.
+  @Builder.Default
+  @Column(nullable = false, columnDefinition = "integer default 0")
+  private Integer activeAccountCount = 0;
 }
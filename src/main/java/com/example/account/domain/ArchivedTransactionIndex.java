@@ -0,0 +1,27 @@
+package com.example.account.domain;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 아카이브로 옮긴 거래가 어느 파티션 파일에 있는지. 거래 id 가 곧 키이므로 BaseEntity 를 쓰지 않는다.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedTransactionIndex {
+
+  @Id
+  private String transactionId;
+
+  // 예: 2026-07-s0 (월-샤드)
+  private String partitionKey;
+}
@@ -0,0 +1,33 @@
+package com.example.account.domain;
+
+import java.time.LocalDateTime;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * checkpointAt 시점(그 시각의 거래 포함)의 계좌 잔액.
+ * 과거 잔액은 가장 가까운 이전 checkpoint 에 그 뒤 거래만 더해 구한다.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@Table(indexes = @Index(name = "idx_balance_checkpoint_account_at",
+    columnList = "account_id, checkpoint_at"))
+public class BalanceCheckpoint extends BaseEntity {
+
+  @ManyToOne
+  private Account account;
+
+  private LocalDateTime checkpointAt;
+  private Long balance;
+}
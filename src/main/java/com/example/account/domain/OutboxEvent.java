@@ -0,0 +1,37 @@
+package com.example.account.domain;
+
+import com.example.account.type.OutboxEventType;
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * 잔액/계좌 변경과 같은 DB 트랜잭션에서 쌓는 이벤트. OutboxRelay 가 id 순서대로 발행한다.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class OutboxEvent extends BaseEntity {
+
+  // 계좌번호. 같은 계좌의 이벤트는 쌓인 순서대로 발행된다.
+  private String aggregateId;
+
+  @Enumerated(EnumType.STRING)
+  private OutboxEventType eventType;
+
+  @Column(length = 2000)
+  private String payload;
+
+  // 발행이 끝난 시각. null 이면 아직 발행 전이다.
+  private LocalDateTime publishedAt;
+}
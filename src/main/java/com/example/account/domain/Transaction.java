@@ -6,7 +6,9 @@ import java.time.LocalDateTime;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,6 +16,11 @@ import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
 @Entity
+// (account_id, transacted_at): 과거 잔액/거래 명세서, transacted_at: 오래된 달 아카이브
+@Table(indexes = {
+    @Index(name = "idx_transaction_account_transacted_at",
+        columnList = "account_id, transacted_at"),
+    @Index(name = "idx_transaction_transacted_at", columnList = "transacted_at")})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -1,6 +1,8 @@
 package com.example.account.dto;
 
 import com.example.account.domain.Account;
+import com.example.account.domain.AccountSummary;
+import com.example.account.type.AccountStatus;
 import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,16 +20,29 @@ public class AccountDto {
   private Long userId;
   private String accountNumber;
   private Long balance;
+  private AccountStatus accountStatus;
   private LocalDateTime openedAt;
   private LocalDateTime closedAt;
+  private Integer stripeCount;
 
   public static AccountDto fromEntity(Account account) {
     return AccountDto.builder()
         .userId(account.getAccountUser().getId())
         .balance(account.getBalance())
+        .accountStatus(account.getAccountStatus())
         .accountNumber(account.getAccountNumber())
         .openedAt(account.getOpenedAt())
         .closedAt(account.getClosedAt())
+        .stripeCount(account.getStripeCount())
+        .build();
+  }
+
+  public static AccountDto fromSummary(AccountSummary accountSummary) {
+    return AccountDto.builder()
+        .userId(accountSummary.getUserId())
+        .accountNumber(accountSummary.getAccountNumber())
+        .balance(accountSummary.getBalance())
+        .accountStatus(accountSummary.getAccountStatus())
         .build();
   }
 
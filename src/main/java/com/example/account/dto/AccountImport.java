@@ -0,0 +1,71 @@
+package com.example.account.dto;
+
+import com.example.account.type.ErrorCode;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+public class AccountImport {
+
+  /**
+   * CSV: userId,initialBalance
+   * NDJSON: {"userId": , "initialBalance": }
+   */
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Line {
+
+    private Long userId;
+    private Long initialBalance;
+  }
+
+  /**
+   * 줄마다 하나. 성공하면 accountNumber, 실패하면 errorCode/errorMessage 가 채워진다.
+   * {
+   *   "line": ,
+   *   "userId": ,
+   *   "accountNumber":
+   * }
+   */
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public static class Result {
+
+    private long line;
+    private Long userId;
+    private String accountNumber;
+    private ErrorCode errorCode;
+    private String errorMessage;
+
+    public static Result succeed(long line, Long userId, String accountNumber) {
+      return Result.builder()
+          .line(line)
+          .userId(userId)
+          .accountNumber(accountNumber)
+          .build();
+    }
+
+    public static Result failed(long line, Long userId, ErrorCode errorCode) {
+      return Result.builder()
+          .line(line)
+          .userId(userId)
+          .errorCode(errorCode)
+          .errorMessage(errorCode.getDescription())
+          .build();
+    }
+  }
+
+  public enum Format {
+    CSV,
+    NDJSON
+  }
+}
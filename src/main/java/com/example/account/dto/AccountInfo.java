@@ -1,5 +1,6 @@
 package com.example.account.dto;
 
+import com.example.account.type.AccountStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -14,11 +15,13 @@ import lombok.Setter;
 public class AccountInfo {
   private String accountNumber;
   private Long balance;
+  private AccountStatus accountStatus;
 
   public static AccountInfo fromDto(AccountDto accountDto) {
     return AccountInfo.builder()
         .accountNumber(accountDto.getAccountNumber())
         .balance(accountDto.getBalance())
+        .accountStatus(accountDto.getAccountStatus())
         .build();
   }
 }
@@ -0,0 +1,62 @@
+package com.example.account.dto;
+
+import com.example.account.archive.ArchivedTransaction;
+import com.example.account.domain.Transaction;
+import com.example.account.type.TransactionType;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 한 달 동안의 계좌 거래 명세서. 성공한 거래만 시간 순으로 담는다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountStatement {
+  private String accountNumber;
+  private YearMonth month;
+  private Long openingBalance;
+  private Long closingBalance;
+  private List<Line> lines;
+
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  public static class Line {
+    private String transactionId;
+    private TransactionType transactionType;
+    private Long amount;
+    private Long balanceAfter;
+    private LocalDateTime transactedAt;
+
+    public static Line from(Transaction transaction, Long balanceAfter) {
+      return Line.builder()
+          .transactionId(transaction.getTransactionId())
+          .transactionType(transaction.getTransactionType())
+          .amount(transaction.getAmount())
+          .balanceAfter(balanceAfter)
+          .transactedAt(transaction.getTransactedAt())
+          .build();
+    }
+
+    public static Line from(ArchivedTransaction transaction, Long balanceAfter) {
+      return Line.builder()
+          .transactionId(transaction.getTransactionId())
+          .transactionType(transaction.getTransactionType())
+          .amount(transaction.getAmount())
+          .balanceAfter(balanceAfter)
+          .transactedAt(transaction.getTransactedAt())
+          .build();
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.account.dto;
+
+import com.example.account.domain.Transaction;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 거래 한 건과 그 직후 잔액. 분할 계좌는 거래마다 stripe 를 합산하지 않으므로 balance 가 null 이다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceChangeEvent {
+  private String accountNumber;
+  private String transactionId;
+  private TransactionType transactionType;
+  private TransactionResultType transactionResultType;
+  private Long amount;
+  private Long balance;
+  private LocalDateTime transactedAt;
+
+  public static BalanceChangeEvent from(Transaction transaction, Long balance) {
+    return BalanceChangeEvent.builder()
+        .accountNumber(transaction.getAccount().getAccountNumber())
+        .transactionId(transaction.getTransactionId())
+        .transactionType(transaction.getTransactionType())
+        .transactionResultType(transaction.getTransactionResultType())
+        .amount(transaction.getAmount())
+        .balance(balance)
+        .transactedAt(transaction.getTransactedAt())
+        .build();
+  }
+}
@@ -4,16 +4,15 @@ import com.example.account.type.ErrorCode;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
 
+/**
+ * 에러 코드별로 미리 만들어 재사용하므로 불변으로 유지한다.
+ */
 @Getter
-@Setter
-@NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class ErroeResponse {
-  private ErrorCode errorCode;
-  private String errorMessage;
+  private final ErrorCode errorCode;
+  private final String errorMessage;
 
 }
@@ -0,0 +1,19 @@
+package com.example.account.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HistoricalBalance {
+  private String accountNumber;
+  private LocalDateTime at;
+  private Long balance;
+}
@@ -0,0 +1,69 @@
+package com.example.account.dto;
+
+import com.example.account.aop.AccountLockIdInterface;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+public class StripeAccount {
+
+  /**
+   * {
+   *   "userId": ,
+   *   "accountNumber": ,
+   *   "stripeCount":
+   * }
+   */
+  @Getter
+  @Setter
+  @AllArgsConstructor
+  public static class Request implements AccountLockIdInterface {
+
+    @NotNull
+    @Min(1)
+    private Long userId;
+
+    @NotBlank
+    @Size(min = 10, max = 10)
+    private String accountNumber;
+
+    @NotNull
+    @Min(2)
+    @Max(64)
+    private Integer stripeCount;
+  }
+
+  /**
+   * {
+   *   "accountNumber": ,
+   *   "stripeCount": ,
+   *   "balance":
+   * }
+   */
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  public static class Response {
+
+    private String accountNumber;
+    private Integer stripeCount;
+    private Long balance;
+
+    public static Response from(AccountDto accountDto) {
+      return Response.builder()
+          .accountNumber(accountDto.getAccountNumber())
+          .stripeCount(accountDto.getStripeCount())
+          .balance(accountDto.getBalance())
+          .build();
+    }
+  }
+}
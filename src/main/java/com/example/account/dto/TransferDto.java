@@ -0,0 +1,24 @@
+package com.example.account.dto;
+
+import com.example.account.type.TransactionResultType;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferDto {
+  private String fromAccountNumber;
+  private String toAccountNumber;
+  private TransactionResultType transactionResultType;
+  private String withdrawalTransactionId;
+  private String depositTransactionId;
+  private Long amount;
+  private LocalDateTime transactedAt;
+}
@@ -0,0 +1,96 @@
+package com.example.account.dto;
+
+import com.example.account.aop.AccountLockIdInterface;
+import com.example.account.type.TransactionResultType;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+public class TransferTransaction {
+
+  /**
+   * {
+   *   "userId": ,
+   *   "fromAccountNumber": ,
+   *   "toAccountNumber": ,
+   *   "amount":
+   * }
+   */
+  @Getter
+  @Setter
+  @AllArgsConstructor
+  public static class Request implements AccountLockIdInterface {
+    @NotNull
+    @Min(1)
+    private Long userId;
+
+    @NotBlank
+    @Size(min = 10, max = 10)
+    private String fromAccountNumber;
+
+    @NotBlank
+    @Size(min = 10, max = 10)
+    private String toAccountNumber;
+
+    @NotNull
+    @Min(0)
+    private Long amount;
+
+    @Override
+    public String getAccountNumber() {
+      return fromAccountNumber;
+    }
+
+    @Override
+    public List<String> getAccountNumbers() {
+      return Arrays.asList(fromAccountNumber, toAccountNumber);
+    }
+  }
+
+  /**
+   * {
+   *   "fromAccountNumber": ,
+   *   "toAccountNumber": ,
+   *   "transactionResultType": ,
+   *   "withdrawalTransactionId": ,
+   *   "depositTransactionId": ,
+   *   "amount": ,
+   *   "transactedAt":
+   * }
+   */
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  public static class Response {
+    private String fromAccountNumber;
+    private String toAccountNumber;
+    private TransactionResultType transactionResultType;
+    private String withdrawalTransactionId;
+    private String depositTransactionId;
+    private Long amount;
+    private LocalDateTime transactedAt;
+
+    public static Response from(TransferDto transferDto) {
+      return Response.builder()
+          .fromAccountNumber(transferDto.getFromAccountNumber())
+          .toAccountNumber(transferDto.getToAccountNumber())
+          .transactionResultType(transferDto.getTransactionResultType())
+          .withdrawalTransactionId(transferDto.getWithdrawalTransactionId())
+          .depositTransactionId(transferDto.getDepositTransactionId())
+          .amount(transferDto.getAmount())
+          .transactedAt(transferDto.getTransactedAt())
+          .build();
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package com.example.account.event;
+
+import com.example.account.dto.BalanceChangeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 계좌별 잔액 변경 SSE 구독자에게 이벤트를 나눠 준다.
+ * <ul>
+ *   <li>발행은 Redis topic 에 비동기로 올리기만 하므로 거래 처리 스레드를 막지 않는다</li>
+ *   <li>모든 노드가 topic 을 구독하고 자기 노드의 구독자에게만 전달한다</li>
+ *   <li>구독자는 요청 스레드를 잡지 않는 SseEmitter 이며, 전송은 작은 전용 스레드 풀에서 한다</li>
+ *   <li>느린 구독자에게는 가장 최근 이벤트만 보낸다 (BalanceSubscriber)</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class BalanceEventHub {
+  private static final String TOPIC = "ACCOUNT:EVENTS";
+
+  private final RedissonClient redissonClient;
+  private final ObjectMapper objectMapper;
+  private final long timeoutMillis;
+  private final ExecutorService dispatcher;
+
+  private final Map<String, Set<BalanceSubscriber>> subscribers = new ConcurrentHashMap<>();
+  private final AtomicInteger subscriberCount = new AtomicInteger();
+
+  private RTopic topic;
+
+  public BalanceEventHub(RedissonClient redissonClient, ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      @Value("${spring.account.events.timeout-ms}") long timeoutMillis,
+      @Value("${spring.account.events.dispatcher-threads}") int dispatcherThreads) {
+    this.redissonClient = redissonClient;
+    this.objectMapper = objectMapper;
+    this.timeoutMillis = timeoutMillis;
+    this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads);
+    Gauge.builder("account.events.subscribers", subscriberCount, AtomicInteger::get)
+        .description("Open balance event streams on this node")
+        .register(meterRegistry);
+  }
+
+  @PostConstruct
+  public void listen() {
+    topic = redissonClient.getTopic(TOPIC, StringCodec.INSTANCE);
+    topic.addListener(String.class, (channel, message) -> deliverLocally(fromJson(message)));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    dispatcher.shutdownNow();
+  }
+
+  public SseEmitter subscribe(String accountNumber) {
+    SseEmitter emitter = new SseEmitter(timeoutMillis);
+    BalanceSubscriber subscriber = new BalanceSubscriber(accountNumber, emitter);
+    subscribers.compute(accountNumber, (key, accountSubscribers) -> {
+      Set<BalanceSubscriber> updated = accountSubscribers == null
+          ? ConcurrentHashMap.newKeySet() : accountSubscribers;
+      updated.add(subscriber);
+      return updated;
+    });
+    subscriberCount.incrementAndGet();
+
+    emitter.onCompletion(() -> remove(subscriber));
+    emitter.onTimeout(() -> {
+      remove(subscriber);
+      emitter.complete();
+    });
+    emitter.onError(e -> remove(subscriber));
+    return emitter;
+  }
+
+  /**
+   * DB 트랜잭션 안이면 commit 된 뒤에 발행한다. rollback 된 변경은 나가지 않는다.
+   */
+  public void publishAfterCommit(BalanceChangeEvent event) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      publish(event);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        publish(event);
+      }
+    });
+  }
+
+  public void publish(BalanceChangeEvent event) {
+    try {
+      topic.publishAsync(objectMapper.writeValueAsString(event));
+    } catch (JsonProcessingException | RuntimeException e) {
+      // 실시간 알림은 best-effort 다. 거래 처리에는 영향을 주지 않는다.
+      log.warn("Failed to publish balance event for {}", event.getAccountNumber(), e);
+    }
+  }
+
+  void deliverLocally(BalanceChangeEvent event) {
+    if (event == null) {
+      return;
+    }
+    Set<BalanceSubscriber> accountSubscribers = subscribers.get(event.getAccountNumber());
+    if (accountSubscribers == null) {
+      return;
+    }
+    for (BalanceSubscriber subscriber : accountSubscribers) {
+      if (subscriber.offer(event)) {
+        dispatcher.execute(() -> drain(subscriber));
+      }
+    }
+  }
+
+  private void drain(BalanceSubscriber subscriber) {
+    BalanceChangeEvent event;
+    while ((event = subscriber.next()) != null) {
+      try {
+        subscriber.getEmitter().send(SseEmitter.event()
+            .name("balance")
+            .id(event.getTransactionId())
+            .data(event, MediaType.APPLICATION_JSON));
+      } catch (IOException | IllegalStateException e) {
+        // 끊긴 연결
+        remove(subscriber);
+        subscriber.getEmitter().completeWithError(e);
+        return;
+      }
+    }
+  }
+
+  /**
+   * 쉬고 있는 연결에 주석 한 줄을 보내 끊긴 연결을 정리하고 프록시가 연결을 닫지 않게 한다.
+   */
+  @Scheduled(fixedDelayString = "${spring.account.events.heartbeat-interval-ms}")
+  public void heartbeat() {
+    subscribers.values().forEach(accountSubscribers -> accountSubscribers.forEach(subscriber -> {
+      if (subscriber.isDraining()) {
+        return;
+      }
+      dispatcher.execute(() -> {
+        try {
+          subscriber.getEmitter().send(SseEmitter.event().comment("heartbeat"));
+        } catch (IOException | IllegalStateException e) {
+          remove(subscriber);
+          subscriber.getEmitter().completeWithError(e);
+        }
+      });
+    }));
+  }
+
+  private void remove(BalanceSubscriber subscriber) {
+    subscribers.computeIfPresent(subscriber.getAccountNumber(), (key, accountSubscribers) -> {
+      if (accountSubscribers.remove(subscriber)) {
+        subscriberCount.decrementAndGet();
+      }
+      return accountSubscribers.isEmpty() ? null : accountSubscribers;
+    });
+  }
+
+  private BalanceChangeEvent fromJson(String message) {
+    try {
+      return objectMapper.readValue(message, BalanceChangeEvent.class);
+    } catch (JsonProcessingException e) {
+      log.warn("Dropping malformed balance event : {}", message);
+      return null;
+    }
+  }
+}
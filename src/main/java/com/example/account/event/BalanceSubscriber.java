@@ -0,0 +1,64 @@
+package com.example.account.event;
+
+import com.example.account.dto.BalanceChangeEvent;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.Getter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * SSE 구독자 하나. 보내지 못한 이벤트는 가장 최근 것 하나만 남기므로(coalescing)
+ * 느린 구독자가 있어도 메모리가 쌓이지 않고 발행하는 쪽이 기다리지 않는다.
+ */
+public class BalanceSubscriber {
+
+  @Getter
+  private final String accountNumber;
+  @Getter
+  private final SseEmitter emitter;
+
+  private final AtomicReference<BalanceChangeEvent> pending = new AtomicReference<>();
+  private final AtomicBoolean draining = new AtomicBoolean();
+  private final AtomicLong coalesced = new AtomicLong();
+
+  public BalanceSubscriber(String accountNumber, SseEmitter emitter) {
+    this.accountNumber = accountNumber;
+    this.emitter = emitter;
+  }
+
+  /**
+   * 이벤트를 보낼 차례로 올린다. 이미 보내는 중이면 false 이고, 그 스레드가 이어서 보낸다.
+   */
+  public boolean offer(BalanceChangeEvent event) {
+    if (pending.getAndSet(event) != null) {
+      coalesced.incrementAndGet();
+    }
+    return draining.compareAndSet(false, true);
+  }
+
+  /**
+   * 보낼 이벤트를 꺼낸다. 더 없으면 보내는 중 표시를 풀고 null 을 돌려준다.
+   */
+  public BalanceChangeEvent next() {
+    while (true) {
+      BalanceChangeEvent event = pending.getAndSet(null);
+      if (event != null) {
+        return event;
+      }
+      draining.set(false);
+      // 표시를 푸는 사이에 들어온 이벤트는 다른 스레드가 가져가지 않았으면 이어서 보낸다.
+      if (pending.get() == null || !draining.compareAndSet(false, true)) {
+        return null;
+      }
+    }
+  }
+
+  public boolean isDraining() {
+    return draining.get();
+  }
+
+  public long getCoalescedCount() {
+    return coalesced.get();
+  }
+}
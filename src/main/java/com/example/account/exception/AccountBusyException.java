@@ -0,0 +1,17 @@
+package com.example.account.exception;
+
+import com.example.account.type.ErrorCode;
+import lombok.Getter;
+
+/**
+ * 계좌에 요청이 몰려 받지 않은 경우. 응답의 Retry-After 로 쓸 대기 시간을 함께 담는다.
+ */
+@Getter
+public class AccountBusyException extends AccountException {
+  private final long retryAfterMillis;
+
+  public AccountBusyException(long retryAfterMillis) {
+    super(ErrorCode.ACCOUNT_TOO_BUSY);
+    this.retryAfterMillis = retryAfterMillis;
+  }
+}
@@ -7,6 +7,10 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+/**
+ * 예상된 비즈니스 오류이므로 stack trace 를 채우지 않는다.
+ * 거절 요청이 몰릴 때 stack 수집 비용이 CPU 를 잡아먹지 않게 하기 위함이다.
+ */
 @Getter
 @Setter
 @AllArgsConstructor
@@ -20,4 +24,9 @@ public class AccountException extends RuntimeException{
     this.errorCode = errorCode;
     this.errorMessage = errorCode.getDescription();
   }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
 }
@@ -0,0 +1,55 @@
+package com.example.account.exception;
+
+import com.example.account.type.ErrorCode;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 에러 코드별로 일정 시간 동안 남길 로그 수를 제한한다.
+ * 잘못된 요청이 몰려도 로깅 비용이 요청 수에 비례해 늘지 않는다.
+ */
+public class ErrorLogSampler {
+
+  private final long windowNanos;
+  private final int maxPerWindow;
+  private final Map<ErrorCode, Window> windows = new EnumMap<>(ErrorCode.class);
+
+  public ErrorLogSampler(long windowMillis, int maxPerWindow) {
+    this.windowNanos = windowMillis * 1_000_000L;
+    this.maxPerWindow = maxPerWindow;
+    for (ErrorCode errorCode : ErrorCode.values()) {
+      windows.put(errorCode, new Window(System.nanoTime()));
+    }
+  }
+
+  /**
+   * @return 로그를 남겨야 하면 이번 구간에서 생략된 건수(0 이상), 생략해야 하면 -1
+   */
+  public long sample(ErrorCode errorCode) {
+    Window window = windows.get(errorCode);
+    long now = System.nanoTime();
+    long startedAt = window.startedAt.get();
+    long suppressed = 0;
+    if (now - startedAt > windowNanos && window.startedAt.compareAndSet(startedAt, now)) {
+      suppressed = window.suppressed.getAndSet(0);
+      window.logged.set(0);
+    }
+    if (window.logged.incrementAndGet() <= maxPerWindow) {
+      return suppressed;
+    }
+    window.suppressed.incrementAndGet();
+    return -1;
+  }
+
+  private static class Window {
+    private final AtomicLong startedAt;
+    private final AtomicInteger logged = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    private Window(long startedAt) {
+      this.startedAt = new AtomicLong(startedAt);
+    }
+  }
+}
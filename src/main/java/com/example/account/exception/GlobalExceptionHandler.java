@@ -2,32 +2,117 @@ package com.example.account.exception;
 
 import com.example.account.dto.ErroeResponse;
 import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
+  private static final String ERROR_METRIC = "account.errors";
+
+  // 에러 코드별 응답은 미리 만들어 두고 재사용한다.
+  private static final Map<ErrorCode, ResponseEntity<ErroeResponse>> ERROR_RESPONSES =
+      new EnumMap<>(ErrorCode.class);
+
+  static {
+    for (ErrorCode errorCode : ErrorCode.values()) {
+      ERROR_RESPONSES.put(errorCode, ResponseEntity.status(errorCode.getHttpStatus())
+          .body(new ErroeResponse(errorCode, errorCode.getDescription())));
+    }
+  }
+
+  private final MeterRegistry meterRegistry;
+  // 에러 코드별 초당 최대 10건만 로그를 남긴다.
+  private final ErrorLogSampler errorLogSampler = new ErrorLogSampler(1_000L, 10);
 
   @ExceptionHandler(AccountException.class)
-  public ErroeResponse handleAccountException(AccountException e) {
-    log.error("AccountException {} is occurred", e.getErrorCode());
-    return new ErroeResponse(e.getErrorCode(), e.getErrorMessage());
+  public ResponseEntity<ErroeResponse> handleAccountException(AccountException e) {
+    ErrorCode errorCode = e.getErrorCode();
+    long suppressed = errorLogSampler.sample(errorCode);
+    if (suppressed >= 0) {
+      log.warn("AccountException {} is occurred (suppressed {} since last log)",
+          errorCode, suppressed);
+    }
+    countError(errorCode);
+    if (Objects.equals(e.getErrorMessage(), errorCode.getDescription())) {
+      return ERROR_RESPONSES.get(errorCode);
+    }
+    return ResponseEntity.status(errorCode.getHttpStatus())
+        .body(new ErroeResponse(errorCode, e.getErrorMessage()));
+  }
+
+  /**
+   * 계좌 요청 수 제한에 걸린 요청. 언제 다시 시도하면 되는지 Retry-After(초) 로 알려준다.
+   */
+  @ExceptionHandler(AccountBusyException.class)
+  public ResponseEntity<ErroeResponse> handleAccountBusyException(AccountBusyException e) {
+    ResponseEntity<ErroeResponse> response = handleAccountException(e);
+    long retryAfterSeconds = Math.max(1L, (e.getRetryAfterMillis() + 999L) / 1_000L);
+    return ResponseEntity.status(response.getStatusCode())
+        .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+        .body(response.getBody());
+  }
+
+  @ExceptionHandler({MethodArgumentNotValidException.class,
+      HttpMessageNotReadableException.class,
+      MethodArgumentTypeMismatchException.class,
+      MissingServletRequestParameterException.class})
+  public ResponseEntity<ErroeResponse> handleInvalidRequest(Exception e) {
+    return rejectRequest(ErrorCode.INVALID_REQUEST, e);
+  }
+
+  @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
+  public ResponseEntity<ErroeResponse> handleMethodNotAllowed(Exception e) {
+    return rejectRequest(ErrorCode.METHOD_NOT_ALLOWED, e);
+  }
+
+  @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+  public ResponseEntity<ErroeResponse> handleUnsupportedMediaType(Exception e) {
+    return rejectRequest(ErrorCode.UNSUPPORTED_MEDIA_TYPE, e);
   }
 
   @ExceptionHandler(DataIntegrityViolationException.class)
-  public ErroeResponse handleException(DataIntegrityViolationException e) {
+  public ResponseEntity<ErroeResponse> handleException(DataIntegrityViolationException e) {
     log.error("DataIntegrityViolationException is occurred", e);
-    return new ErroeResponse(ErrorCode.INVALID_REQUEST,
-        ErrorCode.INVALID_REQUEST.getDescription());
+    countError(ErrorCode.INVALID_REQUEST);
+    return ERROR_RESPONSES.get(ErrorCode.INVALID_REQUEST);
   }
 
   @ExceptionHandler(Exception.class)
-  public ErroeResponse handleException(Exception e) {
+  public ResponseEntity<ErroeResponse> handleException(Exception e) {
     log.error("Exception is occurred", e);
-    return new ErroeResponse(ErrorCode.INTERNAL_SERVER_ERROR,
-        ErrorCode.INTERNAL_SERVER_ERROR.getDescription());
+    countError(ErrorCode.INTERNAL_SERVER_ERROR);
+    return ERROR_RESPONSES.get(ErrorCode.INTERNAL_SERVER_ERROR);
+  }
+
+  // 잘못된 요청은 스택 트레이스 없이 샘플링한 로그만 남기고 미리 만든 응답을 돌려준다.
+  private ResponseEntity<ErroeResponse> rejectRequest(ErrorCode errorCode, Exception e) {
+    long suppressed = errorLogSampler.sample(errorCode);
+    if (suppressed >= 0) {
+      log.warn("Invalid request : {} (suppressed {} since last log)",
+          e.getClass().getSimpleName(), suppressed);
+    }
+    countError(errorCode);
+    return ERROR_RESPONSES.get(errorCode);
+  }
+
+  private void countError(ErrorCode errorCode) {
+    meterRegistry.counter(ERROR_METRIC, "errorCode", errorCode.name()).increment();
   }
 }
@@ -0,0 +1,325 @@
+package com.example.account.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 받아들인 open/close/use/cancel(이체 포함) 명령을 DB commit 직전에 남기는 append-only journal.
+ * <ul>
+ *   <li>레코드는 고정 길이에 CRC 를 붙여 memory-mapped 세그먼트에 쓰고, 세그먼트가 차면 다음 파일로 넘어간다</li>
+ *   <li>fsync 는 별도 스레드가 fsync-interval-ms 마다, 또는 fsync-batch-size 건이 쌓이면 묶어서 한다</li>
+ *   <li>명령은 자기 레코드가 fsync 된 뒤에 DB commit 으로 넘어간다 (fsync-interval-ms 가 0 이면 바로 fsync)</li>
+ * </ul>
+ * 꺼져 있으면 아무것도 하지 않는다. 기동 시 복구는 CommandJournalReplayer 가 한다.
+ */
+@Slf4j
+@Component
+public class CommandJournal {
+  private static final long DURABLE_WAIT_TIMEOUT_MILLIS = 5_000L;
+
+  private final boolean enabled;
+  private final Path directory;
+  private final int segmentRecords;
+  private final long fsyncIntervalMillis;
+  private final int fsyncBatchSize;
+
+  // synchronized 대신 ReentrantLock 을 쓴다. 가상 스레드가 fsync 를 기다리거나 세그먼트를 넘기는 동안
+  // carrier 스레드를 붙잡지(pinning) 않는다.
+  private final ReentrantLock appendLock = new ReentrantLock();
+  private final ReentrantLock durableLock = new ReentrantLock();
+  private final Condition durableChanged = durableLock.newCondition();
+
+  // appendLock
+  private JournalSegment current;
+  private long lastSequence;
+
+  // durableLock
+  private long durableSequence;
+  private int pendingRecords;
+  private boolean running;
+
+  private Thread fsyncThread;
+
+  public CommandJournal(
+      @Value("${spring.journal.enabled}") boolean enabled,
+      @Value("${spring.journal.directory}") String directory,
+      @Value("${spring.journal.segment-records}") int segmentRecords,
+      @Value("${spring.journal.fsync-interval-ms}") long fsyncIntervalMillis,
+      @Value("${spring.journal.fsync-batch-size}") int fsyncBatchSize) {
+    this.enabled = enabled;
+    this.directory = Paths.get(directory);
+    this.segmentRecords = segmentRecords;
+    this.fsyncIntervalMillis = fsyncIntervalMillis;
+    this.fsyncBatchSize = fsyncBatchSize;
+  }
+
+  @PostConstruct
+  public void start() throws IOException {
+    if (!enabled) {
+      return;
+    }
+    Files.createDirectories(directory);
+    List<Path> segments = segments();
+    Path last = segments.isEmpty()
+        ? directory.resolve(JournalSegment.fileName(1)) : segments.get(segments.size() - 1);
+    current = JournalSegment.openForAppend(last, segmentRecords);
+    lastSequence = current.getLastSequence();
+    if (lastSequence == 0) {
+      // 빈 세그먼트 (처음 기동했거나 새 세그먼트를 만든 직후 죽은 경우)
+      lastSequence = firstSequenceOf(last) - 1;
+    }
+    durableSequence = lastSequence;
+    log.info("Command journal opened at sequence {} ({} segments)", lastSequence,
+        Math.max(segments.size(), 1));
+
+    if (fsyncIntervalMillis > 0) {
+      running = true;
+      fsyncThread = new Thread(this::fsyncLoop, "command-journal-fsync");
+      fsyncThread.setDaemon(true);
+      fsyncThread.start();
+    }
+  }
+
+  @PreDestroy
+  public void stop() throws IOException, InterruptedException {
+    if (!enabled) {
+      return;
+    }
+    durableLock.lock();
+    try {
+      running = false;
+      durableChanged.signalAll();
+    } finally {
+      durableLock.unlock();
+    }
+    if (fsyncThread != null) {
+      fsyncThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+    appendLock.lock();
+    try {
+      current.close();
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * 명령을 남긴다. 트랜잭션 안이면 그 트랜잭션의 명령을 모아 두었다가 commit 직전에 한 번에 쓰고 fsync 를 기다린다.
+   */
+  public void record(JournalCommandType commandType, Long userId, String accountNumber,
+      String transactionId, Long amount, LocalDateTime committedAt) {
+    if (!enabled) {
+      return;
+    }
+    JournalRecord.JournalRecordBuilder command = JournalRecord.builder()
+        .committedAt(committedAt)
+        .commandType(commandType)
+        .userId(userId == null ? 0L : userId)
+        .amount(amount == null ? 0L : amount)
+        .accountNumber(accountNumber)
+        .transactionId(transactionId);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      appendAndAwait(List.of(command));
+      return;
+    }
+    pendingCommands().add(command);
+  }
+
+  /**
+   * 모든 세그먼트의 레코드를 sequence 순서대로 읽는다.
+   */
+  public void forEachRecord(Consumer<JournalRecord> consumer) throws IOException {
+    for (Path segment : segments()) {
+      JournalSegment.read(segment, consumer);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<JournalRecord.JournalRecordBuilder> pendingCommands() {
+    List<JournalRecord.JournalRecordBuilder> pending =
+        (List<JournalRecord.JournalRecordBuilder>) TransactionSynchronizationManager.getResource(
+            this);
+    if (pending != null) {
+      return pending;
+    }
+    List<JournalRecord.JournalRecordBuilder> commands = new ArrayList<>();
+    TransactionSynchronizationManager.bindResource(this, commands);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void beforeCommit(boolean readOnly) {
+        appendAndAwait(commands);
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(CommandJournal.this);
+      }
+    });
+    return commands;
+  }
+
+  private void appendAndAwait(List<JournalRecord.JournalRecordBuilder> commands) {
+    long sequence = append(commands);
+    if (fsyncIntervalMillis > 0) {
+      awaitDurable(sequence);
+    } else {
+      fsync();
+    }
+  }
+
+  private long append(List<JournalRecord.JournalRecordBuilder> commands) {
+    long sequence;
+    appendLock.lock();
+    try {
+      for (JournalRecord.JournalRecordBuilder command : commands) {
+        long next = lastSequence + 1;
+        if (!current.hasRoom()) {
+          roll(next);
+        }
+        current.append(command.sequence(next).build());
+        lastSequence = next;
+      }
+      sequence = lastSequence;
+    } finally {
+      appendLock.unlock();
+    }
+    durableLock.lock();
+    try {
+      pendingRecords += commands.size();
+      if (pendingRecords >= fsyncBatchSize) {
+        durableChanged.signalAll();
+      }
+    } finally {
+      durableLock.unlock();
+    }
+    return sequence;
+  }
+
+  // appendLock 안에서 호출한다. 이전 세그먼트는 fsync 한 뒤 닫는다.
+  private void roll(long firstSequence) {
+    try {
+      current.close();
+      current = JournalSegment.openForAppend(
+          directory.resolve(JournalSegment.fileName(firstSequence)), segmentRecords);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to roll command journal segment", e);
+    }
+    log.info("Command journal rolled to segment starting at {}", firstSequence);
+  }
+
+  private void awaitDurable(long sequence) {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURABLE_WAIT_TIMEOUT_MILLIS);
+    durableLock.lock();
+    try {
+      while (durableSequence < sequence) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          throw new IllegalStateException("Command journal fsync timed out at " + sequence);
+        }
+        try {
+          durableChanged.awaitNanos(remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("Interrupted while waiting for command journal", e);
+        }
+      }
+    } finally {
+      durableLock.unlock();
+    }
+  }
+
+  private void fsyncLoop() {
+    while (true) {
+      durableLock.lock();
+      try {
+        if (running && pendingRecords < fsyncBatchSize) {
+          try {
+            durableChanged.await(fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+        if (!running) {
+          return;
+        }
+      } finally {
+        durableLock.unlock();
+      }
+      try {
+        fsync();
+      } catch (RuntimeException e) {
+        log.error("Command journal fsync failed", e);
+      }
+    }
+  }
+
+  private void fsync() {
+    long target;
+    JournalSegment segment;
+    appendLock.lock();
+    try {
+      target = lastSequence;
+      segment = current;
+    } finally {
+      appendLock.unlock();
+    }
+    durableLock.lock();
+    try {
+      if (durableSequence >= target) {
+        return;
+      }
+      pendingRecords = 0;
+    } finally {
+      durableLock.unlock();
+    }
+    // 이전 세그먼트는 넘어갈 때 이미 fsync 했다.
+    segment.force();
+    durableLock.lock();
+    try {
+      durableSequence = Math.max(durableSequence, target);
+      durableChanged.signalAll();
+    } finally {
+      durableLock.unlock();
+    }
+  }
+
+  private List<Path> segments() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(JournalSegment::isSegmentFile)
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static long firstSequenceOf(Path segment) {
+    String name = segment.getFileName().toString();
+    return Long.parseLong(name.replaceAll("\\D", ""));
+  }
+}
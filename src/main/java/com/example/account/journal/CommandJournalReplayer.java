@@ -0,0 +1,221 @@
+package com.example.account.journal;
+
+import com.example.account.datasource.ShardContext;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.domain.Transaction;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountStripeRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.ArchivedTransactionIndexRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.service.AccountSummaryService;
+import com.example.account.service.BalanceHistoryService;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 기동 시 명령 journal 을 처음부터 순서대로 읽어 DB 의 계좌 상태를 다시 만든다.
+ * 이미 반영된 명령은 건너뛰므로 빈 DB(인메모리 H2 재기동)와 일부만 반영된 DB(commit 전에 죽음) 모두에 쓸 수 있다.
+ * <ul>
+ *   <li>OPEN: 계좌가 없으면 만든다</li>
+ *   <li>CLOSE: 해지되지 않았으면 해지한다</li>
+ *   <li>잔액 명령: 같은 거래 id 가 DB(아카이브 포함)에 없으면 잔액에 반영하고 거래를 넣는다</li>
+ * </ul>
+ * 샤드 초기화 다음, 다른 기동 작업보다 먼저 돈다. outbox/SSE 이벤트는 다시 내보내지 않는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = {"spring.journal.enabled", "spring.journal.replay-on-startup"},
+    havingValue = "true")
+public class CommandJournalReplayer {
+  private static final int CHUNK_SIZE = 500;
+
+  private final CommandJournal commandJournal;
+  private final AccountRepository accountRepository;
+  private final AccountUserRepository accountUserRepository;
+  private final AccountStripeRepository accountStripeRepository;
+  private final TransactionRepository transactionRepository;
+  private final ArchivedTransactionIndexRepository archivedTransactionIndexRepository;
+  private final AccountSummaryService accountSummaryService;
+  private final BalanceHistoryService balanceHistoryService;
+  private final ShardRouter shardRouter;
+  private final TransactionTemplate transactionTemplate;
+
+  public CommandJournalReplayer(CommandJournal commandJournal,
+      AccountRepository accountRepository, AccountUserRepository accountUserRepository,
+      AccountStripeRepository accountStripeRepository,
+      TransactionRepository transactionRepository,
+      ArchivedTransactionIndexRepository archivedTransactionIndexRepository,
+      AccountSummaryService accountSummaryService, BalanceHistoryService balanceHistoryService,
+      ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+    this.commandJournal = commandJournal;
+    this.accountRepository = accountRepository;
+    this.accountUserRepository = accountUserRepository;
+    this.accountStripeRepository = accountStripeRepository;
+    this.transactionRepository = transactionRepository;
+    this.archivedTransactionIndexRepository = archivedTransactionIndexRepository;
+    this.accountSummaryService = accountSummaryService;
+    this.balanceHistoryService = balanceHistoryService;
+    this.shardRouter = shardRouter;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+  @EventListener(ApplicationReadyEvent.class)
+  public void replay() throws IOException {
+    long startedAt = System.currentTimeMillis();
+    int[] counts = new int[2]; // [읽은 레코드, 반영한 레코드]
+    List<JournalRecord> chunk = new ArrayList<>(CHUNK_SIZE);
+    commandJournal.forEachRecord(record -> {
+      chunk.add(record);
+      counts[0]++;
+      if (chunk.size() == CHUNK_SIZE) {
+        counts[1] += applyChunk(chunk);
+        chunk.clear();
+      }
+    });
+    counts[1] += applyChunk(chunk);
+    log.info("Replayed command journal: {} records read, {} applied in {} ms",
+        counts[0], counts[1], System.currentTimeMillis() - startedAt);
+  }
+
+  private int applyChunk(List<JournalRecord> chunk) {
+    // 계좌는 샤드를 옮기지 않으므로 샤드별로 나눠도 계좌 안의 순서는 그대로다.
+    Map<Integer, List<JournalRecord>> byShard = chunk.stream().collect(Collectors.groupingBy(
+        record -> shardRouter.shardOf(record.getAccountNumber()),
+        LinkedHashMap::new, Collectors.toList()));
+    int applied = 0;
+    for (Map.Entry<Integer, List<JournalRecord>> entry : byShard.entrySet()) {
+      ShardContext.set(entry.getKey());
+      try {
+        Integer count = transactionTemplate.execute(status -> applyRecords(entry.getValue()));
+        applied += count == null ? 0 : count;
+      } finally {
+        ShardContext.clear();
+      }
+    }
+    return applied;
+  }
+
+  private int applyRecords(List<JournalRecord> records) {
+    Set<String> appliedTransactionIds = findAppliedTransactionIds(records);
+    Map<String, Optional<Account>> accounts = new HashMap<>();
+    int applied = 0;
+    for (JournalRecord record : records) {
+      Optional<Account> account = accounts.computeIfAbsent(record.getAccountNumber(),
+          accountRepository::findByAccountNumber);
+      boolean changed;
+      switch (record.getCommandType()) {
+        case OPEN:
+          changed = account.isEmpty() && open(record, accounts);
+          break;
+        case CLOSE:
+          changed = account.isPresent() && close(record, account.get());
+          break;
+        default:
+          changed = account.isPresent()
+              && !appliedTransactionIds.contains(record.getTransactionId())
+              && applyBalance(record, account.get());
+          if (changed) {
+            // 같은 청크 안에 같은 거래 id 가 다시 나와도 두 번 반영하지 않는다.
+            appliedTransactionIds.add(record.getTransactionId());
+          }
+      }
+      if (changed) {
+        applied++;
+      }
+    }
+    return applied;
+  }
+
+  private Set<String> findAppliedTransactionIds(List<JournalRecord> records) {
+    List<String> transactionIds = records.stream()
+        .map(JournalRecord::getTransactionId)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+    Set<String> applied = new HashSet<>();
+    if (transactionIds.isEmpty()) {
+      return applied;
+    }
+    transactionRepository.findByTransactionIdIn(transactionIds)
+        .forEach(transaction -> applied.add(transaction.getTransactionId()));
+    archivedTransactionIndexRepository.findAllById(transactionIds)
+        .forEach(index -> applied.add(index.getTransactionId()));
+    return applied;
+  }
+
+  private boolean open(JournalRecord record, Map<String, Optional<Account>> accounts) {
+    Optional<AccountUser> accountUser = accountUserRepository.findById(record.getUserId());
+    if (accountUser.isEmpty()) {
+      log.warn("Skipping journal record {}: user {} not found",
+          record.getSequence(), record.getUserId());
+      return false;
+    }
+    Account account = accountRepository.save(Account.builder()
+        .accountUser(accountUser.get())
+        .accountStatus(AccountStatus.IN_USE)
+        .accountNumber(record.getAccountNumber())
+        .balance(record.getAmount())
+        .openedAt(record.getCommittedAt())
+        .build());
+    accountUserRepository.incrementActiveAccountCount(record.getUserId(), Integer.MAX_VALUE);
+    accountSummaryService.opened(account);
+    balanceHistoryService.opened(account);
+    accounts.put(record.getAccountNumber(), Optional.of(account));
+    return true;
+  }
+
+  private boolean close(JournalRecord record, Account account) {
+    if (account.getAccountStatus() == AccountStatus.CLOSED) {
+      return false;
+    }
+    account.setAccountStatus(AccountStatus.CLOSED);
+    account.setClosedAt(record.getCommittedAt());
+    accountUserRepository.decrementActiveAccountCount(account.getAccountUser().getId());
+    accountSummaryService.closed(account);
+    return true;
+  }
+
+  private boolean applyBalance(JournalRecord record, Account account) {
+    TransactionType transactionType = TransactionType.valueOf(record.getCommandType().name());
+    long delta = transactionType.getBalanceSign() * record.getAmount();
+    if (account.isStriped()) {
+      accountStripeRepository.addBalance(account, 0, delta);
+    } else {
+      account.setBalance(account.getBalance() + delta);
+    }
+    transactionRepository.save(Transaction.builder()
+        .transactionType(transactionType)
+        .transactionResultType(TransactionResultType.SUCCEED)
+        .account(account)
+        .amount(record.getAmount())
+        .transactionId(record.getTransactionId())
+        .transactedAt(record.getCommittedAt())
+        .build());
+    accountSummaryService.balanceChanged(account, delta);
+    return true;
+  }
+}
@@ -0,0 +1,13 @@
+package com.example.account.journal;
+
+/**
+ * 명령 journal 에 남기는 명령 종류. 잔액 명령은 TransactionType 과 이름이 같다.
+ */
+public enum JournalCommandType {
+  OPEN,
+  CLOSE,
+  USE,
+  CANCEL,
+  TRANSFER_OUT,
+  TRANSFER_IN
+}
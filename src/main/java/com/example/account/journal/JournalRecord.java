@@ -0,0 +1,131 @@
+package com.example.account.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 명령 journal 의 레코드 한 건. 고정 길이(128 byte)로 쓴다.
+ * <pre>
+ *   0  int    CRC32C (4 ~ 127 byte)
+ *   4  long   sequence (1 부터)
+ *  12  long   명령 시각 (epoch nano, UTC 기준 LocalDateTime)
+ *  20  byte   명령 종류 (ordinal + 1, 0 이면 빈 자리 = journal 끝)
+ *  21  byte   계좌번호 길이
+ *  22  byte   거래 id 길이
+ *  23  byte   (예약)
+ *  24  long   사용자 id (OPEN)
+ *  32  long   금액 (OPEN 은 초기 잔액)
+ *  40  byte[24] 계좌번호 (ASCII)
+ *  64  byte[64] 거래 id (ASCII)
+ * </pre>
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class JournalRecord {
+  public static final int SIZE = 128;
+
+  private static final int ACCOUNT_NUMBER_OFFSET = 40;
+  private static final int ACCOUNT_NUMBER_MAX = 24;
+  private static final int TRANSACTION_ID_OFFSET = 64;
+  private static final int TRANSACTION_ID_MAX = 64;
+
+  private final long sequence;
+  private final LocalDateTime committedAt;
+  private final JournalCommandType commandType;
+  private final long userId;
+  private final long amount;
+  private final String accountNumber;
+  private final String transactionId;
+
+  /**
+   * buffer 의 현재 위치에 SIZE byte 를 쓰고 위치를 그만큼 옮긴다.
+   */
+  public void writeTo(ByteBuffer buffer) {
+    byte[] accountNumberBytes = ascii(accountNumber, ACCOUNT_NUMBER_MAX);
+    byte[] transactionIdBytes = ascii(transactionId, TRANSACTION_ID_MAX);
+
+    byte[] record = new byte[SIZE];
+    ByteBuffer body = ByteBuffer.wrap(record);
+    body.putInt(0)
+        .putLong(sequence)
+        .putLong(toEpochNanos(committedAt))
+        .put((byte) (commandType.ordinal() + 1))
+        .put((byte) accountNumberBytes.length)
+        .put((byte) transactionIdBytes.length)
+        .put((byte) 0)
+        .putLong(userId)
+        .putLong(amount);
+    body.position(ACCOUNT_NUMBER_OFFSET);
+    body.put(accountNumberBytes);
+    body.position(TRANSACTION_ID_OFFSET);
+    body.put(transactionIdBytes);
+    body.putInt(0, crc(record));
+
+    buffer.put(record);
+  }
+
+  /**
+   * buffer 의 현재 위치에서 레코드 하나를 읽는다.
+   * 빈 자리이거나 CRC 가 맞지 않으면(쓰다 만 레코드) null 을 돌려주며, 이때 위치는 옮기지 않는다.
+   */
+  public static JournalRecord readFrom(ByteBuffer buffer) {
+    if (buffer.remaining() < SIZE) {
+      return null;
+    }
+    byte[] record = new byte[SIZE];
+    buffer.duplicate().get(record);
+    ByteBuffer body = ByteBuffer.wrap(record);
+    int storedCrc = body.getInt();
+    int type = record[20];
+    if (type == 0 || storedCrc != crc(record)) {
+      return null;
+    }
+
+    long sequence = body.getLong();
+    long epochNanos = body.getLong();
+    body.position(24);
+    long userId = body.getLong();
+    long amount = body.getLong();
+    String accountNumber = new String(record, ACCOUNT_NUMBER_OFFSET, record[21],
+        StandardCharsets.US_ASCII);
+    String transactionId = record[22] == 0 ? null
+        : new String(record, TRANSACTION_ID_OFFSET, record[22], StandardCharsets.US_ASCII);
+
+    buffer.position(buffer.position() + SIZE);
+    return new JournalRecord(sequence, fromEpochNanos(epochNanos),
+        JournalCommandType.values()[type - 1], userId, amount, accountNumber, transactionId);
+  }
+
+  private static int crc(byte[] record) {
+    CRC32C crc = new CRC32C();
+    crc.update(record, 4, SIZE - 4);
+    return (int) crc.getValue();
+  }
+
+  private static byte[] ascii(String value, int maxLength) {
+    if (value == null) {
+      return new byte[0];
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+    if (bytes.length > maxLength) {
+      throw new IllegalArgumentException("Value too long for journal record : " + value);
+    }
+    return bytes;
+  }
+
+  private static long toEpochNanos(LocalDateTime dateTime) {
+    return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + dateTime.getNano();
+  }
+
+  private static LocalDateTime fromEpochNanos(long nanos) {
+    return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+        (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+  }
+}
@@ -0,0 +1,98 @@
+package com.example.account.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * 명령 journal 의 세그먼트 파일 하나. 파일 전체를 memory-mapped buffer 로 열어 두고 레코드를 이어 쓴다.
+ * 파일 이름의 숫자는 세그먼트 첫 레코드의 sequence 다.
+ */
+class JournalSegment implements AutoCloseable {
+  private static final String FILE_PREFIX = "commands-";
+  private static final String FILE_SUFFIX = ".wal";
+
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private long lastSequence;
+
+  private JournalSegment(FileChannel channel, MappedByteBuffer buffer, long lastSequence) {
+    this.channel = channel;
+    this.buffer = buffer;
+    this.lastSequence = lastSequence;
+  }
+
+  static String fileName(long firstSequence) {
+    return String.format("%s%020d%s", FILE_PREFIX, firstSequence, FILE_SUFFIX);
+  }
+
+  static boolean isSegmentFile(Path path) {
+    String name = path.getFileName().toString();
+    return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+  }
+
+  /**
+   * 쓰기용으로 연다. 마지막 정상 레코드 뒤로 위치를 옮기고, 그 뒤에 남은 쓰다 만 레코드는 지운다.
+   * (지우지 않으면 나중에 그 자리까지 다시 쓰기 전에 죽었을 때 확인되지 않은 레코드가 되살아난다.)
+   */
+  static JournalSegment openForAppend(Path path, int capacityRecords) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+        (long) capacityRecords * JournalRecord.SIZE);
+
+    long lastSequence = 0;
+    JournalRecord record;
+    while ((record = JournalRecord.readFrom(buffer)) != null) {
+      lastSequence = record.getSequence();
+    }
+    int end = buffer.position();
+    for (int offset = end; offset + JournalRecord.SIZE <= buffer.capacity()
+        && buffer.get(offset + 20) != 0; offset += JournalRecord.SIZE) {
+      for (int i = 0; i < JournalRecord.SIZE; i++) {
+        buffer.put(offset + i, (byte) 0);
+      }
+    }
+    buffer.force();
+    return new JournalSegment(channel, buffer, lastSequence);
+  }
+
+  /**
+   * 세그먼트의 정상 레코드를 순서대로 읽는다.
+   */
+  static void read(Path path, Consumer<JournalRecord> consumer) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      JournalRecord record;
+      while ((record = JournalRecord.readFrom(buffer)) != null) {
+        consumer.accept(record);
+      }
+    }
+  }
+
+  long getLastSequence() {
+    return lastSequence;
+  }
+
+  boolean hasRoom() {
+    return buffer.remaining() >= JournalRecord.SIZE;
+  }
+
+  void append(JournalRecord record) {
+    record.writeTo(buffer);
+    lastSequence = record.getSequence();
+  }
+
+  void force() {
+    buffer.force();
+  }
+
+  @Override
+  public void close() throws IOException {
+    buffer.force();
+    channel.close();
+  }
+}
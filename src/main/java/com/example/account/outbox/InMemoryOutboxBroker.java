@@ -0,0 +1,37 @@
+package com.example.account.outbox;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 외부 브로커가 없을 때 쓰는 프로세스 내 브로커. 받은 메시지를 구독자에게 순서대로 바로 넘긴다.
+ * 구독자가 실패해도 발행은 성공으로 본다(브로커가 받은 뒤의 일이므로).
+ */
+@Slf4j
+public class InMemoryOutboxBroker implements OutboxSink {
+
+  private final List<Consumer<OutboxMessage>> subscribers = new CopyOnWriteArrayList<>();
+
+  public void subscribe(Consumer<OutboxMessage> subscriber) {
+    subscribers.add(subscriber);
+  }
+
+  public void unsubscribe(Consumer<OutboxMessage> subscriber) {
+    subscribers.remove(subscriber);
+  }
+
+  @Override
+  public void publish(List<OutboxMessage> messages) {
+    for (OutboxMessage message : messages) {
+      for (Consumer<OutboxMessage> subscriber : subscribers) {
+        try {
+          subscriber.accept(message);
+        } catch (RuntimeException e) {
+          log.warn("Outbox subscriber failed for message {}", message.getId(), e);
+        }
+      }
+    }
+  }
+}
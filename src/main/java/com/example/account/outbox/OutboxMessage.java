@@ -0,0 +1,32 @@
+package com.example.account.outbox;
+
+import com.example.account.domain.OutboxEvent;
+import com.example.account.type.OutboxEventType;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * sink 로 넘기는 outbox 이벤트. 같은 메시지가 두 번 이상 갈 수 있으므로 받는 쪽은 id 로 중복을 거른다.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class OutboxMessage {
+  private final Long id;
+  private final String accountNumber;
+  private final OutboxEventType eventType;
+  private final String payload;
+  private final LocalDateTime createdAt;
+
+  public static OutboxMessage from(OutboxEvent outboxEvent) {
+    return OutboxMessage.builder()
+        .id(outboxEvent.getId())
+        .accountNumber(outboxEvent.getAggregateId())
+        .eventType(outboxEvent.getEventType())
+        .payload(outboxEvent.getPayload())
+        .createdAt(outboxEvent.getCreatedAt())
+        .build();
+  }
+}
@@ -0,0 +1,125 @@
+package com.example.account.outbox;
+
+import com.example.account.datasource.ShardContext;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.domain.OutboxEvent;
+import com.example.account.repository.OutboxEventRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 발행 전 outbox 이벤트를 id 순서대로 묶어서 sink 로 보내고, 보낸 뒤에 발행 완료로 표시한다.
+ * <ul>
+ *   <li>표시 전에 죽으면 같은 묶음을 다시 보낸다 (at-least-once)</li>
+ *   <li>실패한 묶음을 건너뛰지 않고 Redis lock 으로 relay 를 한 노드에서만 돌리므로 계좌별 순서가 지켜진다</li>
+ *   <li>발행 완료 후 보존 기간이 지난 행은 지운다</li>
+ * </ul>
+ * 샤딩 중이면 샤드마다 따로 처리한다.
+ */
+@Slf4j
+public class OutboxRelay {
+  private static final String RELAY_LOCK_KEY = "OUTBOX:RELAY";
+  // 한 주기에 샤드당 보낼 최대 묶음 수. 다른 스케줄 작업이 밀리지 않도록 제한한다.
+  private static final int MAX_BATCHES_PER_CYCLE = 10;
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final OutboxSink outboxSink;
+  private final ShardRouter shardRouter;
+  private final TransactionTemplate transactionTemplate;
+  private final RedissonClient redissonClient;
+  private final int batchSize;
+  private final long retentionMillis;
+
+  public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxSink outboxSink,
+      ShardRouter shardRouter, TransactionTemplate transactionTemplate,
+      RedissonClient redissonClient, int batchSize, long retentionMillis) {
+    this.outboxEventRepository = outboxEventRepository;
+    this.outboxSink = outboxSink;
+    this.shardRouter = shardRouter;
+    this.transactionTemplate = transactionTemplate;
+    this.redissonClient = redissonClient;
+    this.batchSize = batchSize;
+    this.retentionMillis = retentionMillis;
+  }
+
+  @Scheduled(fixedDelayString = "${spring.outbox.relay.interval-ms}")
+  public void relay() {
+    RLock relayLock = redissonClient.getLock(RELAY_LOCK_KEY);
+    if (!tryLock(relayLock)) {
+      return;
+    }
+    try {
+      for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+        ShardContext.set(shard);
+        try {
+          int batches = 0;
+          while (relayBatch() == batchSize && ++batches < MAX_BATCHES_PER_CYCLE) {
+            log.debug("Outbox backlog on shard {}, relaying next batch", shard);
+          }
+        } finally {
+          ShardContext.clear();
+        }
+      }
+    } catch (RuntimeException e) {
+      log.warn("Failed to relay outbox events, will retry", e);
+    } finally {
+      if (relayLock.isHeldByCurrentThread()) {
+        relayLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * 묶음 하나를 보낸다. 보낸 이벤트 수를 돌려준다.
+   */
+  int relayBatch() {
+    List<OutboxEvent> events = transactionTemplate.execute(status ->
+        outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(PageRequest.of(0, batchSize)));
+    if (events == null || events.isEmpty()) {
+      return 0;
+    }
+
+    outboxSink.publish(events.stream()
+        .map(OutboxMessage::from)
+        .collect(Collectors.toList()));
+
+    List<Long> ids = events.stream().map(OutboxEvent::getId).collect(Collectors.toList());
+    transactionTemplate.executeWithoutResult(status ->
+        outboxEventRepository.markPublished(ids, LocalDateTime.now()));
+    return events.size();
+  }
+
+  @Scheduled(fixedDelayString = "${spring.outbox.relay.cleanup-interval-ms}")
+  public void cleanup() {
+    LocalDateTime before = LocalDateTime.now().minusNanos(retentionMillis * 1_000_000L);
+    for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+      ShardContext.set(shard);
+      try {
+        Integer deleted = transactionTemplate.execute(status ->
+            outboxEventRepository.deletePublishedBefore(before));
+        log.debug("Deleted {} published outbox events on shard {}", deleted, shard);
+      } catch (RuntimeException e) {
+        log.warn("Failed to clean up outbox events on shard {}", shard, e);
+      } finally {
+        ShardContext.clear();
+      }
+    }
+  }
+
+  private boolean tryLock(RLock relayLock) {
+    try {
+      return relayLock.tryLock(0, 60, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
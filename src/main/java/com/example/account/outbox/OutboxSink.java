@@ -0,0 +1,12 @@
+package com.example.account.outbox;
+
+import java.util.List;
+
+/**
+ * outbox 이벤트를 내보낼 곳(메시지 브로커 등). 묶음 전체가 전달됐을 때만 정상 반환하고,
+ * 실패하면 예외를 던진다. 실패한 묶음은 다음 주기에 같은 순서로 다시 전달된다.
+ */
+public interface OutboxSink {
+
+  void publish(List<OutboxMessage> messages);
+}
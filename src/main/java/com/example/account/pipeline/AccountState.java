@@ -0,0 +1,33 @@
+package com.example.account.pipeline;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 업무 단계가 메모리에 들고 있는 계좌 상태. balance/closed 는 업무 단계 스레드만 읽고 쓴다.
+ * 아직 저장되지 않은 명령이 남아 있는 동안(inFlight &gt; 0)은 DB 보다 앞서 있으므로 내보내지 않는다.
+ */
+class AccountState {
+  final Long accountId;
+  final Long userId;
+  final String accountNumber;
+  // 분할 계좌는 파이프라인에서 처리하지 않는다.
+  final boolean striped;
+  long balance;
+  boolean closed;
+  // 업무 단계가 올리고 저장 단계가 내린다.
+  final AtomicInteger inFlight = new AtomicInteger();
+  // 업무 단계가 되돌린 명령 수 (업무 단계 스레드만)
+  int correctionsApplied;
+  // 저장 단계가 되돌리라고 넘긴 명령 수 (저장 단계 스레드만)
+  int correctionsIssued;
+
+  AccountState(Long accountId, Long userId, String accountNumber, boolean striped,
+      long balance, boolean closed) {
+    this.accountId = accountId;
+    this.userId = userId;
+    this.accountNumber = accountNumber;
+    this.striped = striped;
+    this.balance = balance;
+    this.closed = closed;
+  }
+}
@@ -0,0 +1,123 @@
+package com.example.account.pipeline;
+
+import com.example.account.datasource.ShardRouter;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 저장 단계. 업무 단계가 넘긴 구간을 샤드별로 나눠 샤드마다 DB 트랜잭션 하나로 남긴다.
+ * 실패하면 몇 번 다시 시도하고, 그래도 안 되면 그 샤드 몫의 성공 명령을 INTERNAL_SERVER_ERROR 로 바꾸고
+ * 업무 단계의 메모리 잔액을 되돌린다. 해지는 거래 기록이 commit 된 뒤 건마다 AccountService 로 반영한다.
+ * 되돌린 명령 뒤에, 업무 단계가 되돌리기 전에 같은 계좌에서 판정한 성공 명령도 INTERNAL_SERVER_ERROR 로 되돌린다.
+ * 예를 들어 저장하지 못한 취소(입금)로 늘어난 잔액에서 승인한 사용을 그대로 저장하면 DB 잔액이 음수가 된다.
+ * lease 를 잃었으면 다시 시도하지 않고 PARTITION_NOT_OWNED 로 되돌린다.
+ */
+@Slf4j
+class BatchPersister implements PipelineStage.Handler {
+  private static final String BATCH_SIZE_METRIC = "account.pipeline.batch.size";
+  private static final String PERSIST_FAILED_METRIC = "account.pipeline.persist.failed";
+  private static final int PERSIST_ATTEMPTS = 3;
+
+  private final CommandRingBuffer ringBuffer;
+  private final LedgerStore ledgerStore;
+  private final LedgerProcessor ledgerProcessor;
+  private final ShardRouter shardRouter;
+  private final PipelineLease lease;
+  private final MeterRegistry meterRegistry;
+
+  BatchPersister(CommandRingBuffer ringBuffer, LedgerStore ledgerStore,
+      LedgerProcessor ledgerProcessor, ShardRouter shardRouter, PipelineLease lease,
+      MeterRegistry meterRegistry) {
+    this.ringBuffer = ringBuffer;
+    this.ledgerStore = ledgerStore;
+    this.ledgerProcessor = ledgerProcessor;
+    this.shardRouter = shardRouter;
+    this.lease = lease;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public void onBatch(long from, long to) {
+    meterRegistry.summary(BATCH_SIZE_METRIC).record(to - from + 1);
+    Map<Integer, List<CommandSlot>> byShard = new TreeMap<>();
+    List<CommandSlot> closes = new ArrayList<>();
+    for (long sequence = from; sequence <= to; sequence++) {
+      CommandSlot slot = ringBuffer.get(sequence);
+      if (slot.state == null || slot.error != null) {
+        continue;
+      }
+      if (slot.isSucceed() && slot.correctionsSeen < slot.state.correctionsIssued) {
+        revert(slot, new AccountException(ErrorCode.INTERNAL_SERVER_ERROR));
+        continue;
+      }
+      if (slot.hasTransactionRow()) {
+        byShard.computeIfAbsent(shardRouter.shardOf(slot.accountNumber),
+            shard -> new ArrayList<>()).add(slot);
+      } else {
+        closes.add(slot);
+      }
+    }
+    try {
+      byShard.forEach(this::persist);
+      closes.forEach(this::close);
+    } finally {
+      // 여기까지 온 명령은 DB 에 반영됐거나 메모리에서 되돌려진다.
+      for (long sequence = from; sequence <= to; sequence++) {
+        AccountState state = ringBuffer.get(sequence).state;
+        if (state != null) {
+          state.inFlight.decrementAndGet();
+        }
+      }
+    }
+  }
+
+  private void persist(int shard, List<CommandSlot> slots) {
+    ErrorCode errorCode = ErrorCode.INTERNAL_SERVER_ERROR;
+    for (int attempt = 1; attempt <= PERSIST_ATTEMPTS; attempt++) {
+      if (!lease.isOwned()) {
+        errorCode = ErrorCode.PARTITION_NOT_OWNED;
+        break;
+      }
+      try {
+        ledgerStore.persist(shard, slots);
+        return;
+      } catch (RuntimeException e) {
+        log.warn("Pipeline batch persist failed on shard {} (attempt {}/{})",
+            shard, attempt, PERSIST_ATTEMPTS, e);
+      }
+    }
+    meterRegistry.counter(PERSIST_FAILED_METRIC).increment(slots.size());
+    for (CommandSlot slot : slots) {
+      if (slot.isSucceed()) {
+        revert(slot, new AccountException(errorCode));
+      }
+    }
+  }
+
+  private void close(CommandSlot slot) {
+    if (!lease.isOwned()) {
+      revert(slot, new AccountException(ErrorCode.PARTITION_NOT_OWNED));
+      return;
+    }
+    try {
+      slot.result = ledgerStore.close(slot.userId, slot.accountNumber);
+    } catch (AccountException e) {
+      revert(slot, e);
+    } catch (RuntimeException e) {
+      log.error("Pipeline close failed for {}", slot.accountNumber, e);
+      revert(slot, new AccountException(ErrorCode.INTERNAL_SERVER_ERROR));
+    }
+  }
+
+  private void revert(CommandSlot slot, AccountException error) {
+    ledgerProcessor.revert(slot);
+    slot.state.correctionsIssued++;
+    slot.error = error;
+  }
+}
@@ -0,0 +1,164 @@
+package com.example.account.pipeline;
+
+import com.example.account.config.TransactionConfig;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.dto.AccountDto;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.type.BalanceEngineType;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 계좌 명령(사용/취소/해지)을 미리 만들어 둔 ring buffer 에 싣고 단계별 스레드가 차례로 처리한다 (PIPELINE 엔진).
+ * <ol>
+ *   <li>검증: 금액 범위</li>
+ *   <li>업무: 메모리의 계좌 상태로 판정하고 잔액을 바꾼다 (스레드 하나라 lock 이 없다)</li>
+ *   <li>저장: 쌓인 만큼 묶어 샤드마다 DB 트랜잭션 하나로 거래 기록과 계좌별 잔액 증감을 남긴다</li>
+ *   <li>응답: 기다리는 요청 스레드를 깨운다</li>
+ * </ol>
+ * 단계 사이에는 sequence 만 넘기고 slot 과 대기 자리는 다시 쓴다. 응답은 DB commit 뒤에 나간다.
+ * 계좌 상태를 노드 메모리에 두므로 Redis lease 를 가진 노드 하나만 명령을 받고(PipelineLease),
+ * 다른 노드는 PARTITION_NOT_OWNED(503) 로 돌려보낸다. 분할 계좌는 기존 경로로 처리한다.
+ */
+@Slf4j
+@Component
+public class CommandPipeline {
+  private final LedgerStore ledgerStore;
+  private final PipelineLease lease;
+  private final ShardRouter shardRouter;
+  private final TransactionConfig transactionConfig;
+  private final MeterRegistry meterRegistry;
+  private final boolean enabled;
+  private final int ringSize;
+  private final int maxBatchSize;
+  private final int accountCacheSize;
+  private final int recentTransactions;
+  private final long idleParkNanos;
+
+  private CommandRingBuffer ringBuffer;
+  private List<PipelineStage> stages = List.of();
+  private volatile boolean running;
+
+  public CommandPipeline(LedgerStore ledgerStore, PipelineLease lease, ShardRouter shardRouter,
+      TransactionConfig transactionConfig, MeterRegistry meterRegistry,
+      @Value("${spring.transaction.engine:LOCK}") BalanceEngineType engine,
+      @Value("${spring.transaction.pipeline.ring-size}") int ringSize,
+      @Value("${spring.transaction.pipeline.max-batch-size}") int maxBatchSize,
+      @Value("${spring.transaction.pipeline.account-cache-size}") int accountCacheSize,
+      @Value("${spring.transaction.pipeline.recent-transactions}") int recentTransactions,
+      @Value("${spring.transaction.pipeline.idle-park-micros}") long idleParkMicros) {
+    this.ledgerStore = ledgerStore;
+    this.lease = lease;
+    this.shardRouter = shardRouter;
+    this.transactionConfig = transactionConfig;
+    this.meterRegistry = meterRegistry;
+    this.enabled = engine == BalanceEngineType.PIPELINE;
+    this.ringSize = ringSize;
+    this.maxBatchSize = maxBatchSize;
+    this.accountCacheSize = accountCacheSize;
+    this.recentTransactions = recentTransactions;
+    this.idleParkNanos = TimeUnit.MICROSECONDS.toNanos(idleParkMicros);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    ringBuffer = new CommandRingBuffer(ringSize);
+    LedgerProcessor ledgerProcessor = new LedgerProcessor(ringBuffer, ledgerStore, shardRouter, lease,
+        accountCacheSize, recentTransactions);
+    PipelineStage validate = new PipelineStage("validate", ringBuffer,
+        ringBuffer::highestPublished, this::validate, maxBatchSize, idleParkNanos);
+    PipelineStage ledger = new PipelineStage("ledger", ringBuffer,
+        next -> validate.getSequence().get(), ledgerProcessor, maxBatchSize, idleParkNanos);
+    PipelineStage persist = new PipelineStage("persist", ringBuffer,
+        next -> ledger.getSequence().get(),
+        new BatchPersister(ringBuffer, ledgerStore, ledgerProcessor, shardRouter, lease,
+            meterRegistry),
+        maxBatchSize, idleParkNanos);
+    PipelineStage complete = new PipelineStage("complete", ringBuffer,
+        next -> persist.getSequence().get(), this::complete, maxBatchSize, idleParkNanos);
+    ringBuffer.setGatingSequence(complete.getSequence());
+    stages = List.of(validate, ledger, persist, complete);
+    stages.forEach(PipelineStage::start);
+    running = true;
+    log.info("Command pipeline started (ring {}, batch {})", ringSize, maxBatchSize);
+  }
+
+  /**
+   * 새 명령을 받지 않고, 이미 실린 명령은 앞 단계부터 끝까지 처리한 뒤 멈춘다.
+   */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    for (PipelineStage stage : stages) {
+      stage.stop();
+    }
+  }
+
+  public TransactionDto use(Long userId, String accountNumber, Long amount) {
+    return (TransactionDto) submit(CommandSlot.Type.USE, userId, accountNumber, null, amount);
+  }
+
+  public TransactionDto cancel(String transactionId, String accountNumber, Long amount) {
+    return (TransactionDto) submit(CommandSlot.Type.CANCEL, null, accountNumber, transactionId,
+        amount);
+  }
+
+  public AccountDto close(Long userId, String accountNumber) {
+    return (AccountDto) submit(CommandSlot.Type.CLOSE, userId, accountNumber, null, 0L);
+  }
+
+  private Object submit(CommandSlot.Type type, Long userId, String accountNumber,
+      String targetTransactionId, long amount) {
+    if (!running) {
+      throw new AccountException(ErrorCode.INTERNAL_SERVER_ERROR);
+    }
+    if (!lease.isOwned()) {
+      throw new AccountException(ErrorCode.PARTITION_NOT_OWNED);
+    }
+    Waiter waiter = Waiter.current();
+    long sequence = ringBuffer.claim();
+    ringBuffer.get(sequence).set(type, userId, accountNumber, targetTransactionId, amount, waiter);
+    ringBuffer.publish(sequence);
+    return waiter.await();
+  }
+
+  private void validate(long from, long to) {
+    for (long sequence = from; sequence <= to; sequence++) {
+      CommandSlot slot = ringBuffer.get(sequence);
+      if (slot.type == CommandSlot.Type.USE
+          && (slot.amount < transactionConfig.getAmountMinValue()
+          || slot.amount > transactionConfig.getAmountMaxValue())) {
+        slot.errorCode = ErrorCode.AMOUNT_NOT_VALID;
+      }
+    }
+  }
+
+  private void complete(long from, long to) {
+    for (long sequence = from; sequence <= to; sequence++) {
+      CommandSlot slot = ringBuffer.get(sequence);
+      Waiter waiter = slot.waiter;
+      AccountException error = slot.error;
+      if (error == null && slot.errorCode != null) {
+        error = new AccountException(slot.errorCode);
+      }
+      Object result = slot.result;
+      slot.clear();
+      waiter.complete(result, error);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.account.pipeline;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 미리 만들어 둔 CommandSlot 을 돌려 쓰는 고정 크기 ring buffer.
+ * <ul>
+ *   <li>발행자(요청 스레드)는 여럿이다. sequence 를 하나 받아(claim) slot 을 채우고 publish 한다</li>
+ *   <li>slot 이 발행됐는지는 slot 마다 "몇 바퀴째 발행했는지" 로 표시한다. lock 없이 확인할 수 있다</li>
+ *   <li>발행자는 마지막 단계(gating)가 한 바퀴 전 slot 을 다 쓸 때까지 기다린다</li>
+ * </ul>
+ */
+class CommandRingBuffer {
+  private static final long CLAIM_PARK_NANOS = 1_000L;
+
+  private final CommandSlot[] slots;
+  private final int mask;
+  private final int indexShift;
+  private final AtomicLong claimed = new AtomicLong(-1L);
+  // slot 별로 마지막으로 발행된 바퀴 수. 아직 한 번도 발행되지 않았으면 -1
+  private final AtomicIntegerArray published;
+  private volatile AtomicLong gatingSequence = new AtomicLong(-1L);
+
+  CommandRingBuffer(int size) {
+    if (size < 1 || Integer.bitCount(size) != 1) {
+      throw new IllegalArgumentException("Ring size must be a power of two : " + size);
+    }
+    this.slots = new CommandSlot[size];
+    for (int i = 0; i < size; i++) {
+      slots[i] = new CommandSlot();
+    }
+    this.mask = size - 1;
+    this.indexShift = Integer.numberOfTrailingZeros(size);
+    this.published = new AtomicIntegerArray(size);
+    for (int i = 0; i < size; i++) {
+      published.set(i, -1);
+    }
+  }
+
+  int size() {
+    return slots.length;
+  }
+
+  /**
+   * 발행자가 덮어쓰면 안 되는 마지막 단계의 sequence. 파이프라인을 만들 때 한 번 정한다.
+   */
+  void setGatingSequence(AtomicLong gatingSequence) {
+    this.gatingSequence = gatingSequence;
+  }
+
+  /**
+   * 다음 slot 의 sequence 를 받는다. 한 바퀴 전 slot 이 아직 처리 중이면 빌 때까지 기다린다.
+   */
+  long claim() {
+    long sequence = claimed.incrementAndGet();
+    long wrapPoint = sequence - slots.length;
+    while (wrapPoint > gatingSequence.get()) {
+      LockSupport.parkNanos(CLAIM_PARK_NANOS);
+    }
+    return sequence;
+  }
+
+  CommandSlot get(long sequence) {
+    return slots[(int) sequence & mask];
+  }
+
+  void publish(long sequence) {
+    published.lazySet((int) sequence & mask, (int) (sequence >>> indexShift));
+  }
+
+  boolean isPublished(long sequence) {
+    return published.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+  }
+
+  /**
+   * from 부터 이어서 발행된 마지막 sequence. 중간에 아직 채우는 중인 slot 이 있으면 그 앞까지다.
+   */
+  long highestPublished(long from) {
+    long upTo = claimed.get();
+    for (long sequence = from; sequence <= upTo; sequence++) {
+      if (!isPublished(sequence)) {
+        return sequence - 1;
+      }
+    }
+    return upTo;
+  }
+}
@@ -0,0 +1,83 @@
+package com.example.account.pipeline;
+
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import java.time.LocalDateTime;
+
+/**
+ * ring buffer 의 칸 하나. 기동할 때 한 번 만들고 명령마다 필드만 바꿔 쓴다.
+ * 한 시점에는 한 단계만 만지므로(앞 단계가 sequence 를 넘긴 뒤에 다음 단계가 읽는다) 동기화하지 않는다.
+ */
+class CommandSlot {
+
+  enum Type {
+    USE, CANCEL, CLOSE
+  }
+
+  // 요청 (발행자가 채운다)
+  Type type;
+  Long userId;
+  String accountNumber;
+  String targetTransactionId;
+  long amount;
+  Waiter waiter;
+
+  // 검증/업무 단계의 결과
+  ErrorCode errorCode;
+  AccountState state;
+  String transactionId;
+  LocalDateTime transactedAt;
+  long balanceAfter;
+  // 판정할 때 계좌에 반영돼 있던 되돌림 수. 저장 단계가 이보다 많이 되돌렸으면 되돌린 명령 위에서 판정한 것이다.
+  int correctionsSeen;
+
+  // 저장 단계의 결과 (해지는 저장 단계에서 응답이 만들어진다)
+  AccountException error;
+  Object result;
+
+  void set(Type type, Long userId, String accountNumber, String targetTransactionId,
+      long amount, Waiter waiter) {
+    this.type = type;
+    this.userId = userId;
+    this.accountNumber = accountNumber;
+    this.targetTransactionId = targetTransactionId;
+    this.amount = amount;
+    this.waiter = waiter;
+  }
+
+  boolean isSucceed() {
+    return errorCode == null && error == null;
+  }
+
+  /**
+   * 업무 단계에서 계좌가 확인된 건. 성공/실패 모두 거래 기록을 남긴다 (해지는 제외).
+   */
+  boolean hasTransactionRow() {
+    return state != null && type != Type.CLOSE;
+  }
+
+  // 거래가 성공했을 때의 잔액 증감
+  long delta() {
+    if (type == Type.USE) {
+      return -amount;
+    }
+    return type == Type.CANCEL ? amount : 0L;
+  }
+
+  void clear() {
+    type = null;
+    userId = null;
+    accountNumber = null;
+    targetTransactionId = null;
+    amount = 0L;
+    waiter = null;
+    errorCode = null;
+    state = null;
+    transactionId = null;
+    transactedAt = null;
+    balanceAfter = 0L;
+    correctionsSeen = 0;
+    error = null;
+    result = null;
+  }
+}
@@ -0,0 +1,241 @@
+package com.example.account.pipeline;
+
+import com.example.account.datasource.ShardRouter;
+import com.example.account.dto.TransactionDto;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import lombok.AllArgsConstructor;
+
+/**
+ * 업무 단계. 스레드 하나가 메모리의 계좌 상태로 사용/취소/해지를 판정하고 잔액을 바꾼다.
+ * DB 는 처음 보는 계좌를 읽을 때와 메모리에 없는 거래를 취소할 때만 읽는다.
+ * 저장 단계에서 실패한 명령은 corrections 로 돌아와 다음 batch 전에 되돌린다.
+ * 그 사이 같은 계좌에서 판정한 명령은 되돌린 명령을 전제로 했으므로 저장 단계가 함께 실패시킨다
+ * (CommandSlot.correctionsSeen).
+ * lease 가 없는 동안 온 명령은 PARTITION_NOT_OWNED 로 돌려보내고, lease 를 다시 얻었으면 그 사이 다른 노드가
+ * 바꿨을 수 있는 계좌 상태와 최근 거래를 버린다 (저장이 끝나지 않은 계좌는 DB 보다 앞서 있으므로 남긴다).
+ */
+class LedgerProcessor implements PipelineStage.Handler {
+  private final CommandRingBuffer ringBuffer;
+  private final LedgerStore ledgerStore;
+  private final ShardRouter shardRouter;
+  private final PipelineLease lease;
+  private final Map<String, AccountState> accounts;
+  // 최근 성공한 사용 거래. 저장되기 전의 거래도 취소할 수 있게 한다.
+  private final Map<String, TransactionDto> recentUses;
+  private final Queue<Correction> corrections = new ConcurrentLinkedQueue<>();
+  private long leaseEpoch;
+
+  LedgerProcessor(CommandRingBuffer ringBuffer, LedgerStore ledgerStore, ShardRouter shardRouter,
+      PipelineLease lease, int accountCacheSize, int recentTransactions) {
+    this.ringBuffer = ringBuffer;
+    this.ledgerStore = ledgerStore;
+    this.shardRouter = shardRouter;
+    this.lease = lease;
+    this.leaseEpoch = lease.getEpoch();
+    this.accounts = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, AccountState> eldest) {
+        // 저장이 끝나지 않은 계좌는 DB 보다 앞서 있으므로 남겨 둔다.
+        return size() > accountCacheSize && eldest.getValue().inFlight.get() == 0;
+      }
+    };
+    this.recentUses = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, TransactionDto> eldest) {
+        return size() > recentTransactions;
+      }
+    };
+  }
+
+  /**
+   * 저장하지 못한 명령의 효과를 되돌린다. 저장 단계 스레드에서 부른다.
+   */
+  void revert(CommandSlot slot) {
+    corrections.add(new Correction(slot.state, -slot.delta(),
+        slot.type == CommandSlot.Type.CLOSE, slot.transactionId));
+  }
+
+  @Override
+  public void onBatch(long from, long to) {
+    applyCorrections();
+    // epoch 보다 먼저 본다. 내 것으로 보이면 lease 를 얻을 때 바뀐 epoch 도 보인다.
+    boolean owned = lease.isOwned();
+    long epoch = lease.getEpoch();
+    if (epoch != leaseEpoch) {
+      accounts.values().removeIf(state -> state.inFlight.get() == 0);
+      recentUses.clear();
+      leaseEpoch = epoch;
+    }
+    for (long sequence = from; sequence <= to; sequence++) {
+      CommandSlot slot = ringBuffer.get(sequence);
+      if (slot.error != null) {
+        continue;
+      }
+      if (!owned) {
+        slot.errorCode = ErrorCode.PARTITION_NOT_OWNED;
+        continue;
+      }
+      switch (slot.type) {
+        case USE:
+          use(slot);
+          break;
+        case CANCEL:
+          cancel(slot);
+          break;
+        default:
+          close(slot);
+      }
+    }
+  }
+
+  private void use(CommandSlot slot) {
+    // 금액 검증 결과는 원래 서비스와 같은 순서로 맞추기 위해 계좌 검증 뒤에 본다.
+    ErrorCode amountError = slot.errorCode;
+    AccountState state = account(slot);
+    if (state == null) {
+      return;
+    }
+    if (!Objects.equals(state.userId, slot.userId)) {
+      slot.errorCode = userError(slot);
+    } else if (state.closed) {
+      slot.errorCode = ErrorCode.ACCOUNT_CLOSED;
+    } else if (state.balance < slot.amount) {
+      slot.errorCode = ErrorCode.BALANCE_NOT_ENOUGH;
+    } else {
+      slot.errorCode = amountError;
+    }
+    attach(slot, state);
+    if (slot.errorCode == null) {
+      state.balance -= slot.amount;
+      slot.balanceAfter = state.balance;
+      TransactionDto transaction = toDto(slot, TransactionType.USE);
+      recentUses.put(slot.transactionId, transaction);
+      slot.result = transaction;
+    }
+  }
+
+  private void cancel(CommandSlot slot) {
+    TransactionDto target = recentUses.get(slot.targetTransactionId);
+    if (target == null) {
+      target = ledgerStore.findTransaction(slot.targetTransactionId);
+    }
+    if (target == null) {
+      slot.errorCode = ErrorCode.TRANSACTION_NOT_FOUND;
+      return;
+    }
+    AccountState state = account(slot);
+    if (state == null) {
+      return;
+    }
+    if (target.getTransactionType() != null && target.getTransactionType().isTransfer()) {
+      slot.errorCode = ErrorCode.TRANSFER_NOT_CANCELLABLE;
+    } else if (!Objects.equals(target.getAmount(), slot.amount)) {
+      slot.errorCode = ErrorCode.AMOUNT_MISMATCHED;
+    } else if (!Objects.equals(target.getAccountNumber(), slot.accountNumber)) {
+      slot.errorCode = ErrorCode.ACCOUNT_MISMATCHED;
+    }
+    attach(slot, state);
+    if (slot.errorCode == null) {
+      state.balance += slot.amount;
+      slot.balanceAfter = state.balance;
+      slot.result = toDto(slot, TransactionType.CANCEL);
+    }
+  }
+
+  private void close(CommandSlot slot) {
+    AccountState state = account(slot);
+    if (state == null) {
+      return;
+    }
+    if (!Objects.equals(state.userId, slot.userId)) {
+      slot.errorCode = userError(slot);
+    } else if (state.closed) {
+      slot.errorCode = ErrorCode.ACCOUNT_CLOSED;
+    } else if (state.balance != 0) {
+      slot.errorCode = ErrorCode.BALANCE_NOT_ZERO;
+    }
+    if (slot.errorCode == null) {
+      // 응답(AccountDto)은 저장 단계가 해지를 반영한 뒤 만든다.
+      state.closed = true;
+      slot.state = state;
+      slot.correctionsSeen = state.correctionsApplied;
+      state.inFlight.incrementAndGet();
+    }
+  }
+
+  // 계좌가 없거나 분할 계좌면 slot 에 실패를 적고 null 을 돌려준다.
+  private AccountState account(CommandSlot slot) {
+    AccountState state = accounts.get(slot.accountNumber);
+    if (state == null) {
+      state = ledgerStore.load(slot.accountNumber);
+      if (state == null) {
+        slot.errorCode = slot.type == CommandSlot.Type.CANCEL || ledgerStore.userExists(
+            slot.userId, slot.accountNumber) ? ErrorCode.ACCOUNT_NOT_FOUND : ErrorCode.USER_NOT_FOUND;
+        return null;
+      }
+      if (state.striped) {
+        // 분할 계좌는 stripe 단위로 처리하는 기존 경로로 간다 (컨트롤러가 먼저 거른다).
+        slot.errorCode = ErrorCode.INVALID_REQUEST;
+        return null;
+      }
+      accounts.put(slot.accountNumber, state);
+    }
+    return state;
+  }
+
+  private ErrorCode userError(CommandSlot slot) {
+    return ledgerStore.userExists(slot.userId, slot.accountNumber)
+        ? ErrorCode.ACCOUNTUSER_MISMATCHED : ErrorCode.USER_NOT_FOUND;
+  }
+
+  // 계좌가 확인된 거래는 성공/실패 모두 저장 단계에서 거래 기록을 남긴다.
+  private void attach(CommandSlot slot, AccountState state) {
+    slot.state = state;
+    slot.transactionId = shardRouter.newTransactionId(slot.accountNumber);
+    slot.transactedAt = LocalDateTime.now();
+    slot.balanceAfter = state.balance;
+    slot.correctionsSeen = state.correctionsApplied;
+    state.inFlight.incrementAndGet();
+  }
+
+  private TransactionDto toDto(CommandSlot slot, TransactionType transactionType) {
+    return TransactionDto.builder()
+        .accountNumber(slot.accountNumber)
+        .transactionResultType(TransactionResultType.SUCCEED)
+        .transactionId(slot.transactionId)
+        .amount(slot.amount)
+        .transactedAt(slot.transactedAt)
+        .transactionType(transactionType)
+        .build();
+  }
+
+  private void applyCorrections() {
+    Correction correction;
+    while ((correction = corrections.poll()) != null) {
+      correction.state.balance += correction.delta;
+      correction.state.correctionsApplied++;
+      if (correction.reopen) {
+        correction.state.closed = false;
+      }
+      if (correction.transactionId != null) {
+        recentUses.remove(correction.transactionId);
+      }
+    }
+  }
+
+  @AllArgsConstructor
+  private static class Correction {
+    private final AccountState state;
+    private final long delta;
+    private final boolean reopen;
+    private final String transactionId;
+  }
+}
@@ -0,0 +1,185 @@
+package com.example.account.pipeline;
+
+import com.example.account.datasource.ShardContext;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.AccountDto;
+import com.example.account.dto.BalanceChangeEvent;
+import com.example.account.dto.TransactionDto;
+import com.example.account.event.BalanceEventHub;
+import com.example.account.exception.AccountException;
+import com.example.account.journal.CommandJournal;
+import com.example.account.journal.JournalCommandType;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.service.AccountService;
+import com.example.account.service.AccountSummaryService;
+import com.example.account.service.OutboxService;
+import com.example.account.service.TransactionService;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.OutboxEventType;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 파이프라인 단계들이 DB 를 읽고 쓰는 곳. 단계 스레드에는 요청 스레드의 샤드 정보가 없으므로 호출마다 샤드를 정한다.
+ */
+@Component
+class LedgerStore {
+  private final AccountRepository accountRepository;
+  private final AccountUserRepository accountUserRepository;
+  private final TransactionRepository transactionRepository;
+  private final TransactionService transactionService;
+  private final AccountService accountService;
+  private final AccountSummaryService accountSummaryService;
+  private final OutboxService outboxService;
+  private final BalanceEventHub balanceEventHub;
+  private final CommandJournal commandJournal;
+  private final ShardRouter shardRouter;
+  private final MeterRegistry meterRegistry;
+  private final PipelineLease lease;
+  private final TransactionTemplate transactionTemplate;
+
+  LedgerStore(AccountRepository accountRepository,
+      AccountUserRepository accountUserRepository, TransactionRepository transactionRepository,
+      TransactionService transactionService, AccountService accountService,
+      AccountSummaryService accountSummaryService, OutboxService outboxService,
+      BalanceEventHub balanceEventHub, CommandJournal commandJournal, ShardRouter shardRouter,
+      MeterRegistry meterRegistry, PipelineLease lease,
+      PlatformTransactionManager transactionManager) {
+    this.accountRepository = accountRepository;
+    this.accountUserRepository = accountUserRepository;
+    this.transactionRepository = transactionRepository;
+    this.transactionService = transactionService;
+    this.accountService = accountService;
+    this.accountSummaryService = accountSummaryService;
+    this.outboxService = outboxService;
+    this.balanceEventHub = balanceEventHub;
+    this.commandJournal = commandJournal;
+    this.shardRouter = shardRouter;
+    this.meterRegistry = meterRegistry;
+    this.lease = lease;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * 계좌 상태를 DB 에서 읽는다. 없으면 null.
+   */
+  AccountState load(String accountNumber) {
+    return inShard(shardRouter.shardOf(accountNumber), () -> accountRepository
+        .findByAccountNumber(accountNumber)
+        .map(account -> new AccountState(account.getId(), account.getAccountUser().getId(),
+            account.getAccountNumber(), account.isStriped(), account.getBalance(),
+            account.getAccountStatus() == AccountStatus.CLOSED))
+        .orElse(null));
+  }
+
+  // 사용자는 계좌와 같은 샤드에서 찾는다 (TransactionService 와 같음).
+  boolean userExists(Long userId, String accountNumber) {
+    return Boolean.TRUE.equals(inShard(shardRouter.shardOf(accountNumber),
+        () -> accountUserRepository.existsById(userId)));
+  }
+
+  /**
+   * 취소할 원거래. 아카이브와 샤딩 이전 거래까지 찾는다. 없으면 null.
+   */
+  TransactionDto findTransaction(String transactionId) {
+    try {
+      return transactionService.inquiryTransaction(transactionId);
+    } catch (AccountException e) {
+      if (e.getErrorCode() == ErrorCode.TRANSACTION_NOT_FOUND) {
+        return null;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * 한 샤드 몫의 거래 기록을 한 DB 트랜잭션으로 남긴다. 잔액은 계좌마다 증감을 합쳐 update 한 번으로 반영한다.
+   * 계좌 엔티티는 읽지 않는다 (거래 기록에는 참조만 건다). commit 직전에 lease 를 잃었으면 rollback 한다.
+   */
+  void persist(int shard, List<CommandSlot> slots) {
+    inShard(shard, () -> {
+      lease.verifyBeforeCommit();
+      write(slots);
+      return null;
+    });
+  }
+
+  AccountDto close(Long userId, String accountNumber) {
+    return accountService.closeAccount(userId, accountNumber);
+  }
+
+  private void write(List<CommandSlot> slots) {
+    List<Transaction> transactions = new ArrayList<>(slots.size());
+    Map<AccountState, long[]> deltas = new IdentityHashMap<>();
+    for (CommandSlot slot : slots) {
+      TransactionType transactionType = TransactionType.valueOf(slot.type.name());
+      TransactionResultType resultType = slot.isSucceed()
+          ? TransactionResultType.SUCCEED : TransactionResultType.FAILED;
+      meterRegistry.counter("account.transactions",
+          "type", transactionType.name(),
+          "result", resultType.name()).increment();
+      transactions.add(Transaction.builder()
+          .transactionType(transactionType)
+          .transactionResultType(resultType)
+          .account(accountRepository.getById(slot.state.accountId))
+          .amount(slot.amount)
+          .transactionId(slot.transactionId)
+          .transactedAt(slot.transactedAt)
+          .build());
+      if (slot.isSucceed()) {
+        deltas.computeIfAbsent(slot.state, state -> new long[1])[0] += slot.delta();
+      }
+    }
+    transactionRepository.saveAll(transactions);
+
+    deltas.forEach((state, delta) -> {
+      if (delta[0] != 0L) {
+        accountRepository.addBalance(state.accountId, delta[0]);
+        accountSummaryService.balanceChanged(state.accountNumber, state.userId, delta[0]);
+      }
+    });
+
+    for (CommandSlot slot : slots) {
+      TransactionType transactionType = TransactionType.valueOf(slot.type.name());
+      if (slot.isSucceed()) {
+        commandJournal.record(JournalCommandType.valueOf(transactionType.name()),
+            slot.state.userId, slot.accountNumber, slot.transactionId, slot.amount,
+            slot.transactedAt);
+      }
+      BalanceChangeEvent event = BalanceChangeEvent.builder()
+          .accountNumber(slot.accountNumber)
+          .transactionId(slot.transactionId)
+          .transactionType(transactionType)
+          .transactionResultType(slot.isSucceed()
+              ? TransactionResultType.SUCCEED : TransactionResultType.FAILED)
+          .amount(slot.amount)
+          .balance(slot.balanceAfter)
+          .transactedAt(slot.transactedAt)
+          .build();
+      outboxService.record(slot.accountNumber, OutboxEventType.TRANSACTION, event);
+      balanceEventHub.publishAfterCommit(event);
+    }
+  }
+
+  private <T> T inShard(int shard, Supplier<T> work) {
+    ShardContext.set(shard);
+    try {
+      return transactionTemplate.execute(status -> work.get());
+    } finally {
+      ShardContext.clear();
+    }
+  }
+}
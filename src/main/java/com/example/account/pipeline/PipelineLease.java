@@ -0,0 +1,139 @@
+package com.example.account.pipeline;
+
+import com.example.account.exception.AccountException;
+import com.example.account.type.BalanceEngineType;
+import com.example.account.type.ErrorCode;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * PIPELINE 엔진은 계좌 상태를 노드 메모리에 두므로 Redis lease(PIPELINE:LEASE) 를 가진 노드 하나만 명령을 받는다.
+ * <ul>
+ *   <li>lease 는 lease-ms 동안 유효하고 lease-renew-ms 마다 연장한다. 시계 차이를 감안해 4/5 만 내 것으로 본다</li>
+ *   <li>lease 를 (다시) 얻을 때마다 epoch 가 바뀐다. 업무 단계는 그 사이 다른 노드가 바꿨을 수 있는 메모리 상태를 버린다</li>
+ *   <li>저장 단계는 commit 직전에 다시 확인하고, 잃었으면 rollback 한다</li>
+ * </ul>
+ * PartitionedCommandEngine 의 파티션 lease 와 같은 방식이다. (commit 자체가 1/5 여유보다 오래 멈추는 경우는 막지 못한다.)
+ */
+@Slf4j
+@Component
+class PipelineLease {
+  private static final String LEASE_KEY = "PIPELINE:LEASE";
+
+  // KEYS: lease / ARGV: nodeId, lease-ms. 비어 있거나 내 것이면 (다시) 잡는다.
+  private static final String ACQUIRE_SCRIPT =
+      "local owner = redis.call('GET', KEYS[1]) "
+          + "if owner and owner ~= ARGV[1] then return 0 end "
+          + "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) "
+          + "return 1";
+
+  // KEYS: lease / ARGV: nodeId. 내 것일 때만 지운다.
+  private static final String RELEASE_SCRIPT =
+      "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end "
+          + "return 0";
+
+  private final RedissonClient redissonClient;
+  private final boolean enabled;
+  private final String nodeId;
+  private final long leaseMillis;
+  private final long validNanos;
+  private final AtomicLong epoch = new AtomicLong();
+
+  // 이 시각(nanoTime)까지 lease 가 내 것이다. 0 이면 아니다.
+  private volatile long ownedUntil;
+
+  PipelineLease(RedissonClient redissonClient,
+      @Value("${spring.transaction.engine:LOCK}") BalanceEngineType engine,
+      @Value("${spring.transaction.pipeline.node-id}") String nodeId,
+      @Value("${spring.transaction.pipeline.lease-ms}") long leaseMillis) {
+    this.redissonClient = redissonClient;
+    this.enabled = engine == BalanceEngineType.PIPELINE;
+    this.nodeId = nodeId;
+    this.leaseMillis = leaseMillis;
+    this.validNanos = TimeUnit.MILLISECONDS.toNanos(leaseMillis * 4 / 5);
+  }
+
+  @PostConstruct
+  public void start() {
+    renew();
+  }
+
+  /**
+   * CommandPipeline 이 남은 명령을 다 처리한 뒤(먼저 멈춘 뒤) 놓는다.
+   */
+  @PreDestroy
+  public void stop() {
+    if (!enabled) {
+      return;
+    }
+    ownedUntil = 0L;
+    script().eval(RScript.Mode.READ_WRITE, RELEASE_SCRIPT, RScript.ReturnType.INTEGER,
+        Collections.singletonList(LEASE_KEY), nodeId);
+  }
+
+  @Scheduled(fixedDelayString = "${spring.transaction.pipeline.lease-renew-ms}")
+  public void renew() {
+    if (!enabled) {
+      return;
+    }
+    long startedAt = System.nanoTime();
+    try {
+      Long acquired = script().eval(RScript.Mode.READ_WRITE, ACQUIRE_SCRIPT,
+          RScript.ReturnType.INTEGER, Collections.singletonList(LEASE_KEY),
+          nodeId, String.valueOf(leaseMillis));
+      boolean owned = acquired != null && acquired == 1L;
+      boolean wasOwned = isOwned();
+      if (owned != wasOwned) {
+        log.info("Pipeline lease {} by {}", owned ? "acquired" : "lost", nodeId);
+      }
+      if (owned && !wasOwned) {
+        // ownedUntil 보다 먼저 바꾼다. 내 것으로 보이면 바뀐 epoch 도 보인다.
+        epoch.incrementAndGet();
+      }
+      ownedUntil = owned ? startedAt + validNanos : 0L;
+    } catch (RuntimeException e) {
+      // 연장하지 못하면 ownedUntil 이 지나는 대로 새 명령을 받지 않는다.
+      log.warn("Failed to renew pipeline lease", e);
+    }
+  }
+
+  boolean isOwned() {
+    long until = ownedUntil;
+    return until != 0L && System.nanoTime() - until < 0;
+  }
+
+  long getEpoch() {
+    return epoch.get();
+  }
+
+  /**
+   * 트랜잭션 안에서 부른다. commit 직전에 lease 를 다시 확인해 잃었으면 PARTITION_NOT_OWNED 로 rollback 한다.
+   */
+  void verifyBeforeCommit() {
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void beforeCommit(boolean readOnly) {
+        if (!isOwned()) {
+          log.warn("Pipeline lease expired before commit, rolling back");
+          throw new AccountException(ErrorCode.PARTITION_NOT_OWNED);
+        }
+      }
+    });
+  }
+
+  private RScript script() {
+    return redissonClient.getScript(StringCodec.INSTANCE);
+  }
+}
@@ -0,0 +1,108 @@
+package com.example.account.pipeline;
+
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongUnaryOperator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 파이프라인 단계 하나. 스레드 하나가 앞 단계가 넘긴 구간을 한 번에 받아(batch) 처리하고 자기 sequence 를 올린다.
+ * 밀려 있으면 쌓인 만큼(최대 maxBatchSize) 한꺼번에, 한가하면 한 건씩 처리하므로 batch 크기가 부하를 따라간다.
+ * 할 일이 없으면 잠깐 spin, 그다음 yield, 그래도 없으면 idle-park-micros 씩 잠든다.
+ */
+@Slf4j
+class PipelineStage {
+  private static final int SPIN_TRIES = 100;
+  private static final int YIELD_TRIES = 100;
+
+  interface Handler {
+    void onBatch(long from, long to);
+  }
+
+  private final String name;
+  private final CommandRingBuffer ringBuffer;
+  // next 를 받아 처리할 수 있는 마지막 sequence 를 돌려준다.
+  private final LongUnaryOperator upstream;
+  private final Handler handler;
+  private final int maxBatchSize;
+  private final long idleParkNanos;
+  private final AtomicLong sequence = new AtomicLong(-1L);
+
+  private volatile boolean running = true;
+  private Thread thread;
+
+  PipelineStage(String name, CommandRingBuffer ringBuffer, LongUnaryOperator upstream,
+      Handler handler, int maxBatchSize, long idleParkNanos) {
+    this.name = name;
+    this.ringBuffer = ringBuffer;
+    this.upstream = upstream;
+    this.handler = handler;
+    this.maxBatchSize = maxBatchSize;
+    this.idleParkNanos = idleParkNanos;
+  }
+
+  AtomicLong getSequence() {
+    return sequence;
+  }
+
+  void start() {
+    thread = new Thread(this::run, "pipeline-" + name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * 이미 넘겨받을 수 있는 것까지 처리하고 멈춘다. 앞 단계부터 차례로 부른다.
+   */
+  void stop() throws InterruptedException {
+    running = false;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+      thread.join();
+    }
+  }
+
+  private void run() {
+    long next = sequence.get() + 1;
+    int idle = 0;
+    while (true) {
+      long available = upstream.applyAsLong(next);
+      if (available >= next) {
+        long to = Math.min(available, next + maxBatchSize - 1);
+        process(next, to);
+        sequence.lazySet(to);
+        next = to + 1;
+        idle = 0;
+        continue;
+      }
+      if (!running) {
+        return;
+      }
+      idle++;
+      if (idle <= SPIN_TRIES) {
+        Thread.onSpinWait();
+      } else if (idle <= SPIN_TRIES + YIELD_TRIES) {
+        Thread.yield();
+      } else {
+        LockSupport.parkNanos(idleParkNanos);
+      }
+    }
+  }
+
+  // 처리기가 예외를 던져도 slot 을 잃으면 기다리는 요청이 깨어나지 못하므로, 실패로 표시하고 넘긴다.
+  private void process(long from, long to) {
+    try {
+      handler.onBatch(from, to);
+    } catch (RuntimeException e) {
+      log.error("Pipeline stage {} failed on [{}, {}]", name, from, to, e);
+      for (long s = from; s <= to; s++) {
+        CommandSlot slot = ringBuffer.get(s);
+        if (slot.error == null) {
+          slot.error = new AccountException(ErrorCode.INTERNAL_SERVER_ERROR);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.example.account.pipeline;
+
+import com.example.account.exception.AccountException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 명령을 발행한 요청 스레드가 결과를 기다리는 자리. 스레드마다 하나를 만들어 계속 쓴다.
+ * 응답 단계가 결과를 쓰고 done 을 세운 뒤 깨운다 (done 이 volatile 이므로 그 앞의 쓰기도 보인다).
+ */
+class Waiter {
+  private static final ThreadLocal<Waiter> CURRENT = ThreadLocal.withInitial(Waiter::new);
+
+  private final Thread thread = Thread.currentThread();
+  private volatile boolean done;
+  private Object result;
+  private AccountException error;
+
+  static Waiter current() {
+    Waiter waiter = CURRENT.get();
+    waiter.done = false;
+    waiter.result = null;
+    waiter.error = null;
+    return waiter;
+  }
+
+  void complete(Object result, AccountException error) {
+    this.result = result;
+    this.error = error;
+    this.done = true;
+    LockSupport.unpark(thread);
+  }
+
+  /**
+   * 결과가 올 때까지 기다린다. 인터럽트가 와도 명령은 이미 발행됐으므로 끝까지 기다리고 플래그만 되살린다.
+   */
+  Object await() {
+    boolean interrupted = false;
+    while (!done) {
+      LockSupport.park(this);
+      if (Thread.interrupted()) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (error != null) {
+      throw error;
+    }
+    return result;
+  }
+}
@@ -0,0 +1,190 @@
+package com.example.account.protocol;
+
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 고정 배치 바이너리 메시지. 정수는 big-endian 이다.
+ *
+ * <pre>
+ * frame    = length:int32 payload               (length 는 payload 바이트 수)
+ * request  = opcode:int8 requestId:int32 body
+ *   USE      userId:int64 accountNumber:10B amount:int64
+ *   CANCEL   accountNumber:10B amount:int64 transactionId:str
+ *   INQUIRY  transactionId:str
+ * response = opcode:int8 requestId:int32 status:int8 body
+ *   0 (OK)     accountNumber:10B transactionType:int8 transactionResultType:int8
+ *              transactionId:str amount:int64 transactedAtSecond:int64 transactedAtNano:int32
+ *   1 (ERROR)  errorCode:str                    (ErrorCode 이름, JSON 의 errorCode 와 같다)
+ * str      = length:uint8 ASCII
+ * </pre>
+ *
+ * transactionType, transactionResultType 은 enum 선언 순서다 (값은 끝에만 추가한다).
+ * transactedAt 은 LocalDateTime 을 UTC 기준 epoch 초와 나노초로 옮긴 값이고, 없으면 초가 Long.MIN_VALUE 다.
+ */
+public final class BinaryCodec {
+  public static final int ACCOUNT_NUMBER_LENGTH = 10;
+  public static final int MAX_STRING_LENGTH = 255;
+  // length 를 포함한 응답 frame 하나의 최대 크기 (transactionId 가 최대 길이일 때)
+  public static final int MAX_RESPONSE_LENGTH = 4 + 1 + 4 + 1 + ACCOUNT_NUMBER_LENGTH + 2
+      + 1 + MAX_STRING_LENGTH + 8 + 8 + 4;
+
+  private static final byte STATUS_OK = 0;
+  private static final byte STATUS_ERROR = 1;
+  private static final long NO_TIME = Long.MIN_VALUE;
+
+  private static final TransactionType[] TRANSACTION_TYPES = TransactionType.values();
+  private static final TransactionResultType[] RESULT_TYPES = TransactionResultType.values();
+
+  private BinaryCodec() {
+  }
+
+  /**
+   * length 를 포함한 frame 하나를 쓴다.
+   */
+  public static void encodeRequest(BinaryRequest request, ByteBuffer buffer) {
+    int lengthAt = buffer.position();
+    buffer.putInt(0);
+    buffer.put(request.getOpcode().getCode());
+    buffer.putInt(request.getRequestId());
+    switch (request.getOpcode()) {
+      case USE:
+        buffer.putLong(request.getUserId());
+        putAccountNumber(buffer, request.getAccountNumber());
+        buffer.putLong(request.getAmount());
+        break;
+      case CANCEL:
+        putAccountNumber(buffer, request.getAccountNumber());
+        buffer.putLong(request.getAmount());
+        putString(buffer, request.getTransactionId());
+        break;
+      case INQUIRY:
+        putString(buffer, request.getTransactionId());
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown opcode " + request.getOpcode());
+    }
+    buffer.putInt(lengthAt, buffer.position() - lengthAt - 4);
+  }
+
+  /**
+   * length 를 뺀 payload 하나를 읽는다. 형식이 맞지 않으면 IllegalArgumentException 이나
+   * BufferUnderflowException 을 던진다.
+   */
+  public static BinaryRequest decodeRequest(ByteBuffer payload) {
+    Opcode opcode = Opcode.of(payload.get());
+    BinaryRequest.BinaryRequestBuilder request = BinaryRequest.builder()
+        .opcode(opcode)
+        .requestId(payload.getInt());
+    switch (opcode) {
+      case USE:
+        request.userId(payload.getLong())
+            .accountNumber(getAccountNumber(payload))
+            .amount(payload.getLong());
+        break;
+      case CANCEL:
+        request.accountNumber(getAccountNumber(payload))
+            .amount(payload.getLong())
+            .transactionId(getString(payload));
+        break;
+      default:
+        request.transactionId(getString(payload));
+        break;
+    }
+    if (payload.hasRemaining()) {
+      throw new IllegalArgumentException("Trailing bytes in " + opcode + " frame");
+    }
+    return request.build();
+  }
+
+  /**
+   * length 를 포함한 frame 하나를 쓴다.
+   */
+  public static void encodeResponse(BinaryResponse response, ByteBuffer buffer) {
+    int lengthAt = buffer.position();
+    buffer.putInt(0);
+    buffer.put(response.getOpcode().getCode());
+    buffer.putInt(response.getRequestId());
+    if (!response.isSucceed()) {
+      buffer.put(STATUS_ERROR);
+      putString(buffer, response.getErrorCode().name());
+    } else {
+      buffer.put(STATUS_OK);
+      putAccountNumber(buffer, response.getAccountNumber());
+      buffer.put((byte) response.getTransactionType().ordinal());
+      buffer.put((byte) response.getTransactionResultType().ordinal());
+      putString(buffer, response.getTransactionId());
+      buffer.putLong(response.getAmount());
+      LocalDateTime transactedAt = response.getTransactedAt();
+      if (transactedAt == null) {
+        buffer.putLong(NO_TIME);
+        buffer.putInt(0);
+      } else {
+        buffer.putLong(transactedAt.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(transactedAt.getNano());
+      }
+    }
+    buffer.putInt(lengthAt, buffer.position() - lengthAt - 4);
+  }
+
+  /**
+   * length 를 뺀 payload 하나를 읽는다.
+   */
+  public static BinaryResponse decodeResponse(ByteBuffer payload) {
+    BinaryResponse.BinaryResponseBuilder response = BinaryResponse.builder()
+        .opcode(Opcode.of(payload.get()))
+        .requestId(payload.getInt());
+    if (payload.get() == STATUS_ERROR) {
+      return response.errorCode(ErrorCode.valueOf(getString(payload))).build();
+    }
+    response.accountNumber(getAccountNumber(payload))
+        .transactionType(TRANSACTION_TYPES[payload.get()])
+        .transactionResultType(RESULT_TYPES[payload.get()])
+        .transactionId(getString(payload))
+        .amount(payload.getLong());
+    long second = payload.getLong();
+    int nano = payload.getInt();
+    if (second != NO_TIME) {
+      response.transactedAt(LocalDateTime.ofEpochSecond(second, nano, ZoneOffset.UTC));
+    }
+    return response.build();
+  }
+
+  private static void putAccountNumber(ByteBuffer buffer, String accountNumber) {
+    if (accountNumber == null || accountNumber.length() != ACCOUNT_NUMBER_LENGTH) {
+      throw new IllegalArgumentException("Account number must be "
+          + ACCOUNT_NUMBER_LENGTH + " characters");
+    }
+    for (int i = 0; i < ACCOUNT_NUMBER_LENGTH; i++) {
+      buffer.put((byte) accountNumber.charAt(i));
+    }
+  }
+
+  private static String getAccountNumber(ByteBuffer buffer) {
+    byte[] bytes = new byte[ACCOUNT_NUMBER_LENGTH];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.US_ASCII);
+  }
+
+  private static void putString(ByteBuffer buffer, String value) {
+    String text = value == null ? "" : value;
+    if (text.length() > MAX_STRING_LENGTH) {
+      throw new IllegalArgumentException("String longer than " + MAX_STRING_LENGTH);
+    }
+    buffer.put((byte) text.length());
+    for (int i = 0; i < text.length(); i++) {
+      buffer.put((byte) text.charAt(i));
+    }
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    byte[] bytes = new byte[Byte.toUnsignedInt(buffer.get())];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.US_ASCII);
+  }
+}
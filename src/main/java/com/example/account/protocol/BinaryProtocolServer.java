@@ -0,0 +1,227 @@
+package com.example.account.protocol;
+
+import com.example.account.config.VirtualThreads;
+import com.example.account.type.ErrorCode;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 대량 거래 클라이언트(POS 게이트웨이 등)를 위한 TCP 바이너리 프로토콜 (형식은 {@link BinaryCodec}).
+ * <ul>
+ *   <li>한 연결에 응답을 기다리지 않고 요청을 이어 보낼 수 있다 (pipelining). 요청은 작업 스레드에서
+ *       동시에 처리하고 응답은 끝난 순서대로 requestId 를 붙여 돌려준다</li>
+ *   <li>연결마다 처리 중인 요청은 max-in-flight 개까지다. 넘으면 더 읽지 않아 TCP 로 클라이언트를 늦춘다</li>
+ *   <li>형식이 맞지 않는 frame 을 받으면 응답 없이 연결을 끊는다</li>
+ * </ul>
+ * 연결은 게이트웨이 몇 개라서 연결마다 읽기 스레드 하나를 둔다. 인증이 없으므로 기본은 localhost 에만 연다.
+ */
+@Slf4j
+@Component
+public class BinaryProtocolServer {
+  private final BinaryTransactionHandler handler;
+  private final boolean enabled;
+  private final String bindAddress;
+  private final int port;
+  private final int workerThreads;
+  private final int maxInFlight;
+  private final int maxFrameBytes;
+  private final boolean virtualThreads;
+
+  private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+  private ServerSocket serverSocket;
+  private ExecutorService workers;
+  private volatile boolean running;
+
+  public BinaryProtocolServer(BinaryTransactionHandler handler,
+      @Value("${spring.transaction.binary.enabled}") boolean enabled,
+      @Value("${spring.transaction.binary.bind-address}") String bindAddress,
+      @Value("${spring.transaction.binary.port}") int port,
+      @Value("${spring.transaction.binary.worker-threads}") int workerThreads,
+      @Value("${spring.transaction.binary.max-in-flight}") int maxInFlight,
+      @Value("${spring.transaction.binary.max-frame-bytes}") int maxFrameBytes,
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+    this.handler = handler;
+    this.enabled = enabled;
+    this.bindAddress = bindAddress;
+    this.port = port;
+    this.workerThreads = workerThreads;
+    this.maxInFlight = maxInFlight;
+    this.maxFrameBytes = maxFrameBytes;
+    this.virtualThreads = virtualThreads;
+  }
+
+  @PostConstruct
+  public void start() throws IOException {
+    if (!enabled) {
+      return;
+    }
+    serverSocket = new ServerSocket();
+    serverSocket.bind(new InetSocketAddress(bindAddress, port));
+    // 사용 요청은 승인 대기 동안 작업 스레드를 잡고 있으므로 Tomcat 스레드 수만큼 둔다.
+    workers = virtualThreads
+        ? VirtualThreads.newPerTaskExecutor() : Executors.newFixedThreadPool(workerThreads);
+    running = true;
+    Thread acceptor = new Thread(this::acceptLoop, "binary-acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    log.info("Binary protocol listening on {}:{}", bindAddress, getLocalPort());
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    if (!running) {
+      return;
+    }
+    running = false;
+    try {
+      serverSocket.close();
+    } catch (IOException e) {
+      log.warn("Failed to close binary protocol listener", e);
+    }
+    connections.forEach(Connection::close);
+    workers.shutdown();
+    workers.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  public int getLocalPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  private void acceptLoop() {
+    while (running) {
+      Socket socket;
+      try {
+        socket = serverSocket.accept();
+        socket.setTcpNoDelay(true);
+      } catch (IOException e) {
+        if (running) {
+          log.warn("Binary protocol accept failed", e);
+        }
+        continue;
+      }
+      try {
+        Connection connection = new Connection(socket);
+        connections.add(connection);
+        Thread reader = new Thread(connection::readLoop,
+            "binary-" + socket.getRemoteSocketAddress());
+        reader.setDaemon(true);
+        reader.start();
+      } catch (IOException e) {
+        log.warn("Binary protocol connection setup failed", e);
+        closeQuietly(socket);
+      }
+    }
+  }
+
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException ignored) {
+      // 이미 끊긴 연결
+    }
+  }
+
+  private class Connection {
+    private final Socket socket;
+    private final DataInputStream in;
+    private final OutputStream out;
+    private final Semaphore inFlight = new Semaphore(maxInFlight);
+    // 응답 쓰기는 작업 스레드 여럿이 나눠 하므로 writeLock 안에서 buffer 를 다시 쓴다.
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(BinaryCodec.MAX_RESPONSE_LENGTH);
+
+    private Connection(Socket socket) throws IOException {
+      this.socket = socket;
+      this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      this.out = new BufferedOutputStream(socket.getOutputStream());
+    }
+
+    private void readLoop() {
+      try {
+        while (running) {
+          int length = in.readInt();
+          if (length <= 0 || length > maxFrameBytes) {
+            throw new IllegalArgumentException("Frame length " + length);
+          }
+          byte[] payload = new byte[length];
+          in.readFully(payload);
+          BinaryRequest request = BinaryCodec.decodeRequest(ByteBuffer.wrap(payload));
+          inFlight.acquire();
+          dispatch(request);
+        }
+      } catch (EOFException e) {
+        // 클라이언트가 연결을 닫았다.
+      } catch (IOException e) {
+        if (running && !socket.isClosed()) {
+          log.warn("Binary protocol connection {} failed", socket.getRemoteSocketAddress(), e);
+        }
+      } catch (IllegalArgumentException | BufferUnderflowException e) {
+        log.warn("Malformed binary frame from {} : {}", socket.getRemoteSocketAddress(),
+            e.getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        close();
+      }
+    }
+
+    private void dispatch(BinaryRequest request) {
+      try {
+        workers.execute(() -> {
+          try {
+            write(handler.handle(request));
+          } finally {
+            inFlight.release();
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        inFlight.release();
+        write(BinaryResponse.error(request.getOpcode(), request.getRequestId(),
+            ErrorCode.INTERNAL_SERVER_ERROR));
+      }
+    }
+
+    private void write(BinaryResponse response) {
+      writeLock.lock();
+      try {
+        writeBuffer.clear();
+        BinaryCodec.encodeResponse(response, writeBuffer);
+        out.write(writeBuffer.array(), 0, writeBuffer.position());
+        out.flush();
+      } catch (IOException e) {
+        log.warn("Failed to write binary response {} to {}", response.getRequestId(),
+            socket.getRemoteSocketAddress());
+        close();
+      } finally {
+        writeLock.unlock();
+      }
+    }
+
+    private void close() {
+      connections.remove(this);
+      closeQuietly(socket);
+    }
+  }
+}
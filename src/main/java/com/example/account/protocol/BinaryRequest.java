@@ -0,0 +1,29 @@
+package com.example.account.protocol;
+
+import com.example.account.dto.CancelTransaction;
+import com.example.account.dto.UseTransaction;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 바이너리 요청 하나. requestId 는 클라이언트가 정하고 응답에 그대로 돌려준다
+ * (한 연결에 여러 요청을 보내고 응답은 끝난 순서대로 받는다).
+ */
+@Getter
+@Builder
+public class BinaryRequest {
+  private final Opcode opcode;
+  private final int requestId;
+  private final long userId;
+  private final String accountNumber;
+  private final String transactionId;
+  private final long amount;
+
+  public UseTransaction.Request toUseRequest() {
+    return new UseTransaction.Request(userId, accountNumber, amount);
+  }
+
+  public CancelTransaction.Request toCancelRequest() {
+    return new CancelTransaction.Request(transactionId, accountNumber, amount);
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.account.protocol;
+
+import com.example.account.dto.CancelTransaction;
+import com.example.account.dto.InquiryTransactionResponse;
+import com.example.account.dto.UseTransaction;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 바이너리 응답 하나. 실패하면 errorCode 만 채운다.
+ */
+@Getter
+@Builder
+public class BinaryResponse {
+  private final Opcode opcode;
+  private final int requestId;
+  private final ErrorCode errorCode;
+  private final String accountNumber;
+  private final TransactionType transactionType;
+  private final TransactionResultType transactionResultType;
+  private final String transactionId;
+  private final long amount;
+  private final LocalDateTime transactedAt;
+
+  public boolean isSucceed() {
+    return errorCode == null;
+  }
+
+  public static BinaryResponse error(Opcode opcode, int requestId, ErrorCode errorCode) {
+    return BinaryResponse.builder()
+        .opcode(opcode)
+        .requestId(requestId)
+        .errorCode(errorCode)
+        .build();
+  }
+
+  public static BinaryResponse from(int requestId, UseTransaction.Response response) {
+    return BinaryResponse.builder()
+        .opcode(Opcode.USE)
+        .requestId(requestId)
+        .accountNumber(response.getAccountNumber())
+        .transactionType(TransactionType.USE)
+        .transactionResultType(response.getTransactionResultType())
+        .transactionId(response.getTransactionId())
+        .amount(response.getAmount())
+        .transactedAt(response.getTransactedAt())
+        .build();
+  }
+
+  public static BinaryResponse from(int requestId, CancelTransaction.Response response) {
+    return BinaryResponse.builder()
+        .opcode(Opcode.CANCEL)
+        .requestId(requestId)
+        .accountNumber(response.getAccountNumber())
+        .transactionType(TransactionType.CANCEL)
+        .transactionResultType(response.getTransactionResultType())
+        .transactionId(response.getTransactionId())
+        .amount(response.getAmount())
+        .transactedAt(response.getTransactedAt())
+        .build();
+  }
+
+  public static BinaryResponse from(int requestId, InquiryTransactionResponse response) {
+    return BinaryResponse.builder()
+        .opcode(Opcode.INQUIRY)
+        .requestId(requestId)
+        .accountNumber(response.getAccountNumber())
+        .transactionType(response.getTransactionType())
+        .transactionResultType(response.getTransactionResultType())
+        .transactionId(response.getTransactionId())
+        .amount(response.getAmount())
+        .transactedAt(response.getTransactedAt())
+        .build();
+  }
+}
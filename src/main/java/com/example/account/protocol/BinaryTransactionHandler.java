@@ -0,0 +1,64 @@
+package com.example.account.protocol;
+
+import com.example.account.controller.TransactionController;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 바이너리 요청을 JSON API 와 같은 경로로 처리한다. TransactionController 를 그대로 불러서
+ * 계좌 lock, 잔액 엔진 선택, 실패 거래 기록이 /transaction/* 과 같다. 요청 검증도 같은 제약을 쓴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BinaryTransactionHandler {
+  private static final String ERROR_METRIC = "account.errors";
+
+  private final TransactionController transactionController;
+  private final Validator validator;
+  private final MeterRegistry meterRegistry;
+
+  public BinaryResponse handle(BinaryRequest request) {
+    try {
+      switch (request.getOpcode()) {
+        case USE:
+          return BinaryResponse.from(request.getRequestId(),
+              transactionController.useTransaction(valid(request.toUseRequest())));
+        case CANCEL:
+          return BinaryResponse.from(request.getRequestId(),
+              transactionController.cancelTransaction(valid(request.toCancelRequest())));
+        default:
+          if (request.getTransactionId() == null || request.getTransactionId().isBlank()) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+          }
+          return BinaryResponse.from(request.getRequestId(),
+              transactionController.getTransactionByTransactionId(request.getTransactionId()));
+      }
+    } catch (AccountException e) {
+      return error(request, e.getErrorCode());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return error(request, ErrorCode.INTERNAL_SERVER_ERROR);
+    } catch (RuntimeException e) {
+      log.error("Binary request {} failed", request.getOpcode(), e);
+      return error(request, ErrorCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  private <T> T valid(T request) {
+    if (!validator.validate(request).isEmpty()) {
+      throw new AccountException(ErrorCode.INVALID_REQUEST);
+    }
+    return request;
+  }
+
+  private BinaryResponse error(BinaryRequest request, ErrorCode errorCode) {
+    meterRegistry.counter(ERROR_METRIC, "errorCode", errorCode.name()).increment();
+    return BinaryResponse.error(request.getOpcode(), request.getRequestId(), errorCode);
+  }
+}
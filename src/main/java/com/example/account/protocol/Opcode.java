@@ -0,0 +1,23 @@
+package com.example.account.protocol;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public enum Opcode {
+  USE((byte) 1),
+  CANCEL((byte) 2),
+  INQUIRY((byte) 3);
+
+  private final byte code;
+
+  public static Opcode of(byte code) {
+    for (Opcode opcode : values()) {
+      if (opcode.code == code) {
+        return opcode;
+      }
+    }
+    throw new IllegalArgumentException("Unknown opcode " + code);
+  }
+}
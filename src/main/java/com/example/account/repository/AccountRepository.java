@@ -3,17 +3,71 @@ package com.example.account.repository;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.type.AccountStatus;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
 
   Integer countByAccountUserAndAccountStatus(AccountUser accountUser, AccountStatus accountStatus);
+
+  // [사용자 id, 사용 중 계좌 수]
+  @Query("select a.accountUser.id, count(a) from Account a "
+      + "where a.accountStatus = :accountStatus group by a.accountUser.id")
+  List<Object[]> countByAccountStatusGroupByUser(
+      @Param("accountStatus") AccountStatus accountStatus);
   Integer countByAccountNumber(String accountNumber);
+
+  // 후보 중 이미 쓰고 있는 계좌번호
+  @Query("select a.accountNumber from Account a where a.accountNumber in :accountNumbers")
+  List<String> findAccountNumbersIn(@Param("accountNumbers") Collection<String> accountNumbers);
+
+  /**
+   * 휴면 계좌 후보를 id 순으로 afterId 다음부터 찾는다 (keyset).
+   * 잔액 0, 분할되지 않음, inactiveSince 이전 개설, 그 뒤 거래 없음.
+   * 결과는 [id, accountNumber, userId].
+   */
+  @Query("select a.id, a.accountNumber, a.accountUser.id from Account a "
+      + "where a.id > :afterId and a.accountStatus = :accountStatus and a.balance = 0 "
+      + "and (a.stripeCount is null or a.stripeCount < 2) and a.openedAt < :inactiveSince "
+      + "and not exists (select t.id from Transaction t "
+      + "where t.account = a and t.transactedAt >= :inactiveSince) "
+      + "order by a.id")
+  List<Object[]> findDormantAfter(@Param("afterId") Long afterId,
+      @Param("accountStatus") AccountStatus accountStatus,
+      @Param("inactiveSince") LocalDateTime inactiveSince, Pageable pageable);
+
+  // 휴면 조건을 다시 확인하면서 한 문장으로 해지한다. 그 사이 잔액이나 거래가 생긴 계좌는 빠진다.
+  @Modifying
+  @Query("update Account a set a.accountStatus = :closed, a.closedAt = :closedAt "
+      + "where a.id in :ids and a.accountStatus = :inUse and a.balance = 0 "
+      + "and (a.stripeCount is null or a.stripeCount < 2) "
+      + "and not exists (select t.id from Transaction t "
+      + "where t.account = a and t.transactedAt >= :inactiveSince)")
+  int closeDormant(@Param("ids") Collection<Long> ids,
+      @Param("inactiveSince") LocalDateTime inactiveSince,
+      @Param("closedAt") LocalDateTime closedAt,
+      @Param("inUse") AccountStatus inUse, @Param("closed") AccountStatus closed);
+
+  // 파이프라인 엔진과 Redis 잔액 엔진이 묶음마다 계좌별 증감을 한 번에 반영한다. 잔액 확인은 이미 했다.
+  @Modifying
+  @Query("update Account a set a.balance = a.balance + :delta where a.id = :id")
+  int addBalance(@Param("id") Long id, @Param("delta") long delta);
+
+  List<Account> findByIdInAndAccountStatusAndClosedAt(Collection<Long> ids,
+      AccountStatus accountStatus, LocalDateTime closedAt);
+
   Optional<Account> findByAccountNumber(String accountNumber);
   List<Account> findByAccountUser(AccountUser accountUser);
+  Page<Account> findByAccountStatus(AccountStatus accountStatus, Pageable pageable);
 
 }
@@ -0,0 +1,41 @@
+package com.example.account.repository;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountStripe;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AccountStripeRepository extends JpaRepository<AccountStripe, Long> {
+
+  List<AccountStripe> findByAccountOrderByStripeIndex(Account account);
+
+  @Query("select coalesce(sum(s.balance), 0) from AccountStripe s where s.account = :account")
+  Long sumBalanceByAccount(@Param("account") Account account);
+
+  // 잔액이 충분할 때만 차감한다. 차감된 행 수(0 또는 1)를 돌려준다.
+  @Modifying
+  @Query("update AccountStripe s set s.balance = s.balance - :amount "
+      + "where s.account = :account and s.stripeIndex = :stripeIndex and s.balance >= :amount")
+  int subBalance(@Param("account") Account account, @Param("stripeIndex") Integer stripeIndex,
+      @Param("amount") Long amount);
+
+  @Modifying
+  @Query("update AccountStripe s set s.balance = s.balance + :amount "
+      + "where s.account = :account and s.stripeIndex = :stripeIndex")
+  int addBalance(@Param("account") Account account, @Param("stripeIndex") Integer stripeIndex,
+      @Param("amount") Long amount);
+
+  @Modifying
+  @Query("update AccountStripe s set s.balance = :balance "
+      + "where s.account = :account and s.stripeIndex = :stripeIndex")
+  int setBalance(@Param("account") Account account, @Param("stripeIndex") Integer stripeIndex,
+      @Param("balance") Long balance);
+
+  @Query("select s.account.accountNumber from AccountStripe s where s.stripeIndex = 0")
+  List<String> findStripedAccountNumbers();
+}
@@ -0,0 +1,49 @@
+package com.example.account.repository;
+
+import com.example.account.domain.AccountSummary;
+import com.example.account.type.AccountStatus;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AccountSummaryRepository extends JpaRepository<AccountSummary, String> {
+
+  List<AccountSummary> findByUserIdOrderByAccountNumber(Long userId);
+
+  @Modifying
+  @Query("update AccountSummary s set s.balance = s.balance + :delta "
+      + "where s.accountNumber = :accountNumber")
+  int addBalance(@Param("accountNumber") String accountNumber, @Param("delta") Long delta);
+
+  @Modifying
+  @Query("update AccountSummary s set s.accountStatus = :accountStatus "
+      + "where s.accountNumber = :accountNumber")
+  int setAccountStatus(@Param("accountNumber") String accountNumber,
+      @Param("accountStatus") AccountStatus accountStatus);
+
+  @Modifying
+  @Query("update AccountSummary s set s.accountStatus = :accountStatus "
+      + "where s.accountNumber in :accountNumbers")
+  int setAccountStatusIn(@Param("accountNumbers") Collection<String> accountNumbers,
+      @Param("accountStatus") AccountStatus accountStatus);
+
+  // 일괄 개설한 계좌의 요약을 한 문장으로 넣는다.
+  @Modifying
+  @Query("insert into AccountSummary (accountNumber, userId, balance, accountStatus) "
+      + "select a.accountNumber, a.accountUser.id, a.balance, a.accountStatus from Account a "
+      + "where a.accountNumber in :accountNumbers")
+  int insertForAccounts(@Param("accountNumbers") Collection<String> accountNumbers);
+
+  // 요약이 없는 계좌(요약 도입 전 계좌, data.sql)를 채운다.
+  @Modifying
+  @Query("insert into AccountSummary (accountNumber, userId, balance, accountStatus) "
+      + "select a.accountNumber, a.accountUser.id, a.balance, a.accountStatus from Account a "
+      + "where not exists (select s.accountNumber from AccountSummary s "
+      + "where s.accountNumber = a.accountNumber)")
+  int backfill();
+}
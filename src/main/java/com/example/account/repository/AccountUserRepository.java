@@ -1,10 +1,49 @@
 package com.example.account.repository;
 
 import com.example.account.domain.AccountUser;
+import java.util.Optional;
+import javax.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AccountUserRepository extends JpaRepository<AccountUser, Long> {
 
+  // 한도 확인과 증가를 한 문장으로 한다. 한도에 도달했으면 0 을 돌려준다.
+  @Modifying
+  @Query("update AccountUser u set u.activeAccountCount = u.activeAccountCount + 1 "
+      + "where u.id = :userId and u.activeAccountCount < :limit")
+  int incrementActiveAccountCount(@Param("userId") Long userId, @Param("limit") Integer limit);
+
+  // 일괄 개설용. count 개를 더해도 한도를 넘지 않을 때만 더한다.
+  @Modifying
+  @Query("update AccountUser u set u.activeAccountCount = u.activeAccountCount + :count "
+      + "where u.id = :userId and u.activeAccountCount + :count <= :limit")
+  int addActiveAccountCount(@Param("userId") Long userId, @Param("count") Integer count,
+      @Param("limit") Integer limit);
+
+  @Modifying
+  @Query("update AccountUser u set u.activeAccountCount = u.activeAccountCount - 1 "
+      + "where u.id = :userId and u.activeAccountCount > 0")
+  int decrementActiveAccountCount(@Param("userId") Long userId);
+
+  // 일괄 해지용. 모자라면 건드리지 않고 보정 작업에 맡긴다.
+  @Modifying
+  @Query("update AccountUser u set u.activeAccountCount = u.activeAccountCount - :count "
+      + "where u.id = :userId and u.activeAccountCount >= :count")
+  int subtractActiveAccountCount(@Param("userId") Long userId, @Param("count") Integer count);
+
+  // 보정 작업이 계좌를 세는 동안 개설/해지가 카운터를 바꾸지 못하게 행을 잡는다.
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select u from AccountUser u where u.id = :userId")
+  Optional<AccountUser> findByIdForUpdate(@Param("userId") Long userId);
+
+  // findByIdForUpdate 로 잡은 트랜잭션 안에서만 쓴다.
+  @Modifying
+  @Query("update AccountUser u set u.activeAccountCount = :count where u.id = :userId")
+  int setActiveAccountCount(@Param("userId") Long userId, @Param("count") Integer count);
 }
@@ -0,0 +1,10 @@
+package com.example.account.repository;
+
+import com.example.account.domain.ArchivedTransactionIndex;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArchivedTransactionIndexRepository
+    extends JpaRepository<ArchivedTransactionIndex, String> {
+}
@@ -0,0 +1,15 @@
+package com.example.account.repository;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.BalanceCheckpoint;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+
+  Optional<BalanceCheckpoint> findFirstByAccountAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(
+      Account account, LocalDateTime at);
+}
@@ -0,0 +1,27 @@
+package com.example.account.repository;
+
+import com.example.account.domain.OutboxEvent;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+  List<OutboxEvent> findByPublishedAtIsNullOrderByIdAsc(Pageable pageable);
+
+  @Modifying
+  @Query("update OutboxEvent e set e.publishedAt = :publishedAt where e.id in :ids")
+  int markPublished(@Param("ids") Collection<Long> ids,
+      @Param("publishedAt") LocalDateTime publishedAt);
+
+  @Modifying
+  @Query("delete from OutboxEvent e where e.publishedAt < :before")
+  int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
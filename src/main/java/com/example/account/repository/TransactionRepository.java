@@ -1,12 +1,47 @@
 package com.example.account.repository;
 
+import com.example.account.domain.Account;
 import com.example.account.domain.Transaction;
+import com.example.account.type.TransactionResultType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
   Optional<Transaction> findByTransactionId(String transactionId);
+
+  List<Transaction> findByTransactionIdIn(Collection<String> transactionIds);
+
+  // (from, to] 구간의 [거래 종류, 금액 합]. (account_id, transacted_at) 인덱스 범위 조회로 끝난다.
+  @Query("select t.transactionType, sum(t.amount) from Transaction t "
+      + "where t.account = :account and t.transactionResultType = :resultType "
+      + "and t.transactedAt > :from and t.transactedAt <= :to "
+      + "group by t.transactionType")
+  List<Object[]> sumAmountByTransactionType(@Param("account") Account account,
+      @Param("resultType") TransactionResultType resultType,
+      @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+  Optional<Transaction> findFirstByOrderByTransactedAtAsc();
+
+  // [from, to) 구간의 모든 계좌 거래. 아카이브로 옮길 때 쓴다.
+  @Query("select t from Transaction t "
+      + "where t.transactedAt >= :from and t.transactedAt < :to "
+      + "order by t.transactedAt, t.id")
+  List<Transaction> findAllTransactedBetween(@Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to);
+
+  @Query("select t from Transaction t "
+      + "where t.account = :account and t.transactionResultType = :resultType "
+      + "and t.transactedAt > :from and t.transactedAt <= :to "
+      + "order by t.transactedAt, t.id")
+  List<Transaction> findInPeriod(@Param("account") Account account,
+      @Param("resultType") TransactionResultType resultType,
+      @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
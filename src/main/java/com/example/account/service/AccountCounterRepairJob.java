@@ -0,0 +1,156 @@
+package com.example.account.service;
+
+import com.example.account.datasource.ShardContext;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.datasource.ShardScatter;
+import com.example.account.domain.AccountUser;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.type.AccountStatus;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * AccountUser.activeAccountCount 를 실제 사용 중 계좌 수로 다시 맞춘다.
+ * 기동 시(data.sql 계좌 반영)와 주기적으로 돈다.
+ * <ul>
+ *   <li>모든 샤드에서 한 번에 센 값으로 어긋난 사용자만 고른다 (이 값으로 쓰지는 않는다)</li>
+ *   <li>고른 사용자는 사용자 샤드에서 AccountUser 행을 잡고(FOR UPDATE) 그 샤드의 계좌를 다시 센 뒤 쓴다.
+ *       개설과 같은 샤드의 해지는 같은 행을 고치므로 세는 동안 끼어들지 못한다</li>
+ *   <li>사용자 샤드가 아닌 곳의 계좌(기동 시 옮겨진 초기 계좌)는 처음 센 값을 더한다. 그런 계좌의 해지가
+ *       겹치면 카운터가 하나 작게 남을 수 있고 다음 실행에서 맞춰진다. 새 계좌는 항상 사용자 샤드에 열린다</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class AccountCounterRepairJob {
+  private static final int PAGE_SIZE = 500;
+
+  private final AccountRepository accountRepository;
+  private final AccountUserRepository accountUserRepository;
+  private final ShardRouter shardRouter;
+  private final ShardScatter shardScatter;
+  private final TransactionTemplate transactionTemplate;
+
+  public AccountCounterRepairJob(AccountRepository accountRepository,
+      AccountUserRepository accountUserRepository, ShardRouter shardRouter,
+      ShardScatter shardScatter, PlatformTransactionManager transactionManager) {
+    this.accountRepository = accountRepository;
+    this.accountUserRepository = accountUserRepository;
+    this.shardRouter = shardRouter;
+    this.shardScatter = shardScatter;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void repairOnStartup() {
+    repair();
+  }
+
+  @Scheduled(fixedDelayString = "${spring.account.counter-repair.interval-ms}",
+      initialDelayString = "${spring.account.counter-repair.interval-ms}")
+  public void repair() {
+    try {
+      List<Object[]> counts = countByUserAndShard();
+      Map<Long, Integer> activeCounts = countActiveAccounts(counts);
+      Map<Long, Integer> offHomeCounts = countOffHomeAccounts(counts);
+      int repaired = 0;
+      for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+        ShardContext.set(shard);
+        try {
+          repaired += repairShard(shard, activeCounts, offHomeCounts);
+        } finally {
+          ShardContext.clear();
+        }
+      }
+      log.info("Repaired {} active account counters", repaired);
+    } catch (RuntimeException e) {
+      log.warn("Failed to repair active account counters", e);
+    }
+  }
+
+  private Map<Long, Integer> countActiveAccounts(List<Object[]> counts) {
+    Map<Long, Integer> activeCounts = new HashMap<>();
+    counts.forEach(row ->
+        activeCounts.merge((Long) row[0], (Integer) row[1], Integer::sum));
+    return activeCounts;
+  }
+
+  // 사용자 샤드가 아닌 샤드에 있는 사용 중 계좌 수
+  private Map<Long, Integer> countOffHomeAccounts(List<Object[]> counts) {
+    Map<Long, Integer> offHomeCounts = new HashMap<>();
+    for (Object[] row : counts) {
+      Long userId = (Long) row[0];
+      if (shardRouter.shardOfUser(userId) != (Integer) row[2]) {
+        offHomeCounts.merge(userId, (Integer) row[1], Integer::sum);
+      }
+    }
+    return offHomeCounts;
+  }
+
+  // [사용자 id, 사용 중 계좌 수, 샤드]
+  private List<Object[]> countByUserAndShard() {
+    return shardScatter.gatherAll(() -> {
+      int shard = ShardContext.currentOrDefault();
+      return accountRepository.countByAccountStatusGroupByUser(AccountStatus.IN_USE).stream()
+          .map(row -> new Object[]{row[0], ((Long) row[1]).intValue(), shard})
+          .collect(Collectors.toList());
+    });
+  }
+
+  private int repairShard(int shard, Map<Long, Integer> activeCounts,
+      Map<Long, Integer> offHomeCounts) {
+    int repaired = 0;
+    int pageNumber = 0;
+    Page<AccountUser> page;
+    do {
+      PageRequest pageRequest = PageRequest.of(pageNumber++, PAGE_SIZE, Sort.by("id"));
+      page = accountUserRepository.findAll(pageRequest);
+      for (AccountUser accountUser : page.getContent()) {
+        if (shardRouter.shardOfUser(accountUser.getId()) != shard) {
+          continue;
+        }
+        Integer snapshot = activeCounts.getOrDefault(accountUser.getId(), 0);
+        if (Objects.equals(snapshot, accountUser.getActiveAccountCount())) {
+          continue;
+        }
+        if (repairUser(accountUser.getId(), offHomeCounts.getOrDefault(accountUser.getId(), 0))) {
+          repaired++;
+        }
+      }
+    } while (page.hasNext());
+    return repaired;
+  }
+
+  // 카운터 행을 잡은 채로 세고 쓴다. 처음 센 값과 달라도 다시 센 값이 카운터와 같으면 두지 않는다.
+  private boolean repairUser(Long userId, int offHomeCount) {
+    Boolean repaired = transactionTemplate.execute(status -> {
+      AccountUser accountUser = accountUserRepository.findByIdForUpdate(userId).orElse(null);
+      if (accountUser == null) {
+        return false;
+      }
+      int expected = accountRepository.countByAccountUserAndAccountStatus(
+          accountUser, AccountStatus.IN_USE) + offHomeCount;
+      if (Objects.equals(expected, accountUser.getActiveAccountCount())) {
+        return false;
+      }
+      accountUserRepository.setActiveAccountCount(userId, expected);
+      return true;
+    });
+    return Boolean.TRUE.equals(repaired);
+  }
+}
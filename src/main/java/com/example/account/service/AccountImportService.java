@@ -0,0 +1,248 @@
+package com.example.account.service;
+
+import com.example.account.config.AccountConfig;
+import com.example.account.datasource.ShardContext;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.dto.AccountDto;
+import com.example.account.dto.AccountImport;
+import com.example.account.exception.AccountException;
+import com.example.account.journal.CommandJournal;
+import com.example.account.journal.JournalCommandType;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.OutboxEventType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 계좌 일괄 개설. 입력을 chunk 단위로 읽어서 처리하고, chunk 마다 줄별 결과를 넘긴다.
+ * chunk 안에서는 샤드별로 트랜잭션 하나를 쓴다.
+ * 사용자 조회와 한도 확인은 사용자 단위로 한 번, 계좌번호는 묶음으로 정하고, 계좌는 batch insert 한다.
+ */
+@Slf4j
+@Service
+public class AccountImportService {
+  private final AccountRepository accountRepository;
+  private final AccountUserRepository accountUserRepository;
+  private final AccountNumberAllocator accountNumberAllocator;
+  private final AccountSummaryService accountSummaryService;
+  private final OutboxService outboxService;
+  private final CommandJournal commandJournal;
+  private final AccountConfig accountConfig;
+  private final ShardRouter shardRouter;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final int chunkSize;
+
+  public AccountImportService(AccountRepository accountRepository,
+      AccountUserRepository accountUserRepository,
+      AccountNumberAllocator accountNumberAllocator,
+      AccountSummaryService accountSummaryService, OutboxService outboxService,
+      CommandJournal commandJournal, AccountConfig accountConfig, ShardRouter shardRouter,
+      ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+      @Value("${spring.account.import.chunk-size}") int chunkSize) {
+    this.accountRepository = accountRepository;
+    this.accountUserRepository = accountUserRepository;
+    this.accountNumberAllocator = accountNumberAllocator;
+    this.accountSummaryService = accountSummaryService;
+    this.outboxService = outboxService;
+    this.commandJournal = commandJournal;
+    this.accountConfig = accountConfig;
+    this.shardRouter = shardRouter;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * 전체 줄 수를 돌려준다. CSV 는 첫 줄이 숫자로 시작하지 않으면 머리글로 보고 건너뛴다. 빈 줄은 무시한다.
+   */
+  public long importAccounts(BufferedReader reader, AccountImport.Format format,
+      Consumer<List<AccountImport.Result>> resultConsumer) throws IOException {
+    List<ParsedLine> chunk = new ArrayList<>(chunkSize);
+    long lineNumber = 0;
+    String text;
+    while ((text = reader.readLine()) != null) {
+      lineNumber++;
+      if (text.isBlank()
+          || (lineNumber == 1 && format == AccountImport.Format.CSV && isCsvHeader(text))) {
+        continue;
+      }
+      chunk.add(parse(lineNumber, text, format));
+      if (chunk.size() >= chunkSize) {
+        resultConsumer.accept(importChunk(chunk));
+        chunk = new ArrayList<>(chunkSize);
+      }
+    }
+    if (!chunk.isEmpty()) {
+      resultConsumer.accept(importChunk(chunk));
+    }
+    return lineNumber;
+  }
+
+  private List<AccountImport.Result> importChunk(List<ParsedLine> chunk) {
+    List<AccountImport.Result> results = new ArrayList<>(chunk.size());
+    Map<Integer, List<ParsedLine>> linesByShard = new TreeMap<>();
+    for (ParsedLine line : chunk) {
+      if (line.getErrorCode() != null) {
+        results.add(AccountImport.Result.failed(line.getNumber(), line.getUserId(),
+            line.getErrorCode()));
+        continue;
+      }
+      linesByShard.computeIfAbsent(shardRouter.shardOfUser(line.getUserId()),
+          shard -> new ArrayList<>()).add(line);
+    }
+    linesByShard.forEach((shard, lines) -> {
+      ShardContext.set(shard);
+      try {
+        results.addAll(transactionTemplate.execute(status -> importShard(lines)));
+      } catch (RuntimeException e) {
+        ErrorCode errorCode = e instanceof AccountException
+            ? ((AccountException) e).getErrorCode() : ErrorCode.INTERNAL_SERVER_ERROR;
+        log.warn("Failed to import {} accounts on shard {}", lines.size(), shard, e);
+        lines.forEach(line -> results.add(
+            AccountImport.Result.failed(line.getNumber(), line.getUserId(), errorCode)));
+      } finally {
+        ShardContext.clear();
+      }
+    });
+    results.sort(Comparator.comparingLong(AccountImport.Result::getLine));
+    return results;
+  }
+
+  private List<AccountImport.Result> importShard(List<ParsedLine> lines) {
+    List<AccountImport.Result> results = new ArrayList<>(lines.size());
+    int limit = accountConfig.getAccountLimitPerUser();
+    Map<Long, AccountUser> users = accountUserRepository.findAllById(lines.stream()
+            .map(ParsedLine::getUserId).distinct().collect(Collectors.toList()))
+        .stream().collect(Collectors.toMap(AccountUser::getId, Function.identity()));
+
+    // 사용자별로 남은 한도만큼만 앞에서부터 받는다.
+    Map<Long, List<ParsedLine>> acceptedByUser = new LinkedHashMap<>();
+    for (ParsedLine line : lines) {
+      AccountUser accountUser = users.get(line.getUserId());
+      if (accountUser == null) {
+        results.add(AccountImport.Result.failed(line.getNumber(), line.getUserId(),
+            ErrorCode.USER_NOT_FOUND));
+        continue;
+      }
+      List<ParsedLine> accepted = acceptedByUser.computeIfAbsent(line.getUserId(),
+          userId -> new ArrayList<>());
+      if (accountUser.getActiveAccountCount() + accepted.size() >= limit) {
+        results.add(AccountImport.Result.failed(line.getNumber(), line.getUserId(),
+            ErrorCode.REACHED_ACCOUNT_PER_USER_LIMIT));
+        continue;
+      }
+      accepted.add(line);
+    }
+
+    // 조회 뒤 다른 개설이 끼어들었으면 조건부 증가가 실패하고, 그 사용자의 줄은 모두 한도 초과로 돌린다.
+    List<ParsedLine> opening = new ArrayList<>();
+    acceptedByUser.forEach((userId, accepted) -> {
+      if (accepted.isEmpty()) {
+        return;
+      }
+      if (accountUserRepository.addActiveAccountCount(userId, accepted.size(), limit) == 0) {
+        accepted.forEach(line -> results.add(AccountImport.Result.failed(
+            line.getNumber(), userId, ErrorCode.REACHED_ACCOUNT_PER_USER_LIMIT)));
+        return;
+      }
+      opening.addAll(accepted);
+    });
+    if (opening.isEmpty()) {
+      return results;
+    }
+
+    List<String> accountNumbers = accountNumberAllocator.allocate(opening.size());
+    LocalDateTime openedAt = LocalDateTime.now();
+    List<Account> accounts = new ArrayList<>(opening.size());
+    for (int i = 0; i < opening.size(); i++) {
+      ParsedLine line = opening.get(i);
+      accounts.add(Account.builder()
+          .accountUser(users.get(line.getUserId()))
+          .accountStatus(AccountStatus.IN_USE)
+          .accountNumber(accountNumbers.get(i))
+          .balance(line.getInitialBalance())
+          .openedAt(openedAt)
+          .build());
+    }
+    accountRepository.saveAllAndFlush(accounts);
+    accountSummaryService.openedAll(accounts);
+
+    for (int i = 0; i < accounts.size(); i++) {
+      Account account = accounts.get(i);
+      ParsedLine line = opening.get(i);
+      commandJournal.record(JournalCommandType.OPEN, line.getUserId(),
+          account.getAccountNumber(), null, account.getBalance(), openedAt);
+      AccountDto accountDto = AccountDto.fromEntity(account);
+      outboxService.record(account.getAccountNumber(), OutboxEventType.ACCOUNT_OPENED,
+          accountDto);
+      results.add(AccountImport.Result.succeed(line.getNumber(), line.getUserId(),
+          account.getAccountNumber()));
+    }
+    return results;
+  }
+
+  private ParsedLine parse(long lineNumber, String text, AccountImport.Format format) {
+    Long userId = null;
+    Long initialBalance = null;
+    try {
+      if (format == AccountImport.Format.NDJSON) {
+        AccountImport.Line line = objectMapper.readValue(text, AccountImport.Line.class);
+        userId = line.getUserId();
+        initialBalance = line.getInitialBalance();
+      } else {
+        String[] fields = text.split(",", -1);
+        if (fields.length == 2) {
+          userId = Long.parseLong(fields[0].trim());
+          initialBalance = Long.parseLong(fields[1].trim());
+        }
+      }
+    } catch (JsonProcessingException | NumberFormatException e) {
+      // 아래에서 INVALID_REQUEST 로 처리한다.
+    }
+    // POST /account 의 검증과 같은 규칙
+    if (userId == null || userId < 1 || initialBalance == null || initialBalance < 0) {
+      return new ParsedLine(lineNumber, userId, initialBalance, ErrorCode.INVALID_REQUEST);
+    }
+    return new ParsedLine(lineNumber, userId, initialBalance, null);
+  }
+
+  private static boolean isCsvHeader(String text) {
+    String trimmed = text.trim();
+    return !trimmed.isEmpty() && !Character.isDigit(trimmed.charAt(0));
+  }
+
+  @Getter
+  @AllArgsConstructor
+  private static class ParsedLine {
+    private final long number;
+    private final Long userId;
+    private final Long initialBalance;
+    // 형식이 잘못된 줄이면 채워진다.
+    private final ErrorCode errorCode;
+  }
+}
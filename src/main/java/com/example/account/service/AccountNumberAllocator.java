@@ -0,0 +1,42 @@
+package com.example.account.service;
+
+import com.example.account.datasource.ShardContext;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.repository.AccountRepository;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 일괄 개설용 계좌번호를 묶음으로 정한다.
+ * 개설과 같은 규칙(임의의 10자리, 현재 샤드를 가리키는 번호)으로 후보를 한꺼번에 만들고,
+ * 이미 쓰는 번호는 조회 한 번으로 걸러 낸다.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountNumberAllocator {
+  private final AccountRepository accountRepository;
+  private final ShardRouter shardRouter;
+
+  public List<String> allocate(int count) {
+    int shard = ShardContext.currentOrDefault();
+    Set<String> allocated = new LinkedHashSet<>();
+    while (allocated.size() < count) {
+      Set<String> candidates = new LinkedHashSet<>();
+      while (candidates.size() < count - allocated.size()) {
+        String candidate = Long.toString(
+            ThreadLocalRandom.current().nextLong(1_000_000_000L, 10_000_000_000L));
+        if (shardRouter.shardOf(candidate) == shard && !allocated.contains(candidate)) {
+          candidates.add(candidate);
+        }
+      }
+      candidates.removeAll(accountRepository.findAccountNumbersIn(candidates));
+      allocated.addAll(candidates);
+    }
+    return new ArrayList<>(allocated);
+  }
+}
@@ -1,33 +1,59 @@
 package com.example.account.service;
 
+import com.example.account.aop.ShardKey;
 import com.example.account.config.AccountConfig;
+import com.example.account.datasource.ShardContext;
+import com.example.account.datasource.ShardRouter;
 import com.example.account.domain.Account;
+import com.example.account.domain.AccountSummary;
 import com.example.account.domain.AccountUser;
 import com.example.account.dto.AccountDto;
 import com.example.account.exception.AccountException;
+import com.example.account.journal.CommandJournal;
+import com.example.account.journal.JournalCommandType;
 import com.example.account.repository.AccountRepository;
 import com.example.account.repository.AccountUserRepository;
 import com.example.account.type.AccountStatus;
 import com.example.account.type.ErrorCode;
+import com.example.account.type.OutboxEventType;
+import io.micrometer.core.annotation.Timed;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.Random;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AccountService {
   private final AccountRepository accountRepository;
   private final AccountUserRepository accountUserRepository;
   private final AccountConfig accountConfig;
+  private final ShardRouter shardRouter;
+  private final StripedBalanceService stripedBalanceService;
+  private final StripedAccountRegistry stripedAccountRegistry;
+  private final RedisBalanceEngine redisBalanceEngine;
+  private final OutboxService outboxService;
+  private final AccountSummaryService accountSummaryService;
+  private final BalanceHistoryService balanceHistoryService;
+  private final CommandJournal commandJournal;
+  private final PlatformTransactionManager transactionManager;
 
   @Transactional
-  public AccountDto openAccount(Long userId, Long initialBalance) {
+  @Timed(value = "account.service", extraTags = {"service", "account"})
+  public AccountDto openAccount(@ShardKey(ShardKey.Type.USER_ID) Long userId,
+      Long initialBalance) {
     AccountUser accountUser = getAccountUser(userId);
 
     validateOpenAccount(accountUser);
@@ -37,27 +63,40 @@ public class AccountService {
     do {
       // 정해진 계좌 번호 생성 정책이 있으면 random 대신 정책을 여기에 넣는다.
       newAccountNumber = Long.toString((long)(Math.random()*9_000_000_000L+1_000_000_000));
-    } while (accountRepository.countByAccountNumber(newAccountNumber) > 0);
+      // 샤딩 시 계좌번호 해시가 지금 샤드를 가리키는 번호만 쓴다.
+    } while (shardRouter.shardOf(newAccountNumber) != ShardContext.currentOrDefault()
+        || accountRepository.countByAccountNumber(newAccountNumber) > 0);
 
-    return AccountDto.fromEntity(accountRepository.save(Account.builder()
+    Account account = accountRepository.save(Account.builder()
         .accountUser(accountUser)
         .accountStatus(AccountStatus.IN_USE)
         .accountNumber(newAccountNumber)
         .balance(initialBalance)
         .openedAt(LocalDateTime.now())
         .build()
-    ));
+    );
+    accountSummaryService.opened(account);
+    balanceHistoryService.opened(account);
+    commandJournal.record(JournalCommandType.OPEN, userId, newAccountNumber, null,
+        initialBalance, account.getOpenedAt());
+    AccountDto accountDto = AccountDto.fromEntity(account);
+    outboxService.record(accountDto.getAccountNumber(), OutboxEventType.ACCOUNT_OPENED,
+        accountDto);
+    return accountDto;
   }
 
   private void validateOpenAccount(AccountUser accountUser) {
     // AccountStatus.IN_USE 상태인 계좌의 수 체크
-    if (accountRepository.countByAccountUserAndAccountStatus(accountUser, AccountStatus.IN_USE) >= accountConfig.getAccountLimitPerUser()) {
+    // 한도 확인과 증가를 조건부 UPDATE 한 번으로 하므로 동시에 개설해도 한도를 넘지 않는다.
+    if (accountUserRepository.incrementActiveAccountCount(
+        accountUser.getId(), accountConfig.getAccountLimitPerUser()) == 0) {
       throw new AccountException(ErrorCode.REACHED_ACCOUNT_PER_USER_LIMIT);
     }
   }
 
   @Transactional
-  public AccountDto closeAccount(Long userId, String accountNumber) {
+  @Timed(value = "account.service", extraTags = {"service", "account"})
+  public AccountDto closeAccount(Long userId, @ShardKey String accountNumber) {
     AccountUser accountUser = getAccountUser(userId);
     Account account = accountRepository.findByAccountNumber(accountNumber)
         .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
@@ -66,8 +105,46 @@ public class AccountService {
 
     account.setAccountStatus(AccountStatus.CLOSED);
     account.setClosedAt(LocalDateTime.now());
+    decrementActiveAccountCount(accountUser.getId());
+    commandJournal.record(JournalCommandType.CLOSE, userId, accountNumber, null, 0L,
+        account.getClosedAt());
 
-    return AccountDto.fromEntity(accountRepository.save(account));
+    AccountDto accountDto = AccountDto.fromEntity(accountRepository.save(account));
+    accountSummaryService.closed(account);
+    outboxService.record(accountNumber, OutboxEventType.ACCOUNT_CLOSED, accountDto);
+    return accountDto;
+  }
+
+  /**
+   * 사용 중 계좌 수는 개설이 일어나는 사용자 샤드(shardOfUser)에 있다. 계좌가 다른 샤드에 있으면
+   * (기동 시 옮겨진 계좌) 해지가 commit 된 뒤 사용자 샤드의 새 트랜잭션에서 줄인다.
+   * 그 사이에 실패하면 AccountCounterRepairJob 이 맞춘다.
+   */
+  private void decrementActiveAccountCount(Long userId) {
+    int userShard = shardRouter.shardOfUser(userId);
+    if (userShard == ShardContext.currentOrDefault()) {
+      accountUserRepository.decrementActiveAccountCount(userId);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        Integer previous = ShardContext.current();
+        ShardContext.set(userShard);
+        try {
+          TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+          transactionTemplate.setPropagationBehavior(
+              TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+          transactionTemplate.executeWithoutResult(status ->
+              accountUserRepository.decrementActiveAccountCount(userId));
+        } catch (RuntimeException e) {
+          log.warn("Failed to decrement active account count of user {} on shard {}",
+              userId, userShard, e);
+        } finally {
+          ShardContext.set(previous);
+        }
+      }
+    });
   }
 
   private void validateCloseAccount(AccountUser accountUser, Account account) {
@@ -77,16 +154,80 @@ public class AccountService {
     if (account.getAccountStatus() == AccountStatus.CLOSED) {
       throw new AccountException(ErrorCode.ACCOUNT_CLOSED);
     }
-    if (account.getBalance() != 0) {
+    if (redisBalanceEngine.isEnabled()) {
+      // Redis 잔액이 기준이므로 잔액 확인과 해지 표시를 Redis 에서 한 번에 한다.
+      redisBalanceEngine.close(account);
+      return;
+    }
+    // 분할 계좌는 계좌 lock 없이 stripe lock 으로 입출금하므로 모든 stripe 를 잠근 뒤 합을 본다.
+    long balance = account.isStriped()
+        ? stripedBalanceService.lockedTotalBalance(account) : account.getBalance();
+    if (balance != 0) {
       throw new AccountException(ErrorCode.BALANCE_NOT_ZERO);
     }
   }
 
+  /**
+   * 사용자별 계좌 요약 한 번 조회로 끝낸다 (대부분 메모리에서).
+   * 계좌가 없을 때만 사용자를 조회해서 없는 사용자와 구분한다.
+   */
+  @Transactional(readOnly = true)
+  @Timed(value = "account.service", extraTags = {"service", "account"})
   public List<AccountDto> getAccountsByUserId(Long userId) {
+    List<AccountSummary> summaries = accountSummaryService.findByUserId(userId);
+    if (summaries.isEmpty()) {
+      getAccountUser(userId);
+    }
+
+    return summaries.stream().map(this::toAccountDto).collect(Collectors.toList());
+  }
+
+  @Transactional
+  @Timed(value = "account.service", extraTags = {"service", "account"})
+  public AccountDto stripeAccount(Long userId, @ShardKey String accountNumber,
+      Integer stripeCount) {
     AccountUser accountUser = getAccountUser(userId);
+    Account account = accountRepository.findByAccountNumber(accountNumber)
+        .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+
+    if (!Objects.equals(accountUser.getId(), account.getAccountUser().getId())) {
+      throw new AccountException(ErrorCode.ACCOUNTUSER_MISMATCHED);
+    }
+    if (account.getAccountStatus() == AccountStatus.CLOSED) {
+      throw new AccountException(ErrorCode.ACCOUNT_CLOSED);
+    }
+    // Redis 잔액 엔진을 쓰는 동안에는 DB 잔액을 나누지 않는다.
+    if (redisBalanceEngine.isEnabled()) {
+      throw new AccountException(ErrorCode.INVALID_REQUEST);
+    }
+
+    stripedBalanceService.split(account, stripeCount);
+    stripedAccountRegistry.registerAfterCommit(accountNumber);
 
-    return accountRepository.findByAccountUser(accountUser)
-        .stream().map(AccountDto::fromEntity).collect(Collectors.toList());
+    AccountDto accountDto = toAccountDto(account);
+    outboxService.record(accountNumber, OutboxEventType.ACCOUNT_STRIPED, accountDto);
+    return accountDto;
+  }
+
+  // Redis 잔액 엔진은 DB 반영이 늦을 수 있으므로 Redis 잔액을 보여준다.
+  private AccountDto toAccountDto(AccountSummary accountSummary) {
+    AccountDto accountDto = AccountDto.fromSummary(accountSummary);
+    if (redisBalanceEngine.isEnabled()) {
+      redisBalanceEngine.balanceOf(accountSummary.getAccountNumber())
+          .ifPresent(accountDto::setBalance);
+    }
+    return accountDto;
+  }
+
+  // 분할 계좌는 stripe 잔액의 합을, Redis 잔액 엔진은 Redis 잔액을 잔액으로 보여준다.
+  private AccountDto toAccountDto(Account account) {
+    AccountDto accountDto = AccountDto.fromEntity(account);
+    if (redisBalanceEngine.isEnabled()) {
+      redisBalanceEngine.balanceOf(account.getAccountNumber()).ifPresent(accountDto::setBalance);
+    } else if (account.isStriped()) {
+      accountDto.setBalance(stripedBalanceService.totalBalance(account));
+    }
+    return accountDto;
   }
 
   private AccountUser getAccountUser(Long userId) {
@@ -0,0 +1,198 @@
+package com.example.account.service;
+
+import com.example.account.datasource.ShardContext;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.datasource.ShardScatter;
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountSummary;
+import com.example.account.repository.AccountSummaryRepository;
+import com.example.account.type.AccountStatus;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 사용자별 계좌 요약을 관리한다.
+ * <ul>
+ *   <li>테이블은 계좌 변경과 같은 DB 트랜잭션에서 잔액 증감/상태만 갱신한다</li>
+ *   <li>조회 결과는 사용자 단위로 메모리에 두고, 변경이 commit 되면 그 사용자 항목을 지운다.
+ *       commit 전에 시작한 조회가 지운 뒤에 다시 넣지 않도록, 읽는 동안 지워졌으면 넣지 않는다</li>
+ *   <li>다른 노드의 변경은 지우지 못하므로 항목은 ttl 이 지나면 다시 읽는다</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class AccountSummaryService {
+  private static final int GENERATION_SLOTS = 1024;
+
+  private final AccountSummaryRepository accountSummaryRepository;
+  private final ShardRouter shardRouter;
+  private final ShardScatter shardScatter;
+  private final TransactionTemplate transactionTemplate;
+  private final long ttlMillis;
+
+  // 접근 순서 LRU
+  private final Map<Long, CachedSummaries> cache;
+  // userId 칸별로 항목을 지운 횟수. 칸을 나눠 써서 크기가 고정이다 (같은 칸이면 넣지 않을 뿐이다).
+  private final AtomicLongArray generations = new AtomicLongArray(GENERATION_SLOTS);
+
+  public AccountSummaryService(AccountSummaryRepository accountSummaryRepository,
+      ShardRouter shardRouter, ShardScatter shardScatter,
+      PlatformTransactionManager transactionManager,
+      @Value("${spring.account.summary.cache-size}") int cacheSize,
+      @Value("${spring.account.summary.cache-ttl-ms}") long ttlMillis) {
+    this.accountSummaryRepository = accountSummaryRepository;
+    this.shardRouter = shardRouter;
+    this.shardScatter = shardScatter;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.ttlMillis = ttlMillis;
+    this.cache = Collections.synchronizedMap(new LinkedHashMap<Long, CachedSummaries>(
+        16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, CachedSummaries> eldest) {
+        return size() > cacheSize;
+      }
+    });
+  }
+
+  public List<AccountSummary> findByUserId(Long userId) {
+    long now = System.currentTimeMillis();
+    CachedSummaries cached = cache.get(userId);
+    if (cached != null && now - cached.loadedAt < ttlMillis) {
+      return cached.summaries;
+    }
+    int slot = generationSlot(userId);
+    long generation = generations.get(slot);
+    List<AccountSummary> summaries = Collections.unmodifiableList(shardScatter.gatherAll(
+        () -> accountSummaryRepository.findByUserIdOrderByAccountNumber(userId)));
+    // 확인과 넣기를 evict 와 같은 lock 안에서 해서 그 사이에 지워진 항목을 되살리지 않는다.
+    synchronized (cache) {
+      if (generations.get(slot) == generation) {
+        cache.put(userId, new CachedSummaries(summaries, now));
+      }
+    }
+    return summaries;
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void opened(Account account) {
+    accountSummaryRepository.save(AccountSummary.builder()
+        .accountNumber(account.getAccountNumber())
+        .userId(account.getAccountUser().getId())
+        .balance(account.getBalance())
+        .accountStatus(account.getAccountStatus())
+        .build());
+    evictAfterCommit(account);
+  }
+
+  /**
+   * 일괄 개설한 계좌들. 계좌 행이 DB 에 반영(flush)된 뒤에 부른다.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void openedAll(List<Account> accounts) {
+    accountSummaryRepository.insertForAccounts(accounts.stream()
+        .map(Account::getAccountNumber)
+        .collect(Collectors.toList()));
+    accounts.stream()
+        .map(account -> account.getAccountUser().getId())
+        .distinct()
+        .forEach(this::evictAfterCommit);
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void closed(Account account) {
+    accountSummaryRepository.setAccountStatus(account.getAccountNumber(), AccountStatus.CLOSED);
+    evictAfterCommit(account);
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void closedAll(List<Account> accounts) {
+    accountSummaryRepository.setAccountStatusIn(accounts.stream()
+        .map(Account::getAccountNumber)
+        .collect(Collectors.toList()), AccountStatus.CLOSED);
+    accounts.stream()
+        .map(account -> account.getAccountUser().getId())
+        .distinct()
+        .forEach(this::evictAfterCommit);
+  }
+
+  /**
+   * 잔액 증감. 분할 계좌는 Account.balance 가 아니라 stripe 에서 빠지므로 증감으로 반영한다.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void balanceChanged(Account account, long delta) {
+    accountSummaryRepository.addBalance(account.getAccountNumber(), delta);
+    evictAfterCommit(account);
+  }
+
+  /**
+   * 엔티티를 읽지 않고 반영할 때 (파이프라인 엔진의 batch 저장).
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void balanceChanged(String accountNumber, Long userId, long delta) {
+    accountSummaryRepository.addBalance(accountNumber, delta);
+    evictAfterCommit(userId);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfill() {
+    for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+      ShardContext.set(shard);
+      try {
+        Integer inserted = transactionTemplate.execute(status ->
+            accountSummaryRepository.backfill());
+        log.info("Backfilled {} account summaries on shard {}", inserted, shard);
+      } finally {
+        ShardContext.clear();
+      }
+    }
+  }
+
+  private void evictAfterCommit(Account account) {
+    evictAfterCommit(account.getAccountUser().getId());
+  }
+
+  private void evictAfterCommit(Long userId) {
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        evict(userId);
+      }
+    });
+  }
+
+  private void evict(Long userId) {
+    synchronized (cache) {
+      generations.incrementAndGet(generationSlot(userId));
+      cache.remove(userId);
+    }
+  }
+
+  private static int generationSlot(Long userId) {
+    return Math.floorMod(userId.hashCode(), GENERATION_SLOTS);
+  }
+
+  private static class CachedSummaries {
+    private final List<AccountSummary> summaries;
+    private final long loadedAt;
+
+    private CachedSummaries(List<AccountSummary> summaries, long loadedAt) {
+      this.summaries = summaries;
+      this.loadedAt = loadedAt;
+    }
+  }
+}
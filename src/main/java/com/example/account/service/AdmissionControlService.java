@@ -0,0 +1,124 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * 계좌 lock 앞에서 계좌별로 동시에 들어가는 요청 수를 제한한다.
+ * 한 계좌에 요청이 몰려도 그 계좌 요청만 바로 거절되고, 나머지 계좌 요청을 처리할 스레드는 남는다.
+ * <ul>
+ *   <li>계좌마다 처리 중(lock 대기 + 보유) 요청 수와 lock 보유 시간의 이동 평균을 둔다</li>
+ *   <li>새 요청의 예상 대기는 처리 중 수 * 평균 보유 시간이다.
+ *       이것이 max-wait-ms 를 넘거나 처리 중 수가 max-queue-depth 에 닿으면 거절한다 (최소 min-queue-depth 는 받는다)</li>
+ *   <li>처리 중인 요청이 없는 계좌는 지우고, 다시 들어오면 전체 평균 보유 시간으로 시작한다</li>
+ * </ul>
+ */
+@Service
+public class AdmissionControlService {
+  private static final String REJECT_METRIC = "account.admission.rejected";
+  // 이동 평균에서 새 측정값의 비중
+  private static final double HOLD_WEIGHT = 0.2;
+
+  private final MeterRegistry meterRegistry;
+  private final boolean enabled;
+  private final long maxWaitNanos;
+  private final int minQueueDepth;
+  private final int maxQueueDepth;
+
+  // 모든 변경은 compute 안에서 하므로 같은 계좌의 변경은 차례로 일어난다.
+  private final Map<String, AccountQueue> queues = new ConcurrentHashMap<>();
+  private volatile double defaultHoldNanos;
+
+  public AdmissionControlService(MeterRegistry meterRegistry,
+      @Value("${spring.account.admission.enabled}") boolean enabled,
+      @Value("${spring.account.admission.max-wait-ms}") long maxWaitMillis,
+      @Value("${spring.account.admission.min-queue-depth}") int minQueueDepth,
+      @Value("${spring.account.admission.max-queue-depth}") int maxQueueDepth,
+      @Value("${spring.account.admission.initial-hold-ms}") long initialHoldMillis) {
+    this.meterRegistry = meterRegistry;
+    this.enabled = enabled;
+    this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    this.minQueueDepth = minQueueDepth;
+    this.maxQueueDepth = maxQueueDepth;
+    this.defaultHoldNanos = TimeUnit.MILLISECONDS.toNanos(initialHoldMillis);
+  }
+
+  /**
+   * 계좌들에 요청 하나씩을 넣는다. 하나라도 가득 찼으면 앞서 넣은 것을 되돌리고 AccountBusyException.
+   * 받았으면 끝날 때 같은 계좌들로 release 를 불러야 한다.
+   */
+  public void admit(List<String> accountNumbers) {
+    if (!enabled) {
+      return;
+    }
+    for (int i = 0; i < accountNumbers.size(); i++) {
+      long[] retryAfterNanos = {0L};
+      queues.compute(accountNumbers.get(i), (accountNumber, queue) -> {
+        AccountQueue current = queue == null ? new AccountQueue(defaultHoldNanos) : queue;
+        retryAfterNanos[0] = current.tryEnter();
+        return current.inFlight > 0 ? current : null;
+      });
+      if (retryAfterNanos[0] > 0) {
+        release(accountNumbers.subList(0, i), 0L);
+        meterRegistry.counter(REJECT_METRIC).increment();
+        throw new AccountBusyException(TimeUnit.NANOSECONDS.toMillis(retryAfterNanos[0]));
+      }
+    }
+  }
+
+  /**
+   * holdNanos 는 lock 을 잡고 있던 시간. lock 을 못 잡았으면 0 을 넘겨 평균에 넣지 않는다.
+   */
+  public void release(List<String> accountNumbers, long holdNanos) {
+    if (!enabled) {
+      return;
+    }
+    if (holdNanos > 0) {
+      defaultHoldNanos += HOLD_WEIGHT * (holdNanos - defaultHoldNanos);
+    }
+    for (String accountNumber : accountNumbers) {
+      queues.computeIfPresent(accountNumber,
+          (key, queue) -> queue.exit(holdNanos) ? queue : null);
+    }
+  }
+
+  private class AccountQueue {
+    private int inFlight;
+    private double holdNanos;
+
+    private AccountQueue(double holdNanos) {
+      this.holdNanos = holdNanos;
+    }
+
+    /**
+     * 들어가면 0, 아니면 다시 시도할 때까지의 예상 시간.
+     */
+    private long tryEnter() {
+      double expectedWaitNanos = inFlight * holdNanos;
+      if (inFlight >= maxQueueDepth
+          || (inFlight >= minQueueDepth && expectedWaitNanos > maxWaitNanos)) {
+        // 예상 대기가 max-wait 안으로 줄어들 때까지
+        return Math.max(1L,
+            (long) Math.max(holdNanos, expectedWaitNanos - maxWaitNanos + holdNanos));
+      }
+      inFlight++;
+      return 0L;
+    }
+
+    /**
+     * 처리 중인 요청이 남아 있으면 true.
+     */
+    private boolean exit(long holdNanos) {
+      if (holdNanos > 0) {
+        this.holdNanos += HOLD_WEIGHT * (holdNanos - this.holdNanos);
+      }
+      return --inFlight > 0;
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package com.example.account.service;
+
+import com.example.account.config.TransactionConfig;
+import com.example.account.config.VirtualThreads;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.type.BalanceEngineType;
+import com.example.account.type.ErrorCode;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * 잔액 사용/취소를 요청 스레드 없이 진행한다 (/async/transaction/*).
+ * <ul>
+ *   <li>승인 대기는 스레드를 재우지 않고 타이머로 기다린다</li>
+ *   <li>계좌 lock 은 Redisson 비동기 API 로 잡는다. 기다리는 동안 붙잡힌 스레드가 없다</li>
+ *   <li>JPA 로 하는 실제 처리만 worker-threads 개의 작업 스레드에서 한다 (DB 연결 수에 맞춘다).
+ *       가상 스레드 모드에서는 작업마다 가상 스레드를 쓰고, 동시 처리 수는 DB 연결 풀이 묶는다</li>
+ * </ul>
+ * 요청/lock 대기로 쌓인 요청 수가 Tomcat 스레드 수에 묶이지 않는다. LOCK 엔진에서만 쓴다.
+ */
+@Slf4j
+@Service
+public class AsyncTransactionService {
+  private final TransactionService transactionService;
+  private final LockService lockService;
+  private final AdmissionControlService admissionControlService;
+  private final StripedAccountRegistry stripedAccountRegistry;
+  private final TransactionConfig transactionConfig;
+  private final long approvalDelayMillis;
+  private final ExecutorService workerPool;
+  // Redisson lock 의 주인 id. 실제 스레드 id 와 겹치지 않도록 음수를 쓴다.
+  private final AtomicLong lockOwners = new AtomicLong();
+
+  public AsyncTransactionService(TransactionService transactionService, LockService lockService,
+      AdmissionControlService admissionControlService,
+      StripedAccountRegistry stripedAccountRegistry, TransactionConfig transactionConfig,
+      @Value("${spring.transaction.async.approval-delay-ms}") long approvalDelayMillis,
+      @Value("${spring.transaction.async.worker-threads}") int workerThreads,
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+    this.transactionService = transactionService;
+    this.lockService = lockService;
+    this.admissionControlService = admissionControlService;
+    this.stripedAccountRegistry = stripedAccountRegistry;
+    this.transactionConfig = transactionConfig;
+    this.approvalDelayMillis = approvalDelayMillis;
+    this.workerPool = virtualThreads
+        ? VirtualThreads.newPerTaskExecutor() : Executors.newFixedThreadPool(workerThreads);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    workerPool.shutdown();
+  }
+
+  public CompletableFuture<TransactionDto> use(Long userId, String accountNumber, Long amount) {
+    return CompletableFuture.runAsync(() -> { },
+            CompletableFuture.delayedExecutor(approvalDelayMillis, TimeUnit.MILLISECONDS))
+        .thenCompose(ignored -> withLock(accountNumber,
+            () -> transactionService.useTransaction(userId, accountNumber, amount),
+            () -> {
+              log.error("잔액 사용 실패");
+              transactionService.saveFailedUseTransaction(accountNumber, amount);
+            }));
+  }
+
+  public CompletableFuture<TransactionDto> cancel(String transactionId, String accountNumber,
+      Long amount) {
+    return withLock(accountNumber,
+        () -> transactionService.cancelTransaction(transactionId, accountNumber, amount),
+        () -> {
+          log.error("거래 취소 실패");
+          transactionService.saveFailedCancelTransaction(accountNumber, amount);
+        });
+  }
+
+  /**
+   * LockAopAspect 와 같은 순서(요청 수 제한 -&gt; lock -&gt; 처리 -&gt; 해제)를 비동기로 한다.
+   * 분할 계좌는 서비스가 stripe 단위로 lock 을 잡으므로 바로 처리한다.
+   * work 가 AccountException 으로 실패하면 lock 을 푼 뒤에 작업 스레드에서 recordFailure 로 실패 거래를 남긴다
+   * (동기 경로에서 컨트롤러가 lock 밖에서 남기는 것과 같다). lock 을 못 잡았거나 거절된 요청은 남기지 않는다.
+   */
+  private <T> CompletableFuture<T> withLock(String accountNumber, Supplier<T> work,
+      Runnable recordFailure) {
+    if (transactionConfig.getEngine() != BalanceEngineType.LOCK) {
+      return CompletableFuture.failedFuture(new AccountException(ErrorCode.INVALID_REQUEST));
+    }
+    AtomicBoolean workFailed = new AtomicBoolean();
+    Supplier<T> failureTrackingWork = () -> {
+      try {
+        return work.get();
+      } catch (AccountException e) {
+        workFailed.set(true);
+        throw e;
+      }
+    };
+    if (stripedAccountRegistry.isStriped(accountNumber)) {
+      return CompletableFuture.supplyAsync(failureTrackingWork, workerPool)
+          .whenComplete((result, e) -> recordIfFailed(workFailed, recordFailure));
+    }
+    List<String> accountNumbers = List.of(accountNumber);
+    try {
+      admissionControlService.admit(accountNumbers);
+    } catch (AccountException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    long ownerId = -lockOwners.incrementAndGet();
+    AtomicLong lockedAt = new AtomicLong();
+    return lockService.lockAsync(accountNumber, ownerId)
+        .thenRun(() -> lockedAt.set(System.nanoTime()))
+        .thenApplyAsync(ignored -> failureTrackingWork.get(), workerPool)
+        .whenComplete((result, e) -> {
+          try {
+            if (lockedAt.get() != 0L) {
+              lockService.unlockAsync(accountNumber, ownerId);
+            }
+          } finally {
+            admissionControlService.release(accountNumbers,
+                lockedAt.get() == 0L ? 0L : System.nanoTime() - lockedAt.get());
+          }
+        })
+        .whenCompleteAsync((result, e) -> recordIfFailed(workFailed, recordFailure),
+            workerPool);
+  }
+
+  private static void recordIfFailed(AtomicBoolean workFailed, Runnable recordFailure) {
+    if (workFailed.get()) {
+      recordFailure.run();
+    }
+  }
+}
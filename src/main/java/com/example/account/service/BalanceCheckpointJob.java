@@ -0,0 +1,69 @@
+package com.example.account.service;
+
+import com.example.account.datasource.ShardContext;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.domain.Account;
+import com.example.account.repository.AccountRepository;
+import com.example.account.type.AccountStatus;
+import java.time.LocalDateTime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 사용 중 계좌마다 주기적으로 잔액 checkpoint 를 남긴다.
+ * 과거 잔액 조회가 읽는 거래 범위를 checkpoint 간격 이하로 묶어 둔다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BalanceCheckpointJob {
+  private static final int PAGE_SIZE = 500;
+
+  private final AccountRepository accountRepository;
+  private final ShardRouter shardRouter;
+  private final BalanceHistoryService balanceHistoryService;
+
+  // 아직 DB 에 반영되지 않은 거래(Redis 잔액 엔진의 write-behind 등)를 넘기도록 이만큼 이전 시점에 남긴다.
+  @Value("${spring.account.checkpoint.settle-ms}")
+  private long settleMillis;
+
+  @Scheduled(fixedDelayString = "${spring.account.checkpoint.interval-ms}",
+      initialDelayString = "${spring.account.checkpoint.interval-ms}")
+  public void checkpoint() {
+    LocalDateTime at = LocalDateTime.now().minusNanos(settleMillis * 1_000_000L);
+    int created = 0;
+    for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+      ShardContext.set(shard);
+      try {
+        created += checkpointShard(at);
+      } catch (RuntimeException e) {
+        log.warn("Failed to write balance checkpoints for shard {}", shard, e);
+      } finally {
+        ShardContext.clear();
+      }
+    }
+    log.info("Wrote {} balance checkpoints at {}", created, at);
+  }
+
+  private int checkpointShard(LocalDateTime at) {
+    int created = 0;
+    int pageNumber = 0;
+    Page<Account> page;
+    do {
+      page = accountRepository.findByAccountStatus(AccountStatus.IN_USE,
+          PageRequest.of(pageNumber++, PAGE_SIZE, Sort.by("id")));
+      for (Account account : page.getContent()) {
+        if (balanceHistoryService.checkpoint(account.getAccountNumber(), at)) {
+          created++;
+        }
+      }
+    } while (page.hasNext());
+    return created;
+  }
+}
@@ -0,0 +1,193 @@
+package com.example.account.service;
+
+import com.example.account.aop.ShardKey;
+import com.example.account.archive.ArchivedTransaction;
+import com.example.account.archive.TransactionArchive;
+import com.example.account.domain.Account;
+import com.example.account.domain.BalanceCheckpoint;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.AccountStatement;
+import com.example.account.dto.HistoricalBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.BalanceCheckpointRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.annotation.Timed;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 과거 시점 잔액과 월별 거래 명세서.
+ * 잔액은 시점 이전의 가장 가까운 checkpoint 하나에, checkpoint 이후 ~ 시점까지의 거래만 더해 구한다.
+ * 시점 t 의 잔액에는 transactedAt 이 t 이하인 거래가 모두 들어간다.
+ * 아카이브로 옮겨진 달에 걸친 구간은 아카이브 파일의 거래도 함께 읽는다.
+ */
+@Service
+@RequiredArgsConstructor
+public class BalanceHistoryService {
+  // checkpoint 가 없는 계좌를 현재 잔액에서 되돌릴 때 쓰는 구간 끝
+  private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+  private final AccountRepository accountRepository;
+  private final TransactionRepository transactionRepository;
+  private final BalanceCheckpointRepository balanceCheckpointRepository;
+  private final StripedBalanceService stripedBalanceService;
+  private final TransactionArchive transactionArchive;
+
+  @Transactional(readOnly = true)
+  @Timed(value = "account.service", extraTags = {"service", "history"})
+  public HistoricalBalance balanceAt(@ShardKey String accountNumber, LocalDateTime at) {
+    Account account = getAccount(accountNumber);
+    return HistoricalBalance.builder()
+        .accountNumber(accountNumber)
+        .at(at)
+        .balance(balanceAt(account, at))
+        .build();
+  }
+
+  @Transactional(readOnly = true)
+  @Timed(value = "account.service", extraTags = {"service", "history"})
+  public AccountStatement statement(@ShardKey String accountNumber, YearMonth month) {
+    Account account = getAccount(accountNumber);
+    // [월초, 다음 달 월초) 를 (from, to] 구간으로 바꾼다.
+    LocalDateTime from = month.atDay(1).atStartOfDay().minusNanos(1);
+    LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay().minusNanos(1);
+
+    long openingBalance = balanceAt(account, from);
+    long balance = openingBalance;
+    List<AccountStatement.Line> lines = new ArrayList<>();
+    // 아카이브된 달은 hot 테이블의 달보다 항상 앞선다.
+    for (ArchivedTransaction transaction : archivedTransactions(account, from, to)) {
+      balance += transaction.getTransactionType().getBalanceSign() * transaction.getAmount();
+      lines.add(AccountStatement.Line.from(transaction, balance));
+    }
+    for (Transaction transaction : transactionRepository.findInPeriod(
+        account, TransactionResultType.SUCCEED, from, to)) {
+      balance += transaction.getTransactionType().getBalanceSign() * transaction.getAmount();
+      lines.add(AccountStatement.Line.from(transaction, balance));
+    }
+
+    return AccountStatement.builder()
+        .accountNumber(accountNumber)
+        .month(month)
+        .openingBalance(openingBalance)
+        .closingBalance(balance)
+        .lines(lines)
+        .build();
+  }
+
+  /**
+   * 계좌 개설 시점의 잔액을 첫 checkpoint 로 남긴다.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void opened(Account account) {
+    balanceCheckpointRepository.save(BalanceCheckpoint.builder()
+        .account(account)
+        .checkpointAt(account.getOpenedAt())
+        .balance(account.getBalance())
+        .build());
+  }
+
+  /**
+   * at 시점의 잔액을 checkpoint 로 남긴다. 마지막 checkpoint 뒤로 거래가 없으면 남기지 않는다.
+   *
+   * @return checkpoint 를 남겼는지 여부
+   */
+  @Transactional
+  public boolean checkpoint(@ShardKey String accountNumber, LocalDateTime at) {
+    Account account = getAccount(accountNumber);
+    Optional<BalanceCheckpoint> previous = findCheckpoint(account, at);
+
+    long balance;
+    if (previous.isPresent()) {
+      LocalDateTime from = previous.get().getCheckpointAt();
+      List<Object[]> sums = sumAmounts(account, from, at);
+      List<ArchivedTransaction> archived = archivedTransactions(account, from, at);
+      if (sums.isEmpty() && archived.isEmpty()) {
+        return false;
+      }
+      balance = previous.get().getBalance() + netChange(sums) + archivedNetChange(archived);
+    } else {
+      balance = balanceWithoutCheckpoint(account, at);
+    }
+
+    balanceCheckpointRepository.save(BalanceCheckpoint.builder()
+        .account(account)
+        .checkpointAt(at)
+        .balance(balance)
+        .build());
+    return true;
+  }
+
+  private long balanceAt(Account account, LocalDateTime at) {
+    if (account.getOpenedAt() != null && at.isBefore(account.getOpenedAt())) {
+      return 0L;
+    }
+    Optional<BalanceCheckpoint> checkpoint = findCheckpoint(account, at);
+    if (checkpoint.isPresent()) {
+      return checkpoint.get().getBalance()
+          + netChange(account, checkpoint.get().getCheckpointAt(), at);
+    }
+    return balanceWithoutCheckpoint(account, at);
+  }
+
+  // 개설 checkpoint 가 생기기 전부터 있던 계좌: 현재 잔액에서 at 이후 거래를 되돌린다.
+  private long balanceWithoutCheckpoint(Account account, LocalDateTime at) {
+    return stripedBalanceService.totalBalance(account) - netChange(account, at, FAR_FUTURE);
+  }
+
+  private Optional<BalanceCheckpoint> findCheckpoint(Account account, LocalDateTime at) {
+    return balanceCheckpointRepository
+        .findFirstByAccountAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(account, at);
+  }
+
+  private List<Object[]> sumAmounts(Account account, LocalDateTime from, LocalDateTime to) {
+    return transactionRepository.sumAmountByTransactionType(
+        account, TransactionResultType.SUCCEED, from, to);
+  }
+
+  private long netChange(Account account, LocalDateTime from, LocalDateTime to) {
+    return netChange(sumAmounts(account, from, to))
+        + archivedNetChange(archivedTransactions(account, from, to));
+  }
+
+  private List<ArchivedTransaction> archivedTransactions(Account account, LocalDateTime from,
+      LocalDateTime to) {
+    return transactionArchive.findInPeriod(account.getAccountNumber(), from, to).stream()
+        .filter(transaction ->
+            transaction.getTransactionResultType() == TransactionResultType.SUCCEED)
+        .collect(Collectors.toList());
+  }
+
+  private static long archivedNetChange(List<ArchivedTransaction> archived) {
+    long net = 0;
+    for (ArchivedTransaction transaction : archived) {
+      net += transaction.getTransactionType().getBalanceSign() * transaction.getAmount();
+    }
+    return net;
+  }
+
+  private static long netChange(List<Object[]> sums) {
+    long net = 0;
+    for (Object[] row : sums) {
+      net += ((TransactionType) row[0]).getBalanceSign() * ((Number) row[1]).longValue();
+    }
+    return net;
+  }
+
+  private Account getAccount(String accountNumber) {
+    return accountRepository.findByAccountNumber(accountNumber)
+        .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+  }
+}
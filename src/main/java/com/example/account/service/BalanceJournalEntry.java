@@ -0,0 +1,57 @@
+package com.example.account.service;
+
+import com.example.account.type.TransactionType;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Redis 잔액 엔진이 journal 에 남기는 거래 한 건.
+ * "transactionId|type|accountNumber|amount|transactedAtMillis|balanceAfter" 형태로 저장하며,
+ * balanceAfter 는 Lua 스크립트가 차감/입금 직후 붙인다.
+ */
+@Getter
+@AllArgsConstructor
+public class BalanceJournalEntry {
+  private static final String SEPARATOR = "|";
+
+  private final String transactionId;
+  private final TransactionType transactionType;
+  private final String accountNumber;
+  private final Long amount;
+  private final long transactedAtMillis;
+  private final Long balanceAfter;
+
+  /**
+   * balanceAfter 를 뺀 앞부분. 스크립트에 넘기는 값이다.
+   */
+  public static String prefix(String transactionId, TransactionType transactionType,
+      String accountNumber, Long amount, long transactedAtMillis) {
+    return transactionId + SEPARATOR + transactionType.name() + SEPARATOR + accountNumber
+        + SEPARATOR + amount + SEPARATOR + transactedAtMillis;
+  }
+
+  public static BalanceJournalEntry parse(String value) {
+    String[] fields = value.split("\\|");
+    if (fields.length < 5) {
+      throw new IllegalArgumentException("Malformed journal entry : " + value);
+    }
+    return new BalanceJournalEntry(
+        fields[0],
+        TransactionType.valueOf(fields[1]),
+        fields[2],
+        Long.parseLong(fields[3]),
+        Long.parseLong(fields[4]),
+        fields.length > 5 ? Long.parseLong(fields[5]) : null);
+  }
+
+  public LocalDateTime getTransactedAt() {
+    return toLocalDateTime(transactedAtMillis);
+  }
+
+  public static LocalDateTime toLocalDateTime(long epochMillis) {
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+  }
+}
@@ -0,0 +1,38 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import java.util.concurrent.CompletableFuture;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * DebitCombiner 가 묶어서 처리하는 잔액 사용 요청 한 건.
+ * TransactionService 가 결과(거래 또는 실패)를 채우고, commit 뒤에 DebitCombiner 가 요청한 스레드에 넘긴다.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CombinedUse {
+  private final Long userId;
+  private final Long amount;
+  private final CompletableFuture<TransactionDto> result = new CompletableFuture<>();
+
+  private TransactionDto transaction;
+  private AccountException failure;
+
+  void succeed(TransactionDto transaction) {
+    this.transaction = transaction;
+  }
+
+  void fail(AccountException failure) {
+    this.failure = failure;
+  }
+
+  void complete() {
+    if (failure != null) {
+      result.completeExceptionally(failure);
+    } else {
+      result.complete(transaction);
+    }
+  }
+}
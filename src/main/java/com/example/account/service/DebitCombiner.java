@@ -0,0 +1,228 @@
+package com.example.account.service;
+
+import com.example.account.config.TransactionConfig;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.type.BalanceEngineType;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * 같은 계좌에 거의 동시에 들어온 잔액 사용 요청을 묶어서 계좌 lock 한 번, DB commit 한 번으로 처리한다.
+ * <ul>
+ *   <li>묶음이 없을 때 온 요청이 leader 가 되어 window-ms 동안(또는 max-batch-size 가 찰 때까지) 뒤의 요청을 모은다</li>
+ *   <li>leader 는 lock 을 잡고 모인 요청을 도착 순서대로 처리한 뒤, commit 이 끝나면 각 요청에 결과를 돌려준다</li>
+ *   <li>잔액 부족 같은 건별 실패는 그 요청만 실패하고 실패 거래로 남는다</li>
+ * </ul>
+ * 분할 계좌는 stripe 단위로 처리하므로 묶지 않는다.
+ */
+@Service
+public class DebitCombiner {
+  private static final String BATCH_SIZE_METRIC = "account.combiner.batch.size";
+
+  private final TransactionService transactionService;
+  private final LockService lockService;
+  private final AdmissionControlService admissionControlService;
+  private final StripedAccountRegistry stripedAccountRegistry;
+  private final TransactionConfig transactionConfig;
+  private final DistributionSummary batchSizeSummary;
+  private final boolean enabled;
+  private final long windowNanos;
+  private final int maxBatchSize;
+
+  // 아직 요청을 받는 계좌별 묶음. 묶음에 더하는 것은 compute 안에서만 한다.
+  private final Map<String, Batch> openBatches = new ConcurrentHashMap<>();
+
+  public DebitCombiner(TransactionService transactionService, LockService lockService,
+      AdmissionControlService admissionControlService,
+      StripedAccountRegistry stripedAccountRegistry, TransactionConfig transactionConfig,
+      MeterRegistry meterRegistry,
+      @Value("${spring.transaction.combiner.enabled}") boolean enabled,
+      @Value("${spring.transaction.combiner.window-ms}") long windowMillis,
+      @Value("${spring.transaction.combiner.max-batch-size}") int maxBatchSize) {
+    this.transactionService = transactionService;
+    this.lockService = lockService;
+    this.admissionControlService = admissionControlService;
+    this.stripedAccountRegistry = stripedAccountRegistry;
+    this.transactionConfig = transactionConfig;
+    this.batchSizeSummary = DistributionSummary.builder(BATCH_SIZE_METRIC)
+        .description("Number of use requests applied under one lock and commit")
+        .register(meterRegistry);
+    this.enabled = enabled;
+    this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * 켜져 있으면 /transaction/use 는 요청마다 lock 을 잡지 않고(AccountLock.combinable) 여기로 온다.
+   */
+  public boolean isEnabled() {
+    return enabled && transactionConfig.getEngine() == BalanceEngineType.LOCK;
+  }
+
+  public TransactionDto use(Long userId, String accountNumber, Long amount) {
+    if (stripedAccountRegistry.isStriped(accountNumber)) {
+      return useAlone(userId, accountNumber, amount);
+    }
+    CombinedUse use = new CombinedUse(userId, amount);
+    Batch[] joined = new Batch[1];
+    openBatches.compute(accountNumber, (key, batch) -> {
+      if (batch == null) {
+        batch = new Batch();
+      }
+      batch.add(use);
+      joined[0] = batch;
+      // 가득 찼으면 다음 요청은 새 묶음을 만든다.
+      return batch.size() >= maxBatchSize ? null : batch;
+    });
+    Batch batch = joined[0];
+    if (batch.isLeader(use)) {
+      lead(accountNumber, batch);
+    }
+    try {
+      return use.getResult().join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private void lead(String accountNumber, Batch batch) {
+    boolean interrupted = batch.awaitFilled();
+    openBatches.remove(accountNumber, batch);
+    List<CombinedUse> uses = batch.uses();
+    batchSizeSummary.record(uses.size());
+
+    List<String> accountNumbers = Collections.singletonList(accountNumber);
+    long lockedAt = 0L;
+    try {
+      admissionControlService.admit(accountNumbers);
+      try {
+        lockService.lock(accountNumber);
+        lockedAt = System.nanoTime();
+        try {
+          transactionService.useTransactions(accountNumber, uses);
+        } finally {
+          lockService.unlock(accountNumber);
+        }
+      } finally {
+        admissionControlService.release(accountNumbers,
+            lockedAt == 0L ? 0L : System.nanoTime() - lockedAt);
+      }
+      uses.forEach(CombinedUse::complete);
+    } catch (Throwable e) {
+      // lock 을 못 잡았거나 DB 트랜잭션이 통째로 실패했으면 묶음 전체가 같은 이유로 실패한다.
+      // Error 도 follower 가 결과를 끝없이 기다리지 않도록 먼저 넘겨준 뒤 다시 던진다.
+      uses.forEach(use -> use.getResult().completeExceptionally(e));
+      if (e instanceof Error) {
+        throw (Error) e;
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  // 묶음 없이 처리할 때는 /transaction/use 의 기존 흐름과 같다.
+  // 계좌 lock 은 없지만 요청 수 제한은 묶음과 똑같이 거치고, 거절되면 묶음처럼 실패 거래를 남기지 않는다.
+  private TransactionDto useAlone(Long userId, String accountNumber, Long amount) {
+    List<String> accountNumbers = Collections.singletonList(accountNumber);
+    admissionControlService.admit(accountNumbers);
+    try {
+      long startedAt = System.nanoTime();
+      try {
+        return transactionService.useTransaction(userId, accountNumber, amount);
+      } finally {
+        admissionControlService.release(accountNumbers, System.nanoTime() - startedAt);
+      }
+    } catch (AccountException e) {
+      transactionService.saveFailedUseTransaction(accountNumber, amount);
+      throw e;
+    }
+  }
+
+  // synchronized 대신 ReentrantLock 을 쓴다. 가상 스레드가 묶음을 기다리는 동안 carrier 스레드를 붙잡지 않는다.
+  private class Batch {
+    private final List<CombinedUse> uses = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition filled = lock.newCondition();
+
+    private void add(CombinedUse use) {
+      lock.lock();
+      try {
+        uses.add(use);
+        if (uses.size() >= maxBatchSize) {
+          filled.signalAll();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private int size() {
+      lock.lock();
+      try {
+        return uses.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private boolean isLeader(CombinedUse use) {
+      lock.lock();
+      try {
+        return uses.get(0) == use;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * 기다리다 interrupt 되면 true. 이미 모인 요청은 처리해야 하므로 기다리기만 그만두고,
+     * interrupt 상태는 처리가 끝난 뒤 되돌린다 (lock 대기가 바로 깨지지 않도록).
+     */
+    private boolean awaitFilled() {
+      long remaining = windowNanos;
+      lock.lock();
+      try {
+        while (uses.size() < maxBatchSize && remaining > 0) {
+          try {
+            remaining = filled.awaitNanos(remaining);
+          } catch (InterruptedException e) {
+            return true;
+          }
+        }
+        return false;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    // openBatches 에서 빠진 뒤에 부르므로 더 늘어나지 않는다.
+    private List<CombinedUse> uses() {
+      lock.lock();
+      try {
+        return new ArrayList<>(uses);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
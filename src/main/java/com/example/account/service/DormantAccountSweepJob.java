@@ -0,0 +1,261 @@
+package com.example.account.service;
+
+import com.example.account.config.TransactionConfig;
+import com.example.account.datasource.ShardContext;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.domain.Account;
+import com.example.account.dto.AccountDto;
+import com.example.account.journal.CommandJournal;
+import com.example.account.journal.JournalCommandType;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.BalanceEngineType;
+import com.example.account.type.OutboxEventType;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 오래 쓰지 않은 잔액 0 계좌를 해지한다.
+ * <ul>
+ *   <li>샤드마다 후보를 id 순(keyset)으로 읽고, chunk 로 나눠 작업 스레드 workers 개에서 동시에 해지한다</li>
+ *   <li>chunk 는 계좌 lock 을 기다리지 않고 잡아 본 뒤(쓰이고 있는 계좌는 건너뜀) UPDATE 한 문장으로 해지한다</li>
+ *   <li>한 묶음이 끝날 때마다 마지막 id 를 Redis 에 남기고 pause-ms 쉰다. 중단되면 다음 주기에 거기서 이어 간다</li>
+ * </ul>
+ * 사용 중 계좌 수는 사용자 샤드(shardOfUser)에 있으므로, 계좌와 다른 샤드의 사용자는 해지가 commit 된 뒤
+ * 사용자 샤드의 새 트랜잭션에서 줄인다 (실패하면 AccountCounterRepairJob 이 맞춘다).
+ * Redis lock 으로 한 노드에서만 돈다. 계좌 lock 으로 요청과 배제되는 LOCK 엔진에서만 돈다
+ * (Redis 잔액 엔진은 DB 잔액이 기준이 아니고, 파티션/파이프라인 엔진은 계좌 lock 을 잡지 않는다).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.account.dormant-sweep.enabled", havingValue = "true")
+public class DormantAccountSweepJob {
+  private static final String SWEEP_LOCK_KEY = "ACCOUNT:DORMANT_SWEEP";
+  private static final String CHECKPOINT_KEY = "ACCOUNT:DORMANT_SWEEP:CHECKPOINT";
+
+  private final AccountRepository accountRepository;
+  private final AccountUserRepository accountUserRepository;
+  private final AccountSummaryService accountSummaryService;
+  private final OutboxService outboxService;
+  private final CommandJournal commandJournal;
+  private final LockService lockService;
+  private final TransactionConfig transactionConfig;
+  private final ShardRouter shardRouter;
+  private final RedissonClient redissonClient;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate counterTransactionTemplate;
+  private final ExecutorService workerPool;
+  private final long inactiveDays;
+  private final int chunkSize;
+  private final int workers;
+  private final long pauseMillis;
+
+  public DormantAccountSweepJob(AccountRepository accountRepository,
+      AccountUserRepository accountUserRepository,
+      AccountSummaryService accountSummaryService, OutboxService outboxService,
+      CommandJournal commandJournal, LockService lockService,
+      TransactionConfig transactionConfig, ShardRouter shardRouter,
+      RedissonClient redissonClient, PlatformTransactionManager transactionManager,
+      @Value("${spring.account.dormant-sweep.inactive-days}") long inactiveDays,
+      @Value("${spring.account.dormant-sweep.chunk-size}") int chunkSize,
+      @Value("${spring.account.dormant-sweep.workers}") int workers,
+      @Value("${spring.account.dormant-sweep.pause-ms}") long pauseMillis) {
+    this.accountRepository = accountRepository;
+    this.accountUserRepository = accountUserRepository;
+    this.accountSummaryService = accountSummaryService;
+    this.outboxService = outboxService;
+    this.commandJournal = commandJournal;
+    this.lockService = lockService;
+    this.transactionConfig = transactionConfig;
+    this.shardRouter = shardRouter;
+    this.redissonClient = redissonClient;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.counterTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.counterTransactionTemplate.setPropagationBehavior(
+        TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.workerPool = Executors.newFixedThreadPool(workers);
+    this.inactiveDays = inactiveDays;
+    this.chunkSize = chunkSize;
+    this.workers = workers;
+    this.pauseMillis = pauseMillis;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    workerPool.shutdownNow();
+  }
+
+  @Scheduled(fixedDelayString = "${spring.account.dormant-sweep.interval-ms}",
+      initialDelayString = "${spring.account.dormant-sweep.interval-ms}")
+  public void sweep() {
+    if (transactionConfig.getEngine() != BalanceEngineType.LOCK) {
+      return;
+    }
+    RLock sweepLock = redissonClient.getLock(SWEEP_LOCK_KEY);
+    // 끝나는 시간을 알 수 없으므로 lease 없이(watchdog 연장) 잡는다.
+    if (!sweepLock.tryLock()) {
+      return;
+    }
+    try {
+      LocalDateTime inactiveSince = LocalDateTime.now().minusDays(inactiveDays);
+      RMap<Integer, Long> checkpoints = redissonClient.getMap(CHECKPOINT_KEY);
+      for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+        try {
+          int closed = sweepShard(shard, inactiveSince, checkpoints);
+          log.info("Closed {} dormant accounts on shard {}", closed, shard);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        } catch (RuntimeException | ExecutionException e) {
+          log.warn("Failed to sweep dormant accounts on shard {}, will resume", shard, e);
+        }
+      }
+    } finally {
+      if (sweepLock.isHeldByCurrentThread()) {
+        sweepLock.unlock();
+      }
+    }
+  }
+
+  private int sweepShard(int shard, LocalDateTime inactiveSince,
+      RMap<Integer, Long> checkpoints) throws InterruptedException, ExecutionException {
+    int pageSize = chunkSize * workers;
+    long afterId = checkpoints.getOrDefault(shard, 0L);
+    int closed = 0;
+    while (true) {
+      long from = afterId;
+      List<Object[]> candidates = inShard(shard, () -> transactionTemplate.execute(status ->
+          accountRepository.findDormantAfter(from, AccountStatus.IN_USE, inactiveSince,
+              PageRequest.of(0, pageSize))));
+      if (candidates == null || candidates.isEmpty()) {
+        break;
+      }
+
+      List<Future<Integer>> chunks = new ArrayList<>();
+      for (int i = 0; i < candidates.size(); i += chunkSize) {
+        List<Object[]> chunk = candidates.subList(i, Math.min(i + chunkSize, candidates.size()));
+        chunks.add(workerPool.submit(() ->
+            inShard(shard, () -> closeChunk(chunk, inactiveSince))));
+      }
+      // 묶음 전체가 끝나야 다음 시작점을 남긴다. 실패하면 다음 주기에 이 묶음부터 다시 본다.
+      for (Future<Integer> chunk : chunks) {
+        closed += chunk.get();
+      }
+      afterId = (Long) candidates.get(candidates.size() - 1)[0];
+      checkpoints.put(shard, afterId);
+      if (candidates.size() < pageSize) {
+        break;
+      }
+      Thread.sleep(pauseMillis);
+    }
+    // 한 바퀴를 다 돌았으면 다음 주기는 처음부터
+    checkpoints.remove(shard);
+    return closed;
+  }
+
+  private int closeChunk(List<Object[]> chunk, LocalDateTime inactiveSince) {
+    List<String> locked = new ArrayList<>(chunk.size());
+    List<Long> ids = new ArrayList<>(chunk.size());
+    try {
+      for (Object[] candidate : chunk) {
+        String accountNumber = (String) candidate[1];
+        if (lockService.tryLock(accountNumber)) {
+          locked.add(accountNumber);
+          ids.add((Long) candidate[0]);
+        }
+      }
+      if (ids.isEmpty()) {
+        return 0;
+      }
+      Integer closed = transactionTemplate.execute(status -> closeLocked(ids, inactiveSince));
+      return closed == null ? 0 : closed;
+    } finally {
+      locked.forEach(lockService::unlock);
+    }
+  }
+
+  private int closeLocked(List<Long> ids, LocalDateTime inactiveSince) {
+    // 해지한 계좌를 closedAt 으로 다시 찾으므로 DB 가 저장하는 정밀도로 자른다.
+    LocalDateTime closedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    if (accountRepository.closeDormant(ids, inactiveSince, closedAt,
+        AccountStatus.IN_USE, AccountStatus.CLOSED) == 0) {
+      return 0;
+    }
+    List<Account> accounts = accountRepository.findByIdInAndAccountStatusAndClosedAt(
+        ids, AccountStatus.CLOSED, closedAt);
+
+    accounts.stream()
+        .collect(Collectors.groupingBy(
+            account -> shardRouter.shardOfUser(account.getAccountUser().getId()),
+            Collectors.groupingBy(account -> account.getAccountUser().getId(),
+                Collectors.counting())))
+        .forEach(this::subtractActiveAccountCounts);
+    accountSummaryService.closedAll(accounts);
+    for (Account account : accounts) {
+      commandJournal.record(JournalCommandType.CLOSE, account.getAccountUser().getId(),
+          account.getAccountNumber(), null, 0L, closedAt);
+      outboxService.record(account.getAccountNumber(), OutboxEventType.ACCOUNT_CLOSED,
+          AccountDto.fromEntity(account));
+    }
+    return accounts.size();
+  }
+
+  private void subtractActiveAccountCounts(int userShard, Map<Long, Long> countsByUser) {
+    if (userShard == ShardContext.currentOrDefault()) {
+      countsByUser.forEach((userId, count) ->
+          accountUserRepository.subtractActiveAccountCount(userId, count.intValue()));
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        Integer previous = ShardContext.current();
+        ShardContext.set(userShard);
+        try {
+          counterTransactionTemplate.executeWithoutResult(status ->
+              countsByUser.forEach((userId, count) ->
+                  accountUserRepository.subtractActiveAccountCount(userId, count.intValue())));
+        } catch (RuntimeException e) {
+          log.warn("Failed to subtract active account counts of {} users on shard {}",
+              countsByUser.size(), userShard, e);
+        } finally {
+          ShardContext.set(previous);
+        }
+      }
+    });
+  }
+
+  private static <T> T inShard(int shard, Supplier<T> work) {
+    ShardContext.set(shard);
+    try {
+      return work.get();
+    } finally {
+      ShardContext.clear();
+    }
+  }
+}
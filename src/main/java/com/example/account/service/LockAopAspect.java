@@ -1,6 +1,13 @@
 package com.example.account.service;
 
+import com.example.account.aop.AccountLock;
 import com.example.account.aop.AccountLockIdInterface;
+import com.example.account.pipeline.CommandPipeline;
+import com.example.account.timing.StageTimer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -14,19 +21,58 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class LockAopAspect {
   private final LockService lockService;
+  private final StripedAccountRegistry stripedAccountRegistry;
+  private final RedisBalanceEngine redisBalanceEngine;
+  private final AdmissionControlService admissionControlService;
+  private final DebitCombiner debitCombiner;
+  private final PartitionedCommandEngine partitionedCommandEngine;
+  private final CommandPipeline commandPipeline;
 
-  @Around("@annotation(com.example.account.aop.AccountLock) && args(request)")
+  @Around("@annotation(accountLock) && args(request)")
   public Object aroundMethod(
       ProceedingJoinPoint pjp,
+      AccountLock accountLock,
       AccountLockIdInterface request
   ) throws Throwable {
-    // lock 취득 시도
-    lockService.lock(request.getAccountNumber());
+    // 분할 계좌는 서비스에서 stripe 단위로 lock 을 잡는다.
+    // Redis 잔액 엔진은 Lua 스크립트 하나로 원자적으로 처리하므로 lock 이 필요 없다.
+    // 파티션 엔진은 계좌마다 스레드 하나가 차례로 처리하므로 lock 이 필요 없다.
+    // 파이프라인 엔진은 업무 단계 스레드 하나가 메모리 잔액으로 판정하므로 lock 이 필요 없다.
+    // 묶어서 처리하는 요청은 DebitCombiner 가 묶음마다 lock 을 잡는다.
+    if (redisBalanceEngine.isEnabled() || partitionedCommandEngine.isEnabled()
+        || commandPipeline.isEnabled()
+        || (accountLock.combinable() && debitCombiner.isEnabled())) {
+      return pjp.proceed();
+    }
+    List<String> accountNumbers = LockService.lockOrder(request.getAccountNumbers()).stream()
+        .filter(accountNumber -> !stripedAccountRegistry.isStriped(accountNumber))
+        .collect(Collectors.toList());
+
+    // 요청이 몰린 계좌면 lock 을 기다리지 않고 바로 거절한다.
+    admissionControlService.admit(accountNumbers);
+    List<String> locked = new ArrayList<>();
+    long lockedAt = 0L;
     try {
+      // lock 취득 시도 (여러 계좌면 계좌번호 순서로)
+      try (StageTimer ignored = StageTimer.start("lock")) {
+        for (String accountNumber : accountNumbers) {
+          lockService.lock(accountNumber);
+          locked.add(accountNumber);
+        }
+      }
+      lockedAt = System.nanoTime();
       return pjp.proceed();
     } finally {
-      // lock 해제
-      lockService.unlock(request.getAccountNumber());
+      // lock 해제 (취득의 역순)
+      Collections.reverse(locked);
+      try (StageTimer ignored = StageTimer.start("unlock")) {
+        for (String accountNumber : locked) {
+          lockService.unlock(accountNumber);
+        }
+      } finally {
+        admissionControlService.release(accountNumbers,
+            lockedAt == 0L ? 0L : System.nanoTime() - lockedAt);
+      }
     }
   }
 }
\ No newline at end of file
@@ -3,43 +3,168 @@ package com.example.account.service;
 import com.example.account.domain.Account;
 import com.example.account.exception.AccountException;
 import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class LockService {
+  private static final String LOCK_WAIT_METRIC = "account.lock.wait";
+  private static final String LOCK_HOLD_METRIC = "account.lock.hold";
+  // 계좌 lock 의 lease. 이보다 오래 잡고 있었으면 Redis 가 이미 풀었다.
+  private static final long LOCK_LEASE_SECONDS = 15L;
+  private static final long LOCK_LEASE_NANOS = TimeUnit.SECONDS.toNanos(LOCK_LEASE_SECONDS);
+
   private final RedissonClient redissonClient;
+  private final MeterRegistry meterRegistry;
+
+  // 계좌별 lock 취득 시각 (hold 시간 측정용)
+  private final Map<String, Long> lockAcquiredAt = new ConcurrentHashMap<>();
+  // 비동기 lock 은 ownerId 별로 둔다. 계좌번호로 두면 같은 계좌의 동기/비동기 경로가 서로의 시각을 덮어쓴다.
+  private final Map<Long, Long> asyncLockAcquiredAt = new ConcurrentHashMap<>();
+
+  /**
+   * 여러 계좌를 잠글 때의 순서. 모든 요청이 계좌번호 순으로 잡으므로 서로 엇갈린 이체끼리도 교착되지 않는다.
+   */
+  public static List<String> lockOrder(Collection<String> accountNumbers) {
+    return accountNumbers.stream().distinct().sorted().collect(Collectors.toList());
+  }
 
   public void lock(String accountNumber) {
     RLock lock = redissonClient.getLock(getLockKey(accountNumber));
     log.debug("Trying lock for accountNumber : {}", accountNumber);
 
+    long startedAt = System.nanoTime();
     try {
-      boolean isLock = lock.tryLock(1, 15, TimeUnit.SECONDS);
+      boolean isLock = lock.tryLock(1, LOCK_LEASE_SECONDS, TimeUnit.SECONDS);
       if(!isLock) {
+        recordWait(startedAt, "timeout");
         log.error("======Lock acquisition failed=====");
         throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCKED);
       }
+      recordWait(startedAt, "acquired");
+      lockAcquiredAt.put(accountNumber, System.nanoTime());
     } catch (AccountException e){
       throw e;
     } catch (Exception e) {
+      recordWait(startedAt, "error");
       log.error("Redis lock failed", e);
     }
   }
 
   public void unlock(String accountNumber) {
     log.debug("Unlock for accountNumber : {} ", accountNumber);
+    // lease 가 이미 끝났으면 unlock 이 IllegalMonitorStateException 을 던지므로 hold 시간을 먼저 남긴다.
+    recordHold(lockAcquiredAt.remove(accountNumber));
     redissonClient.getLock(getLockKey(accountNumber)).unlock();
   }
 
+  /**
+   * 스레드를 붙잡지 않고 lock 을 잡는다. 잡는 스레드와 푸는 스레드가 다를 수 있으므로
+   * lock 주인은 스레드가 아니라 ownerId 로 정하고, unlockAsync 에도 같은 값을 넘긴다.
+   */
+  public CompletableFuture<Void> lockAsync(String accountNumber, long ownerId) {
+    long startedAt = System.nanoTime();
+    return redissonClient.getLock(getLockKey(accountNumber))
+        .tryLockAsync(1, LOCK_LEASE_SECONDS, TimeUnit.SECONDS, ownerId)
+        .toCompletableFuture()
+        .thenAccept(isLock -> {
+          if (!isLock) {
+            recordWait(startedAt, "timeout");
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCKED);
+          }
+          recordWait(startedAt, "acquired");
+          asyncLockAcquiredAt.put(ownerId, System.nanoTime());
+        });
+  }
+
+  public CompletableFuture<Void> unlockAsync(String accountNumber, long ownerId) {
+    Long acquiredAt = asyncLockAcquiredAt.remove(ownerId);
+    recordHold(acquiredAt);
+    return redissonClient.getLock(getLockKey(accountNumber)).unlockAsync(ownerId)
+        .toCompletableFuture();
+  }
+
+  /**
+   * 기다리지 않고 잡아 본다. 잡았으면 unlock 으로 푼다. 쓰이고 있는 계좌를 건너뛰는 배치 작업용.
+   */
+  public boolean tryLock(String accountNumber) {
+    RLock lock = redissonClient.getLock(getLockKey(accountNumber));
+    long startedAt = System.nanoTime();
+    try {
+      boolean isLock = lock.tryLock(0, LOCK_LEASE_SECONDS, TimeUnit.SECONDS);
+      recordWait(startedAt, isLock ? "acquired" : "timeout");
+      if (isLock) {
+        lockAcquiredAt.put(accountNumber, System.nanoTime());
+      }
+      return isLock;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      recordWait(startedAt, "error");
+      return false;
+    }
+  }
+
+  /**
+   * 분할 계좌의 stripe 하나에 대한 lock. 바쁜 stripe 는 건너뛸 수 있도록 실패 시 예외 대신 false 를 돌려준다.
+   */
+  public boolean tryLockStripe(String accountNumber, int stripeIndex, long waitMillis) {
+    RLock lock = redissonClient.getLock(getStripeLockKey(accountNumber, stripeIndex));
+    long startedAt = System.nanoTime();
+    try {
+      boolean isLock = lock.tryLock(waitMillis, 15_000L, TimeUnit.MILLISECONDS);
+      recordWait(startedAt, isLock ? "acquired" : "timeout");
+      return isLock;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      recordWait(startedAt, "error");
+      return false;
+    }
+  }
+
+  public void unlockStripe(String accountNumber, int stripeIndex) {
+    redissonClient.getLock(getStripeLockKey(accountNumber, stripeIndex)).unlock();
+  }
+
+  // lease 보다 오래 잡았으면 Redis 가 먼저 푼 것이므로 outcome=expired 로 남긴다.
+  private void recordHold(Long acquiredAt) {
+    if (acquiredAt != null) {
+      long holdNanos = System.nanoTime() - acquiredAt;
+      Timer.builder(LOCK_HOLD_METRIC)
+          .description("Time between lock acquisition and release")
+          .tag("outcome", holdNanos >= LOCK_LEASE_NANOS ? "expired" : "released")
+          .register(meterRegistry)
+          .record(holdNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private void recordWait(long startedAt, String outcome) {
+    Timer.builder(LOCK_WAIT_METRIC)
+        .description("Time spent waiting for the account lock")
+        .tag("outcome", outcome)
+        .register(meterRegistry)
+        .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+  }
+
   private String getLockKey(String accountNumber) {
     return "ACLK:" + accountNumber;
   }
-}
\ No newline at end of file
+
+  private String getStripeLockKey(String accountNumber, int stripeIndex) {
+    return "ACLK:" + accountNumber + ":" + stripeIndex;
+  }
+}
@@ -0,0 +1,38 @@
+package com.example.account.service;
+
+import com.example.account.domain.OutboxEvent;
+import com.example.account.repository.OutboxEventRepository;
+import com.example.account.type.OutboxEventType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 변경과 같은 DB 트랜잭션에서 outbox 이벤트를 남긴다. 변경이 rollback 되면 이벤트도 함께 사라진다.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+  private final OutboxEventRepository outboxEventRepository;
+  private final ObjectMapper objectMapper;
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void record(String accountNumber, OutboxEventType eventType, Object payload) {
+    outboxEventRepository.save(OutboxEvent.builder()
+        .aggregateId(accountNumber)
+        .eventType(eventType)
+        .payload(toJson(payload))
+        .build());
+  }
+
+  private String toJson(Object payload) {
+    try {
+      return objectMapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to serialize outbox payload", e);
+    }
+  }
+}
@@ -0,0 +1,280 @@
+package com.example.account.service;
+
+import com.example.account.datasource.ShardContext;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.exception.AccountBusyException;
+import com.example.account.exception.AccountException;
+import com.example.account.type.BalanceEngineType;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 계좌 명령(사용/취소/해지)을 계좌번호 해시로 고정된 파티션에 보내고, 파티션마다 스레드 하나가 차례로 처리한다.
+ * 한 계좌의 명령은 항상 같은 스레드에서 도착 순서대로 처리되므로 계좌 lock 이 필요 없다.
+ * <ul>
+ *   <li>파티션은 Redis lease(PART:LEASE:{파티션}) 를 가진 노드 하나만 처리한다.
+ *       lease 는 lease-ms 동안 유효하고 lease-renew-ms 마다 연장한다</li>
+ *   <li>연장하지 못하면 lease 가 끝나기 전에(시계 차이 여유를 두고) 새 명령을 받지 않는다</li>
+ *   <li>다른 노드가 가진 파티션의 명령은 PARTITION_NOT_OWNED(503) 로 돌려보내 다른 노드로 재시도하게 한다</li>
+ *   <li>파티션 대기열이 가득 차면 ACCOUNT_TOO_BUSY(429) 로 거절한다</li>
+ * </ul>
+ * 명령은 파티션 스레드에서 트랜잭션 하나로 실행하고, commit 직전에 lease 를 다시 확인해 잃었으면 rollback 한다.
+ * 확인 뒤에도 lease 는 적어도 lease-ms 의 1/5 동안 남아 있으므로, 그 안에 commit 이 끝나면 다른 노드와 겹치지 않는다.
+ * command-timeout-ms 는 트랜잭션 timeout 으로 걸고, lease-ms 의 1/10 을 넘지 못하게 한다.
+ * (commit 자체가 1/5 여유보다 오래 멈추는 경우는 막지 못한다.)
+ */
+@Slf4j
+@Service
+public class PartitionedCommandEngine {
+  private static final String LEASE_KEY_PREFIX = "PART:LEASE:";
+  private static final String QUEUE_FULL_METRIC = "account.partition.rejected";
+  private static final long QUEUE_FULL_RETRY_AFTER_MILLIS = 1_000L;
+
+  // KEYS: lease / ARGV: nodeId, lease-ms. 비어 있거나 내 것이면 (다시) 잡는다.
+  private static final String ACQUIRE_SCRIPT =
+      "local owner = redis.call('GET', KEYS[1]) "
+          + "if owner and owner ~= ARGV[1] then return 0 end "
+          + "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) "
+          + "return 1";
+
+  // KEYS: lease / ARGV: nodeId. 내 것일 때만 지운다.
+  private static final String RELEASE_SCRIPT =
+      "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end "
+          + "return 0";
+
+  private final RedissonClient redissonClient;
+  private final MeterRegistry meterRegistry;
+  private final ShardRouter shardRouter;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+  private final String nodeId;
+  private final long leaseMillis;
+  private final long validNanos;
+  private final int queueCapacity;
+  private final Partition[] partitions;
+
+  public PartitionedCommandEngine(RedissonClient redissonClient, MeterRegistry meterRegistry,
+      ShardRouter shardRouter, PlatformTransactionManager transactionManager,
+      @Value("${spring.transaction.engine:LOCK}") BalanceEngineType engine,
+      @Value("${spring.transaction.partition.node-id}") String nodeId,
+      @Value("${spring.transaction.partition.count}") int partitionCount,
+      @Value("${spring.transaction.partition.queue-capacity}") int queueCapacity,
+      @Value("${spring.transaction.partition.lease-ms}") long leaseMillis,
+      @Value("${spring.transaction.partition.command-timeout-ms}") long commandTimeoutMillis) {
+    this.redissonClient = redissonClient;
+    this.meterRegistry = meterRegistry;
+    this.shardRouter = shardRouter;
+    this.enabled = engine == BalanceEngineType.PARTITIONED;
+    if (enabled && commandTimeoutMillis > leaseMillis / 10) {
+      throw new IllegalStateException("spring.transaction.partition.command-timeout-ms ("
+          + commandTimeoutMillis + ") must not exceed a tenth of lease-ms (" + leaseMillis + ")");
+    }
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    // 트랜잭션 timeout 은 초 단위라 올림한다.
+    this.transactionTemplate.setTimeout(
+        (int) Math.max(1L, TimeUnit.MILLISECONDS.toSeconds(commandTimeoutMillis + 999L)));
+    this.nodeId = nodeId;
+    this.leaseMillis = leaseMillis;
+    // 노드 간 시계 차이를 감안해 lease 의 4/5 만 내 것으로 본다.
+    this.validNanos = TimeUnit.MILLISECONDS.toNanos(leaseMillis * 4 / 5);
+    this.queueCapacity = queueCapacity;
+    this.partitions = new Partition[partitionCount];
+    for (int i = 0; i < partitionCount; i++) {
+      partitions[i] = new Partition(i);
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int partitionOf(String accountNumber) {
+    return Math.floorMod(accountNumber.hashCode(), partitions.length);
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    for (Partition partition : partitions) {
+      partition.start();
+    }
+    renewLeases();
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    if (!enabled) {
+      return;
+    }
+    for (Partition partition : partitions) {
+      partition.executor.shutdown();
+    }
+    for (Partition partition : partitions) {
+      partition.executor.awaitTermination(leaseMillis, TimeUnit.MILLISECONDS);
+      partition.ownedUntil = 0L;
+      script().eval(RScript.Mode.READ_WRITE, RELEASE_SCRIPT, RScript.ReturnType.INTEGER,
+          Collections.singletonList(leaseKey(partition.index)), nodeId);
+    }
+  }
+
+  /**
+   * 아직 아무도 갖지 않은 파티션은 가져오고, 가진 파티션은 연장한다.
+   */
+  @Scheduled(fixedDelayString = "${spring.transaction.partition.lease-renew-ms}")
+  public void renewLeases() {
+    if (!enabled) {
+      return;
+    }
+    for (Partition partition : partitions) {
+      long startedAt = System.nanoTime();
+      try {
+        Long acquired = script().eval(RScript.Mode.READ_WRITE, ACQUIRE_SCRIPT,
+            RScript.ReturnType.INTEGER, Collections.singletonList(leaseKey(partition.index)),
+            nodeId, String.valueOf(leaseMillis));
+        boolean owned = acquired != null && acquired == 1L;
+        if (owned != partition.isOwned()) {
+          log.info("Partition {} lease {} by {}", partition.index,
+              owned ? "acquired" : "lost", nodeId);
+        }
+        partition.ownedUntil = owned ? startedAt + validNanos : 0L;
+      } catch (RuntimeException e) {
+        // 연장하지 못하면 ownedUntil 이 지나는 대로 새 명령을 받지 않는다.
+        log.warn("Failed to renew partition {} lease", partition.index, e);
+      }
+    }
+  }
+
+  /**
+   * 계좌의 파티션 스레드에서 command 를 실행하고 결과를 기다린다.
+   * command 가 던진 예외(AccountException 등)는 그대로 다시 던진다.
+   */
+  public <T> T execute(String accountNumber, Supplier<T> command) {
+    return execute(accountNumber, command, () -> {
+    });
+  }
+
+  /**
+   * command 가 AccountException 으로 실패하면 트랜잭션이 rollback 된 뒤 같은 파티션 스레드에서
+   * recordFailure 를 실행한다 (실패 거래 기록용). 파티션이 명령을 받지 않았거나(대기열 가득 참, lease 없음)
+   * commit 직전에 lease 를 잃은 경우에는 실행하지 않는다.
+   */
+  public <T> T execute(String accountNumber, Supplier<T> command, Runnable recordFailure) {
+    Partition partition = partitions[partitionOf(accountNumber)];
+    if (!partition.isOwned()) {
+      throw new AccountException(ErrorCode.PARTITION_NOT_OWNED);
+    }
+    Future<T> result;
+    try {
+      result = partition.executor.submit(() -> {
+        // 기다리는 동안 lease 를 잃었을 수 있다.
+        if (!partition.isOwned()) {
+          throw new AccountException(ErrorCode.PARTITION_NOT_OWNED);
+        }
+        try {
+          return executeInLease(partition, accountNumber, command);
+        } catch (AccountException e) {
+          if (e.getErrorCode() != ErrorCode.PARTITION_NOT_OWNED) {
+            recordFailure.run();
+          }
+          throw e;
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      meterRegistry.counter(QUEUE_FULL_METRIC).increment();
+      throw new AccountBusyException(QUEUE_FULL_RETRY_AFTER_MILLIS);
+    }
+    try {
+      return result.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      // 아직 시작하지 않은 명령은 빼면 되지만, 이미 시작한 명령은 끝까지 처리되므로 결과를 알 수 없다고 답한다.
+      if (result.cancel(false)) {
+        throw new AccountException(ErrorCode.INTERNAL_SERVER_ERROR);
+      }
+      throw new AccountException(ErrorCode.TRANSACTION_RESULT_UNKNOWN);
+    }
+  }
+
+  private <T> T executeInLease(Partition partition, String accountNumber, Supplier<T> command) {
+    // 트랜잭션이 커넥션을 얻기 전에 샤드를 정한다.
+    Integer previous = ShardContext.current();
+    ShardContext.set(shardRouter.shardOf(accountNumber));
+    try {
+      return transactionTemplate.execute(status -> {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+          @Override
+          public void beforeCommit(boolean readOnly) {
+            if (!partition.isOwned()) {
+              log.warn("Partition {} lease expired before commit, rolling back", partition.index);
+              throw new AccountException(ErrorCode.PARTITION_NOT_OWNED);
+            }
+          }
+        });
+        return command.get();
+      });
+    } finally {
+      ShardContext.set(previous);
+    }
+  }
+
+  private RScript script() {
+    return redissonClient.getScript(StringCodec.INSTANCE);
+  }
+
+  private static String leaseKey(int partition) {
+    return LEASE_KEY_PREFIX + partition;
+  }
+
+  private class Partition {
+    private final int index;
+    private ThreadPoolExecutor executor;
+    // 이 시각(nanoTime)까지 lease 가 내 것이다. 0 이면 아니다.
+    private volatile long ownedUntil;
+
+    private Partition(int index) {
+      this.index = index;
+    }
+
+    private void start() {
+      executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+          new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "account-partition-" + index);
+            thread.setDaemon(true);
+            return thread;
+          });
+    }
+
+    private boolean isOwned() {
+      long until = ownedUntil;
+      return until != 0L && System.nanoTime() - until < 0;
+    }
+  }
+}
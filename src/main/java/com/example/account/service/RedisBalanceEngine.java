@@ -0,0 +1,313 @@
+package com.example.account.service;
+
+import com.example.account.aop.ShardKey;
+import com.example.account.config.TransactionConfig;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.BalanceChangeEvent;
+import com.example.account.dto.TransactionDto;
+import com.example.account.event.BalanceEventHub;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.BalanceEngineType;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.annotation.Timed;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RMap;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 잔액을 Redis 에 두고 Lua 스크립트 한 번으로 확인과 차감을 끝내는 잔액 엔진.
+ * 계좌 lock 과 DB 갱신 없이 처리하며, 거래는 journal 에 쌓였다가 RedisBalancePersister 가 DB 에 반영한다.
+ * 계좌 정보는 처음 거래할 때 DB 에서 읽어 Redis 에 올리고, 그 뒤로는 Redis 의 잔액이 기준이 된다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RedisBalanceEngine {
+  public static final String JOURNAL_KEY = "BENG:JOURNAL";
+  public static final String PENDING_TRANSACTIONS_KEY = "BENG:TX";
+
+  private static final long NOT_LOADED = -1L;
+  private static final long USER_MISMATCHED = -2L;
+  private static final long CLOSED = -3L;
+  private static final long BALANCE_SHORT = -4L;
+
+  // KEYS: 계좌 hash, journal, 미반영 거래 / ARGV: userId, amount, transactionId, journal entry 앞부분
+  private static final String DEBIT_SCRIPT =
+      "local owner = redis.call('HGET', KEYS[1], 'userId') "
+          + "if not owner then return -1 end "
+          + "if owner ~= ARGV[1] then return -2 end "
+          + "if redis.call('HGET', KEYS[1], 'status') == 'CLOSED' then return -3 end "
+          + "local balance = tonumber(redis.call('HGET', KEYS[1], 'balance')) "
+          + "local amount = tonumber(ARGV[2]) "
+          + "if balance < amount then return -4 end "
+          + "local after = string.format('%d', balance - amount) "
+          + "redis.call('HSET', KEYS[1], 'balance', after) "
+          + "redis.call('LPUSH', KEYS[2], ARGV[4] .. '|' .. after) "
+          + "redis.call('HSET', KEYS[3], ARGV[3], ARGV[4]) "
+          + "return balance - amount";
+
+  // KEYS: 계좌 hash, journal, 미반영 거래 / ARGV: amount, transactionId, journal entry 앞부분
+  private static final String CREDIT_SCRIPT =
+      "local balance = redis.call('HGET', KEYS[1], 'balance') "
+          + "if not balance then return -1 end "
+          + "local after = string.format('%d', tonumber(balance) + tonumber(ARGV[1])) "
+          + "redis.call('HSET', KEYS[1], 'balance', after) "
+          + "redis.call('LPUSH', KEYS[2], ARGV[3] .. '|' .. after) "
+          + "redis.call('HSET', KEYS[3], ARGV[2], ARGV[3]) "
+          + "return tonumber(after)";
+
+  // KEYS: 계좌 hash / ARGV: balance, userId, status. 이미 올라가 있으면 덮어쓰지 않는다.
+  private static final String LOAD_SCRIPT =
+      "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end "
+          + "redis.call('HMSET', KEYS[1], 'balance', ARGV[1], 'userId', ARGV[2], 'status', ARGV[3]) "
+          + "return 1";
+
+  // KEYS: 계좌 hash / ARGV: 바꿀 status
+  private static final String CLOSE_SCRIPT =
+      "local balance = redis.call('HGET', KEYS[1], 'balance') "
+          + "if not balance then return -1 end "
+          + "if tonumber(balance) ~= 0 then return -4 end "
+          + "redis.call('HSET', KEYS[1], 'status', ARGV[1]) "
+          + "return 0";
+
+  private final RedissonClient redissonClient;
+  private final AccountRepository accountRepository;
+  private final TransactionRepository transactionRepository;
+  private final TransactionConfig transactionConfig;
+  private final ShardRouter shardRouter;
+  private final BalanceEventHub balanceEventHub;
+
+  // 스크립트 본문 -> SHA1. 매번 본문을 보내지 않도록 EVALSHA 를 쓴다.
+  private final Map<String, String> scriptShas = new ConcurrentHashMap<>();
+
+  public boolean isEnabled() {
+    return transactionConfig.getEngine() == BalanceEngineType.REDIS;
+  }
+
+  @Timed(value = "account.service", extraTags = {"service", "redis-engine"})
+  public TransactionDto use(Long userId, @ShardKey String accountNumber, Long amount) {
+    validateAmount(amount);
+
+    String transactionId = shardRouter.newTransactionId(accountNumber);
+    long transactedAt = System.currentTimeMillis();
+    String entry = BalanceJournalEntry.prefix(
+        transactionId, TransactionType.USE, accountNumber, amount, transactedAt);
+    List<Object> keys = Arrays.asList(
+        accountKey(accountNumber), JOURNAL_KEY, PENDING_TRANSACTIONS_KEY);
+
+    long result = execute(DEBIT_SCRIPT, keys,
+        String.valueOf(userId), String.valueOf(amount), transactionId, entry);
+    if (result == NOT_LOADED) {
+      load(accountNumber);
+      result = execute(DEBIT_SCRIPT, keys,
+          String.valueOf(userId), String.valueOf(amount), transactionId, entry);
+    }
+    if (result == USER_MISMATCHED) {
+      throw new AccountException(ErrorCode.ACCOUNTUSER_MISMATCHED);
+    }
+    if (result == CLOSED) {
+      throw new AccountException(ErrorCode.ACCOUNT_CLOSED);
+    }
+    if (result == BALANCE_SHORT) {
+      throw new AccountException(ErrorCode.BALANCE_NOT_ENOUGH);
+    }
+
+    TransactionDto transactionDto =
+        toDto(transactionId, TransactionType.USE, accountNumber, amount, transactedAt);
+    publish(transactionDto, result);
+    return transactionDto;
+  }
+
+  @Timed(value = "account.service", extraTags = {"service", "redis-engine"})
+  public TransactionDto cancel(String transactionId, @ShardKey String accountNumber,
+      Long amount) {
+    validateCancel(transactionId, accountNumber, amount);
+
+    String cancelTransactionId = shardRouter.newTransactionId(accountNumber);
+    long transactedAt = System.currentTimeMillis();
+    String entry = BalanceJournalEntry.prefix(
+        cancelTransactionId, TransactionType.CANCEL, accountNumber, amount, transactedAt);
+    List<Object> keys = Arrays.asList(
+        accountKey(accountNumber), JOURNAL_KEY, PENDING_TRANSACTIONS_KEY);
+
+    long result = execute(CREDIT_SCRIPT, keys,
+        String.valueOf(amount), cancelTransactionId, entry);
+    if (result == NOT_LOADED) {
+      load(accountNumber);
+      result = execute(CREDIT_SCRIPT, keys, String.valueOf(amount), cancelTransactionId, entry);
+    }
+
+    TransactionDto transactionDto = toDto(cancelTransactionId, TransactionType.CANCEL,
+        accountNumber, amount, transactedAt);
+    publish(transactionDto, result);
+    return transactionDto;
+  }
+
+  /**
+   * 원거래가 아직 DB 에 반영되지 않았으면 미반영 거래 목록에서 찾는다.
+   */
+  private void validateCancel(String transactionId, String accountNumber, Long amount) {
+    String pending = pendingTransactions().get(transactionId);
+    TransactionType originalType;
+    String originalAccountNumber;
+    Long originalAmount;
+    if (pending != null) {
+      BalanceJournalEntry original = BalanceJournalEntry.parse(pending);
+      originalType = original.getTransactionType();
+      originalAccountNumber = original.getAccountNumber();
+      originalAmount = original.getAmount();
+    } else {
+      Transaction original = transactionRepository.findByTransactionId(transactionId)
+          .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND));
+      originalType = original.getTransactionType();
+      originalAccountNumber = original.getAccount().getAccountNumber();
+      originalAmount = original.getAmount();
+    }
+
+    if (originalType != null && originalType.isTransfer()) {
+      throw new AccountException(ErrorCode.TRANSFER_NOT_CANCELLABLE);
+    }
+    if (!Objects.equals(originalAmount, amount)) {
+      throw new AccountException(ErrorCode.AMOUNT_MISMATCHED);
+    }
+    if (!Objects.equals(originalAccountNumber, accountNumber)) {
+      throw new AccountException(ErrorCode.ACCOUNT_MISMATCHED);
+    }
+  }
+
+  /**
+   * Redis 에 올라간 계좌면 Redis 잔액을 돌려준다. DB 잔액은 journal 이 반영될 때까지 늦을 수 있다.
+   */
+  public Optional<Long> balanceOf(String accountNumber) {
+    return Optional.ofNullable(accountHash(accountNumber).get("balance"))
+        .map(Long::parseLong);
+  }
+
+  /**
+   * 잔액이 0 인지 확인하고 Redis 에서 해지로 표시한다. 해지 이후 들어오는 차감은 스크립트에서 막힌다.
+   * DB 트랜잭션이 rollback 되면 다시 사용 중으로 돌려 놓는다.
+   */
+  public void close(Account account) {
+    long result = execute(CLOSE_SCRIPT,
+        Arrays.asList(accountKey(account.getAccountNumber())),
+        AccountStatus.CLOSED.name());
+    if (result == NOT_LOADED) {
+      // Redis 에 올라간 적이 없으면 DB 잔액이 기준이다.
+      if (account.getBalance() != 0) {
+        throw new AccountException(ErrorCode.BALANCE_NOT_ZERO);
+      }
+      return;
+    }
+    if (result == BALANCE_SHORT) {
+      throw new AccountException(ErrorCode.BALANCE_NOT_ZERO);
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          if (status != STATUS_COMMITTED) {
+            accountHash(account.getAccountNumber())
+                .fastPut("status", AccountStatus.IN_USE.name());
+          }
+        }
+      });
+    }
+  }
+
+  private void load(String accountNumber) {
+    Account account = accountRepository.findByAccountNumber(accountNumber)
+        .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+    if (account.isStriped()) {
+      // 분할 계좌는 stripe 가 잔액을 나눠 가지므로 Redis 엔진으로 처리하지 않는다.
+      throw new AccountException(ErrorCode.INVALID_REQUEST);
+    }
+    execute(LOAD_SCRIPT, Arrays.asList(accountKey(accountNumber)),
+        String.valueOf(account.getBalance()),
+        String.valueOf(account.getAccountUser().getId()),
+        account.getAccountStatus().name());
+    log.debug("Loaded account {} into redis balance engine", accountNumber);
+  }
+
+  private void validateAmount(Long amount) {
+    if (amount < transactionConfig.getAmountMinValue()
+        || amount > transactionConfig.getAmountMaxValue()) {
+      throw new AccountException(ErrorCode.AMOUNT_NOT_VALID);
+    }
+  }
+
+  private long execute(String script, List<Object> keys, Object... values) {
+    RScript rScript = redissonClient.getScript(StringCodec.INSTANCE);
+    String sha = scriptShas.computeIfAbsent(script, rScript::scriptLoad);
+    Long result;
+    try {
+      result = rScript.evalSha(RScript.Mode.READ_WRITE, sha, RScript.ReturnType.INTEGER,
+          keys, values);
+    } catch (RedisException e) {
+      if (e.getMessage() == null || !e.getMessage().contains("NOSCRIPT")) {
+        throw e;
+      }
+      // Redis 가 재시작되어 스크립트 캐시가 비었다.
+      scriptShas.remove(script);
+      result = rScript.eval(RScript.Mode.READ_WRITE, script, RScript.ReturnType.INTEGER,
+          keys, values);
+    }
+    return result;
+  }
+
+  private TransactionDto toDto(String transactionId, TransactionType transactionType,
+      String accountNumber, Long amount, long transactedAt) {
+    return TransactionDto.builder()
+        .accountNumber(accountNumber)
+        .transactionResultType(TransactionResultType.SUCCEED)
+        .transactionId(transactionId)
+        .amount(amount)
+        .transactedAt(BalanceJournalEntry.toLocalDateTime(transactedAt))
+        .transactionType(transactionType)
+        .build();
+  }
+
+  // Redis 잔액이 기준이므로 DB 반영을 기다리지 않고 바로 알린다.
+  private void publish(TransactionDto transactionDto, long balance) {
+    balanceEventHub.publish(BalanceChangeEvent.builder()
+        .accountNumber(transactionDto.getAccountNumber())
+        .transactionId(transactionDto.getTransactionId())
+        .transactionType(transactionDto.getTransactionType())
+        .transactionResultType(transactionDto.getTransactionResultType())
+        .amount(transactionDto.getAmount())
+        .balance(balance)
+        .transactedAt(transactionDto.getTransactedAt())
+        .build());
+  }
+
+  private RMap<String, String> accountHash(String accountNumber) {
+    return redissonClient.getMap(accountKey(accountNumber), StringCodec.INSTANCE);
+  }
+
+  RMap<String, String> pendingTransactions() {
+    return redissonClient.getMap(PENDING_TRANSACTIONS_KEY, StringCodec.INSTANCE);
+  }
+
+  private String accountKey(String accountNumber) {
+    return "BENG:ACC:" + accountNumber;
+  }
+}
@@ -0,0 +1,201 @@
+package com.example.account.service;
+
+import com.example.account.datasource.ShardContext;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.BalanceChangeEvent;
+import com.example.account.journal.CommandJournal;
+import com.example.account.journal.JournalCommandType;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.OutboxEventType;
+import com.example.account.type.TransactionResultType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RList;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Redis 잔액 엔진의 journal 을 모아서 Transaction 행과 Account.balance 에 반영한다.
+ * journal 에서 꺼낸 묶음은 노드별 처리 중 목록으로 옮긴 뒤 DB 에 쓰고, commit 된 뒤에야 지운다.
+ * 반영 도중 죽으면 다음 실행(재기동 포함)이 처리 중 목록을 먼저 다시 반영하며,
+ * 이미 저장된 거래 번호는 건너뛰므로 여러 번 반영해도 결과가 같다.
+ * 잔액은 새로 저장하는 거래의 증감만 더한다. 노드마다 처리 중 목록이 따로라 같은 계좌의 묶음이
+ * 어느 순서로 commit 되어도 DB 잔액이 과거 값으로 돌아가지 않는다.
+ * 명령 journal 에는 새로 저장하는 거래를 Redis 에서 받은 거래 id 그대로 같은 트랜잭션의 commit 직전에 남긴다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.transaction.engine", havingValue = "REDIS")
+public class RedisBalancePersister {
+
+  // KEYS: journal, 처리 중 목록 / ARGV: 최대 건수. 오래된 것부터 옮긴다.
+  private static final String CLAIM_SCRIPT =
+      "local moved = {} "
+          + "for i = 1, tonumber(ARGV[1]) do "
+          + "local entry = redis.call('RPOPLPUSH', KEYS[1], KEYS[2]) "
+          + "if not entry then break end "
+          + "moved[#moved + 1] = entry "
+          + "end "
+          + "return moved";
+
+  private final RedissonClient redissonClient;
+  private final RedisBalanceEngine redisBalanceEngine;
+  private final AccountRepository accountRepository;
+  private final TransactionRepository transactionRepository;
+  private final ShardRouter shardRouter;
+  private final OutboxService outboxService;
+  private final AccountSummaryService accountSummaryService;
+  private final CommandJournal commandJournal;
+  private final TransactionTemplate transactionTemplate;
+  private final String processingKey;
+  private final int batchSize;
+
+  public RedisBalancePersister(RedissonClient redissonClient,
+      RedisBalanceEngine redisBalanceEngine,
+      AccountRepository accountRepository,
+      TransactionRepository transactionRepository,
+      ShardRouter shardRouter,
+      OutboxService outboxService,
+      AccountSummaryService accountSummaryService,
+      CommandJournal commandJournal,
+      PlatformTransactionManager transactionManager,
+      @Value("${spring.transaction.redis-engine.node-id}") String nodeId,
+      @Value("${spring.transaction.redis-engine.batch-size}") int batchSize) {
+    this.redissonClient = redissonClient;
+    this.redisBalanceEngine = redisBalanceEngine;
+    this.accountRepository = accountRepository;
+    this.transactionRepository = transactionRepository;
+    this.shardRouter = shardRouter;
+    this.outboxService = outboxService;
+    this.accountSummaryService = accountSummaryService;
+    this.commandJournal = commandJournal;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.processingKey = RedisBalanceEngine.JOURNAL_KEY + ":" + nodeId;
+    this.batchSize = batchSize;
+  }
+
+  @Scheduled(fixedDelayString = "${spring.transaction.redis-engine.flush-interval-ms}")
+  public void flush() {
+    try {
+      // 이전 실행이 남긴 처리 중 목록이 있으면 그것부터 반영한다.
+      List<String> entries = processingList().readAll();
+      if (entries.isEmpty()) {
+        entries = claim();
+      }
+      if (entries.isEmpty()) {
+        return;
+      }
+      persist(entries);
+    } catch (RuntimeException e) {
+      log.warn("Failed to persist redis balance journal", e);
+    }
+  }
+
+  private List<String> claim() {
+    List<Object> claimed = redissonClient.getScript(StringCodec.INSTANCE).eval(
+        RScript.Mode.READ_WRITE, CLAIM_SCRIPT, RScript.ReturnType.MULTI,
+        Arrays.asList(RedisBalanceEngine.JOURNAL_KEY, processingKey),
+        String.valueOf(batchSize));
+    return claimed.stream().map(String::valueOf).collect(Collectors.toList());
+  }
+
+  private void persist(List<String> values) {
+    // 처리 중 목록은 앞쪽이 최신이므로 뒤집어서 거래 순서대로 반영한다.
+    List<BalanceJournalEntry> entries = values.stream()
+        .map(BalanceJournalEntry::parse)
+        .collect(Collectors.toList());
+    Collections.reverse(entries);
+
+    Map<Integer, List<BalanceJournalEntry>> entriesByShard = new TreeMap<>();
+    for (BalanceJournalEntry entry : entries) {
+      entriesByShard.computeIfAbsent(shardRouter.shardOf(entry.getAccountNumber()),
+          shard -> new ArrayList<>()).add(entry);
+    }
+    entriesByShard.forEach((shard, shardEntries) -> {
+      ShardContext.set(shard);
+      try {
+        transactionTemplate.executeWithoutResult(status -> persistShard(shardEntries));
+      } finally {
+        ShardContext.clear();
+      }
+    });
+
+    processingList().delete();
+    redisBalanceEngine.pendingTransactions().fastRemove(entries.stream()
+        .map(BalanceJournalEntry::getTransactionId)
+        .toArray(String[]::new));
+    log.debug("Persisted {} redis balance journal entries", entries.size());
+  }
+
+  private void persistShard(List<BalanceJournalEntry> entries) {
+    Set<String> persisted = transactionRepository.findByTransactionIdIn(entries.stream()
+            .map(BalanceJournalEntry::getTransactionId)
+            .collect(Collectors.toList()))
+        .stream()
+        .map(Transaction::getTransactionId)
+        .collect(Collectors.toSet());
+
+    Map<String, Account> accounts = new HashMap<>();
+    Map<Account, Long> deltas = new LinkedHashMap<>();
+    List<Transaction> transactions = new ArrayList<>();
+    for (BalanceJournalEntry entry : entries) {
+      Account account = accounts.computeIfAbsent(entry.getAccountNumber(),
+          accountNumber -> accountRepository.findByAccountNumber(accountNumber).orElse(null));
+      if (account == null) {
+        log.error("Dropping journal entry {} for unknown account {}",
+            entry.getTransactionId(), entry.getAccountNumber());
+        continue;
+      }
+      if (persisted.contains(entry.getTransactionId())) {
+        continue;
+      }
+      // 거래 행과 같은 트랜잭션에서 더하므로 한 거래의 증감은 한 번만 반영된다.
+      deltas.merge(account,
+          entry.getTransactionType().getBalanceSign() * entry.getAmount(), Long::sum);
+      Transaction transaction = Transaction.builder()
+          .transactionType(entry.getTransactionType())
+          .transactionResultType(TransactionResultType.SUCCEED)
+          .account(account)
+          .amount(entry.getAmount())
+          .transactionId(entry.getTransactionId())
+          .transactedAt(entry.getTransactedAt())
+          .build();
+      transactions.add(transaction);
+      commandJournal.record(JournalCommandType.valueOf(entry.getTransactionType().name()),
+          account.getAccountUser().getId(), account.getAccountNumber(),
+          entry.getTransactionId(), entry.getAmount(), entry.getTransactedAt());
+      outboxService.record(account.getAccountNumber(), OutboxEventType.TRANSACTION,
+          BalanceChangeEvent.from(transaction, entry.getBalanceAfter()));
+    }
+    transactionRepository.saveAll(transactions);
+    deltas.forEach((account, delta) -> {
+      if (delta != 0L) {
+        accountRepository.addBalance(account.getId(), delta);
+        accountSummaryService.balanceChanged(account, delta);
+      }
+    });
+  }
+
+  private RList<String> processingList() {
+    return redissonClient.getList(processingKey, StringCodec.INSTANCE);
+  }
+}
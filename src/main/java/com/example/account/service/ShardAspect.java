@@ -0,0 +1,67 @@
+package com.example.account.service;
+
+import com.example.account.aop.ShardKey;
+import com.example.account.datasource.ShardContext;
+import com.example.account.datasource.ShardRouter;
+import java.lang.annotation.Annotation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link ShardKey} 파라미터로 샤드를 정한 뒤 메서드를 실행한다.
+ * 트랜잭션이 커넥션을 얻기 전에 샤드가 정해져야 하므로 트랜잭션 advice 보다 먼저 실행된다.
+ */
+@Aspect
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "spring.datasource.sharding.enabled", havingValue = "true")
+public class ShardAspect {
+  private final ShardRouter shardRouter;
+
+  @Around("execution(* com.example.account.service..*(.., @com.example.account.aop.ShardKey (*), ..))")
+  public Object aroundMethod(ProceedingJoinPoint pjp) throws Throwable {
+    Integer previous = ShardContext.current();
+    ShardContext.set(resolveShard(pjp));
+    try {
+      return pjp.proceed();
+    } finally {
+      ShardContext.set(previous);
+    }
+  }
+
+  private int resolveShard(ProceedingJoinPoint pjp) {
+    MethodSignature signature = (MethodSignature) pjp.getSignature();
+    Annotation[][] parameterAnnotations = signature.getMethod().getParameterAnnotations();
+    Object[] args = pjp.getArgs();
+    for (int i = 0; i < parameterAnnotations.length; i++) {
+      for (Annotation annotation : parameterAnnotations[i]) {
+        if (annotation instanceof ShardKey) {
+          return resolveShard(((ShardKey) annotation).value(), args[i]);
+        }
+      }
+    }
+    return ShardContext.currentOrDefault();
+  }
+
+  private int resolveShard(ShardKey.Type type, Object key) {
+    switch (type) {
+      case TRANSACTION_ID:
+        return shardRouter.shardOfTransactionId((String) key);
+      case USER_ID:
+        return shardRouter.shardOfUser((Long) key);
+      case ACCOUNT_NUMBER:
+      default:
+        return shardRouter.shardOf((String) key);
+    }
+  }
+}
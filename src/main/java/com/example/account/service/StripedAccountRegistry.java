@@ -0,0 +1,49 @@
+package com.example.account.service;
+
+import com.example.account.repository.AccountStripeRepository;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 분할 계좌 번호 목록의 로컬 캐시. LockAopAspect 가 계좌 단위 lock 을 건너뛸지 판단하는 데만 쓴다.
+ * 캐시가 늦더라도 분할 계좌는 서비스에서 항상 stripe lock 을 잡으므로 정합성에는 영향이 없다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StripedAccountRegistry {
+  private final AccountStripeRepository accountStripeRepository;
+
+  private final Set<String> stripedAccountNumbers = ConcurrentHashMap.newKeySet();
+
+  public boolean isStriped(String accountNumber) {
+    return stripedAccountNumbers.contains(accountNumber);
+  }
+
+  /**
+   * 분할이 commit 된 뒤에만 등록한다. rollback 된 계좌가 계좌 lock 없이 처리되는 일을 막는다.
+   */
+  public void registerAfterCommit(String accountNumber) {
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        stripedAccountNumbers.add(accountNumber);
+      }
+    });
+  }
+
+  @Scheduled(fixedDelayString = "${spring.account.stripe.refresh-interval-ms}")
+  public void refresh() {
+    try {
+      stripedAccountNumbers.addAll(accountStripeRepository.findStripedAccountNumbers());
+    } catch (RuntimeException e) {
+      log.warn("Failed to refresh striped accounts", e);
+    }
+  }
+}
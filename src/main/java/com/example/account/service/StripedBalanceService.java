@@ -0,0 +1,152 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountStripe;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountStripeRepository;
+import com.example.account.type.ErrorCode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 분할(striped) 계좌의 잔액 처리.
+ * 잔액을 N 개의 stripe 로 나누고 stripe 마다 lock 과 행을 따로 두어, 한 계좌에 몰리는 출금을 N 갈래로 나눈다.
+ * <ul>
+ *   <li>출금: 임의의 stripe 부터 돌며 비어 있는(lock 이 안 잡힌) stripe 중 잔액이 충분한 곳에서 뺀다</li>
+ *   <li>어느 stripe 도 혼자서는 부족하면 모든 stripe 를 순서대로 잠그고 합친 뒤 다시 고르게 나눈다</li>
+ *   <li>입금(취소): 임의의 stripe 하나에 더한다</li>
+ * </ul>
+ * stripe lock 은 트랜잭션이 끝날 때 해제한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StripedBalanceService {
+  private static final long STRIPE_LOCK_WAIT_MILLIS = 1_000L;
+
+  private final AccountStripeRepository accountStripeRepository;
+  private final LockService lockService;
+
+  /**
+   * 잔액 부족이나 stripe lock 실패는 stripe 에 쓰기 전에 나므로 호출한 트랜잭션을 rollback-only 로 만들지 않는다.
+   * 묶음 처리(TransactionService.useTransactions)는 이 예외를 건별 실패로 받고 나머지를 commit 한다.
+   */
+  @Transactional(propagation = Propagation.MANDATORY, noRollbackFor = AccountException.class)
+  public void debit(Account account, Long amount) {
+    int stripeCount = account.getStripeCount();
+    int start = ThreadLocalRandom.current().nextInt(stripeCount);
+
+    // 1. 바로 잡히는 stripe 중 잔액이 충분한 곳에서 뺀다.
+    for (int i = 0; i < stripeCount; i++) {
+      int stripeIndex = (start + i) % stripeCount;
+      if (!lockService.tryLockStripe(account.getAccountNumber(), stripeIndex, 0L)) {
+        continue;
+      }
+      if (accountStripeRepository.subBalance(account, stripeIndex, amount) > 0) {
+        unlockAfterCompletion(account.getAccountNumber(), stripeIndex);
+        return;
+      }
+      lockService.unlockStripe(account.getAccountNumber(), stripeIndex);
+    }
+
+    // 2. 모든 stripe 를 모아 잔액을 확인하고 다시 나눈다.
+    gatherAndDebit(account, amount);
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void credit(Account account, Long amount) {
+    int stripeIndex = ThreadLocalRandom.current().nextInt(account.getStripeCount());
+    lockStripe(account.getAccountNumber(), stripeIndex);
+    unlockAfterCompletion(account.getAccountNumber(), stripeIndex);
+    accountStripeRepository.addBalance(account, stripeIndex, amount);
+  }
+
+  public Long totalBalance(Account account) {
+    if (!account.isStriped()) {
+      return account.getBalance();
+    }
+    return account.getBalance() + accountStripeRepository.sumBalanceByAccount(account);
+  }
+
+  /**
+   * 모든 stripe 를 잠근 뒤 잔액 합을 돌려준다 (해지 확인용). lock 은 트랜잭션이 끝날 때 풀리므로
+   * 합을 본 뒤 commit 까지 다른 입출금이 stripe 잔액을 바꾸지 못한다.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public long lockedTotalBalance(Account account) {
+    lockAllStripes(account);
+    return account.getBalance() + accountStripeRepository.sumBalanceByAccount(account);
+  }
+
+  /**
+   * 계좌 잔액을 stripeCount 개로 나눈다. 호출하는 쪽에서 계좌 lock 을 잡고 있어야 한다.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void split(Account account, int stripeCount) {
+    if (account.isStriped()) {
+      throw new AccountException(ErrorCode.ACCOUNT_ALREADY_STRIPED);
+    }
+    List<AccountStripe> stripes = new ArrayList<>(stripeCount);
+    for (int i = 0; i < stripeCount; i++) {
+      stripes.add(AccountStripe.builder()
+          .account(account)
+          .stripeIndex(i)
+          .balance(share(account.getBalance(), stripeCount, i))
+          .build());
+    }
+    accountStripeRepository.saveAll(stripes);
+    account.setBalance(0L);
+    account.setStripeCount(stripeCount);
+  }
+
+  private void gatherAndDebit(Account account, Long amount) {
+    int stripeCount = account.getStripeCount();
+    lockAllStripes(account);
+    long total = accountStripeRepository.sumBalanceByAccount(account);
+    if (total < amount) {
+      throw new AccountException(ErrorCode.BALANCE_NOT_ENOUGH);
+    }
+    log.debug("Rebalancing {} stripes of account {}", stripeCount, account.getAccountNumber());
+    long remaining = total - amount;
+    for (int stripeIndex = 0; stripeIndex < stripeCount; stripeIndex++) {
+      accountStripeRepository.setBalance(account, stripeIndex,
+          share(remaining, stripeCount, stripeIndex));
+    }
+  }
+
+  private void lockAllStripes(Account account) {
+    // 교착을 피하기 위해 항상 0번 stripe 부터 순서대로 잠근다.
+    for (int stripeIndex = 0; stripeIndex < account.getStripeCount(); stripeIndex++) {
+      lockStripe(account.getAccountNumber(), stripeIndex);
+      unlockAfterCompletion(account.getAccountNumber(), stripeIndex);
+    }
+  }
+
+  private void lockStripe(String accountNumber, int stripeIndex) {
+    if (!lockService.tryLockStripe(accountNumber, stripeIndex, STRIPE_LOCK_WAIT_MILLIS)) {
+      throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCKED);
+    }
+  }
+
+  private void unlockAfterCompletion(String accountNumber, int stripeIndex) {
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        lockService.unlockStripe(accountNumber, stripeIndex);
+      }
+    });
+  }
+
+  // total 을 stripeCount 개로 나눴을 때 index 번째 몫. 나머지는 앞 stripe 부터 1씩 더 갖는다.
+  static long share(long total, int stripeCount, int index) {
+    return total / stripeCount + (index < total % stripeCount ? 1 : 0);
+  }
+}
@@ -1,21 +1,37 @@
 package com.example.account.service;
 
+import com.example.account.aop.ShardKey;
+import com.example.account.archive.TransactionArchive;
 import com.example.account.config.TransactionConfig;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.datasource.ShardScatter;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.domain.Transaction;
+import com.example.account.dto.BalanceChangeEvent;
 import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransferDto;
+import com.example.account.event.BalanceEventHub;
+import com.example.account.journal.CommandJournal;
+import com.example.account.journal.JournalCommandType;
 import com.example.account.exception.AccountException;
 import com.example.account.repository.AccountRepository;
 import com.example.account.repository.AccountUserRepository;
 import com.example.account.repository.TransactionRepository;
+import com.example.account.timing.StageTimer;
 import com.example.account.type.AccountStatus;
 import com.example.account.type.ErrorCode;
+import com.example.account.type.OutboxEventType;
 import com.example.account.type.TransactionResultType;
 import com.example.account.type.TransactionType;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -29,20 +45,94 @@ public class TransactionService {
   private final AccountRepository accountRepository;
   private final TransactionRepository transactionRepository;
   private final TransactionConfig transactionConfig;
+  private final MeterRegistry meterRegistry;
+  private final ShardRouter shardRouter;
+  private final ShardScatter shardScatter;
+  private final StripedBalanceService stripedBalanceService;
+  private final OutboxService outboxService;
+  private final BalanceEventHub balanceEventHub;
+  private final AccountSummaryService accountSummaryService;
+  private final TransactionArchive transactionArchive;
+  private final CommandJournal commandJournal;
+
   @Transactional
-  public TransactionDto useTransaction(Long userId, String accountNumber, Long amount) {
-    AccountUser accountUser = accountUserRepository.findById(userId)
-        .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
-    Account account = getAccount(accountNumber);
+  @Timed(value = "account.service", extraTags = {"service", "transaction"})
+  public TransactionDto useTransaction(Long userId, @ShardKey String accountNumber, Long amount) {
+    AccountUser accountUser;
+    Account account;
+    try (StageTimer ignored = StageTimer.start("load")) {
+      accountUser = accountUserRepository.findById(userId)
+          .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+      account = getAccount(accountNumber);
+    }
 
-    validateUseTransaction(accountUser, account, amount);
+    try (StageTimer ignored = StageTimer.start("validate")) {
+      validateUseTransaction(accountUser, account, amount);
+    }
 
-    account.subBalance(amount);
+    debit(account, amount);
 
     return TransactionDto.fromEntity(
         saveTransaction(amount, account, TransactionType.USE, TransactionResultType.SUCCEED));
   }
 
+  /**
+   * 한 계좌의 잔액 사용 여러 건을 한 DB 트랜잭션에서 도착 순서대로 처리한다 (DebitCombiner).
+   * 계좌 lock 은 부르는 쪽이 잡는다. 건별 실패는 그 건에 담고 실패 거래로 남긴 뒤 다음 건을 계속 처리한다.
+   */
+  @Transactional
+  @Timed(value = "account.service", extraTags = {"service", "transaction"})
+  public void useTransactions(@ShardKey String accountNumber, List<CombinedUse> uses) {
+    Account account;
+    try (StageTimer ignored = StageTimer.start("load")) {
+      account = getAccount(accountNumber);
+    }
+    Map<Long, Optional<AccountUser>> accountUsers = new HashMap<>();
+    long debited = 0L;
+    for (CombinedUse use : uses) {
+      try {
+        AccountUser accountUser = accountUsers
+            .computeIfAbsent(use.getUserId(), accountUserRepository::findById)
+            .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+        validateUseTransaction(accountUser, account, use.getAmount());
+        // 묶은 뒤에 분할된 계좌는 stripe 에서 뺀다.
+        if (account.isStriped()) {
+          debit(account, use.getAmount());
+        } else {
+          account.subBalance(use.getAmount());
+          debited += use.getAmount();
+        }
+        use.succeed(TransactionDto.fromEntity(saveTransaction(use.getAmount(), account,
+            TransactionType.USE, TransactionResultType.SUCCEED)));
+      } catch (AccountException e) {
+        use.fail(e);
+        saveTransaction(use.getAmount(), account, TransactionType.USE,
+            TransactionResultType.FAILED);
+      }
+    }
+    if (debited > 0) {
+      accountSummaryService.balanceChanged(account, -debited);
+    }
+  }
+
+  private void debit(Account account, Long amount) {
+    if (account.isStriped()) {
+      stripedBalanceService.debit(account, amount);
+    } else {
+      account.subBalance(amount);
+    }
+    accountSummaryService.balanceChanged(account, -amount);
+  }
+
+  private void credit(Account account, Long amount) {
+    if (account.isStriped()) {
+      stripedBalanceService.credit(account, amount);
+    } else {
+      account.addBalance(amount);
+    }
+    accountSummaryService.balanceChanged(account, amount);
+  }
+
   private void validateUseTransaction(AccountUser accountUser, Account account, Long amount) {
     if (!Objects.equals(accountUser.getId(), account.getAccountUser().getId())) {
       throw new AccountException(ErrorCode.ACCOUNTUSER_MISMATCHED);
@@ -50,7 +140,8 @@ public class TransactionService {
     if (account.getAccountStatus() == AccountStatus.CLOSED) {
       throw new AccountException(ErrorCode.ACCOUNT_CLOSED);
     }
-    if (account.getBalance() < amount) {
+    // 분할 계좌의 잔액은 stripe 에서 차감할 때 확인한다.
+    if (!account.isStriped() && account.getBalance() < amount) {
       throw new AccountException(ErrorCode.BALANCE_NOT_ENOUGH);
     }
     if (amount < transactionConfig.getAmountMinValue() || amount > transactionConfig.getAmountMaxValue()) {
@@ -59,7 +150,8 @@ public class TransactionService {
   }
 
   @Transactional
-  public TransactionDto saveFailedUseTransaction(String accountNumber, Long amount) {
+  @Timed(value = "account.service", extraTags = {"service", "transaction"})
+  public TransactionDto saveFailedUseTransaction(@ShardKey String accountNumber, Long amount) {
     Account account = getAccount(accountNumber);
 
     return TransactionDto.fromEntity(
@@ -69,15 +161,30 @@ public class TransactionService {
   @Transactional
   private Transaction saveTransaction(Long amount, Account account, TransactionType transactionType,
       TransactionResultType transactionResultType) {
-    return transactionRepository.save(Transaction.builder()
-        .transactionType(transactionType)
-        .transactionResultType(transactionResultType)
-        .account(account)
-        .amount(amount)
-        .transactionId(UUID.randomUUID().toString().replace("-", ""))
-        .transactedAt(LocalDateTime.now())
-        .build()
-    );
+    meterRegistry.counter("account.transactions",
+        "type", transactionType.name(),
+        "result", transactionResultType.name()).increment();
+    try (StageTimer ignored = StageTimer.start("save")) {
+      Transaction transaction = transactionRepository.save(Transaction.builder()
+          .transactionType(transactionType)
+          .transactionResultType(transactionResultType)
+          .account(account)
+          .amount(amount)
+          .transactionId(shardRouter.newTransactionId(account.getAccountNumber()))
+          .transactedAt(LocalDateTime.now())
+          .build()
+      );
+      if (transactionResultType == TransactionResultType.SUCCEED) {
+        commandJournal.record(JournalCommandType.valueOf(transactionType.name()),
+            account.getAccountUser().getId(), account.getAccountNumber(),
+            transaction.getTransactionId(), amount, transaction.getTransactedAt());
+      }
+      BalanceChangeEvent event =
+          BalanceChangeEvent.from(transaction, account.isStriped() ? null : account.getBalance());
+      outboxService.record(account.getAccountNumber(), OutboxEventType.TRANSACTION, event);
+      balanceEventHub.publishAfterCommit(event);
+      return transaction;
+    }
   }
 
   private Account getAccount(String accountNumber) {
@@ -86,13 +193,21 @@ public class TransactionService {
   }
 
   @Transactional
-  public TransactionDto cancelTransaction(String transactionId, String accountNumber, Long amount) {
-    Transaction transaction = getTransaction(transactionId);
-    Account account = getAccount(accountNumber);
+  @Timed(value = "account.service", extraTags = {"service", "transaction"})
+  public TransactionDto cancelTransaction(String transactionId, @ShardKey String accountNumber,
+      Long amount) {
+    Transaction transaction;
+    Account account;
+    try (StageTimer ignored = StageTimer.start("load")) {
+      transaction = getTransaction(transactionId);
+      account = getAccount(accountNumber);
+    }
 
-    validateCancelTransaction(transaction, account, amount);
+    try (StageTimer ignored = StageTimer.start("validate")) {
+      validateCancelTransaction(transaction, account, amount);
+    }
 
-    account.addBalance(amount);
+    credit(account, amount);
 
     return TransactionDto.fromEntity(
         saveTransaction(amount, account, TransactionType.CANCEL, TransactionResultType.SUCCEED));
@@ -103,11 +218,37 @@ public class TransactionService {
         .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND));
   }
 
-  public TransactionDto inquiryTransaction(String transactionId) {
-    return TransactionDto.fromEntity(getTransaction(transactionId));
+  @Transactional(readOnly = true)
+  @Timed(value = "account.service", extraTags = {"service", "transaction"})
+  public TransactionDto inquiryTransaction(
+      @ShardKey(ShardKey.Type.TRANSACTION_ID) String transactionId) {
+    if (shardRouter.hasShardPrefix(transactionId)) {
+      return findTransaction(transactionId)
+          .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND));
+    }
+    // 샤드 접두어가 없는(샤딩 이전) 거래는 모든 샤드에서 찾는다.
+    return shardScatter.gather(() -> findTransaction(transactionId))
+        .stream()
+        .flatMap(Optional::stream)
+        .findFirst()
+        .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND));
+  }
+
+  // hot 테이블에 없으면 아카이브로 옮겨진 거래에서 찾는다.
+  private Optional<TransactionDto> findTransaction(String transactionId) {
+    Optional<TransactionDto> transaction = transactionRepository.findByTransactionId(transactionId)
+        .map(TransactionDto::fromEntity);
+    if (transaction.isPresent()) {
+      return transaction;
+    }
+    return transactionArchive.find(transactionId);
   }
 
   private void validateCancelTransaction(Transaction transaction, Account account, Long amount) {
+    if (transaction.getTransactionType() != null
+        && transaction.getTransactionType().isTransfer()) {
+      throw new AccountException(ErrorCode.TRANSFER_NOT_CANCELLABLE);
+    }
     if (!Objects.equals(transaction.getAmount(), amount)) {
       throw new AccountException(ErrorCode.AMOUNT_MISMATCHED);
     }
@@ -117,10 +258,76 @@ public class TransactionService {
   }
 
   @Transactional
-  public TransactionDto saveFailedCancelTransaction(String accountNumber, Long amount) {
+  @Timed(value = "account.service", extraTags = {"service", "transaction"})
+  public TransactionDto saveFailedCancelTransaction(@ShardKey String accountNumber, Long amount) {
     Account account = getAccount(accountNumber);
 
     return TransactionDto.fromEntity(
         saveTransaction(amount, account, TransactionType.CANCEL, TransactionResultType.FAILED));
   }
+
+  /**
+   * 같은 사용자의 두 계좌 사이 이체. 출금, 입금과 두 거래 기록을 한 DB 트랜잭션에서 처리한다.
+   * 두 계좌의 lock 은 LockAopAspect 가 계좌번호 순서로 잡는다.
+   */
+  @Transactional
+  @Timed(value = "account.service", extraTags = {"service", "transaction"})
+  public TransferDto transferTransaction(Long userId, @ShardKey String fromAccountNumber,
+      String toAccountNumber, Long amount) {
+    if (Objects.equals(fromAccountNumber, toAccountNumber)) {
+      throw new AccountException(ErrorCode.SAME_ACCOUNT_TRANSFER);
+    }
+    // 한 DB 트랜잭션으로 묶을 수 있도록 같은 샤드의 계좌끼리만 이체한다.
+    if (shardRouter.shardOf(fromAccountNumber) != shardRouter.shardOf(toAccountNumber)) {
+      throw new AccountException(ErrorCode.CROSS_SHARD_TRANSFER);
+    }
+
+    AccountUser accountUser;
+    Account fromAccount;
+    Account toAccount;
+    try (StageTimer ignored = StageTimer.start("load")) {
+      accountUser = accountUserRepository.findById(userId)
+          .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+      fromAccount = getAccount(fromAccountNumber);
+      toAccount = getAccount(toAccountNumber);
+    }
+
+    try (StageTimer ignored = StageTimer.start("validate")) {
+      validateUseTransaction(accountUser, fromAccount, amount);
+      if (!Objects.equals(accountUser.getId(), toAccount.getAccountUser().getId())) {
+        throw new AccountException(ErrorCode.ACCOUNTUSER_MISMATCHED);
+      }
+      if (toAccount.getAccountStatus() == AccountStatus.CLOSED) {
+        throw new AccountException(ErrorCode.ACCOUNT_CLOSED);
+      }
+    }
+
+    debit(fromAccount, amount);
+    credit(toAccount, amount);
+
+    Transaction withdrawal = saveTransaction(amount, fromAccount, TransactionType.TRANSFER_OUT,
+        TransactionResultType.SUCCEED);
+    Transaction deposit = saveTransaction(amount, toAccount, TransactionType.TRANSFER_IN,
+        TransactionResultType.SUCCEED);
+
+    return TransferDto.builder()
+        .fromAccountNumber(fromAccount.getAccountNumber())
+        .toAccountNumber(toAccount.getAccountNumber())
+        .transactionResultType(TransactionResultType.SUCCEED)
+        .withdrawalTransactionId(withdrawal.getTransactionId())
+        .depositTransactionId(deposit.getTransactionId())
+        .amount(amount)
+        .transactedAt(withdrawal.getTransactedAt())
+        .build();
+  }
+
+  @Transactional
+  @Timed(value = "account.service", extraTags = {"service", "transaction"})
+  public TransactionDto saveFailedTransferTransaction(@ShardKey String fromAccountNumber,
+      Long amount) {
+    Account account = getAccount(fromAccountNumber);
+
+    return TransactionDto.fromEntity(saveTransaction(
+        amount, account, TransactionType.TRANSFER_OUT, TransactionResultType.FAILED));
+  }
 }
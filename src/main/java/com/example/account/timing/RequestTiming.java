@@ -0,0 +1,65 @@
+package com.example.account.timing;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 요청 하나의 단계별 소요 시간을 모은다. 요청 스레드에 묶여 있으므로 동기화하지 않는다.
+ */
+public class RequestTiming {
+
+  private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+  private final String requestUri;
+  private final long startedAt = System.nanoTime();
+  private final Map<String, Long> stages = new LinkedHashMap<>();
+
+  private RequestTiming(String requestUri) {
+    this.requestUri = requestUri;
+  }
+
+  public static RequestTiming begin(String requestUri) {
+    RequestTiming timing = new RequestTiming(requestUri);
+    CURRENT.set(timing);
+    return timing;
+  }
+
+  public static RequestTiming current() {
+    return CURRENT.get();
+  }
+
+  public static void end() {
+    CURRENT.remove();
+  }
+
+  public void add(String stage, long elapsedNanos) {
+    stages.merge(stage, elapsedNanos, Long::sum);
+  }
+
+  public String getRequestUri() {
+    return requestUri;
+  }
+
+  public Map<String, Long> getStages() {
+    return stages;
+  }
+
+  /**
+   * 예) lock;dur=1.2, sleep;dur=3000.4, service;dur=8.1, total;dur=3010.3
+   */
+  public String toServerTimingHeader() {
+    StringBuilder header = new StringBuilder();
+    for (Map.Entry<String, Long> stage : stages.entrySet()) {
+      appendMetric(header, stage.getKey(), stage.getValue());
+      header.append(", ");
+    }
+    appendMetric(header, "total", System.nanoTime() - startedAt);
+    return header.toString();
+  }
+
+  private static void appendMetric(StringBuilder header, String name, long nanos) {
+    header.append(name).append(";dur=")
+        .append(String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0));
+  }
+}
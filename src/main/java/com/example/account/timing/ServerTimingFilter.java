@@ -0,0 +1,28 @@
+package com.example.account.timing;
+
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * 요청마다 {@link RequestTiming} 을 열고 닫는다.
+ * 헤더는 응답이 commit 되기 전에 {@link ServerTimingResponseAdvice} 가 기록한다.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    RequestTiming.begin(request.getRequestURI());
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      RequestTiming.end();
+    }
+  }
+}
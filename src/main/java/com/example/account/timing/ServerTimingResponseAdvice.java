@@ -0,0 +1,36 @@
+package com.example.account.timing;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 응답 본문을 쓰기 직전에 지금까지 모인 단계별 시간을 Server-Timing 헤더로 내보낸다.
+ * 예외 응답도 같은 경로를 거치므로 실패 기록 시간까지 포함된다.
+ */
+@ControllerAdvice
+public class ServerTimingResponseAdvice implements ResponseBodyAdvice<Object> {
+
+  public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+  @Override
+  public boolean supports(MethodParameter returnType,
+      Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType,
+      MediaType selectedContentType, Class<? extends HttpMessageConverter<?>> selectedConverterType,
+      ServerHttpRequest request, ServerHttpResponse response) {
+    RequestTiming timing = RequestTiming.current();
+    if (timing != null) {
+      response.getHeaders().set(SERVER_TIMING_HEADER, timing.toServerTimingHeader());
+    }
+    return body;
+  }
+}
@@ -0,0 +1,25 @@
+package com.example.account.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 요청 처리 단계(lock 대기, 승인 대기, 서비스 처리 등)를 JFR 에 기록하는 이벤트.
+ * 녹화가 꺼져 있으면 StageTimer 가 만들지 않는다.
+ */
+@Name("com.example.account.Stage")
+@Label("Account Request Stage")
+@Category({"Account", "Request"})
+@Description("Duration of a single stage of an account API request")
+@StackTrace(false)
+public class StageEvent extends jdk.jfr.Event {
+
+  @Label("Stage")
+  String stage;
+
+  @Label("Request URI")
+  String requestUri;
+}
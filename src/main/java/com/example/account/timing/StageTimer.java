@@ -0,0 +1,55 @@
+package com.example.account.timing;
+
+import jdk.jfr.EventType;
+
+/**
+ * 단계 하나의 시간을 잰다. try-with-resources 로 사용한다.
+ *
+ * <pre>
+ * try (StageTimer ignored = StageTimer.start("lock")) {
+ *   lockService.lock(accountNumber);
+ * }
+ * </pre>
+ */
+public class StageTimer implements AutoCloseable {
+  // 녹화 중이 아니면 이벤트를 만들지 않는다 (요청마다 여러 번 불리는 경로).
+  private static final EventType STAGE_EVENT_TYPE = EventType.getEventType(StageEvent.class);
+
+  private final String stage;
+  private final RequestTiming timing;
+  private final StageEvent event;
+  private final long startedAt;
+
+  private StageTimer(String stage, RequestTiming timing, StageEvent event) {
+    this.stage = stage;
+    this.timing = timing;
+    this.event = event;
+    this.startedAt = System.nanoTime();
+  }
+
+  public static StageTimer start(String stage) {
+    StageEvent event = null;
+    if (STAGE_EVENT_TYPE.isEnabled()) {
+      event = new StageEvent();
+      event.begin();
+    }
+    return new StageTimer(stage, RequestTiming.current(), event);
+  }
+
+  @Override
+  public void close() {
+    long elapsed = System.nanoTime() - startedAt;
+    if (timing != null) {
+      timing.add(stage, elapsed);
+    }
+    if (event == null) {
+      return;
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      event.stage = stage;
+      event.requestUri = timing != null ? timing.getRequestUri() : null;
+      event.commit();
+    }
+  }
+}
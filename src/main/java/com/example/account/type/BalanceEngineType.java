@@ -0,0 +1,12 @@
+package com.example.account.type;
+
+public enum BalanceEngineType {
+  // Redis lock + DB 잔액 갱신
+  LOCK,
+  // Redis 잔액 + Lua 차감 + 비동기 DB 반영
+  REDIS,
+  // 계좌번호 해시 파티션마다 스레드 하나가 명령을 차례로 처리 (lock 없음) + DB 잔액 갱신
+  PARTITIONED,
+  // ring buffer 위의 단계별 스레드(검증 -> 메모리 잔액 판정 -> 묶음 저장 -> 응답) + DB 잔액 (노드 하나)
+  PIPELINE
+}
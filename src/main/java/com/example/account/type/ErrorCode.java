@@ -2,24 +2,35 @@ package com.example.account.type;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import org.springframework.http.HttpStatus;
 
 @AllArgsConstructor
 @Getter
 public enum ErrorCode {
-  USER_NOT_FOUND("사용자를 찾을 수 없습니다."),
-  REACHED_ACCOUNT_PER_USER_LIMIT("계좌 보유 수 한도에 도달하였습니다."),
-  ACCOUNT_NOT_FOUND("계좌를 찾을 수 없습니다."),
-  ACCOUNTUSER_MISMATCHED("사용자 정보가 계좌주 정보와 일치하지 않습니다."),
-  ACCOUNT_CLOSED("해지된 계좌입니다."),
-  BALANCE_NOT_ZERO("잔액이 0이 아닙니다."),
-  BALANCE_NOT_ENOUGH("잔액이 부족합니다."),
-  AMOUNT_NOT_VALID("거래 금액이 유효하지 않습니다."),
-  TRANSACTION_NOT_FOUND("거래를 찾을 수 없습니다."),
-  AMOUNT_MISMATCHED("거래 금액이 일치하지 않습니다."),
-  ACCOUNT_MISMATCHED("계좌 정보가 일치하지 않습니다."),
-  INVALID_REQUEST("잘못된 요청입니다."),
-  INTERNAL_SERVER_ERROR("내부 서버 오류가 발생했습니다."),
-  ACCOUNT_TRANSACTION_LOCKED("현재 요청 처리중입니다."),
+  USER_NOT_FOUND(HttpStatus.NOT_FOUND, "사용자를 찾을 수 없습니다."),
+  REACHED_ACCOUNT_PER_USER_LIMIT(HttpStatus.CONFLICT, "계좌 보유 수 한도에 도달하였습니다."),
+  ACCOUNT_NOT_FOUND(HttpStatus.NOT_FOUND, "계좌를 찾을 수 없습니다."),
+  ACCOUNTUSER_MISMATCHED(HttpStatus.FORBIDDEN, "사용자 정보가 계좌주 정보와 일치하지 않습니다."),
+  ACCOUNT_CLOSED(HttpStatus.CONFLICT, "해지된 계좌입니다."),
+  BALANCE_NOT_ZERO(HttpStatus.CONFLICT, "잔액이 0이 아닙니다."),
+  BALANCE_NOT_ENOUGH(HttpStatus.CONFLICT, "잔액이 부족합니다."),
+  AMOUNT_NOT_VALID(HttpStatus.BAD_REQUEST, "거래 금액이 유효하지 않습니다."),
+  TRANSACTION_NOT_FOUND(HttpStatus.NOT_FOUND, "거래를 찾을 수 없습니다."),
+  AMOUNT_MISMATCHED(HttpStatus.BAD_REQUEST, "거래 금액이 일치하지 않습니다."),
+  ACCOUNT_MISMATCHED(HttpStatus.BAD_REQUEST, "계좌 정보가 일치하지 않습니다."),
+  INVALID_REQUEST(HttpStatus.BAD_REQUEST, "잘못된 요청입니다."),
+  METHOD_NOT_ALLOWED(HttpStatus.METHOD_NOT_ALLOWED, "지원하지 않는 요청 방식입니다."),
+  UNSUPPORTED_MEDIA_TYPE(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "지원하지 않는 요청 형식입니다."),
+  INTERNAL_SERVER_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "내부 서버 오류가 발생했습니다."),
+  ACCOUNT_TRANSACTION_LOCKED(HttpStatus.CONFLICT, "현재 요청 처리중입니다."),
+  PARTITION_NOT_OWNED(HttpStatus.SERVICE_UNAVAILABLE, "다른 노드가 처리하는 계좌입니다. 다시 시도해 주세요."),
+  ACCOUNT_TOO_BUSY(HttpStatus.TOO_MANY_REQUESTS, "요청이 몰린 계좌입니다. 잠시 후 다시 시도해 주세요."),
+  TRANSACTION_RESULT_UNKNOWN(HttpStatus.CONFLICT, "처리 결과를 확인하지 못했습니다. 다시 시도하기 전에 거래 내역을 확인해 주세요."),
+  ACCOUNT_ALREADY_STRIPED(HttpStatus.CONFLICT, "이미 분할된 계좌입니다."),
+  SAME_ACCOUNT_TRANSFER(HttpStatus.BAD_REQUEST, "같은 계좌로는 이체할 수 없습니다."),
+  TRANSFER_NOT_CANCELLABLE(HttpStatus.BAD_REQUEST, "이체 거래는 취소할 수 없습니다."),
+  CROSS_SHARD_TRANSFER(HttpStatus.BAD_REQUEST, "서로 다른 샤드의 계좌 간 이체는 지원하지 않습니다."),
   ;
+  private final HttpStatus httpStatus;
   private final String description;
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.example.account.type;
+
+public enum OutboxEventType {
+  // 거래 기록(성공/실패)과 거래 직후 잔액
+  TRANSACTION,
+  ACCOUNT_OPENED,
+  ACCOUNT_CLOSED,
+  ACCOUNT_STRIPED
+}
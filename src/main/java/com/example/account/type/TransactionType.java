@@ -1,6 +1,21 @@
 package com.example.account.type;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
 public enum TransactionType {
-  USE,
-  CANCEL
+  USE(-1),
+  CANCEL(1),
+  TRANSFER_OUT(-1),
+  TRANSFER_IN(1);
+
+  // 성공한 거래의 amount 에 곱하면 잔액 변화량이 된다.
+  private final int balanceSign;
+
+  // 이체 거래는 두 계좌가 짝을 이루므로 한쪽만 취소할 수 없다.
+  public boolean isTransfer() {
+    return this == TRANSFER_OUT || this == TRANSFER_IN;
+  }
 }
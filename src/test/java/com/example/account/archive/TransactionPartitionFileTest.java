@@ -0,0 +1,55 @@
+package com.example.account.archive;
+
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class TransactionPartitionFileTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  @DisplayName("파티션 파일에 쓴 거래를 그대로 읽는다")
+  void writeAndRead() throws IOException {
+    //given
+    LocalDateTime transactedAt = LocalDateTime.of(2026, 7, 31, 23, 59, 59, 123_456_789);
+    List<ArchivedTransaction> rows = Arrays.asList(
+        new ArchivedTransaction("tx1", "1000000012", TransactionType.USE,
+            TransactionResultType.SUCCEED, 1000L, transactedAt.minusDays(3)),
+        new ArchivedTransaction("tx2", "1000000013", TransactionType.TRANSFER_IN,
+            TransactionResultType.SUCCEED, 500L, transactedAt.minusDays(1)),
+        new ArchivedTransaction("tx3", "1000000012", TransactionType.CANCEL,
+            TransactionResultType.FAILED, 1000L, transactedAt));
+    Path path = directory.resolve("transactions-2026-07-s0.gz");
+
+    //when
+    TransactionPartitionFile.write(path, rows);
+    List<ArchivedTransaction> read = TransactionPartitionFile.read(path);
+
+    //then
+    assertFalse(Files.exists(directory.resolve("transactions-2026-07-s0.gz.tmp")));
+    assertEquals(3, read.size());
+    for (int i = 0; i < rows.size(); i++) {
+      assertEquals(rows.get(i).getTransactionId(), read.get(i).getTransactionId());
+      assertEquals(rows.get(i).getAccountNumber(), read.get(i).getAccountNumber());
+      assertEquals(rows.get(i).getTransactionType(), read.get(i).getTransactionType());
+      assertEquals(rows.get(i).getTransactionResultType(),
+          read.get(i).getTransactionResultType());
+      assertEquals(rows.get(i).getAmount(), read.get(i).getAmount());
+      assertEquals(rows.get(i).getTransactedAt(), read.get(i).getTransactedAt());
+    }
+  }
+}
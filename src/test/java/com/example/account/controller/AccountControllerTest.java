@@ -1,40 +1,71 @@
 package com.example.account.controller;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.example.account.dto.AccountDto;
+import com.example.account.dto.AccountImport;
 import com.example.account.dto.CloseAccount;
+import com.example.account.dto.HistoricalBalance;
 import com.example.account.dto.OpenAccount;
+import com.example.account.event.BalanceEventHub;
 import com.example.account.exception.AccountException;
+import com.example.account.service.AccountImportService;
 import com.example.account.service.AccountService;
+import com.example.account.service.BalanceHistoryService;
+import com.example.account.service.PartitionedCommandEngine;
 import com.example.account.type.ErrorCode;
+import com.example.account.pipeline.CommandPipeline;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+@Import(SimpleMeterRegistry.class)
 @WebMvcTest(AccountController.class)
 class AccountControllerTest {
 
   @MockBean
   private AccountService accountService;
 
+  @MockBean
+  private BalanceEventHub balanceEventHub;
+
+  @MockBean
+  private BalanceHistoryService balanceHistoryService;
+
+  @MockBean
+  private AccountImportService accountImportService;
+
+  @MockBean
+  private PartitionedCommandEngine partitionedCommandEngine;
+
+  @MockBean
+  private CommandPipeline commandPipeline;
+
   @Autowired
   private MockMvc mockMvc;
 
@@ -76,7 +107,7 @@ class AccountControllerTest {
             .content(objectMapper.writeValueAsString(
                 new OpenAccount.Request(3333L, 1111L)
             )))
-        .andExpect(status().isOk())
+        .andExpect(status().isNotFound())
         .andExpect(jsonPath("$.errorCode").value("ACCOUNT_NOT_FOUND"))
         .andExpect(jsonPath("$.errorMessage").value("계좌를 찾을 수 없습니다."))
         .andDo(print());
@@ -94,7 +125,23 @@ class AccountControllerTest {
             .content(objectMapper.writeValueAsString(
                 new OpenAccount.Request(3333L, 1111L)
             )))
-        .andExpect(status().isOk())
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"))
+        .andExpect(jsonPath("$.errorMessage").value("잘못된 요청입니다."))
+        .andDo(print());
+  }
+
+  @Test
+  void whenFailedToOpenAccount_InvalidRequest() throws Exception {
+    //given
+    //when
+    //then
+    mockMvc.perform(post("/account")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(
+                new OpenAccount.Request(0L, 1111L)
+            )))
+        .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"))
         .andExpect(jsonPath("$.errorMessage").value("잘못된 요청입니다."))
         .andDo(print());
@@ -135,7 +182,7 @@ class AccountControllerTest {
             .content(objectMapper.writeValueAsString(
                 new CloseAccount.Request(3333L, "1111111111")
             )))
-        .andExpect(status().isOk())
+        .andExpect(status().isConflict())
         .andExpect(jsonPath("$.errorCode").value("ACCOUNT_CLOSED"))
         .andExpect(jsonPath("$.errorMessage").value("해지된 계좌입니다."))
         .andDo(print());
@@ -153,7 +200,7 @@ class AccountControllerTest {
             .content(objectMapper.writeValueAsString(
                 new CloseAccount.Request(3333L, "1111111111")
             )))
-        .andExpect(status().isOk())
+        .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"))
         .andExpect(jsonPath("$.errorMessage").value("잘못된 요청입니다."))
         .andDo(print());
@@ -198,7 +245,7 @@ class AccountControllerTest {
     //when
     //then
     mockMvc.perform(get("/account?user_id=1"))
-        .andExpect(status().isOk())
+        .andExpect(status().isNotFound())
         .andExpect(jsonPath("$.errorCode").value("USER_NOT_FOUND"))
         .andExpect(jsonPath("$.errorMessage").value("사용자를 찾을 수 없습니다."))
         .andDo(print());
@@ -212,10 +259,95 @@ class AccountControllerTest {
     //when
     //then
     mockMvc.perform(get("/account?user_id=1"))
-        .andExpect(status().isOk())
+        .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"))
         .andExpect(jsonPath("$.errorMessage").value("잘못된 요청입니다."))
         .andDo(print());
   }
 
-}
\ No newline at end of file
+  @Test
+  void whenFailedTogetAccounts_InvalidUserIdParameter() throws Exception {
+    //given
+    //when
+    //then
+    mockMvc.perform(get("/account?user_id=abc"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"))
+        .andDo(print());
+    mockMvc.perform(get("/account"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"))
+        .andDo(print());
+  }
+
+  @Test
+  void whenFailedToGetStatement_InvalidMonth() throws Exception {
+    //given
+    //when
+    //then
+    mockMvc.perform(get("/account/1234567890/statement?month=september"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"))
+        .andDo(print());
+  }
+
+  @Test
+  void whenUnsupportedMethodOrMediaType() throws Exception {
+    //given
+    //when
+    //then
+    mockMvc.perform(put("/account"))
+        .andExpect(status().isMethodNotAllowed())
+        .andExpect(jsonPath("$.errorCode").value("METHOD_NOT_ALLOWED"))
+        .andDo(print());
+    mockMvc.perform(post("/account")
+            .contentType(MediaType.TEXT_PLAIN)
+            .content("userId=1"))
+        .andExpect(status().isUnsupportedMediaType())
+        .andExpect(jsonPath("$.errorCode").value("UNSUPPORTED_MEDIA_TYPE"))
+        .andDo(print());
+  }
+
+
+  @Test
+  void successGetBalanceAt() throws Exception {
+    //given
+    LocalDateTime at = LocalDateTime.of(2026, 9, 30, 23, 59, 59);
+    given(balanceHistoryService.balanceAt(eq("1234567890"), any()))
+        .willReturn(HistoricalBalance.builder()
+            .accountNumber("1234567890")
+            .at(at)
+            .balance(5000L)
+            .build());
+    //when
+    //then
+    mockMvc.perform(get("/account/1234567890/balance?at=2026-09-30T23:59:59"))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.accountNumber").value("1234567890"))
+        .andExpect(jsonPath("$.balance").value(5000));
+  }
+
+  @Test
+  void successImportAccounts() throws Exception {
+    //given
+    willAnswer(invocation -> {
+      Consumer<List<AccountImport.Result>> consumer = invocation.getArgument(2);
+      consumer.accept(Arrays.asList(
+          AccountImport.Result.succeed(1L, 12L, "1000000012"),
+          AccountImport.Result.failed(2L, 99L, ErrorCode.USER_NOT_FOUND)));
+      return 2L;
+    }).given(accountImportService).importAccounts(any(), eq(AccountImport.Format.CSV), any());
+    //when
+    //then
+    mockMvc.perform(post("/account/bulk")
+            .contentType("text/csv")
+            .content("12,1000\n99,1000\n"))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(content().string(
+            "{\"line\":1,\"userId\":12,\"accountNumber\":\"1000000012\"}\n"
+                + "{\"line\":2,\"userId\":99,\"errorCode\":\"USER_NOT_FOUND\","
+                + "\"errorMessage\":\"사용자를 찾을 수 없습니다.\"}\n"));
+  }
+}
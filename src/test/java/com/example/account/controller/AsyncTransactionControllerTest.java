@@ -0,0 +1,97 @@
+package com.example.account.controller;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseTransaction;
+import com.example.account.exception.AccountException;
+import com.example.account.service.AsyncTransactionService;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Import(SimpleMeterRegistry.class)
+@WebMvcTest(AsyncTransactionController.class)
+class AsyncTransactionControllerTest {
+
+  @MockBean
+  private AsyncTransactionService asyncTransactionService;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Test
+  void whenSucceedToUseTransactionAsync() throws Exception {
+    //given
+    given(asyncTransactionService.use(anyLong(), anyString(), anyLong()))
+        .willReturn(CompletableFuture.completedFuture(TransactionDto.builder()
+            .accountNumber("1000000000")
+            .transactedAt(LocalDateTime.now())
+            .amount(12345L)
+            .transactionId("transactionId")
+            .transactionResultType(TransactionResultType.SUCCEED)
+            .build()));
+
+    //when
+    MvcResult result = mockMvc.perform(post("/async/transaction/use")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(
+                new UseTransaction.Request(1L, "2000000000", 3000L)
+            )))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    //then
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.accountNumber").value("1000000000"))
+        .andExpect(jsonPath("$.transactionId").value("transactionId"))
+        .andExpect(jsonPath("$.amount").value(12345))
+        .andDo(print());
+  }
+
+  @Test
+  void failUseTransactionAsync() throws Exception {
+    //given
+    given(asyncTransactionService.use(anyLong(), anyString(), anyLong()))
+        .willReturn(CompletableFuture.failedFuture(
+            new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCKED)));
+
+    //when
+    MvcResult result = mockMvc.perform(post("/async/transaction/use")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(
+                new UseTransaction.Request(1L, "2000000000", 3000L)
+            )))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    //then
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(jsonPath("$.errorCode").value("ACCOUNT_TRANSACTION_LOCKED"))
+        .andDo(print());
+  }
+}
@@ -2,16 +2,26 @@ package com.example.account.controller;
 
 import com.example.account.dto.CancelTransaction;
 import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransferDto;
+import com.example.account.dto.TransferTransaction;
 import com.example.account.dto.UseTransaction;
+import com.example.account.exception.AccountBusyException;
 import com.example.account.exception.AccountException;
+import com.example.account.service.DebitCombiner;
+import com.example.account.service.PartitionedCommandEngine;
+import com.example.account.service.RedisBalanceEngine;
 import com.example.account.service.TransactionService;
 import com.example.account.type.ErrorCode;
 import com.example.account.type.TransactionResultType;
+import com.example.account.pipeline.CommandPipeline;
+import com.example.account.service.StripedAccountRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -19,21 +29,43 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDateTime;
 
 import static com.example.account.type.TransactionType.USE;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@Import(SimpleMeterRegistry.class)
 @WebMvcTest(TransactionController.class)
 class TransactionControllerTest {
 
   @MockBean
   private TransactionService transactionService;
 
+  @MockBean
+  private RedisBalanceEngine redisBalanceEngine;
+
+  @MockBean
+  private DebitCombiner debitCombiner;
+
+  @MockBean
+  private PartitionedCommandEngine partitionedCommandEngine;
+
+  @MockBean
+  private CommandPipeline commandPipeline;
+
+  @MockBean
+  private StripedAccountRegistry stripedAccountRegistry;
+
   @Autowired
   private MockMvc mockMvc;
 
@@ -65,6 +97,39 @@ class TransactionControllerTest {
         .andExpect(jsonPath("$.transactionResultType").value("SUCCEED"))
         .andExpect(jsonPath("$.transactionId").value("transactionId"))
         .andExpect(jsonPath("$.amount").value(12345))
+        .andExpect(header().string("Server-Timing",
+            containsString("sleep;dur=")))
+        .andDo(print());
+  }
+
+  @Test
+  void whenSucceedToTransferTransaction() throws Exception {
+    //given
+    given(transactionService.transferTransaction(anyLong(), anyString(), anyString(), anyLong()))
+        .willReturn(TransferDto.builder()
+            .fromAccountNumber("1000000000")
+            .toAccountNumber("2000000000")
+            .transactionResultType(TransactionResultType.SUCCEED)
+            .withdrawalTransactionId("withdrawalId")
+            .depositTransactionId("depositId")
+            .amount(3000L)
+            .transactedAt(LocalDateTime.now())
+            .build());
+
+    //when
+    //then
+    mockMvc.perform(post("/transaction/transfer")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(
+                new TransferTransaction.Request(1L, "1000000000", "2000000000", 3000L)
+            ))
+        )
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.fromAccountNumber").value("1000000000"))
+        .andExpect(jsonPath("$.toAccountNumber").value("2000000000"))
+        .andExpect(jsonPath("$.withdrawalTransactionId").value("withdrawalId"))
+        .andExpect(jsonPath("$.depositTransactionId").value("depositId"))
+        .andExpect(jsonPath("$.amount").value(3000))
         .andDo(print());
   }
 
@@ -82,7 +147,7 @@ class TransactionControllerTest {
                 new UseTransaction.Request(1L, "2000000000", 3000L)
             ))
         )
-        .andExpect(status().isOk())
+        .andExpect(status().isNotFound())
         .andExpect(jsonPath("$.errorCode").value("USER_NOT_FOUND"))
         .andExpect(jsonPath("$.errorMessage").value("사용자를 찾을 수 없습니다."))
         .andDo(print());
@@ -102,7 +167,7 @@ class TransactionControllerTest {
                 new UseTransaction.Request(1L, "2000000000", 3000L)
             ))
         )
-        .andExpect(status().isOk())
+        .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"))
         .andExpect(jsonPath("$.errorMessage").value("잘못된 요청입니다."))
         .andDo(print());
@@ -152,7 +217,7 @@ class TransactionControllerTest {
                     "2000000000", 3000L)
             ))
         )
-        .andExpect(status().isOk())
+        .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.errorCode").value("AMOUNT_MISMATCHED"))
         .andExpect(jsonPath("$.errorMessage").value("거래 금액이 일치하지 않습니다."))
         .andDo(print());
@@ -173,7 +238,7 @@ class TransactionControllerTest {
                     "2000000000", 3000L)
             ))
         )
-        .andExpect(status().isOk())
+        .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"))
         .andExpect(jsonPath("$.errorMessage").value("잘못된 요청입니다."))
         .andDo(print());
@@ -213,7 +278,7 @@ class TransactionControllerTest {
     //when
     //then
     mockMvc.perform(get("/transaction/12345"))
-        .andExpect(status().isOk())
+        .andExpect(status().isNotFound())
         .andExpect(jsonPath("$.errorCode").value("TRANSACTION_NOT_FOUND"))
         .andExpect(jsonPath("$.errorMessage").value("거래를 찾을 수 없습니다."))
         .andDo(print());
@@ -228,9 +293,30 @@ class TransactionControllerTest {
     //when
     //then
     mockMvc.perform(get("/transaction/12345"))
-        .andExpect(status().isOk())
+        .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"))
         .andExpect(jsonPath("$.errorMessage").value("잘못된 요청입니다."))
         .andDo(print());
   }
-}
\ No newline at end of file
+
+  @Test
+  void whenPartitionRejectedCancelTransaction_NotSaveFailedTransaction() throws Exception {
+    //given
+    given(partitionedCommandEngine.isEnabled()).willReturn(true);
+    given(partitionedCommandEngine.execute(eq("1000000000"), any(), any()))
+        .willThrow(new AccountBusyException(1_000L));
+
+    //when
+    //then
+    mockMvc.perform(post("/transaction/cancel")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(
+                new CancelTransaction.Request("transactionId", "1000000000", 3000L)
+            ))
+        )
+        .andExpect(status().isTooManyRequests())
+        .andExpect(jsonPath("$.errorCode").value("ACCOUNT_TOO_BUSY"))
+        .andDo(print());
+    verify(transactionService, never()).saveFailedCancelTransaction(anyString(), anyLong());
+  }
+}
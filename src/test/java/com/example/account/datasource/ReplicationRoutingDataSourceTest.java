@@ -0,0 +1,94 @@
+package com.example.account.datasource;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicationRoutingDataSourceTest {
+
+  private ReplicaLagMonitor lagMonitor;
+  private ReadYourWritesTracker readYourWritesTracker;
+  private ReplicationRoutingDataSource routingDataSource;
+
+  @BeforeEach
+  void setUp() {
+    lagMonitor = new ReplicaLagMonitor(null, 1_000L);
+    readYourWritesTracker = new ReadYourWritesTracker(60_000L);
+    routingDataSource = new ReplicationRoutingDataSource(
+        Arrays.asList("replica-0", "replica-1"), lagMonitor, readYourWritesTracker);
+    lagMonitor.updateLag("replica-0", 10L);
+    lagMonitor.updateLag("replica-1", 10L);
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    ClientContext.clear();
+  }
+
+  @Test
+  void routeWriteTransactionToPrimary() {
+    //given
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+    //when
+    //then
+    assertEquals(ReplicationDataSources.PRIMARY, routingDataSource.determineCurrentLookupKey());
+  }
+
+  @Test
+  void routeReadOnlyTransactionToReplicasInTurn() {
+    //given
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    //when
+    Object first = routingDataSource.determineCurrentLookupKey();
+    Object second = routingDataSource.determineCurrentLookupKey();
+
+    //then
+    assertEquals("replica-0", first);
+    assertEquals("replica-1", second);
+  }
+
+  @Test
+  void skipLaggingReplica() {
+    //given
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    lagMonitor.updateLag("replica-0", 5_000L);
+
+    //when
+    //then
+    assertEquals("replica-1", routingDataSource.determineCurrentLookupKey());
+    assertEquals("replica-1", routingDataSource.determineCurrentLookupKey());
+  }
+
+  @Test
+  void routeToPrimaryWhenAllReplicasLag() {
+    //given
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    lagMonitor.updateLag("replica-0", 5_000L);
+    lagMonitor.updateLag("replica-1", 5_000L);
+
+    //when
+    //then
+    assertEquals(ReplicationDataSources.PRIMARY, routingDataSource.determineCurrentLookupKey());
+  }
+
+  @Test
+  void readYourWritesAfterCommit() {
+    //given
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    ClientContext.set("client-1");
+    readYourWritesTracker.markWrite("client-1");
+
+    //when
+    //then
+    assertEquals(ReplicationDataSources.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    ClientContext.set("client-2");
+    assertEquals("replica-0", routingDataSource.determineCurrentLookupKey());
+  }
+}
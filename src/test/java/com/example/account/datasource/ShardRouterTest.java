@@ -0,0 +1,72 @@
+package com.example.account.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardRouterTest {
+
+  @Test
+  void transactionIdCarriesShardOfAccount() {
+    //given
+    ShardRouter shardRouter = new ShardRouter(4);
+
+    //when
+    for (long number = 1_000_000_000L; number < 1_000_000_100L; number++) {
+      String accountNumber = Long.toString(number);
+      String transactionId = shardRouter.newTransactionId(accountNumber);
+
+      //then
+      assertEquals(34, transactionId.length());
+      assertTrue(shardRouter.hasShardPrefix(transactionId));
+      assertEquals(shardRouter.shardOf(accountNumber),
+          shardRouter.shardOfTransactionId(transactionId));
+    }
+  }
+
+  @Test
+  void legacyTransactionIdHasNoShardPrefix() {
+    //given
+    ShardRouter shardRouter = new ShardRouter(4);
+
+    //when
+    //then
+    assertFalse(shardRouter.hasShardPrefix("transactionId"));
+    assertFalse(shardRouter.hasShardPrefix("0123456789abcdef0123456789abcdef"));
+    assertFalse(shardRouter.hasShardPrefix("990123456789abcdef0123456789abcdef"));
+    assertEquals(0, shardRouter.shardOfTransactionId("transactionId"));
+  }
+
+  @Test
+  void singleShardKeepsPlainTransactionId() {
+    //given
+    ShardRouter shardRouter = new ShardRouter(1);
+
+    //when
+    String transactionId = shardRouter.newTransactionId("1000000001");
+
+    //then
+    assertEquals(32, transactionId.length());
+    assertEquals(0, shardRouter.shardOf("1000000001"));
+    assertFalse(shardRouter.hasShardPrefix(transactionId));
+  }
+
+  @Test
+  void spreadAccountsOverShards() {
+    //given
+    ShardRouter shardRouter = new ShardRouter(3);
+    int[] counts = new int[3];
+
+    //when
+    for (long number = 1_000_000_000L; number < 1_000_003_000L; number++) {
+      counts[shardRouter.shardOf(Long.toString(number))]++;
+    }
+
+    //then
+    for (int count : counts) {
+      assertTrue(count > 800);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.example.account.event;
+
+import com.example.account.dto.BalanceChangeEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BalanceSubscriberTest {
+
+  @Test
+  void keepOnlyLatestEventWhileDraining() {
+    //given
+    BalanceSubscriber subscriber = new BalanceSubscriber("1000000012", new SseEmitter());
+
+    //when
+    boolean first = subscriber.offer(event(9000L));
+    boolean second = subscriber.offer(event(8000L));
+    boolean third = subscriber.offer(event(7000L));
+
+    //then
+    assertTrue(first);
+    assertFalse(second);
+    assertFalse(third);
+    assertEquals(7000L, subscriber.next().getBalance());
+    assertNull(subscriber.next());
+    assertEquals(2L, subscriber.getCoalescedCount());
+  }
+
+  @Test
+  void scheduleDrainAgainAfterIdle() {
+    //given
+    BalanceSubscriber subscriber = new BalanceSubscriber("1000000012", new SseEmitter());
+    subscriber.offer(event(9000L));
+    subscriber.next();
+    subscriber.next();
+
+    //when
+    boolean scheduled = subscriber.offer(event(8000L));
+
+    //then
+    assertTrue(scheduled);
+    assertNotNull(subscriber.next());
+  }
+
+  private BalanceChangeEvent event(Long balance) {
+    return BalanceChangeEvent.builder()
+        .accountNumber("1000000012")
+        .balance(balance)
+        .build();
+  }
+}
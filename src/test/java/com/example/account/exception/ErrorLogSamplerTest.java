@@ -0,0 +1,49 @@
+package com.example.account.exception;
+
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ErrorLogSamplerTest {
+
+  @Test
+  void sampleUpToLimitPerWindow() {
+    //given
+    ErrorLogSampler sampler = new ErrorLogSampler(60_000L, 2);
+
+    //when
+    //then
+    assertEquals(0, sampler.sample(ErrorCode.BALANCE_NOT_ENOUGH));
+    assertEquals(0, sampler.sample(ErrorCode.BALANCE_NOT_ENOUGH));
+    assertEquals(-1, sampler.sample(ErrorCode.BALANCE_NOT_ENOUGH));
+    assertEquals(0, sampler.sample(ErrorCode.ACCOUNT_NOT_FOUND));
+  }
+
+  @Test
+  void reportSuppressedCountInNextWindow() throws InterruptedException {
+    //given
+    ErrorLogSampler sampler = new ErrorLogSampler(10L, 1);
+    sampler.sample(ErrorCode.BALANCE_NOT_ENOUGH);
+    sampler.sample(ErrorCode.BALANCE_NOT_ENOUGH);
+    sampler.sample(ErrorCode.BALANCE_NOT_ENOUGH);
+
+    //when
+    Thread.sleep(20L);
+
+    //then
+    assertEquals(2, sampler.sample(ErrorCode.BALANCE_NOT_ENOUGH));
+  }
+
+  @Test
+  void accountExceptionHasNoStackTrace() {
+    //given
+    //when
+    AccountException exception = new AccountException(ErrorCode.BALANCE_NOT_ENOUGH);
+
+    //then
+    assertEquals(0, exception.getStackTrace().length);
+    assertNull(exception.getCause());
+  }
+}
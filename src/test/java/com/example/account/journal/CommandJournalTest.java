@@ -0,0 +1,112 @@
+package com.example.account.journal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CommandJournalTest {
+
+  private static final LocalDateTime COMMITTED_AT =
+      LocalDateTime.of(2026, 10, 1, 12, 30, 15, 987_654_321);
+
+  @TempDir
+  Path directory;
+
+  @Test
+  @DisplayName("세그먼트가 차면 다음 파일로 넘어가고, 다시 열면 이어서 쓴다")
+  void rollSegmentsAndReopen() throws Exception {
+    //given
+    CommandJournal journal = open(0L);
+    journal.record(JournalCommandType.OPEN, 1L, "1000000012", null, 1000L, COMMITTED_AT);
+    journal.record(JournalCommandType.USE, 1L, "1000000012", "tx1", 300L, COMMITTED_AT);
+    journal.record(JournalCommandType.CANCEL, 1L, "1000000012", "tx2", 300L, COMMITTED_AT);
+    journal.stop();
+
+    //when
+    CommandJournal reopened = open(0L);
+    reopened.record(JournalCommandType.CLOSE, 1L, "1000000012", null, 0L, COMMITTED_AT);
+    List<JournalRecord> records = readAll(reopened);
+    reopened.stop();
+
+    //then
+    assertEquals(2, segmentFiles().size());
+    assertEquals(4, records.size());
+    for (int i = 0; i < records.size(); i++) {
+      assertEquals(i + 1, records.get(i).getSequence());
+    }
+    assertEquals(JournalCommandType.USE, records.get(1).getCommandType());
+    assertEquals("tx1", records.get(1).getTransactionId());
+    assertEquals(300L, records.get(1).getAmount());
+    assertEquals(COMMITTED_AT, records.get(1).getCommittedAt());
+    assertNull(records.get(0).getTransactionId());
+    assertEquals(JournalCommandType.CLOSE, records.get(3).getCommandType());
+  }
+
+  @Test
+  @DisplayName("CRC 가 맞지 않는 꼬리 레코드는 버리고 그 자리부터 다시 쓴다")
+  void dropTornRecordOnRecovery() throws Exception {
+    //given
+    CommandJournal journal = open(1L);
+    journal.record(JournalCommandType.USE, 1L, "1000000012", "tx1", 100L, COMMITTED_AT);
+    journal.record(JournalCommandType.USE, 1L, "1000000012", "tx2", 200L, COMMITTED_AT);
+    journal.stop();
+    corruptByte(segmentFiles().get(0), JournalRecord.SIZE + 40);
+
+    //when
+    CommandJournal reopened = open(1L);
+    reopened.record(JournalCommandType.USE, 1L, "1000000012", "tx3", 300L, COMMITTED_AT);
+    List<JournalRecord> records = readAll(reopened);
+    reopened.stop();
+
+    //then
+    assertEquals(2, records.size());
+    assertEquals("tx1", records.get(0).getTransactionId());
+    assertEquals("tx3", records.get(1).getTransactionId());
+    assertEquals(2, records.get(1).getSequence());
+  }
+
+  private CommandJournal open(long fsyncIntervalMillis) throws IOException {
+    CommandJournal journal = new CommandJournal(true, directory.toString(), 2,
+        fsyncIntervalMillis, 1);
+    journal.start();
+    return journal;
+  }
+
+  private List<JournalRecord> readAll(CommandJournal journal) throws IOException {
+    List<JournalRecord> records = new ArrayList<>();
+    journal.forEachRecord(records::add);
+    return records;
+  }
+
+  private List<Path> segmentFiles() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.sorted().collect(Collectors.toList());
+    }
+  }
+
+  private void corruptByte(Path path, int position) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      ByteBuffer value = ByteBuffer.allocate(1);
+      channel.read(value, position);
+      value.flip();
+      byte corrupted = (byte) (value.get() ^ 0x7f);
+      channel.write(ByteBuffer.wrap(new byte[]{corrupted}), position);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.example.account.outbox;
+
+import com.example.account.datasource.ShardRouter;
+import com.example.account.domain.OutboxEvent;
+import com.example.account.repository.OutboxEventRepository;
+import com.example.account.type.OutboxEventType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+  @Mock
+  private OutboxEventRepository outboxEventRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private RedissonClient redissonClient;
+
+  private final InMemoryOutboxBroker broker = new InMemoryOutboxBroker();
+
+  private final List<OutboxMessage> received = new ArrayList<>();
+
+  private OutboxRelay outboxRelay;
+
+  @BeforeEach
+  void setUp() {
+    broker.subscribe(received::add);
+    outboxRelay = new OutboxRelay(outboxEventRepository, broker, new ShardRouter(1),
+        new TransactionTemplate(transactionManager), redissonClient, 10, 60_000L);
+  }
+
+  @Test
+  void publishInIdOrderAndMarkPublished() {
+    //given
+    given(outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(any()))
+        .willReturn(Arrays.asList(event(1L, "1000000012"), event(2L, "1000000013"),
+            event(3L, "1000000012")));
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Collection<Long>> captor = ArgumentCaptor.forClass(Collection.class);
+
+    //when
+    int relayed = outboxRelay.relayBatch();
+
+    //then
+    assertEquals(3, relayed);
+    assertEquals(Arrays.asList(1L, 2L, 3L),
+        Arrays.asList(received.get(0).getId(), received.get(1).getId(),
+            received.get(2).getId()));
+    verify(outboxEventRepository, times(1)).markPublished(captor.capture(), any());
+    assertEquals(Arrays.asList(1L, 2L, 3L), new ArrayList<>(captor.getValue()));
+  }
+
+  @Test
+  void keepEventsUnpublishedWhenSinkFails() {
+    //given
+    OutboxRelay failingRelay = new OutboxRelay(outboxEventRepository,
+        messages -> {
+          throw new IllegalStateException("broker down");
+        },
+        new ShardRouter(1), new TransactionTemplate(transactionManager), redissonClient,
+        10, 60_000L);
+    given(outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(any()))
+        .willReturn(Arrays.asList(event(1L, "1000000012")));
+
+    //when
+    assertThrows(IllegalStateException.class, failingRelay::relayBatch);
+
+    //then
+    verify(outboxEventRepository, never()).markPublished(any(), any());
+  }
+
+  private OutboxEvent event(Long id, String accountNumber) {
+    OutboxEvent event = OutboxEvent.builder()
+        .aggregateId(accountNumber)
+        .eventType(OutboxEventType.TRANSACTION)
+        .payload("{}")
+        .build();
+    event.setId(id);
+    return event;
+  }
+}
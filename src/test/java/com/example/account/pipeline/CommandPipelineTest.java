@@ -0,0 +1,299 @@
+package com.example.account.pipeline;
+
+import com.example.account.config.TransactionConfig;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.type.BalanceEngineType;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CommandPipelineTest {
+  private static final String ACCOUNT_NUMBER = "1000000012";
+
+  private final LedgerStore ledgerStore = mock(LedgerStore.class);
+  private final TransactionConfig transactionConfig = mock(TransactionConfig.class);
+  private final PipelineLease pipelineLease = mock(PipelineLease.class);
+  private CommandPipeline pipeline;
+
+  @BeforeEach
+  void setUp() {
+    given(transactionConfig.getAmountMinValue()).willReturn(1);
+    given(transactionConfig.getAmountMaxValue()).willReturn(1_000_000_000);
+    given(pipelineLease.isOwned()).willReturn(true);
+    pipeline = new CommandPipeline(ledgerStore, pipelineLease, new ShardRouter(1),
+        transactionConfig, new SimpleMeterRegistry(), BalanceEngineType.PIPELINE,
+        64, 16, 100, 100, 50L);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    pipeline.stop();
+  }
+
+  @Test
+  @DisplayName("같은 계좌의 사용을 메모리 잔액으로 판정하고 묶어서 저장 - 잔액을 넘는 사용은 실패")
+  void useConcurrentlyWithinBalance() throws Exception {
+    //given
+    given(ledgerStore.load(ACCOUNT_NUMBER))
+        .willReturn(new AccountState(1L, 12L, ACCOUNT_NUMBER, false, 1_000L, false));
+    AtomicLong persistedDelta = new AtomicLong();
+    AtomicInteger persistedFailures = new AtomicInteger();
+    willAnswer(invocation -> {
+      List<CommandSlot> slots = invocation.getArgument(1);
+      for (CommandSlot slot : slots) {
+        if (slot.isSucceed()) {
+          persistedDelta.addAndGet(slot.delta());
+        } else {
+          persistedFailures.incrementAndGet();
+        }
+      }
+      return null;
+    }).given(ledgerStore).persist(anyInt(), anyList());
+    pipeline.start();
+    ExecutorService callers = Executors.newFixedThreadPool(4);
+
+    //when
+    AtomicInteger succeed = new AtomicInteger();
+    AtomicInteger notEnough = new AtomicInteger();
+    List<Future<?>> calls = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      calls.add(callers.submit(() -> {
+        for (int j = 0; j < 50; j++) {
+          try {
+            pipeline.use(12L, ACCOUNT_NUMBER, 10L);
+            succeed.incrementAndGet();
+          } catch (AccountException e) {
+            assertEquals(ErrorCode.BALANCE_NOT_ENOUGH, e.getErrorCode());
+            notEnough.incrementAndGet();
+          }
+        }
+      }));
+    }
+    for (Future<?> call : calls) {
+      call.get();
+    }
+    callers.shutdown();
+
+    //then
+    assertEquals(100, succeed.get());
+    assertEquals(100, notEnough.get());
+    assertEquals(-1_000L, persistedDelta.get());
+    assertEquals(100, persistedFailures.get());
+    verify(ledgerStore, times(1)).load(ACCOUNT_NUMBER);
+  }
+
+  @Test
+  @DisplayName("저장하지 못한 사용은 INTERNAL_SERVER_ERROR 이고 메모리 잔액이 되돌려진다")
+  void usePersistFailedReverted() {
+    //given
+    given(ledgerStore.load(ACCOUNT_NUMBER))
+        .willReturn(new AccountState(1L, 12L, ACCOUNT_NUMBER, false, 100L, false));
+    willThrow(new IllegalStateException("db down"))
+        .given(ledgerStore).persist(anyInt(), anyList());
+    pipeline.start();
+
+    //when
+    AccountException exception = assertThrows(AccountException.class,
+        () -> pipeline.use(12L, ACCOUNT_NUMBER, 100L));
+    willAnswer(invocation -> null).given(ledgerStore).persist(anyInt(), anyList());
+    TransactionDto transaction = pipeline.use(12L, ACCOUNT_NUMBER, 100L);
+
+    //then
+    assertEquals(ErrorCode.INTERNAL_SERVER_ERROR, exception.getErrorCode());
+    assertEquals(100L, transaction.getAmount());
+  }
+
+  @Test
+  @DisplayName("방금 성공한 사용은 DB 를 보지 않고 취소")
+  void cancelRecentUse() {
+    //given
+    given(ledgerStore.load(ACCOUNT_NUMBER))
+        .willReturn(new AccountState(1L, 12L, ACCOUNT_NUMBER, false, 100L, false));
+    pipeline.start();
+    TransactionDto use = pipeline.use(12L, ACCOUNT_NUMBER, 100L);
+
+    //when
+    TransactionDto cancel = pipeline.cancel(use.getTransactionId(), ACCOUNT_NUMBER, 100L);
+    AccountException exception = assertThrows(AccountException.class,
+        () -> pipeline.cancel(use.getTransactionId(), ACCOUNT_NUMBER, 99L));
+
+    //then
+    assertEquals(100L, cancel.getAmount());
+    assertEquals(ErrorCode.AMOUNT_MISMATCHED, exception.getErrorCode());
+    verify(ledgerStore, never()).findTransaction(anyString());
+  }
+
+  @Test
+  @DisplayName("lease 가 없으면 명령을 받지 않고 다른 노드로 돌려보냄")
+  void rejectWhenLeaseNotOwned() {
+    //given
+    given(pipelineLease.isOwned()).willReturn(false);
+    pipeline.start();
+
+    //when
+    AccountException exception = assertThrows(AccountException.class,
+        () -> pipeline.use(12L, ACCOUNT_NUMBER, 100L));
+
+    //then
+    assertEquals(ErrorCode.PARTITION_NOT_OWNED, exception.getErrorCode());
+    verify(ledgerStore, never()).load(anyString());
+    verify(ledgerStore, never()).persist(anyInt(), anyList());
+  }
+
+  @Test
+  @DisplayName("lease 를 다시 얻으면 메모리의 계좌 상태를 버리고 DB 에서 다시 읽음")
+  void reloadAccountAfterLeaseReacquired() {
+    //given
+    given(ledgerStore.load(ACCOUNT_NUMBER))
+        .willReturn(new AccountState(1L, 12L, ACCOUNT_NUMBER, false, 100L, false))
+        .willReturn(new AccountState(1L, 12L, ACCOUNT_NUMBER, false, 30L, false));
+    pipeline.start();
+    pipeline.use(12L, ACCOUNT_NUMBER, 50L);
+    given(pipelineLease.getEpoch()).willReturn(1L);
+
+    //when
+    AccountException exception = assertThrows(AccountException.class,
+        () -> pipeline.use(12L, ACCOUNT_NUMBER, 40L));
+
+    //then
+    assertEquals(ErrorCode.BALANCE_NOT_ENOUGH, exception.getErrorCode());
+    verify(ledgerStore, times(2)).load(ACCOUNT_NUMBER);
+  }
+
+  @Test
+  @DisplayName("이체 거래(출금, 입금)는 취소 불가")
+  void rejectCancelOfTransferLegs() {
+    //given
+    given(ledgerStore.load(ACCOUNT_NUMBER))
+        .willReturn(new AccountState(1L, 12L, ACCOUNT_NUMBER, false, 100L, false));
+    given(ledgerStore.findTransaction("transfer-out")).willReturn(TransactionDto.builder()
+        .accountNumber(ACCOUNT_NUMBER).transactionId("transfer-out").amount(100L)
+        .transactionType(TransactionType.TRANSFER_OUT).build());
+    given(ledgerStore.findTransaction("transfer-in")).willReturn(TransactionDto.builder()
+        .accountNumber(ACCOUNT_NUMBER).transactionId("transfer-in").amount(100L)
+        .transactionType(TransactionType.TRANSFER_IN).build());
+    pipeline.start();
+
+    //when
+    AccountException outException = assertThrows(AccountException.class,
+        () -> pipeline.cancel("transfer-out", ACCOUNT_NUMBER, 100L));
+    AccountException inException = assertThrows(AccountException.class,
+        () -> pipeline.cancel("transfer-in", ACCOUNT_NUMBER, 100L));
+    AccountException useException = assertThrows(AccountException.class,
+        () -> pipeline.use(12L, ACCOUNT_NUMBER, 101L));
+
+    //then
+    assertEquals(ErrorCode.TRANSFER_NOT_CANCELLABLE, outException.getErrorCode());
+    assertEquals(ErrorCode.TRANSFER_NOT_CANCELLABLE, inException.getErrorCode());
+    assertEquals(ErrorCode.BALANCE_NOT_ENOUGH, useException.getErrorCode());
+  }
+
+  @Test
+  @DisplayName("저장하지 못한 취소(입금)로 늘어난 잔액에서 승인한 사용도 함께 실패 - 잔액이 음수가 되지 않음")
+  void failUsesApprovedOnRevertedCancel() throws Exception {
+    //given
+    given(ledgerStore.load(ACCOUNT_NUMBER))
+        .willReturn(new AccountState(1L, 12L, ACCOUNT_NUMBER, false, 0L, false));
+    given(ledgerStore.findTransaction("use-1")).willReturn(TransactionDto.builder()
+        .accountNumber(ACCOUNT_NUMBER).transactionId("use-1").amount(100L).build());
+    given(ledgerStore.findTransaction("use-2")).willReturn(TransactionDto.builder()
+        .accountNumber(ACCOUNT_NUMBER).transactionId("use-2").amount(50L).build());
+    CountDownLatch persistEntered = new CountDownLatch(1);
+    CountDownLatch usePublished = new CountDownLatch(1);
+    CountDownLatch ledgerPassedUse = new CountDownLatch(1);
+    // 업무 단계는 차례로 처리하므로 사용 뒤에 실은 조회가 불리면 사용은 이미 판정됐다.
+    willAnswer(invocation -> {
+      ledgerPassedUse.countDown();
+      return null;
+    }).given(ledgerStore).findTransaction("probe");
+    willAnswer(invocation -> {
+      usePublished.countDown();
+      return 1;
+    }).given(transactionConfig).getAmountMinValue();
+    // 첫 취소의 저장은 업무 단계가 뒤의 사용을 판정할 때까지 붙잡았다가 실패시킨다.
+    AtomicBoolean failCancel = new AtomicBoolean(true);
+    AtomicLong persistedBalance = new AtomicLong();
+    AtomicLong minPersistedBalance = new AtomicLong();
+    willAnswer(invocation -> {
+      List<CommandSlot> slots = invocation.getArgument(1);
+      boolean hasCancel = slots.stream().anyMatch(slot -> slot.type == CommandSlot.Type.CANCEL);
+      if (hasCancel && failCancel.get()) {
+        persistEntered.countDown();
+        ledgerPassedUse.await(5, TimeUnit.SECONDS);
+        throw new IllegalStateException("db down");
+      }
+      for (CommandSlot slot : slots) {
+        if (slot.isSucceed()) {
+          minPersistedBalance.accumulateAndGet(
+              persistedBalance.addAndGet(slot.delta()), Math::min);
+        }
+      }
+      return null;
+    }).given(ledgerStore).persist(anyInt(), anyList());
+    pipeline.start();
+    ExecutorService callers = Executors.newFixedThreadPool(3);
+
+    //when
+    Future<TransactionDto> cancel = callers.submit(() ->
+        pipeline.cancel("use-1", ACCOUNT_NUMBER, 100L));
+    assertTrue(persistEntered.await(5, TimeUnit.SECONDS));
+    Future<TransactionDto> use = callers.submit(() -> pipeline.use(12L, ACCOUNT_NUMBER, 100L));
+    assertTrue(usePublished.await(5, TimeUnit.SECONDS));
+    Future<TransactionDto> probe = callers.submit(() ->
+        pipeline.cancel("probe", ACCOUNT_NUMBER, 1L));
+    ErrorCode cancelError = errorCodeOf(cancel);
+    ErrorCode useError = errorCodeOf(use);
+    ErrorCode probeError = errorCodeOf(probe);
+    callers.shutdown();
+    failCancel.set(false);
+    // 메모리 잔액이 0 으로 돌아왔으면 50 입금 뒤 50 사용이 된다.
+    pipeline.cancel("use-2", ACCOUNT_NUMBER, 50L);
+    TransactionDto afterRecovery = pipeline.use(12L, ACCOUNT_NUMBER, 50L);
+
+    //then
+    assertEquals(ErrorCode.INTERNAL_SERVER_ERROR, cancelError);
+    assertEquals(ErrorCode.INTERNAL_SERVER_ERROR, useError);
+    assertEquals(ErrorCode.TRANSACTION_NOT_FOUND, probeError);
+    assertEquals(50L, afterRecovery.getAmount());
+    assertEquals(0L, persistedBalance.get());
+    assertEquals(0L, minPersistedBalance.get());
+  }
+
+  private static ErrorCode errorCodeOf(Future<TransactionDto> call) {
+    ExecutionException exception = assertThrows(ExecutionException.class,
+        () -> call.get(5, TimeUnit.SECONDS));
+    return ((AccountException) exception.getCause()).getErrorCode();
+  }
+}
@@ -0,0 +1,69 @@
+package com.example.account.protocol;
+
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class BinaryProtocolServerTest {
+  private final BinaryTransactionHandler handler = mock(BinaryTransactionHandler.class);
+  private final BinaryProtocolServer server =
+      new BinaryProtocolServer(handler, true, "127.0.0.1", 0, 4, 16, 1024, false);
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    server.stop();
+  }
+
+  @Test
+  @DisplayName("한 연결에 응답을 기다리지 않고 보낸 요청마다 requestId 가 붙은 응답이 온다")
+  void pipelinedRequests() throws Exception {
+    //given
+    given(handler.handle(any())).willAnswer(invocation -> {
+      BinaryRequest request = invocation.getArgument(0);
+      return BinaryResponse.error(request.getOpcode(), request.getRequestId(),
+          ErrorCode.TRANSACTION_NOT_FOUND);
+    });
+    server.start();
+    ByteBuffer requests = ByteBuffer.allocate(64 * 100);
+    for (int requestId = 0; requestId < 100; requestId++) {
+      BinaryCodec.encodeRequest(BinaryRequest.builder()
+          .opcode(Opcode.INQUIRY)
+          .requestId(requestId)
+          .transactionId("transactionId" + requestId)
+          .build(), requests);
+    }
+
+    //when
+    Map<Integer, BinaryResponse> responses = new HashMap<>();
+    try (Socket socket = new Socket("127.0.0.1", server.getLocalPort())) {
+      OutputStream out = socket.getOutputStream();
+      out.write(requests.array(), 0, requests.position());
+      out.flush();
+      DataInputStream in = new DataInputStream(socket.getInputStream());
+      for (int i = 0; i < 100; i++) {
+        byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+        BinaryResponse response = BinaryCodec.decodeResponse(ByteBuffer.wrap(payload));
+        responses.put(response.getRequestId(), response);
+      }
+    }
+
+    //then
+    assertEquals(100, responses.size());
+    assertEquals(Opcode.INQUIRY, responses.get(42).getOpcode());
+    assertEquals(ErrorCode.TRANSACTION_NOT_FOUND, responses.get(42).getErrorCode());
+  }
+}
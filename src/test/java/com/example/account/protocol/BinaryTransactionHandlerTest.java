@@ -0,0 +1,133 @@
+package com.example.account.protocol;
+
+import com.example.account.controller.TransactionController;
+import com.example.account.dto.UseTransaction;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.validation.Validation;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BinaryTransactionHandlerTest {
+
+  @Mock
+  private TransactionController transactionController;
+
+  private BinaryTransactionHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    handler = new BinaryTransactionHandler(transactionController,
+        Validation.buildDefaultValidatorFactory().getValidator(), new SimpleMeterRegistry());
+  }
+
+  @Test
+  @DisplayName("바이너리 사용 요청을 JSON API 와 같은 경로로 처리하고 응답을 frame 으로 돌려준다")
+  void useRoundTrip() throws Exception {
+    //given
+    LocalDateTime transactedAt = LocalDateTime.of(2026, 10, 19, 12, 30, 15, 123_456_789);
+    given(transactionController.useTransaction(any()))
+        .willReturn(UseTransaction.Response.builder()
+            .accountNumber("1000000012")
+            .transactionResultType(TransactionResultType.SUCCEED)
+            .transactionId("transactionId")
+            .amount(1000L)
+            .transactedAt(transactedAt)
+            .build());
+    ByteBuffer buffer = ByteBuffer.allocate(BinaryCodec.MAX_RESPONSE_LENGTH);
+    BinaryCodec.encodeRequest(BinaryRequest.builder()
+        .opcode(Opcode.USE)
+        .requestId(7)
+        .userId(12L)
+        .accountNumber("1000000012")
+        .amount(1000L)
+        .build(), buffer);
+    buffer.flip();
+    buffer.getInt();
+
+    //when
+    BinaryResponse handled = handler.handle(BinaryCodec.decodeRequest(buffer));
+    buffer.clear();
+    BinaryCodec.encodeResponse(handled, buffer);
+    buffer.flip();
+    buffer.getInt();
+    BinaryResponse response = BinaryCodec.decodeResponse(buffer);
+
+    //then
+    ArgumentCaptor<UseTransaction.Request> captor =
+        ArgumentCaptor.forClass(UseTransaction.Request.class);
+    verify(transactionController).useTransaction(captor.capture());
+    assertEquals(12L, captor.getValue().getUserId());
+    assertEquals("1000000012", captor.getValue().getAccountNumber());
+    assertEquals(1000L, captor.getValue().getAmount());
+    assertEquals(Opcode.USE, response.getOpcode());
+    assertEquals(7, response.getRequestId());
+    assertEquals(TransactionType.USE, response.getTransactionType());
+    assertEquals(TransactionResultType.SUCCEED, response.getTransactionResultType());
+    assertEquals("transactionId", response.getTransactionId());
+    assertEquals(1000L, response.getAmount());
+    assertEquals(transactedAt, response.getTransactedAt());
+  }
+
+  @Test
+  @DisplayName("JSON API 와 같은 제약으로 검증하고, 맞지 않으면 처리하지 않고 INVALID_REQUEST")
+  void useInvalidRequest() throws Exception {
+    //given
+    BinaryRequest request = BinaryRequest.builder()
+        .opcode(Opcode.USE)
+        .requestId(8)
+        .userId(0L)
+        .accountNumber("1000000012")
+        .amount(1000L)
+        .build();
+
+    //when
+    BinaryResponse response = handler.handle(request);
+
+    //then
+    assertFalse(response.isSucceed());
+    assertEquals(ErrorCode.INVALID_REQUEST, response.getErrorCode());
+    verify(transactionController, never()).useTransaction(any());
+  }
+
+  @Test
+  @DisplayName("처리 중 난 AccountException 은 에러 코드 응답이 된다")
+  void cancelFailed() {
+    //given
+    given(transactionController.cancelTransaction(any()))
+        .willThrow(new AccountException(ErrorCode.AMOUNT_MISMATCHED));
+
+    //when
+    BinaryResponse response = handler.handle(BinaryRequest.builder()
+        .opcode(Opcode.CANCEL)
+        .requestId(9)
+        .accountNumber("1000000012")
+        .transactionId("transactionId")
+        .amount(1000L)
+        .build());
+
+    //then
+    assertEquals(Opcode.CANCEL, response.getOpcode());
+    assertEquals(9, response.getRequestId());
+    assertEquals(ErrorCode.AMOUNT_MISMATCHED, response.getErrorCode());
+  }
+}
@@ -0,0 +1,94 @@
+package com.example.account.service;
+
+import com.example.account.datasource.ShardRouter;
+import com.example.account.datasource.ShardScatter;
+import com.example.account.domain.AccountUser;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.type.AccountStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountCounterRepairJobTest {
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private AccountUserRepository accountUserRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private AccountCounterRepairJob accountCounterRepairJob;
+
+  @BeforeEach
+  void setUp() {
+    ShardRouter shardRouter = new ShardRouter(1);
+    accountCounterRepairJob = new AccountCounterRepairJob(accountRepository,
+        accountUserRepository, shardRouter, new ShardScatter(shardRouter, null),
+        transactionManager);
+  }
+
+  @Test
+  @DisplayName("처음 센 뒤 카운터를 읽기 전에 계좌가 개설되면 다시 세어 보고 카운터를 낮추지 않는다")
+  void keepCounterWhenOpenedBetweenSnapshotAndRepair() {
+    //given
+    // 개설 전에 센 값: 2
+    given(accountRepository.countByAccountStatusGroupByUser(AccountStatus.IN_USE))
+        .willReturn(List.<Object[]>of(new Object[]{12L, 2L}));
+    // 개설이 commit 된 뒤 읽은 카운터: 3
+    AccountUser accountUser = AccountUser.builder().id(12L).activeAccountCount(3).build();
+    given(accountUserRepository.findAll(any(Pageable.class)))
+        .willReturn(new PageImpl<>(List.of(accountUser)));
+    given(accountUserRepository.findByIdForUpdate(12L))
+        .willReturn(Optional.of(accountUser));
+    given(accountRepository.countByAccountUserAndAccountStatus(accountUser, AccountStatus.IN_USE))
+        .willReturn(3);
+
+    //when
+    accountCounterRepairJob.repair();
+
+    //then
+    verify(accountUserRepository, never()).setActiveAccountCount(anyLong(), anyInt());
+  }
+
+  @Test
+  @DisplayName("행을 잡고 다시 센 값도 카운터와 다르면 그 값으로 고친다")
+  void repairDriftedCounter() {
+    //given
+    given(accountRepository.countByAccountStatusGroupByUser(AccountStatus.IN_USE))
+        .willReturn(List.<Object[]>of(new Object[]{12L, 2L}));
+    AccountUser accountUser = AccountUser.builder().id(12L).activeAccountCount(5).build();
+    given(accountUserRepository.findAll(any(Pageable.class)))
+        .willReturn(new PageImpl<>(List.of(accountUser)));
+    given(accountUserRepository.findByIdForUpdate(12L))
+        .willReturn(Optional.of(accountUser));
+    given(accountRepository.countByAccountUserAndAccountStatus(accountUser, AccountStatus.IN_USE))
+        .willReturn(2);
+
+    //when
+    accountCounterRepairJob.repair();
+
+    //then
+    verify(accountUserRepository).setActiveAccountCount(12L, 2);
+  }
+}
@@ -0,0 +1,135 @@
+package com.example.account.service;
+
+import com.example.account.config.AccountConfig;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.dto.AccountImport;
+import com.example.account.journal.CommandJournal;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.type.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountImportServiceTest {
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private AccountUserRepository accountUserRepository;
+
+  @Mock
+  private AccountNumberAllocator accountNumberAllocator;
+
+  @Mock
+  private AccountSummaryService accountSummaryService;
+
+  @Mock
+  private OutboxService outboxService;
+
+  @Mock
+  private CommandJournal commandJournal;
+
+  @Mock
+  private AccountConfig accountConfig;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private AccountImportService accountImportService;
+
+  @BeforeEach
+  void setUp() {
+    accountImportService = new AccountImportService(accountRepository, accountUserRepository,
+        accountNumberAllocator, accountSummaryService, outboxService, commandJournal,
+        accountConfig, new ShardRouter(1), new ObjectMapper(), transactionManager, 1000);
+  }
+
+  @Test
+  @DisplayName("사용자별 남은 한도만큼만 개설하고 나머지 줄은 줄별로 실패 처리")
+  void importAccountsWithinLimit() throws Exception {
+    //given
+    given(accountConfig.getAccountLimitPerUser()).willReturn(3);
+    given(accountUserRepository.findAllById(any())).willReturn(Collections.singletonList(
+        AccountUser.builder().id(12L).name("Pobi").activeAccountCount(1).build()));
+    given(accountUserRepository.addActiveAccountCount(12L, 2, 3)).willReturn(1);
+    given(accountNumberAllocator.allocate(2))
+        .willReturn(Arrays.asList("1000000012", "1000000013"));
+    String csv = "userId,initialBalance\n"
+        + "12,1000\n"
+        + "12,2000\n"
+        + "12,3000\n"
+        + "99,1000\n"
+        + "12,abc\n";
+    List<AccountImport.Result> results = new ArrayList<>();
+    ArgumentCaptor<List<Account>> captor = ArgumentCaptor.forClass(List.class);
+
+    //when
+    accountImportService.importAccounts(new BufferedReader(new StringReader(csv)),
+        AccountImport.Format.CSV, results::addAll);
+
+    //then
+    verify(accountRepository).saveAllAndFlush(captor.capture());
+    assertEquals(2, captor.getValue().size());
+    assertEquals(2000L, captor.getValue().get(1).getBalance());
+    verify(accountSummaryService).openedAll(captor.getValue());
+    assertEquals(5, results.size());
+    assertEquals("1000000012", results.get(0).getAccountNumber());
+    assertNull(results.get(0).getErrorCode());
+    assertEquals(3, results.get(1).getLine());
+    assertEquals("1000000013", results.get(1).getAccountNumber());
+    assertEquals(ErrorCode.REACHED_ACCOUNT_PER_USER_LIMIT, results.get(2).getErrorCode());
+    assertEquals(ErrorCode.USER_NOT_FOUND, results.get(3).getErrorCode());
+    assertEquals(ErrorCode.INVALID_REQUEST, results.get(4).getErrorCode());
+  }
+
+  @Test
+  @DisplayName("조회 뒤 다른 개설로 한도가 찼으면 그 사용자의 줄은 개설하지 않음")
+  void importAccountsFailedWhenCounterRaced() throws Exception {
+    //given
+    given(accountConfig.getAccountLimitPerUser()).willReturn(3);
+    given(accountUserRepository.findAllById(any())).willReturn(Collections.singletonList(
+        AccountUser.builder().id(12L).name("Pobi").activeAccountCount(1).build()));
+    given(accountUserRepository.addActiveAccountCount(anyLong(), anyInt(), eq(3)))
+        .willReturn(0);
+    String ndjson = "{\"userId\":12,\"initialBalance\":1000}\n";
+    List<AccountImport.Result> results = new ArrayList<>();
+
+    //when
+    accountImportService.importAccounts(new BufferedReader(new StringReader(ndjson)),
+        AccountImport.Format.NDJSON, results::addAll);
+
+    //then
+    verify(accountNumberAllocator, never()).allocate(anyInt());
+    verify(accountRepository, never()).saveAllAndFlush(any());
+    assertEquals(1, results.size());
+    assertEquals(ErrorCode.REACHED_ACCOUNT_PER_USER_LIMIT, results.get(0).getErrorCode());
+  }
+}
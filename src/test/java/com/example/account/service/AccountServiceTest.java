@@ -1,10 +1,13 @@
 package com.example.account.service;
 
 import com.example.account.config.AccountConfig;
+import com.example.account.datasource.ShardRouter;
 import com.example.account.domain.Account;
+import com.example.account.domain.AccountSummary;
 import com.example.account.domain.AccountUser;
 import com.example.account.dto.AccountDto;
 import com.example.account.exception.AccountException;
+import com.example.account.journal.CommandJournal;
 import com.example.account.repository.AccountRepository;
 import com.example.account.repository.AccountUserRepository;
 import com.example.account.type.AccountStatus;
@@ -16,6 +19,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
@@ -27,6 +31,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -46,6 +51,30 @@ class AccountServiceTest {
   @Mock
   private AccountConfig accountConfig;
 
+  @Spy
+  private ShardRouter shardRouter = new ShardRouter(1);
+
+  @Mock
+  private StripedBalanceService stripedBalanceService;
+
+  @Mock
+  private StripedAccountRegistry stripedAccountRegistry;
+
+  @Mock
+  private RedisBalanceEngine redisBalanceEngine;
+
+  @Mock
+  private OutboxService outboxService;
+
+  @Mock
+  private AccountSummaryService accountSummaryService;
+
+  @Mock
+  private BalanceHistoryService balanceHistoryService;
+
+  @Mock
+  private CommandJournal commandJournal;
+
   @InjectMocks
   private AccountService accountService;
 
@@ -54,8 +83,8 @@ class AccountServiceTest {
     //given
     given(accountUserRepository.findById(anyLong()))
         .willReturn(Optional.of(accountUser));
-    given(accountRepository.countByAccountUserAndAccountStatus(any(), any()))
-        .willReturn(0);
+    given(accountUserRepository.incrementActiveAccountCount(anyLong(), anyInt()))
+        .willReturn(1);
     given(accountConfig.getAccountLimitPerUser())
         .willReturn(10);
     given(accountRepository.save(any()))
@@ -83,8 +112,8 @@ class AccountServiceTest {
     //given
     given(accountUserRepository.findById(anyLong()))
         .willReturn(Optional.of(accountUser));
-    given(accountRepository.countByAccountUserAndAccountStatus(any(), any()))
-        .willReturn(10);
+    given(accountUserRepository.incrementActiveAccountCount(anyLong(), anyInt()))
+        .willReturn(0);
     given(accountConfig.getAccountLimitPerUser())
         .willReturn(10);
 
@@ -139,6 +168,7 @@ class AccountServiceTest {
 
     //then
     verify(accountRepository, times(1)).save(captor.capture());
+    verify(accountUserRepository, times(1)).decrementActiveAccountCount(12L);
     assertEquals(account.getAccountUser().getId(), accountDto.getUserId());
     assertEquals(account.getBalance(), accountDto.getBalance());
     assertEquals(account.getAccountNumber(),accountDto.getAccountNumber());
@@ -228,27 +258,28 @@ class AccountServiceTest {
   @Test
   void successToGetAccountsWhenValidRequest() {
     //given
-    List<Account> accounts = Arrays.asList(
-        Account.builder()
-            .accountUser(accountUser)
+    List<AccountSummary> summaries = Arrays.asList(
+        AccountSummary.builder()
+            .userId(12L)
             .accountNumber("1111111111")
             .balance(1000L)
+            .accountStatus(AccountStatus.IN_USE)
             .build(),
-        Account.builder()
+        AccountSummary.builder()
+            .userId(12L)
             .accountNumber("2222222222")
-            .accountUser(accountUser)
             .balance(2000L)
+            .accountStatus(AccountStatus.IN_USE)
             .build(),
-        Account.builder()
+        AccountSummary.builder()
+            .userId(12L)
             .accountNumber("3333333333")
-            .accountUser(accountUser)
             .balance(3000L)
+            .accountStatus(AccountStatus.CLOSED)
             .build()
     );
-    given(accountUserRepository.findById(anyLong()))
-        .willReturn(Optional.of(accountUser));
-    given(accountRepository.findByAccountUser(any()))
-        .willReturn(accounts);
+    given(accountSummaryService.findByUserId(anyLong()))
+        .willReturn(summaries);
 
     //when
     List<AccountDto> accountDtos = accountService.getAccountsByUserId(1L);
@@ -261,6 +292,8 @@ class AccountServiceTest {
     assertEquals(2000, accountDtos.get(1).getBalance());
     assertEquals("3333333333", accountDtos.get(2).getAccountNumber());
     assertEquals(3000, accountDtos.get(2).getBalance());
+    assertEquals(AccountStatus.CLOSED, accountDtos.get(2).getAccountStatus());
+    verify(accountUserRepository, never()).findById(anyLong());
   }
 
   @Test
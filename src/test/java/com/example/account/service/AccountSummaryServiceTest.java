@@ -0,0 +1,95 @@
+package com.example.account.service;
+
+import com.example.account.datasource.ShardRouter;
+import com.example.account.datasource.ShardScatter;
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountSummary;
+import com.example.account.domain.AccountUser;
+import com.example.account.repository.AccountSummaryRepository;
+import com.example.account.type.AccountStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountSummaryServiceTest {
+
+  @Mock
+  private AccountSummaryRepository accountSummaryRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private AccountSummaryService accountSummaryService;
+
+  private final Account account = Account.builder()
+      .accountUser(AccountUser.builder().id(12L).build())
+      .accountNumber("1000000012")
+      .accountStatus(AccountStatus.IN_USE)
+      .balance(0L)
+      .build();
+
+  @BeforeEach
+  void setUp() {
+    ShardRouter shardRouter = new ShardRouter(1);
+    accountSummaryService = new AccountSummaryService(accountSummaryRepository, shardRouter,
+        new ShardScatter(shardRouter, null), transactionManager, 100, 60_000L);
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.clearSynchronization();
+  }
+
+  @Test
+  @DisplayName("조회 도중 해지가 commit 되어 항목이 지워지면 읽은 요약을 캐시에 넣지 않는다")
+  void skipCachingWhenEvictedDuringRead() {
+    //given
+    given(accountSummaryRepository.findByUserIdOrderByAccountNumber(12L))
+        .willAnswer(invocation -> {
+          // 읽은 뒤 해지가 commit 된다.
+          accountSummaryService.closed(account);
+          TransactionSynchronizationManager.getSynchronizations()
+              .forEach(TransactionSynchronization::afterCommit);
+          TransactionSynchronizationManager.clearSynchronization();
+          TransactionSynchronizationManager.initSynchronization();
+          return List.of(summary(AccountStatus.IN_USE));
+        })
+        .willReturn(List.of(summary(AccountStatus.CLOSED)));
+
+    //when
+    List<AccountSummary> stale = accountSummaryService.findByUserId(12L);
+    List<AccountSummary> fresh = accountSummaryService.findByUserId(12L);
+    List<AccountSummary> cached = accountSummaryService.findByUserId(12L);
+
+    //then
+    assertEquals(AccountStatus.IN_USE, stale.get(0).getAccountStatus());
+    assertEquals(AccountStatus.CLOSED, fresh.get(0).getAccountStatus());
+    assertEquals(AccountStatus.CLOSED, cached.get(0).getAccountStatus());
+    verify(accountSummaryRepository, times(2)).findByUserIdOrderByAccountNumber(12L);
+  }
+
+  private AccountSummary summary(AccountStatus accountStatus) {
+    return AccountSummary.builder()
+        .accountNumber("1000000012")
+        .userId(12L)
+        .balance(0L)
+        .accountStatus(accountStatus)
+        .build();
+  }
+}
@@ -0,0 +1,80 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountBusyException;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdmissionControlServiceTest {
+  private static final List<String> HOT = Collections.singletonList("1000000001");
+  private static final List<String> COLD = Collections.singletonList("1000000002");
+
+  // 최대 대기 1초, 최소 2개, 최대 8개, 시작 보유 시간 300ms (처리 중 4개까지 받음)
+  private final AdmissionControlService admissionControlService =
+      new AdmissionControlService(new SimpleMeterRegistry(), true, 1_000L, 2, 8, 300L);
+
+  @Test
+  @DisplayName("예상 대기가 최대 대기를 넘으면 거절하고 다른 계좌는 받음")
+  void rejectWhenExpectedWaitExceedsDeadline() {
+    //given
+    for (int i = 0; i < 4; i++) {
+      admissionControlService.admit(HOT);
+    }
+
+    //when
+    AccountBusyException exception = assertThrows(AccountBusyException.class,
+        () -> admissionControlService.admit(HOT));
+
+    //then
+    assertEquals(ErrorCode.ACCOUNT_TOO_BUSY, exception.getErrorCode());
+    // 처리 중 4개 * 300ms 가 1초 안으로 줄어들 때까지
+    assertEquals(500L, exception.getRetryAfterMillis());
+    assertDoesNotThrow(() -> admissionControlService.admit(COLD));
+  }
+
+  @Test
+  @DisplayName("lock 보유 시간이 짧아지면 받는 요청 수가 늘어남")
+  void queueDepthAdaptsToHoldTime() {
+    //given
+    for (int i = 0; i < 30; i++) {
+      admissionControlService.admit(HOT);
+      admissionControlService.release(HOT, TimeUnit.MILLISECONDS.toNanos(10L));
+    }
+
+    //when
+    //then
+    for (int i = 0; i < 8; i++) {
+      assertDoesNotThrow(() -> admissionControlService.admit(HOT));
+    }
+    assertThrows(AccountBusyException.class, () -> admissionControlService.admit(HOT));
+  }
+
+  @Test
+  @DisplayName("여러 계좌 중 하나라도 가득 차면 앞서 넣은 계좌도 되돌림")
+  void rollbackWhenOneAccountIsFull() {
+    //given
+    for (int i = 0; i < 4; i++) {
+      admissionControlService.admit(HOT);
+    }
+
+    //when
+    assertThrows(AccountBusyException.class, () ->
+        admissionControlService.admit(Arrays.asList("1000000002", "1000000001")));
+
+    //then
+    for (int i = 0; i < 4; i++) {
+      admissionControlService.admit(COLD);
+    }
+    assertThrows(AccountBusyException.class, () -> admissionControlService.admit(COLD));
+  }
+}
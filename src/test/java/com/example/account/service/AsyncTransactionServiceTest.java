@@ -0,0 +1,129 @@
+package com.example.account.service;
+
+import com.example.account.config.TransactionConfig;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.type.BalanceEngineType;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncTransactionServiceTest {
+
+  @Mock
+  private TransactionService transactionService;
+
+  @Mock
+  private LockService lockService;
+
+  @Mock
+  private AdmissionControlService admissionControlService;
+
+  @Mock
+  private StripedAccountRegistry stripedAccountRegistry;
+
+  @Mock
+  private TransactionConfig transactionConfig;
+
+  private AsyncTransactionService asyncTransactionService;
+
+  @BeforeEach
+  void setUp() {
+    // 승인 대기 없이
+    asyncTransactionService = new AsyncTransactionService(transactionService, lockService,
+        admissionControlService, stripedAccountRegistry, transactionConfig, 0L, 2, false);
+    given(transactionConfig.getEngine()).willReturn(BalanceEngineType.LOCK);
+  }
+
+  @AfterEach
+  void tearDown() {
+    asyncTransactionService.shutdown();
+  }
+
+  @Test
+  @DisplayName("비동기 lock 을 잡고 작업 스레드에서 사용한 뒤 같은 주인 id 로 푼다")
+  void useWithAsyncLock() {
+    //given
+    given(lockService.lockAsync(eq("1000000012"), anyLong()))
+        .willReturn(CompletableFuture.completedFuture(null));
+    given(transactionService.useTransaction(12L, "1000000012", 1000L))
+        .willReturn(TransactionDto.builder()
+            .accountNumber("1000000012")
+            .transactionId("transactionId")
+            .amount(1000L)
+            .build());
+
+    //when
+    TransactionDto transactionDto =
+        asyncTransactionService.use(12L, "1000000012", 1000L).join();
+
+    //then
+    assertEquals("transactionId", transactionDto.getTransactionId());
+    verify(admissionControlService).admit(List.of("1000000012"));
+    verify(lockService).unlockAsync(eq("1000000012"), anyLong());
+    verify(admissionControlService).release(eq(List.of("1000000012")), anyLong());
+  }
+
+  @Test
+  @DisplayName("lock 을 잡지 못하면 사용하지 않고 풀지도 않는다")
+  void useLockFailed() {
+    //given
+    given(lockService.lockAsync(eq("1000000012"), anyLong()))
+        .willReturn(CompletableFuture.failedFuture(
+            new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCKED)));
+
+    //when
+    CompletionException exception = assertThrows(CompletionException.class,
+        () -> asyncTransactionService.use(12L, "1000000012", 1000L).join());
+
+    //then
+    assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCKED,
+        ((AccountException) exception.getCause()).getErrorCode());
+    verify(transactionService, never()).useTransaction(anyLong(), anyString(), anyLong());
+    verify(transactionService, never()).saveFailedUseTransaction(anyString(), anyLong());
+    verify(lockService, never()).unlockAsync(anyString(), anyLong());
+    verify(admissionControlService).release(List.of("1000000012"), 0L);
+  }
+
+  @Test
+  @DisplayName("사용이 실패하면 lock 을 푼 뒤에 실패 거래를 남긴다")
+  void saveFailedUseAfterUnlock() {
+    //given
+    given(lockService.lockAsync(eq("1000000012"), anyLong()))
+        .willReturn(CompletableFuture.completedFuture(null));
+    given(transactionService.useTransaction(12L, "1000000012", 1000L))
+        .willThrow(new AccountException(ErrorCode.BALANCE_NOT_ENOUGH));
+
+    //when
+    CompletionException exception = assertThrows(CompletionException.class,
+        () -> asyncTransactionService.use(12L, "1000000012", 1000L).join());
+
+    //then
+    assertEquals(ErrorCode.BALANCE_NOT_ENOUGH,
+        ((AccountException) exception.getCause()).getErrorCode());
+    InOrder inOrder = inOrder(lockService, transactionService);
+    inOrder.verify(lockService).unlockAsync(eq("1000000012"), anyLong());
+    inOrder.verify(transactionService).saveFailedUseTransaction("1000000012", 1000L);
+  }
+}
@@ -0,0 +1,210 @@
+package com.example.account.service;
+
+import com.example.account.archive.TransactionArchive;
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.domain.BalanceCheckpoint;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.AccountStatement;
+import com.example.account.dto.HistoricalBalance;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.BalanceCheckpointRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceHistoryServiceTest {
+
+  private static final LocalDateTime OPENED_AT = LocalDateTime.of(2026, 8, 1, 9, 0);
+
+  private final Account account = Account.builder()
+      .accountUser(AccountUser.builder().id(12L).name("Pobi").build())
+      .accountStatus(AccountStatus.IN_USE)
+      .balance(10000L)
+      .accountNumber("1000000012")
+      .openedAt(OPENED_AT)
+      .build();
+
+  private final BalanceCheckpoint checkpoint = BalanceCheckpoint.builder()
+      .account(account)
+      .checkpointAt(LocalDateTime.of(2026, 9, 1, 0, 0))
+      .balance(1000L)
+      .build();
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private TransactionRepository transactionRepository;
+
+  @Mock
+  private BalanceCheckpointRepository balanceCheckpointRepository;
+
+  @Mock
+  private StripedBalanceService stripedBalanceService;
+
+  @Mock
+  private TransactionArchive transactionArchive;
+
+  @InjectMocks
+  private BalanceHistoryService balanceHistoryService;
+
+  @Test
+  @DisplayName("과거 잔액 - checkpoint 이후 거래만 더한다")
+  void balanceAtFromCheckpoint() {
+    //given
+    LocalDateTime at = LocalDateTime.of(2026, 9, 15, 12, 0);
+    given(accountRepository.findByAccountNumber(anyString()))
+        .willReturn(Optional.of(account));
+    given(balanceCheckpointRepository
+        .findFirstByAccountAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(account, at))
+        .willReturn(Optional.of(checkpoint));
+    given(transactionRepository.sumAmountByTransactionType(account,
+        TransactionResultType.SUCCEED, checkpoint.getCheckpointAt(), at))
+        .willReturn(Arrays.asList(
+            new Object[]{TransactionType.USE, 300L},
+            new Object[]{TransactionType.CANCEL, 100L}));
+
+    //when
+    HistoricalBalance historicalBalance =
+        balanceHistoryService.balanceAt("1000000012", at);
+
+    //then
+    assertEquals(800L, historicalBalance.getBalance());
+    assertEquals(at, historicalBalance.getAt());
+  }
+
+  @Test
+  @DisplayName("과거 잔액 - 개설 이전 시점은 0")
+  void balanceAtBeforeOpened() {
+    //given
+    given(accountRepository.findByAccountNumber(anyString()))
+        .willReturn(Optional.of(account));
+
+    //when
+    HistoricalBalance historicalBalance =
+        balanceHistoryService.balanceAt("1000000012", OPENED_AT.minusDays(1));
+
+    //then
+    assertEquals(0L, historicalBalance.getBalance());
+    verify(balanceCheckpointRepository, never())
+        .findFirstByAccountAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(any(), any());
+  }
+
+  @Test
+  @DisplayName("월별 명세서 - 기초 잔액에서 거래마다 잔액을 이어 계산한다")
+  void statementWithRunningBalance() {
+    //given
+    given(accountRepository.findByAccountNumber(anyString()))
+        .willReturn(Optional.of(account));
+    given(balanceCheckpointRepository
+        .findFirstByAccountAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(eq(account), any()))
+        .willReturn(Optional.empty());
+    given(stripedBalanceService.totalBalance(account))
+        .willReturn(10000L);
+    given(transactionRepository.sumAmountByTransactionType(eq(account),
+        eq(TransactionResultType.SUCCEED), any(), any()))
+        .willReturn(Collections.singletonList(new Object[]{TransactionType.USE, 500L}));
+    given(transactionRepository.findInPeriod(eq(account),
+        eq(TransactionResultType.SUCCEED), any(), any()))
+        .willReturn(Arrays.asList(
+            transaction("t1", TransactionType.USE, 300L, 10),
+            transaction("t2", TransactionType.CANCEL, 100L, 11)));
+
+    //when
+    AccountStatement statement =
+        balanceHistoryService.statement("1000000012", YearMonth.of(2026, 9));
+
+    //then
+    assertEquals(10500L, statement.getOpeningBalance());
+    assertEquals(2, statement.getLines().size());
+    assertEquals(10200L, statement.getLines().get(0).getBalanceAfter());
+    assertEquals(10300L, statement.getLines().get(1).getBalanceAfter());
+    assertEquals(10300L, statement.getClosingBalance());
+  }
+
+  @Test
+  @DisplayName("checkpoint - 이전 checkpoint 뒤로 거래가 있으면 남긴다")
+  void checkpointWhenTransactionsExist() {
+    //given
+    LocalDateTime at = LocalDateTime.of(2026, 9, 2, 0, 0);
+    given(accountRepository.findByAccountNumber(anyString()))
+        .willReturn(Optional.of(account));
+    given(balanceCheckpointRepository
+        .findFirstByAccountAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(account, at))
+        .willReturn(Optional.of(checkpoint));
+    given(transactionRepository.sumAmountByTransactionType(account,
+        TransactionResultType.SUCCEED, checkpoint.getCheckpointAt(), at))
+        .willReturn(Collections.singletonList(new Object[]{TransactionType.TRANSFER_IN, 250L}));
+    ArgumentCaptor<BalanceCheckpoint> captor = ArgumentCaptor.forClass(BalanceCheckpoint.class);
+
+    //when
+    boolean created = balanceHistoryService.checkpoint("1000000012", at);
+
+    //then
+    assertTrue(created);
+    verify(balanceCheckpointRepository, times(1)).save(captor.capture());
+    assertEquals(1250L, captor.getValue().getBalance());
+    assertEquals(at, captor.getValue().getCheckpointAt());
+  }
+
+  @Test
+  @DisplayName("checkpoint - 이전 checkpoint 뒤로 거래가 없으면 남기지 않는다")
+  void skipCheckpointWhenNoTransactions() {
+    //given
+    LocalDateTime at = LocalDateTime.of(2026, 9, 2, 0, 0);
+    given(accountRepository.findByAccountNumber(anyString()))
+        .willReturn(Optional.of(account));
+    given(balanceCheckpointRepository
+        .findFirstByAccountAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(account, at))
+        .willReturn(Optional.of(checkpoint));
+    given(transactionRepository.sumAmountByTransactionType(account,
+        TransactionResultType.SUCCEED, checkpoint.getCheckpointAt(), at))
+        .willReturn(Collections.emptyList());
+
+    //when
+    boolean created = balanceHistoryService.checkpoint("1000000012", at);
+
+    //then
+    assertFalse(created);
+    verify(balanceCheckpointRepository, never()).save(any());
+  }
+
+  private Transaction transaction(String transactionId, TransactionType transactionType,
+      Long amount, int day) {
+    return Transaction.builder()
+        .account(account)
+        .transactionType(transactionType)
+        .transactionResultType(TransactionResultType.SUCCEED)
+        .transactionId(transactionId)
+        .amount(amount)
+        .transactedAt(LocalDateTime.of(2026, 9, day, 10, 0))
+        .build();
+  }
+}
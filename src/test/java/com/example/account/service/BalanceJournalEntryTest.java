@@ -0,0 +1,51 @@
+package com.example.account.service;
+
+import com.example.account.type.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BalanceJournalEntryTest {
+
+  @Test
+  void parseEntryWrittenByScript() {
+    //given
+    String prefix = BalanceJournalEntry.prefix(
+        "transactionId", TransactionType.USE, "1000000012", 1000L, 1_650_000_000_000L);
+
+    //when
+    BalanceJournalEntry entry = BalanceJournalEntry.parse(prefix + "|9000");
+
+    //then
+    assertEquals("transactionId", entry.getTransactionId());
+    assertEquals(TransactionType.USE, entry.getTransactionType());
+    assertEquals("1000000012", entry.getAccountNumber());
+    assertEquals(1000L, entry.getAmount());
+    assertEquals(1_650_000_000_000L, entry.getTransactedAtMillis());
+    assertEquals(9000L, entry.getBalanceAfter());
+  }
+
+  @Test
+  void parsePendingTransactionWithoutBalance() {
+    //given
+    String prefix = BalanceJournalEntry.prefix(
+        "transactionId", TransactionType.CANCEL, "1000000012", 1000L, 1_650_000_000_000L);
+
+    //when
+    BalanceJournalEntry entry = BalanceJournalEntry.parse(prefix);
+
+    //then
+    assertEquals(TransactionType.CANCEL, entry.getTransactionType());
+    assertNull(entry.getBalanceAfter());
+  }
+
+  @Test
+  void rejectMalformedEntry() {
+    //when
+    //then
+    assertThrows(IllegalArgumentException.class,
+        () -> BalanceJournalEntry.parse("transactionId|USE"));
+  }
+}
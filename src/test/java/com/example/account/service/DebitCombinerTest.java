@@ -0,0 +1,186 @@
+package com.example.account.service;
+
+import com.example.account.config.TransactionConfig;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountBusyException;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class DebitCombinerTest {
+
+  @Mock
+  private TransactionService transactionService;
+
+  @Mock
+  private LockService lockService;
+
+  @Mock
+  private AdmissionControlService admissionControlService;
+
+  @Mock
+  private StripedAccountRegistry stripedAccountRegistry;
+
+  @Mock
+  private TransactionConfig transactionConfig;
+
+  private DebitCombiner debitCombiner;
+
+  @BeforeEach
+  void setUp() {
+    // 두 번째 요청이 들어오면 바로 처리하도록 묶음 크기 2, window 는 넉넉히
+    debitCombiner = new DebitCombiner(transactionService, lockService, admissionControlService,
+        stripedAccountRegistry, transactionConfig, new SimpleMeterRegistry(),
+        true, 5_000L, 2);
+  }
+
+  @Test
+  @DisplayName("동시에 온 두 요청을 lock 한 번, 트랜잭션 한 번으로 처리하고 건별 결과를 돌려줌")
+  void combineConcurrentUses() throws Exception {
+    //given
+    willAnswer(invocation -> {
+      List<CombinedUse> uses = invocation.getArgument(1);
+      uses.get(0).succeed(TransactionDto.builder().amount(uses.get(0).getAmount()).build());
+      uses.get(1).fail(new AccountException(ErrorCode.BALANCE_NOT_ENOUGH));
+      return null;
+    }).given(transactionService).useTransactions(eq("1000000012"), anyList());
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    //when
+    Future<TransactionDto> first = executor.submit(() ->
+        debitCombiner.use(12L, "1000000012", 100L));
+    Future<TransactionDto> second = executor.submit(() ->
+        debitCombiner.use(12L, "1000000012", 200L));
+
+    //then
+    ExecutionException failed = null;
+    TransactionDto succeeded = null;
+    for (Future<TransactionDto> result : List.of(first, second)) {
+      try {
+        succeeded = result.get();
+      } catch (ExecutionException e) {
+        failed = e;
+      }
+    }
+    executor.shutdown();
+    ArgumentCaptor<List<CombinedUse>> captor = ArgumentCaptor.forClass(List.class);
+    verify(transactionService, times(1)).useTransactions(eq("1000000012"), captor.capture());
+    verify(lockService, times(1)).lock("1000000012");
+    verify(lockService, times(1)).unlock("1000000012");
+    assertEquals(2, captor.getValue().size());
+    assertEquals(captor.getValue().get(0).getAmount(), succeeded.getAmount());
+    assertTrue(failed != null && failed.getCause() instanceof AccountException);
+    assertEquals(ErrorCode.BALANCE_NOT_ENOUGH,
+        ((AccountException) failed.getCause()).getErrorCode());
+  }
+
+  @Test
+  @DisplayName("lock 을 못 잡으면 묶음 전체가 같은 이유로 실패")
+  void failWholeBatchWhenLockFailed() {
+    //given
+    DebitCombiner single = new DebitCombiner(transactionService, lockService,
+        admissionControlService, stripedAccountRegistry, transactionConfig,
+        new SimpleMeterRegistry(), true, 0L, 1);
+    willAnswer(invocation -> {
+      throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCKED);
+    }).given(lockService).lock("1000000012");
+
+    //when
+    AccountException exception = assertThrows(AccountException.class,
+        () -> single.use(12L, "1000000012", 100L));
+
+    //then
+    assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCKED, exception.getErrorCode());
+    verify(lockService, times(0)).unlock("1000000012");
+  }
+
+  @Test
+  @DisplayName("처리 중 Error 가 나도 follower 가 기다리지 않고 같은 Error 로 실패")
+  void failFollowersWhenLeaderThrowsError() throws Exception {
+    //given
+    willThrow(new StackOverflowError("leader"))
+        .given(transactionService).useTransactions(eq("1000000012"), anyList());
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    //when
+    Future<TransactionDto> first = executor.submit(() ->
+        debitCombiner.use(12L, "1000000012", 100L));
+    Future<TransactionDto> second = executor.submit(() ->
+        debitCombiner.use(12L, "1000000012", 200L));
+
+    //then
+    for (Future<TransactionDto> result : List.of(first, second)) {
+      ExecutionException exception = assertThrows(ExecutionException.class,
+          () -> result.get(5, TimeUnit.SECONDS));
+      assertTrue(exception.getCause() instanceof StackOverflowError);
+    }
+    executor.shutdown();
+    verify(transactionService, times(1)).useTransactions(eq("1000000012"), anyList());
+    verify(lockService, times(1)).unlock("1000000012");
+  }
+
+  @Test
+  @DisplayName("분할 계좌도 요청 수 제한을 거치고, 거절되면 처리하지 않고 실패 거래도 남기지 않음")
+  void admitStripedAccountUse() {
+    //given
+    given(stripedAccountRegistry.isStriped("1000000012")).willReturn(true);
+    willThrow(new AccountBusyException(100L))
+        .given(admissionControlService).admit(List.of("1000000012"));
+
+    //when
+    AccountException exception = assertThrows(AccountException.class,
+        () -> debitCombiner.use(12L, "1000000012", 100L));
+
+    //then
+    assertEquals(ErrorCode.ACCOUNT_TOO_BUSY, exception.getErrorCode());
+    verify(transactionService, times(0)).useTransaction(12L, "1000000012", 100L);
+    verify(transactionService, times(0)).saveFailedUseTransaction("1000000012", 100L);
+    verify(admissionControlService, times(0)).release(anyList(), anyLong());
+  }
+
+  @Test
+  @DisplayName("분할 계좌 요청은 처리가 끝나면 실패해도 요청 수 제한에 반납하고 실패 거래를 남김")
+  void releaseStripedAccountUse() {
+    //given
+    given(stripedAccountRegistry.isStriped("1000000012")).willReturn(true);
+    given(transactionService.useTransaction(12L, "1000000012", 100L))
+        .willThrow(new AccountException(ErrorCode.BALANCE_NOT_ENOUGH));
+
+    //when
+    AccountException exception = assertThrows(AccountException.class,
+        () -> debitCombiner.use(12L, "1000000012", 100L));
+
+    //then
+    assertEquals(ErrorCode.BALANCE_NOT_ENOUGH, exception.getErrorCode());
+    verify(admissionControlService, times(1)).admit(List.of("1000000012"));
+    verify(admissionControlService, times(1)).release(eq(List.of("1000000012")), anyLong());
+    verify(transactionService, times(1)).saveFailedUseTransaction("1000000012", 100L);
+  }
+}
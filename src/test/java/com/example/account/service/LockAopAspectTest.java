@@ -1,7 +1,10 @@
 package com.example.account.service;
 
+import com.example.account.aop.AccountLock;
+import com.example.account.dto.TransferTransaction;
 import com.example.account.dto.UseTransaction;
 import com.example.account.exception.AccountException;
+import com.example.account.pipeline.CommandPipeline;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,6 +13,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
+
 import static com.example.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -22,6 +27,27 @@ class LockAopAspectTest {
   @Mock
   private LockService lockService;
 
+  @Mock
+  private StripedAccountRegistry stripedAccountRegistry;
+
+  @Mock
+  private RedisBalanceEngine redisBalanceEngine;
+
+  @Mock
+  private AdmissionControlService admissionControlService;
+
+  @Mock
+  private DebitCombiner debitCombiner;
+
+  @Mock
+  private PartitionedCommandEngine partitionedCommandEngine;
+
+  @Mock
+  private CommandPipeline commandPipeline;
+
+  @Mock
+  private AccountLock accountLock;
+
   @Mock
   private ProceedingJoinPoint proceedingJoinPoint;
 
@@ -39,7 +65,7 @@ class LockAopAspectTest {
         new UseTransaction.Request(123L, "1234", 1000L);
 
     //when
-    lockAopAspect.aroundMethod(proceedingJoinPoint, request);
+    lockAopAspect.aroundMethod(proceedingJoinPoint, accountLock, request);
 
     //then
     verify(lockService, times(1))
@@ -64,7 +90,7 @@ class LockAopAspectTest {
 
     //when
     assertThrows(AccountException.class, () ->
-        lockAopAspect.aroundMethod(proceedingJoinPoint, request));
+        lockAopAspect.aroundMethod(proceedingJoinPoint, accountLock, request));
 
     //then
     verify(lockService, times(1))
@@ -75,4 +101,27 @@ class LockAopAspectTest {
     assertEquals("54321", unLockArgumentCaptor.getValue());
   }
 
-}
\ No newline at end of file
+  @Test
+  void lockAccountsInCanonicalOrder() throws Throwable {
+    //given
+    ArgumentCaptor<String> lockArgumentCaptor =
+        ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<String> unLockArgumentCaptor =
+        ArgumentCaptor.forClass(String.class);
+    TransferTransaction.Request request =
+        new TransferTransaction.Request(123L, "2000000000", "1000000000", 1000L);
+
+    //when
+    lockAopAspect.aroundMethod(proceedingJoinPoint, accountLock, request);
+
+    //then
+    verify(lockService, times(2))
+        .lock(lockArgumentCaptor.capture());
+    verify(lockService, times(2))
+        .unlock(unLockArgumentCaptor.capture());
+    assertEquals(Arrays.asList("1000000000", "2000000000"),
+        lockArgumentCaptor.getAllValues());
+    assertEquals(Arrays.asList("2000000000", "1000000000"),
+        unLockArgumentCaptor.getAllValues());
+  }
+}
@@ -2,17 +2,25 @@ package com.example.account.service;
 
 import com.example.account.exception.AccountException;
 import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RFuture;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
 
 @ExtendWith(MockitoExtension.class)
 class LockServiceTest {
@@ -22,6 +30,9 @@ class LockServiceTest {
   @Mock
   private RLock rLock;
 
+  @Spy
+  private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
   @InjectMocks
   private LockService lockService;
 
@@ -36,6 +47,8 @@ class LockServiceTest {
     //when
     //then
     assertDoesNotThrow(()-> lockService.lock("123"));
+    assertEquals(1, meterRegistry.get("account.lock.wait")
+        .tag("outcome", "acquired").timer().count());
   }
 
   @Test
@@ -52,5 +65,68 @@ class LockServiceTest {
 
     //then
     assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCKED, exception.getErrorCode());
+    assertEquals(1, meterRegistry.get("account.lock.wait")
+        .tag("outcome", "timeout").timer().count());
+  }
+
+  @Test
+  void recordHoldTimeWhenUnlock() throws InterruptedException {
+    //given
+    given(redissonClient.getLock(anyString()))
+        .willReturn(rLock);
+    given(rLock.tryLock(anyLong(), anyLong(), any()))
+        .willReturn(true);
+
+    //when
+    lockService.lock("123");
+    lockService.unlock("123");
+
+    //then
+    assertEquals(1, meterRegistry.get("account.lock.hold")
+        .tag("outcome", "released").timer().count());
+  }
+
+  @Test
+  void recordHoldTimeWhenLeaseExpiredBeforeUnlock() throws InterruptedException {
+    //given
+    given(redissonClient.getLock(anyString()))
+        .willReturn(rLock);
+    given(rLock.tryLock(anyLong(), anyLong(), any()))
+        .willReturn(true);
+    willThrow(new IllegalMonitorStateException("lease expired"))
+        .given(rLock).unlock();
+
+    //when
+    lockService.lock("123");
+    assertThrows(IllegalMonitorStateException.class, () -> lockService.unlock("123"));
+
+    //then
+    assertEquals(1, meterRegistry.get("account.lock.hold").timer().count());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void recordAsyncHoldTimePerOwner() {
+    //given
+    RFuture<Boolean> locked = mock(RFuture.class);
+    given(locked.toCompletableFuture()).willReturn(CompletableFuture.completedFuture(true));
+    RFuture<Void> unlocked = mock(RFuture.class);
+    given(unlocked.toCompletableFuture()).willReturn(CompletableFuture.completedFuture(null));
+    given(redissonClient.getLock(anyString()))
+        .willReturn(rLock);
+    given(rLock.tryLockAsync(anyLong(), anyLong(), any(), anyLong()))
+        .willReturn(locked);
+    given(rLock.unlockAsync(anyLong()))
+        .willReturn(unlocked);
+
+    //when
+    // 같은 계좌를 두 주인이 차례로 잡았다 푼다 (앞 주인이 lease 만료로 풀린 경우 등).
+    lockService.lockAsync("123", -1L).join();
+    lockService.lockAsync("123", -2L).join();
+    lockService.unlockAsync("123", -1L).join();
+    lockService.unlockAsync("123", -2L).join();
+
+    //then
+    assertEquals(2, meterRegistry.get("account.lock.hold").timer().count());
   }
-}
\ No newline at end of file
+}
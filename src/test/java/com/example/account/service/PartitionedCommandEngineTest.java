@@ -0,0 +1,255 @@
+package com.example.account.service;
+
+import com.example.account.datasource.ShardRouter;
+import com.example.account.exception.AccountException;
+import com.example.account.type.BalanceEngineType;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+class PartitionedCommandEngineTest {
+  private static final String ACCOUNT_NUMBER = "1000000012";
+
+  private final RedissonClient redissonClient = mock(RedissonClient.class);
+  private final RScript script = mock(RScript.class);
+  private final CountingTransactionManager transactionManager = new CountingTransactionManager();
+  // lease 스크립트의 결과 (1 이면 lease 를 가짐)
+  private final AtomicLong leaseResult = new AtomicLong();
+  private PartitionedCommandEngine engine;
+
+  private PartitionedCommandEngine startEngine(long leaseResult) {
+    this.leaseResult.set(leaseResult);
+    given(redissonClient.getScript(any())).willReturn(script);
+    willAnswer(invocation -> this.leaseResult.get())
+        .given(script).eval(any(), anyString(), any(), anyList(), anyString(), anyString());
+    engine = new PartitionedCommandEngine(redissonClient, new SimpleMeterRegistry(),
+        new ShardRouter(1), transactionManager,
+        BalanceEngineType.PARTITIONED, "node-1", 4, 10_000, 10_000L, 1_000L);
+    engine.start();
+    return engine;
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    if (engine != null) {
+      engine.stop();
+    }
+  }
+
+  @Test
+  @DisplayName("같은 계좌의 명령은 여러 스레드에서 와도 한 스레드에서 하나씩 처리")
+  void executeSameAccountSerially() throws Exception {
+    //given
+    startEngine(1L);
+    int[] balance = {0};
+    Set<String> threads = new HashSet<>();
+    ExecutorService callers = Executors.newFixedThreadPool(4);
+
+    //when
+    List<Future<?>> calls = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      calls.add(callers.submit(() -> {
+        for (int j = 0; j < 1_000; j++) {
+          engine.execute(ACCOUNT_NUMBER, () -> {
+            // lock 없이 더해도 잃어버리지 않아야 한다.
+            balance[0]++;
+            threads.add(Thread.currentThread().getName());
+            return null;
+          });
+        }
+      }));
+    }
+    for (Future<?> call : calls) {
+      call.get();
+    }
+    callers.shutdown();
+
+    //then
+    assertEquals(4_000, balance[0]);
+    assertEquals(1, threads.size());
+  }
+
+  @Test
+  @DisplayName("다른 노드가 lease 를 가진 파티션의 명령은 거절")
+  void rejectWhenPartitionNotOwned() {
+    //given
+    startEngine(0L);
+
+    //when
+    AccountException exception = assertThrows(AccountException.class,
+        () -> engine.execute(ACCOUNT_NUMBER, () -> "done"));
+
+    //then
+    assertEquals(ErrorCode.PARTITION_NOT_OWNED, exception.getErrorCode());
+  }
+
+  @Test
+  @DisplayName("명령이 던진 예외는 호출한 스레드에 그대로 전달")
+  void propagateCommandException() {
+    //given
+    startEngine(1L);
+
+    //when
+    AccountException exception = assertThrows(AccountException.class,
+        () -> engine.execute(ACCOUNT_NUMBER, () -> {
+          throw new AccountException(ErrorCode.BALANCE_NOT_ENOUGH);
+        }));
+
+    //then
+    assertEquals(ErrorCode.BALANCE_NOT_ENOUGH, exception.getErrorCode());
+  }
+
+  @Test
+  @DisplayName("명령이 실패하면 rollback 뒤 파티션 스레드에서 실패 거래를 남김")
+  void recordFailureAfterRollback() {
+    //given
+    startEngine(1L);
+    AtomicReference<String> recordedOn = new AtomicReference<>();
+    AtomicInteger rollbacksWhenRecorded = new AtomicInteger(-1);
+
+    //when
+    AccountException exception = assertThrows(AccountException.class,
+        () -> engine.execute(ACCOUNT_NUMBER, () -> {
+          throw new AccountException(ErrorCode.BALANCE_NOT_ENOUGH);
+        }, () -> {
+          rollbacksWhenRecorded.set(transactionManager.rollbacks.get());
+          recordedOn.set(Thread.currentThread().getName());
+        }));
+
+    //then
+    assertEquals(ErrorCode.BALANCE_NOT_ENOUGH, exception.getErrorCode());
+    assertEquals(1, rollbacksWhenRecorded.get());
+    assertTrue(recordedOn.get().startsWith("account-partition-"));
+    assertEquals(0, transactionManager.commits.get());
+  }
+
+  @Test
+  @DisplayName("명령 중에 lease 를 잃으면 commit 하지 않고, 실패 거래도 남기지 않음")
+  void rollbackWhenLeaseLostBeforeCommit() {
+    //given
+    startEngine(1L);
+    AtomicInteger recorded = new AtomicInteger();
+
+    //when
+    AccountException exception = assertThrows(AccountException.class,
+        () -> engine.execute(ACCOUNT_NUMBER, () -> {
+          // 다른 노드가 lease 를 가져갔다.
+          leaseResult.set(0L);
+          engine.renewLeases();
+          return "done";
+        }, recorded::incrementAndGet));
+
+    //then
+    assertEquals(ErrorCode.PARTITION_NOT_OWNED, exception.getErrorCode());
+    assertEquals(0, transactionManager.commits.get());
+    assertEquals(1, transactionManager.rollbacks.get());
+    assertEquals(0, recorded.get());
+  }
+
+  @Test
+  @DisplayName("이미 시작한 명령을 기다리다 interrupt 되면 결과를 알 수 없다고 답함")
+  void answerResultUnknownWhenInterruptedWhileRunning() throws Exception {
+    //given
+    startEngine(1L);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicReference<AccountException> thrown = new AtomicReference<>();
+    Thread caller = new Thread(() -> {
+      try {
+        engine.execute(ACCOUNT_NUMBER, () -> {
+          started.countDown();
+          return awaitQuietly(release);
+        });
+      } catch (AccountException e) {
+        thrown.set(e);
+      }
+    });
+    caller.start();
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    //when
+    caller.interrupt();
+    caller.join(5_000L);
+    release.countDown();
+
+    //then
+    assertEquals(ErrorCode.TRANSACTION_RESULT_UNKNOWN, thrown.get().getErrorCode());
+  }
+
+  @Test
+  @DisplayName("명령 timeout 이 lease 의 1/10 보다 길면 시작하지 않음")
+  void rejectCommandTimeoutLongerThanLeaseMargin() {
+    //when
+    IllegalStateException exception = assertThrows(IllegalStateException.class,
+        () -> new PartitionedCommandEngine(redissonClient, new SimpleMeterRegistry(),
+            new ShardRouter(1), transactionManager,
+            BalanceEngineType.PARTITIONED, "node-1", 4, 10_000, 10_000L, 2_000L));
+
+    //then
+    assertTrue(exception.getMessage().contains("command-timeout-ms"));
+  }
+
+  private static String awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return "done";
+  }
+
+  // commit/rollback 횟수만 세는 트랜잭션 매니저
+  private static class CountingTransactionManager extends AbstractPlatformTransactionManager {
+    private final AtomicInteger commits = new AtomicInteger();
+    private final AtomicInteger rollbacks = new AtomicInteger();
+
+    @Override
+    protected Object doGetTransaction() {
+      return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+      commits.incrementAndGet();
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+      rollbacks.incrementAndGet();
+    }
+  }
+}
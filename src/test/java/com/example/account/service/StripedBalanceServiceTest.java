@@ -0,0 +1,167 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountStripe;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountStripeRepository;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class StripedBalanceServiceTest {
+
+  @Mock
+  private AccountStripeRepository accountStripeRepository;
+
+  @Mock
+  private LockService lockService;
+
+  @InjectMocks
+  private StripedBalanceService stripedBalanceService;
+
+  private final Account account = Account.builder()
+      .accountStatus(AccountStatus.IN_USE)
+      .accountNumber("1000000012")
+      .balance(0L)
+      .stripeCount(4)
+      .build();
+
+  @BeforeEach
+  void setUp() {
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.clearSynchronization();
+  }
+
+  @Test
+  @DisplayName("분할 계좌 출금 - stripe 하나에서 차감")
+  void debitFromSingleStripe() {
+    //given
+    given(lockService.tryLockStripe(anyString(), anyInt(), eq(0L)))
+        .willReturn(true);
+    given(accountStripeRepository.subBalance(any(), anyInt(), anyLong()))
+        .willReturn(1);
+
+    //when
+    stripedBalanceService.debit(account, 100L);
+
+    //then
+    verify(accountStripeRepository, times(1)).subBalance(any(), anyInt(), eq(100L));
+    verify(accountStripeRepository, never()).sumBalanceByAccount(any());
+    verify(lockService, never()).unlockStripe(anyString(), anyInt());
+    assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+  }
+
+  @Test
+  @DisplayName("분할 계좌 출금 - stripe 가 모두 부족하면 모아서 다시 나눔")
+  void gatherWhenNoStripeHasEnough() {
+    //given
+    given(lockService.tryLockStripe(anyString(), anyInt(), anyLong()))
+        .willReturn(true);
+    given(accountStripeRepository.subBalance(any(), anyInt(), anyLong()))
+        .willReturn(0);
+    given(accountStripeRepository.sumBalanceByAccount(any()))
+        .willReturn(1003L);
+    ArgumentCaptor<Long> captor = ArgumentCaptor.forClass(Long.class);
+
+    //when
+    stripedBalanceService.debit(account, 500L);
+
+    //then
+    verify(accountStripeRepository, times(4)).setBalance(any(), anyInt(), captor.capture());
+    assertEquals(List.of(126L, 126L, 126L, 125L), captor.getAllValues());
+  }
+
+  @Test
+  @DisplayName("분할 계좌 출금 실패 - 전체 잔액 부족")
+  void throwAccountExceptionWhenTotalBalanceNotEnough() {
+    //given
+    given(lockService.tryLockStripe(anyString(), anyInt(), anyLong()))
+        .willReturn(true);
+    given(accountStripeRepository.subBalance(any(), anyInt(), anyLong()))
+        .willReturn(0);
+    given(accountStripeRepository.sumBalanceByAccount(any()))
+        .willReturn(100L);
+
+    //when
+    AccountException exception = assertThrows(AccountException.class,
+        () -> stripedBalanceService.debit(account, 500L));
+
+    //then
+    assertEquals(ErrorCode.BALANCE_NOT_ENOUGH, exception.getErrorCode());
+    verify(accountStripeRepository, never()).setBalance(any(), anyInt(), anyLong());
+  }
+
+  @Test
+  @DisplayName("해지 확인용 잔액 합 - 모든 stripe 를 순서대로 잠근 뒤 합치고 lock 은 트랜잭션 끝에 푼다")
+  void lockAllStripesBeforeTotalBalance() {
+    //given
+    given(lockService.tryLockStripe(anyString(), anyInt(), anyLong()))
+        .willReturn(true);
+    given(accountStripeRepository.sumBalanceByAccount(any()))
+        .willReturn(0L);
+
+    //when
+    long balance = stripedBalanceService.lockedTotalBalance(account);
+
+    //then
+    assertEquals(0L, balance);
+    InOrder inOrder = inOrder(lockService, accountStripeRepository);
+    for (int stripeIndex = 0; stripeIndex < 4; stripeIndex++) {
+      inOrder.verify(lockService).tryLockStripe(eq("1000000012"), eq(stripeIndex), anyLong());
+    }
+    inOrder.verify(accountStripeRepository).sumBalanceByAccount(account);
+    verify(lockService, never()).unlockStripe(anyString(), anyInt());
+    assertEquals(4, TransactionSynchronizationManager.getSynchronizations().size());
+  }
+
+  @Test
+  void splitBalanceIntoStripes() {
+    //given
+    Account plain = Account.builder()
+        .accountNumber("1000000013")
+        .balance(10L)
+        .build();
+    ArgumentCaptor<List<AccountStripe>> captor = ArgumentCaptor.forClass(List.class);
+
+    //when
+    stripedBalanceService.split(plain, 3);
+
+    //then
+    verify(accountStripeRepository, times(1)).saveAll(captor.capture());
+    assertEquals(4L, captor.getValue().get(0).getBalance());
+    assertEquals(3L, captor.getValue().get(1).getBalance());
+    assertEquals(3L, captor.getValue().get(2).getBalance());
+    assertEquals(0L, plain.getBalance());
+    assertEquals(3, plain.getStripeCount());
+  }
+}
@@ -1,27 +1,39 @@
 package com.example.account.service;
 
+import com.example.account.archive.TransactionArchive;
 import com.example.account.config.TransactionConfig;
+import com.example.account.datasource.ShardRouter;
+import com.example.account.datasource.ShardScatter;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.domain.Transaction;
 import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransferDto;
+import com.example.account.event.BalanceEventHub;
 import com.example.account.exception.AccountException;
+import com.example.account.journal.CommandJournal;
 import com.example.account.repository.AccountRepository;
 import com.example.account.repository.AccountUserRepository;
 import com.example.account.repository.TransactionRepository;
 import com.example.account.type.AccountStatus;
 import com.example.account.type.ErrorCode;
+import com.example.account.type.OutboxEventType;
 import com.example.account.type.TransactionResultType;
 import com.example.account.type.TransactionType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -29,6 +41,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -59,6 +72,33 @@ class TransactionServiceTest {
   @Mock
   private TransactionConfig transactionConfig;
 
+  @Spy
+  private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Spy
+  private ShardRouter shardRouter = new ShardRouter(1);
+
+  @Spy
+  private ShardScatter shardScatter = new ShardScatter(shardRouter, null);
+
+  @Mock
+  private StripedBalanceService stripedBalanceService;
+
+  @Mock
+  private OutboxService outboxService;
+
+  @Mock
+  private AccountSummaryService accountSummaryService;
+
+  @Mock
+  private BalanceEventHub balanceEventHub;
+
+  @Mock
+  private TransactionArchive transactionArchive;
+
+  @Mock
+  private CommandJournal commandJournal;
+
   @InjectMocks
   private TransactionService transactionService;
 
@@ -90,6 +130,43 @@ class TransactionServiceTest {
     assertEquals(USE_AMOUNT, captor.getValue().getAmount());
     assertTrue(captor.getValue().getTransactedAt() != null);
     assertEquals(TransactionType.USE, captor.getValue().getTransactionType());
+    verify(outboxService, times(1))
+        .record(eq(account.getAccountNumber()), eq(OutboxEventType.TRANSACTION), any());
+  }
+
+  @Test
+  @DisplayName("묶어서 잔액 사용 - 잔액이 모자란 건만 실패하고 나머지는 순서대로 차감")
+  void useTransactionsAppliesEachInOrder() {
+    //given
+    Account combinedAccount = Account.builder()
+        .accountUser(accountUser)
+        .accountStatus(AccountStatus.IN_USE)
+        .balance(1000L)
+        .accountNumber("1000000012").build();
+    given(accountUserRepository.findById(12L))
+        .willReturn(Optional.of(accountUser));
+    given(accountRepository.findByAccountNumber("1000000012"))
+        .willReturn(Optional.of(combinedAccount));
+    given(transactionConfig.getAmountMinValue())
+        .willReturn(1);
+    given(transactionConfig.getAmountMaxValue())
+        .willReturn(1_000_000_000);
+    given(transactionRepository.save(any()))
+        .willAnswer(invocation -> invocation.getArgument(0));
+    List<CombinedUse> uses = Arrays.asList(
+        new CombinedUse(12L, 600L), new CombinedUse(12L, 600L), new CombinedUse(12L, 400L));
+
+    //when
+    transactionService.useTransactions("1000000012", uses);
+
+    //then
+    assertEquals(0L, combinedAccount.getBalance());
+    assertEquals(600L, uses.get(0).getTransaction().getAmount());
+    assertEquals(ErrorCode.BALANCE_NOT_ENOUGH, uses.get(1).getFailure().getErrorCode());
+    assertEquals(400L, uses.get(2).getTransaction().getAmount());
+    verify(accountUserRepository, times(1)).findById(12L);
+    verify(transactionRepository, times(3)).save(any());
+    verify(accountSummaryService, times(1)).balanceChanged(combinedAccount, -1000L);
   }
 
   @Test
@@ -359,4 +436,173 @@ class TransactionServiceTest {
     assertEquals(ErrorCode.TRANSACTION_NOT_FOUND, exception.getErrorCode());
   }
 
-}
\ No newline at end of file
+  @Test
+  @DisplayName("거래 조회 성공 - 아카이브로 옮겨진 거래")
+  void successInquiryArchivedTransaction() {
+    //given
+    given(transactionRepository.findByTransactionId(anyString()))
+        .willReturn(Optional.empty());
+    given(transactionArchive.find("archivedId"))
+        .willReturn(Optional.of(TransactionDto.builder()
+            .accountNumber("1000000012")
+            .transactionType(TransactionType.USE)
+            .transactionResultType(TransactionResultType.SUCCEED)
+            .transactionId("archivedId")
+            .amount(USE_AMOUNT)
+            .transactedAt(LocalDateTime.now().minusYears(1))
+            .build()));
+
+    //when
+    TransactionDto transactionDto = transactionService.inquiryTransaction("archivedId");
+
+    //then
+    assertEquals("archivedId", transactionDto.getTransactionId());
+    assertEquals("1000000012", transactionDto.getAccountNumber());
+    assertEquals(USE_AMOUNT, transactionDto.getAmount());
+  }
+
+  @Test
+  @DisplayName("계좌 이체 성공")
+  void successToTransferWhenValidRequest() {
+    //given
+    Account fromAccount = Account.builder()
+        .accountUser(accountUser)
+        .accountStatus(AccountStatus.IN_USE)
+        .balance(10000L)
+        .accountNumber("1000000012").build();
+    Account toAccount = Account.builder()
+        .accountUser(accountUser)
+        .accountStatus(AccountStatus.IN_USE)
+        .balance(500L)
+        .accountNumber("1000000013").build();
+    given(accountUserRepository.findById(anyLong()))
+        .willReturn(Optional.of(accountUser));
+    given(accountRepository.findByAccountNumber("1000000012"))
+        .willReturn(Optional.of(fromAccount));
+    given(accountRepository.findByAccountNumber("1000000013"))
+        .willReturn(Optional.of(toAccount));
+    given(transactionConfig.getAmountMinValue())
+        .willReturn(1);
+    given(transactionConfig.getAmountMaxValue())
+        .willReturn(1_000_000_000);
+    given(transactionRepository.save(any()))
+        .willAnswer(invocation -> invocation.getArgument(0));
+    ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+
+    //when
+    TransferDto transferDto = transactionService.transferTransaction(
+        12L, "1000000012", "1000000013", USE_AMOUNT);
+
+    //then
+    verify(transactionRepository, times(2)).save(captor.capture());
+    assertEquals(9800L, fromAccount.getBalance());
+    assertEquals(700L, toAccount.getBalance());
+    assertEquals(TransactionType.TRANSFER_OUT, captor.getAllValues().get(0).getTransactionType());
+    assertEquals(TransactionType.TRANSFER_IN, captor.getAllValues().get(1).getTransactionType());
+    assertEquals(captor.getAllValues().get(0).getTransactionId(),
+        transferDto.getWithdrawalTransactionId());
+    assertEquals(captor.getAllValues().get(1).getTransactionId(),
+        transferDto.getDepositTransactionId());
+    assertEquals(TransactionResultType.SUCCEED, transferDto.getTransactionResultType());
+  }
+
+  @Test
+  @DisplayName("이체 거래 취소 실패 - 출금, 입금 거래 모두 취소 불가")
+  void throwAccountExceptionWhenCancelTransferTransaction_TRANSFER_NOT_CANCELLABLE() {
+    //given
+    Account fromAccount = Account.builder()
+        .id(2L)
+        .accountUser(accountUser)
+        .accountStatus(AccountStatus.IN_USE)
+        .balance(10000L)
+        .accountNumber("1000000012").build();
+    Account toAccount = Account.builder()
+        .id(3L)
+        .accountUser(accountUser)
+        .accountStatus(AccountStatus.IN_USE)
+        .balance(500L)
+        .accountNumber("1000000013").build();
+    given(accountUserRepository.findById(anyLong()))
+        .willReturn(Optional.of(accountUser));
+    given(accountRepository.findByAccountNumber("1000000012"))
+        .willReturn(Optional.of(fromAccount));
+    given(accountRepository.findByAccountNumber("1000000013"))
+        .willReturn(Optional.of(toAccount));
+    given(transactionConfig.getAmountMinValue())
+        .willReturn(1);
+    given(transactionConfig.getAmountMaxValue())
+        .willReturn(1_000_000_000);
+    given(transactionRepository.save(any()))
+        .willAnswer(invocation -> invocation.getArgument(0));
+    ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+    transactionService.transferTransaction(12L, "1000000012", "1000000013", USE_AMOUNT);
+    verify(transactionRepository, times(2)).save(captor.capture());
+    Transaction withdrawal = captor.getAllValues().get(0);
+    Transaction deposit = captor.getAllValues().get(1);
+    given(transactionRepository.findByTransactionId(withdrawal.getTransactionId()))
+        .willReturn(Optional.of(withdrawal));
+    given(transactionRepository.findByTransactionId(deposit.getTransactionId()))
+        .willReturn(Optional.of(deposit));
+
+    //when
+    AccountException withdrawalException = assertThrows(AccountException.class,
+        () -> transactionService.cancelTransaction(
+            withdrawal.getTransactionId(), "1000000012", USE_AMOUNT));
+    AccountException depositException = assertThrows(AccountException.class,
+        () -> transactionService.cancelTransaction(
+            deposit.getTransactionId(), "1000000013", USE_AMOUNT));
+
+    //then
+    assertEquals(ErrorCode.TRANSFER_NOT_CANCELLABLE, withdrawalException.getErrorCode());
+    assertEquals(ErrorCode.TRANSFER_NOT_CANCELLABLE, depositException.getErrorCode());
+    assertEquals(9800L, fromAccount.getBalance());
+    assertEquals(700L, toAccount.getBalance());
+    verify(transactionRepository, times(2)).save(any());
+  }
+
+  @Test
+  @DisplayName("계좌 이체 실패 - 같은 계좌")
+  void throwAccountExceptionWhenTransfer_SAME_ACCOUNT_TRANSFER() {
+    //given
+    //when
+    AccountException exception = assertThrows(AccountException.class,
+        () -> transactionService.transferTransaction(
+            12L, "1000000012", "1000000012", USE_AMOUNT));
+
+    //then
+    assertEquals(ErrorCode.SAME_ACCOUNT_TRANSFER, exception.getErrorCode());
+  }
+
+  @Test
+  @DisplayName("계좌 이체 실패 - 잔액 부족")
+  void throwAccountExceptionWhenTransfer_BALANCE_NOT_ENOUGH() {
+    //given
+    Account fromAccount = Account.builder()
+        .accountUser(accountUser)
+        .accountStatus(AccountStatus.IN_USE)
+        .balance(100L)
+        .accountNumber("1000000012").build();
+    Account toAccount = Account.builder()
+        .accountUser(accountUser)
+        .accountStatus(AccountStatus.IN_USE)
+        .balance(500L)
+        .accountNumber("1000000013").build();
+    given(accountUserRepository.findById(anyLong()))
+        .willReturn(Optional.of(accountUser));
+    given(accountRepository.findByAccountNumber("1000000012"))
+        .willReturn(Optional.of(fromAccount));
+    given(accountRepository.findByAccountNumber("1000000013"))
+        .willReturn(Optional.of(toAccount));
+
+    //when
+    AccountException exception = assertThrows(AccountException.class,
+        () -> transactionService.transferTransaction(
+            12L, "1000000012", "1000000013", USE_AMOUNT));
+
+    //then
+    assertEquals(ErrorCode.BALANCE_NOT_ENOUGH, exception.getErrorCode());
+    assertEquals(100L, fromAccount.getBalance());
+    assertEquals(500L, toAccount.getBalance());
+    verify(transactionRepository, never()).save(any());
+  }
+}
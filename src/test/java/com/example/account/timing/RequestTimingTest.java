@@ -0,0 +1,48 @@
+package com.example.account.timing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestTimingTest {
+
+  @AfterEach
+  void tearDown() {
+    RequestTiming.end();
+  }
+
+  @Test
+  void collectStagesIntoServerTimingHeader() {
+    //given
+    RequestTiming timing = RequestTiming.begin("/transaction/use");
+
+    //when
+    try (StageTimer ignored = StageTimer.start("lock")) {
+      // lock 대기
+    }
+    timing.add("service", 2_500_000L);
+    timing.add("service", 500_000L);
+
+    //then
+    String header = timing.toServerTimingHeader();
+    assertTrue(header.startsWith("lock;dur="));
+    assertTrue(header.contains("service;dur=3.0"));
+    assertTrue(header.contains("total;dur="));
+    assertEquals(2, timing.getStages().size());
+  }
+
+  @Test
+  void ignoreStageOutsideOfRequest() {
+    //given
+    //when
+    try (StageTimer ignored = StageTimer.start("lock")) {
+      // 요청 밖에서의 호출
+    }
+
+    //then
+    assertNull(RequestTiming.current());
+  }
+}